@@ -69,6 +69,12 @@ public interface GPCalendar {
 
   public void addListener(GPCalendarListener listener);
 
+  /**
+   * @return a number which changes every time the listeners are notified about calendar changes. Caches of values
+   *   computed from the calendar may use it for validation.
+   */
+  int getVersion();
+
   public String getID();
   public String getName();
   public void setName(String name);
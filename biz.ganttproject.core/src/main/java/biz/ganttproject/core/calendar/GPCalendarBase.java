@@ -36,6 +36,7 @@ abstract class GPCalendarBase implements GPCalendarCalc {
   private final List<GPCalendarListener> myListeners = new ArrayList<>();
   private String myName;
   private String myId;
+  private int myVersion;
   
   @Override
   public String getID() {
@@ -109,7 +110,13 @@ abstract class GPCalendarBase implements GPCalendarCalc {
     myListeners.add(listener);
   }
 
+  @Override
+  public int getVersion() {
+    return myVersion;
+  }
+
   protected void fireCalendarChanged() {
+    myVersion++;
     for (GPCalendarListener l : myListeners) {
       try {
         l.onCalendarChange();
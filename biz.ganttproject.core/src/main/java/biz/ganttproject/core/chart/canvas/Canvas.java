@@ -77,7 +77,7 @@ public class Canvas {
 
     private Float myOpacity = null;
 
-    private final Map<String, String> attributes = new HashMap<>();
+    private Map<String, String> attributes;
 
     private LinkedHashSet<String> getStyles() {
       if (myStyles == null) {
@@ -91,7 +91,7 @@ public class Canvas {
     }
 
     public boolean hasStyle(String style) {
-      return getStyles().contains(style);
+      return myStyles != null && myStyles.contains(style);
     }
 
     public void setStyle(String styleName) {
@@ -143,6 +143,9 @@ public class Canvas {
     }
 
     public Map<String, String> getAttributes() {
+      if (attributes == null) {
+        attributes = new HashMap<>();
+      }
       return attributes;
     }
   }
@@ -156,7 +159,7 @@ public class Canvas {
     private final int[] myPointsX;
     private final int[] myPointsY;
 
-    private Polygon(int... points) {
+    Polygon(int... points) {
       myPointsX = new int[points.length / 2];
       myPointsY = new int[points.length / 2];
 
@@ -232,7 +235,7 @@ public class Canvas {
   public static class Rectangle extends Polygon {
     public Paint myPaint;
 
-    private Rectangle(int leftx, int topy, int width, int height) {
+    Rectangle(int leftx, int topy, int width, int height) {
       super(leftx, topy, leftx + width, topy + height);
     }
 
@@ -287,7 +290,7 @@ public class Canvas {
 
     private Arrow myArrow = Arrow.NONE;
 
-    private Line(int startx, int starty, int finishx, int finishy) {
+    Line(int startx, int starty, int finishx, int finishy) {
       myStartX = startx;
       myStartY = starty;
       myFinishX = finishx;
@@ -591,21 +594,13 @@ public class Canvas {
 
   public void paint(Painter painter) {
     painter.prePaint();
-    for (Rectangle next : myRectangles) {
-      if (next.isVisible()) {
-        painter.paint(next);
-      }
-    }
+    paintRectangles(painter);
     for (Rhombus r : myRhombusIndex.values()) {
       if (r.isVisible()) {
         painter.paint(r);
       }
     }
-    for (Line next : myLines) {
-      if (next.isVisible()) {
-        painter.paint(next);
-      }
-    }
+    paintLines(painter);
     for (Text next : myTexts) {
       if (next.isVisible()) {
         painter.paint(next);
@@ -616,6 +611,21 @@ public class Canvas {
     }
   }
 
+  protected void paintRectangles(Painter painter) {
+    for (Rectangle next : myRectangles) {
+      if (next.isVisible()) {
+        painter.paint(next);
+      }
+    }
+  }
+
+  protected void paintLines(Painter painter) {
+    for (Line next : myLines) {
+      if (next.isVisible()) {
+        painter.paint(next);
+      }
+    }
+  }
 
   public void clear() {
     myTextIndex.clear();
@@ -644,15 +654,7 @@ public class Canvas {
   }
 
   public Shape getPrimitive(int x, int xThreshold, int y, int yThreshold) {
-    Shape result = null;
-    for (Rectangle next : myRectangles) {
-      // System.err.println(" next rectangle="+next);
-      if (next.getLeftX() <= x + xThreshold && next.getRightX() >= x - xThreshold
-        && next.getTopY() <= y + yThreshold && next.getBottomY() >= y - yThreshold) {
-        result = next;
-        break;
-      }
-    }
+    Shape result = findRectangle(x, xThreshold, y, yThreshold);
     if (result != null) {
       return result;
     }
@@ -663,6 +665,24 @@ public class Canvas {
     return myTextIndex.get(x + myDeltaX, y + myDeltaY);
   }
 
+  protected Rectangle findRectangle(int x, int xThreshold, int y, int yThreshold) {
+    for (Rectangle next : myRectangles) {
+      if (next.getLeftX() <= x + xThreshold && next.getRightX() >= x - xThreshold
+        && next.getTopY() <= y + yThreshold && next.getBottomY() >= y - yThreshold) {
+        return next;
+      }
+    }
+    return null;
+  }
+
+  protected int getDeltaX() {
+    return myDeltaX;
+  }
+
+  protected int getDeltaY() {
+    return myDeltaY;
+  }
+
   public List<Canvas> getLayers() {
     return Collections.unmodifiableList(myLayers);
   }
@@ -675,11 +695,15 @@ public class Canvas {
   }
 
   public Canvas newLayer() {
-    Canvas result = new Canvas();
+    Canvas result = createLayer();
     myLayers.add(result);
     return result;
   }
 
+  protected Canvas createLayer() {
+    return new Canvas();
+  }
+
   public void createLayers(int count) {
     for (int i = 0; i < count; i++) {
       newLayer();
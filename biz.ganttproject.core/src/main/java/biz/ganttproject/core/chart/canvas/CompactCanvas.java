@@ -0,0 +1,582 @@
+/*
+Copyright 2026 BarD Software s.r.o, GanttProject Team
+
+This file is part of GanttProject, an opensource project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package biz.ganttproject.core.chart.canvas;
+
+import java.awt.Color;
+import java.awt.Paint;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Canvas which keeps rectangles and lines in primitive arrays rather than in one object per primitive.
+ *
+ * Coordinates are stored as ints, style names are interned into small ids, and rarely used properties, such as
+ * additional styles and attributes, are kept in sparse maps. Rectangles and lines returned from the factory methods
+ * are lightweight views which read and write the arrays, and painting reuses a single view per primitive type,
+ * so a chart with many rows does not allocate an object per bar and grid line.
+ *
+ * Texts, rhombi and text groups are stored the same way as in {@link Canvas}.
+ */
+public class CompactCanvas extends Canvas {
+  private static final int INITIAL_CAPACITY = 64;
+
+  private final StyleTable myStyleTable = new StyleTable();
+  private final ShapeStore myRectangles = new ShapeStore(myStyleTable);
+  private final ShapeStore myLines = new ShapeStore(myStyleTable);
+  private final Map<Object, Integer> myModelObject2rectangle = new HashMap<>();
+  private final Map<Object, Integer> myModelObject2line = new HashMap<>();
+
+  public CompactCanvas() {
+    super();
+  }
+
+  public CompactCanvas(int deltax, int deltay) {
+    super(deltax, deltay);
+  }
+
+  @Override
+  public Rectangle createRectangle(int leftx, int topy, int width, int height) {
+    if (width < 0) {
+      width = -width;
+      leftx = leftx - width;
+    }
+    int idx = myRectangles.add(leftx + getDeltaX(), topy + getDeltaY(), width, height);
+    return new RectangleView(idx);
+  }
+
+  @Override
+  public Line createLine(int startx, int starty, int finishx, int finishy) {
+    int idx = myLines.add(startx + getDeltaX(), starty + getDeltaY(), finishx + getDeltaX(), finishy + getDeltaY());
+    myLines.myExtras[idx] = Arrow.NONE;
+    return new LineView(idx);
+  }
+
+  public int getRectangleCount() {
+    return myRectangles.mySize;
+  }
+
+  public int getLineCount() {
+    return myLines.mySize;
+  }
+
+  @Override
+  protected void paintRectangles(Painter painter) {
+    RectangleView flyweight = new RectangleView(0);
+    for (int i = 0; i < myRectangles.mySize; i++) {
+      if (myRectangles.isVisible(i)) {
+        flyweight.myIndex = i;
+        painter.paint(flyweight);
+      }
+    }
+  }
+
+  @Override
+  protected void paintLines(Painter painter) {
+    LineView flyweight = new LineView(0);
+    for (int i = 0; i < myLines.mySize; i++) {
+      if (myLines.isVisible(i)) {
+        flyweight.myIndex = i;
+        painter.paint(flyweight);
+      }
+    }
+  }
+
+  @Override
+  protected Rectangle findRectangle(int x, int xThreshold, int y, int yThreshold) {
+    int[] coords = myRectangles.myCoords;
+    for (int i = 0; i < myRectangles.mySize; i++) {
+      int left = coords[i * 4];
+      int top = coords[i * 4 + 1];
+      if (left <= x + xThreshold && left + coords[i * 4 + 2] >= x - xThreshold
+          && top <= y + yThreshold && top + coords[i * 4 + 3] >= y - yThreshold) {
+        return new RectangleView(i);
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void clear() {
+    myRectangles.clear();
+    myLines.clear();
+    myModelObject2rectangle.clear();
+    myModelObject2line.clear();
+    super.clear();
+  }
+
+  @Override
+  public void bind(Shape primitive, Object modelObject) {
+    if (primitive instanceof RectangleView view && view.getOwner() == this) {
+      myModelObject2rectangle.put(modelObject, view.myIndex);
+      view.setModelObject(modelObject);
+    } else if (primitive instanceof LineView view && view.getOwner() == this) {
+      myModelObject2line.put(modelObject, view.myIndex);
+      view.setModelObject(modelObject);
+    } else {
+      super.bind(primitive, modelObject);
+    }
+  }
+
+  @Override
+  public Shape getPrimitive(Object modelObject) {
+    Integer idx = myModelObject2rectangle.get(modelObject);
+    if (idx != null) {
+      return new RectangleView(idx);
+    }
+    idx = myModelObject2line.get(modelObject);
+    if (idx != null) {
+      return new LineView(idx);
+    }
+    return super.getPrimitive(modelObject);
+  }
+
+  @Override
+  protected Canvas createLayer() {
+    return new CompactCanvas();
+  }
+
+  /**
+   * Interns style names, so that every primitive stores a small int instead of a reference.
+   */
+  private static class StyleTable {
+    private final Map<String, Integer> myIds = new HashMap<>();
+    private String[] myNames = new String[16];
+
+    int getId(String name) {
+      if (name == null) {
+        return -1;
+      }
+      Integer id = myIds.get(name);
+      if (id == null) {
+        id = myIds.size();
+        if (id == myNames.length) {
+          myNames = Arrays.copyOf(myNames, id * 2);
+        }
+        myNames[id] = name;
+        myIds.put(name, id);
+      }
+      return id;
+    }
+
+    String getName(int id) {
+      return id < 0 ? null : myNames[id];
+    }
+  }
+
+  /**
+   * Properties of primitives of one type, stored column by column. Every primitive has four int coordinates;
+   * their meaning depends on the primitive type.
+   */
+  private static class ShapeStore {
+    private final StyleTable myStyleTable;
+    private int mySize;
+    private int[] myCoords = new int[INITIAL_CAPACITY * 4];
+    private int[] myStyleIds = new int[INITIAL_CAPACITY];
+    private Color[] myBackgroundColors = new Color[INITIAL_CAPACITY];
+    private Color[] myForegroundColors = new Color[INITIAL_CAPACITY];
+    private Object[] myModelObjects = new Object[INITIAL_CAPACITY];
+    // Background paint for rectangles and arrow for lines
+    private Object[] myExtras = new Object[INITIAL_CAPACITY];
+    // NaN stands for no opacity
+    private float[] myOpacities = new float[INITIAL_CAPACITY];
+    private final BitSet myHidden = new BitSet();
+    private final Map<Integer, LinkedHashSet<String>> myStyles = new HashMap<>();
+    private final Map<Integer, Map<String, String>> myAttributes = new HashMap<>();
+
+    ShapeStore(StyleTable styleTable) {
+      myStyleTable = styleTable;
+    }
+
+    int add(int c0, int c1, int c2, int c3) {
+      if (mySize == myStyleIds.length) {
+        int capacity = mySize * 2;
+        myCoords = Arrays.copyOf(myCoords, capacity * 4);
+        myStyleIds = Arrays.copyOf(myStyleIds, capacity);
+        myBackgroundColors = Arrays.copyOf(myBackgroundColors, capacity);
+        myForegroundColors = Arrays.copyOf(myForegroundColors, capacity);
+        myModelObjects = Arrays.copyOf(myModelObjects, capacity);
+        myExtras = Arrays.copyOf(myExtras, capacity);
+        myOpacities = Arrays.copyOf(myOpacities, capacity);
+      }
+      int idx = mySize++;
+      myCoords[idx * 4] = c0;
+      myCoords[idx * 4 + 1] = c1;
+      myCoords[idx * 4 + 2] = c2;
+      myCoords[idx * 4 + 3] = c3;
+      myStyleIds[idx] = -1;
+      myOpacities[idx] = Float.NaN;
+      return idx;
+    }
+
+    void clear() {
+      Arrays.fill(myBackgroundColors, 0, mySize, null);
+      Arrays.fill(myForegroundColors, 0, mySize, null);
+      Arrays.fill(myModelObjects, 0, mySize, null);
+      Arrays.fill(myExtras, 0, mySize, null);
+      myHidden.clear();
+      myStyles.clear();
+      myAttributes.clear();
+      mySize = 0;
+    }
+
+    int getCoord(int idx, int coord) {
+      return myCoords[idx * 4 + coord];
+    }
+
+    String getStyle(int idx) {
+      return myStyleTable.getName(myStyleIds[idx]);
+    }
+
+    void setStyle(int idx, String style) {
+      myStyleIds[idx] = myStyleTable.getId(style);
+    }
+
+    void addStyle(int idx, String style) {
+      myStyles.computeIfAbsent(idx, i -> new LinkedHashSet<>()).add(style);
+    }
+
+    boolean hasStyle(int idx, String style) {
+      LinkedHashSet<String> styles = myStyles.get(idx);
+      return styles != null && styles.contains(style);
+    }
+
+    boolean isVisible(int idx) {
+      return !myHidden.get(idx);
+    }
+
+    void setVisible(int idx, boolean visible) {
+      myHidden.set(idx, !visible);
+    }
+
+    Float getOpacity(int idx) {
+      float opacity = myOpacities[idx];
+      return Float.isNaN(opacity) ? null : opacity;
+    }
+
+    Map<String, String> getAttributes(int idx) {
+      return new AttributeView(this, idx);
+    }
+  }
+
+  /**
+   * Attribute map of a single primitive which allocates storage only when something is put into it.
+   */
+  private static class AttributeView extends AbstractMap<String, String> {
+    private final ShapeStore myStore;
+    private final int myIndex;
+
+    AttributeView(ShapeStore store, int idx) {
+      myStore = store;
+      myIndex = idx;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+      Map<String, String> attributes = myStore.myAttributes.get(myIndex);
+      return attributes == null ? Collections.emptySet() : attributes.entrySet();
+    }
+
+    @Override
+    public String put(String key, String value) {
+      return myStore.myAttributes.computeIfAbsent(myIndex, i -> new HashMap<>()).put(key, value);
+    }
+  }
+
+  private class RectangleView extends Rectangle {
+    private int myIndex;
+
+    RectangleView(int idx) {
+      super(0, 0, 0, 0);
+      myIndex = idx;
+    }
+
+    private CompactCanvas getOwner() {
+      return CompactCanvas.this;
+    }
+
+    @Override
+    public void addStyle(String style) {
+      myRectangles.addStyle(myIndex, style);
+    }
+
+    @Override
+    public boolean hasStyle(String style) {
+      return myRectangles.hasStyle(myIndex, style);
+    }
+
+    @Override
+    public void setStyle(String styleName) {
+      myRectangles.setStyle(myIndex, styleName);
+    }
+
+    @Override
+    public String getStyle() {
+      return myRectangles.getStyle(myIndex);
+    }
+
+    @Override
+    public Color getBackgroundColor() {
+      return myRectangles.myBackgroundColors[myIndex];
+    }
+
+    @Override
+    public void setBackgroundColor(Color color) {
+      myRectangles.myBackgroundColors[myIndex] = color;
+    }
+
+    @Override
+    public Color getForegroundColor() {
+      return myRectangles.myForegroundColors[myIndex];
+    }
+
+    @Override
+    public void setForegroundColor(Color color) {
+      myRectangles.myForegroundColors[myIndex] = color;
+    }
+
+    @Override
+    public Object getModelObject() {
+      return myRectangles.myModelObjects[myIndex];
+    }
+
+    @Override
+    public void setModelObject(Object modelObject) {
+      myRectangles.myModelObjects[myIndex] = modelObject;
+    }
+
+    @Override
+    public boolean isVisible() {
+      return myRectangles.isVisible(myIndex);
+    }
+
+    @Override
+    public void setVisible(boolean visible) {
+      myRectangles.setVisible(myIndex, visible);
+    }
+
+    @Override
+    public Float getOpacity() {
+      return myRectangles.getOpacity(myIndex);
+    }
+
+    @Override
+    public void setOpacity(float opacity) {
+      myRectangles.myOpacities[myIndex] = opacity;
+    }
+
+    @Override
+    public Map<String, String> getAttributes() {
+      return myRectangles.getAttributes(myIndex);
+    }
+
+    @Override
+    public Paint getBackgroundPaint() {
+      return (Paint) myRectangles.myExtras[myIndex];
+    }
+
+    @Override
+    public void setBackgroundPaint(Paint paint) {
+      myRectangles.myExtras[myIndex] = paint;
+    }
+
+    @Override
+    public int[] getPointsX() {
+      return new int[] {getLeftX(), getRightX()};
+    }
+
+    @Override
+    public int[] getPointsY() {
+      return new int[] {getTopY(), getBottomY()};
+    }
+
+    @Override
+    public int getPointCount() {
+      return 2;
+    }
+
+    @Override
+    public int getLeftX() {
+      return myRectangles.getCoord(myIndex, 0);
+    }
+
+    @Override
+    public int getTopY() {
+      return myRectangles.getCoord(myIndex, 1);
+    }
+
+    @Override
+    public int getRightX() {
+      return getLeftX() + getWidth();
+    }
+
+    @Override
+    public int getBottomY() {
+      return getTopY() + getHeight();
+    }
+
+    @Override
+    public int getWidth() {
+      return myRectangles.getCoord(myIndex, 2);
+    }
+
+    @Override
+    public int getHeight() {
+      return myRectangles.getCoord(myIndex, 3);
+    }
+
+    @Override
+    public int getMiddleX() {
+      return getLeftX() + getWidth() / 2;
+    }
+
+    @Override
+    public int getMiddleY() {
+      return getTopY() + getHeight() / 2;
+    }
+
+    @Override
+    public String toString() {
+      return "Polygon[" + getLeftX() + "," + getTopY() + ",w=" + getWidth() + ",h=" + getHeight() + ",style=" + getStyle() + "]";
+    }
+  }
+
+  private class LineView extends Line {
+    private int myIndex;
+
+    LineView(int idx) {
+      super(0, 0, 0, 0);
+      myIndex = idx;
+    }
+
+    private CompactCanvas getOwner() {
+      return CompactCanvas.this;
+    }
+
+    @Override
+    public void addStyle(String style) {
+      myLines.addStyle(myIndex, style);
+    }
+
+    @Override
+    public boolean hasStyle(String style) {
+      return myLines.hasStyle(myIndex, style);
+    }
+
+    @Override
+    public void setStyle(String styleName) {
+      myLines.setStyle(myIndex, styleName);
+    }
+
+    @Override
+    public String getStyle() {
+      return myLines.getStyle(myIndex);
+    }
+
+    @Override
+    public Color getBackgroundColor() {
+      return myLines.myBackgroundColors[myIndex];
+    }
+
+    @Override
+    public void setBackgroundColor(Color color) {
+      myLines.myBackgroundColors[myIndex] = color;
+    }
+
+    @Override
+    public Color getForegroundColor() {
+      return myLines.myForegroundColors[myIndex];
+    }
+
+    @Override
+    public void setForegroundColor(Color color) {
+      myLines.myForegroundColors[myIndex] = color;
+    }
+
+    @Override
+    public Object getModelObject() {
+      return myLines.myModelObjects[myIndex];
+    }
+
+    @Override
+    public void setModelObject(Object modelObject) {
+      myLines.myModelObjects[myIndex] = modelObject;
+    }
+
+    @Override
+    public boolean isVisible() {
+      return myLines.isVisible(myIndex);
+    }
+
+    @Override
+    public void setVisible(boolean visible) {
+      myLines.setVisible(myIndex, visible);
+    }
+
+    @Override
+    public Float getOpacity() {
+      return myLines.getOpacity(myIndex);
+    }
+
+    @Override
+    public void setOpacity(float opacity) {
+      myLines.myOpacities[myIndex] = opacity;
+    }
+
+    @Override
+    public Map<String, String> getAttributes() {
+      return myLines.getAttributes(myIndex);
+    }
+
+    @Override
+    public int getStartX() {
+      return myLines.getCoord(myIndex, 0);
+    }
+
+    @Override
+    public int getStartY() {
+      return myLines.getCoord(myIndex, 1);
+    }
+
+    @Override
+    public int getFinishX() {
+      return myLines.getCoord(myIndex, 2);
+    }
+
+    @Override
+    public int getFinishY() {
+      return myLines.getCoord(myIndex, 3);
+    }
+
+    @Override
+    public void setArrow(Arrow arrow) {
+      myLines.myExtras[myIndex] = arrow;
+    }
+
+    @Override
+    public Arrow getArrow() {
+      return (Arrow) myLines.myExtras[myIndex];
+    }
+  }
+}
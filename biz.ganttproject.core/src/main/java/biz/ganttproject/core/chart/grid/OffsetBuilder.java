@@ -42,6 +42,7 @@ public interface OffsetBuilder {
     protected int myRightMarginTimeUnits;
     protected Date myViewportStartDate;
     protected Function<TimeUnit, Float> myOffsetStepFn;
+    protected OffsetStrip.Cache myOffsetStrips;
     
     protected Factory() {
     }
@@ -101,6 +102,15 @@ public interface OffsetBuilder {
       return this;
     }
     
+    /**
+     * Offsets will be built from the precomputed frames kept in the given strip cache rather than from
+     * the calendar directly.
+     */
+    public Factory withOffsetStrips(OffsetStrip.Cache offsetStrips) {
+      myOffsetStrips = offsetStrips;
+      return this;
+    }
+
     protected void preBuild() {
       myBaseUnit = TimeUnitStack.Util.findCommonUnit(myBottomUnit, myTopUnit);
       if (myOffsetStepFn == null) {
@@ -44,6 +44,7 @@ public class OffsetBuilderImpl implements OffsetBuilder {
   private final int myRightMarginBottomUnitCount;
   private final Date myViewportStartDate;
   private final Function<TimeUnit, Float> myOffsetStepFn;
+  private final OffsetStrip.Cache myOffsetStrips;
 
 //  protected RegularFrameOffsetBuilder(GPCalendar calendar, TimeUnit topUnit, TimeUnit bottomUnit, Date startDate,
 //      Date viewportStartDate, int defaultUnitWidth, int chartWidth, float weekendDecreaseFactor, Date endDate,
@@ -61,6 +62,7 @@ public class OffsetBuilderImpl implements OffsetBuilder {
     baseUnit = factory.myBaseUnit;
     myRightMarginBottomUnitCount = factory.myRightMarginTimeUnits;
     myOffsetStepFn = factory.myOffsetStepFn;
+    myOffsetStrips = factory.myOffsetStrips;
   }
 
   private TimeUnit getBottomUnit() {
@@ -117,10 +119,22 @@ public class OffsetBuilderImpl implements OffsetBuilder {
     int shift = 0;
     OffsetStep step = new OffsetStep();
     int prevEnd = initialEnd;
+    OffsetStrip strip = myOffsetStrips == null ? null : myOffsetStrips.get(getBottomUnit(), getCalendar());
+    int stripIdx = strip == null ? -1 : strip.seek(myStartDate);
     do {
-      TimeUnit concreteTimeUnit = getConcreteUnit(getBottomUnit(), currentDate);
-      calculateNextStep(step, concreteTimeUnit, currentDate);
-      Date endDate = concreteTimeUnit.adjustRight(currentDate);
+      TimeUnit concreteTimeUnit;
+      Date endDate;
+      if (stripIdx >= 0) {
+        strip.ensureFrame(stripIdx);
+        concreteTimeUnit = strip.getFrameUnit(stripIdx);
+        calculateNextStep(step, concreteTimeUnit, strip.getDayMask(stripIdx));
+        endDate = strip.getFrameEnd(stripIdx);
+        stripIdx++;
+      } else {
+        concreteTimeUnit = getConcreteUnit(getBottomUnit(), currentDate);
+        calculateNextStep(step, concreteTimeUnit, currentDate);
+        endDate = concreteTimeUnit.adjustRight(currentDate);
+      }
       if (endDate.compareTo(myViewportStartDate) <= 0) {
         shift = (int) (step.parrots * getDefaultUnitWidth());
       }
@@ -177,8 +191,12 @@ public class OffsetBuilderImpl implements OffsetBuilder {
   }
 
   protected void calculateNextStep(OffsetStep step, TimeUnit timeUnit, Date startDate) {
+    calculateNextStep(step, timeUnit, getCalendar().getDayMask(startDate));
+  }
+
+  protected void calculateNextStep(OffsetStep step, TimeUnit timeUnit, int dayMask) {
     float offsetStep = getOffsetStep(timeUnit);
-    step.dayMask = getCalendar().getDayMask(startDate);
+    step.dayMask = dayMask;
     if ((step.dayMask & DayMask.WORKING) == 0) {
       offsetStep = offsetStep / myWeekendDecreaseFactor;
     }
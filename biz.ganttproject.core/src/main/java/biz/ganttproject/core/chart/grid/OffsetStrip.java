@@ -0,0 +1,241 @@
+/*
+Copyright 2026 BarD Software s.r.o, GanttProject Team
+
+This file is part of GanttProject, an opensource project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package biz.ganttproject.core.chart.grid;
+
+import biz.ganttproject.core.calendar.GPCalendar;
+import biz.ganttproject.core.time.TimeUnit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A precomputed strip of consecutive time unit frames with their day masks. Offset builders read frames from
+ * the strip instead of walking the calendar, so building offsets for a new viewport start date or a new unit width
+ * does not call the calendar as long as the frames are already in the strip.
+ *
+ * A strip is valid for one time unit and one calendar version. It grows to the right on demand, and to the left
+ * when a viewport starts before its first frame.
+ */
+public class OffsetStrip {
+  private static final int INITIAL_CAPACITY = 256;
+  private static final int GROW_STEP = 64;
+  private static final int LEFT_MARGIN_UNITS = 32;
+  static final int MAX_SIZE = 1 << 16;
+
+  private final TimeUnit myUnit;
+  private final GPCalendar myCalendar;
+  private final int myCalendarVersion;
+
+  // Frame i starts at myBoundaries[i] and ends at myBoundaries[i + 1]
+  private long[] myBoundaries = new long[INITIAL_CAPACITY + 1];
+  private Date[] myDates = new Date[INITIAL_CAPACITY + 1];
+  private TimeUnit[] myUnits = new TimeUnit[INITIAL_CAPACITY];
+  private int[] myDayMasks = new int[INITIAL_CAPACITY];
+  private int mySize;
+
+  OffsetStrip(TimeUnit unit, GPCalendar calendar) {
+    myUnit = unit;
+    myCalendar = calendar;
+    myCalendarVersion = calendar.getVersion();
+  }
+
+  boolean isValidFor(TimeUnit unit, GPCalendar calendar) {
+    return myUnit == unit && myCalendar == calendar && calendar.getVersion() == myCalendarVersion;
+  }
+
+  public int size() {
+    return mySize;
+  }
+
+  public Date getFrameStart(int idx) {
+    return myDates[idx];
+  }
+
+  public Date getFrameEnd(int idx) {
+    return myDates[idx + 1];
+  }
+
+  public TimeUnit getFrameUnit(int idx) {
+    return myUnits[idx];
+  }
+
+  public int getDayMask(int idx) {
+    return myDayMasks[idx];
+  }
+
+  /**
+   * Makes sure that the strip contains a frame which starts at the given date and returns its index.
+   *
+   * @return frame index or -1 if the date is not a frame boundary of this strip
+   */
+  int seek(Date start) {
+    long startMs = start.getTime();
+    if (mySize == 0 || mySize > MAX_SIZE) {
+      reset(start);
+    } else if (startMs < myBoundaries[0]) {
+      prepend(start);
+    } else {
+      while (startMs >= myBoundaries[mySize]) {
+        if (mySize > MAX_SIZE) {
+          reset(start);
+          break;
+        }
+        grow();
+      }
+    }
+    int idx = Arrays.binarySearch(myBoundaries, 0, mySize, startMs);
+    return idx >= 0 ? idx : -1;
+  }
+
+  /**
+   * Makes sure that the frame with the given index is computed.
+   */
+  void ensureFrame(int idx) {
+    while (idx >= mySize) {
+      grow();
+    }
+  }
+
+  /**
+   * Binary searches for the frame which contains the given date.
+   *
+   * @return frame index, or -(insertion point) - 1 if the date is out of the computed frames
+   */
+  public int lookupFrame(Date date) {
+    long ms = date.getTime();
+    if (mySize == 0 || ms < myBoundaries[0]) {
+      return -1;
+    }
+    if (ms >= myBoundaries[mySize]) {
+      return -mySize - 1;
+    }
+    int idx = Arrays.binarySearch(myBoundaries, 0, mySize + 1, ms);
+    return idx >= 0 ? idx : -idx - 2;
+  }
+
+  private void reset(Date start) {
+    mySize = 0;
+    myBoundaries[0] = start.getTime();
+    myDates[0] = start;
+    grow();
+  }
+
+  private void grow() {
+    for (int i = 0; i < GROW_STEP; i++) {
+      Date frameStart = myDates[mySize];
+      TimeUnit concreteUnit = OffsetBuilderImpl.getConcreteUnit(myUnit, frameStart);
+      append(concreteUnit, concreteUnit.adjustRight(frameStart), myCalendar.getDayMask(frameStart));
+    }
+  }
+
+  private void append(TimeUnit concreteUnit, Date frameEnd, int dayMask) {
+    if (mySize + 1 == myUnits.length) {
+      int capacity = myUnits.length * 2;
+      myBoundaries = Arrays.copyOf(myBoundaries, capacity + 1);
+      myDates = Arrays.copyOf(myDates, capacity + 1);
+      myUnits = Arrays.copyOf(myUnits, capacity);
+      myDayMasks = Arrays.copyOf(myDayMasks, capacity);
+    }
+    myUnits[mySize] = concreteUnit;
+    myDayMasks[mySize] = dayMask;
+    mySize++;
+    myBoundaries[mySize] = frameEnd.getTime();
+    myDates[mySize] = frameEnd;
+  }
+
+  /**
+   * Walks the calendar from a date a few units to the left of the requested start, until we reach the first frame
+   * of this strip. If the walk does not meet the strip exactly, we start from scratch.
+   */
+  private void prepend(Date start) {
+    Date walkStart = start;
+    for (int i = 0; i < LEFT_MARGIN_UNITS; i++) {
+      walkStart = myUnit.jumpLeft(walkStart);
+    }
+    List<Date> dates = new ArrayList<>();
+    List<TimeUnit> units = new ArrayList<>();
+    List<Integer> dayMasks = new ArrayList<>();
+    Date current = walkStart;
+    boolean metStart = false;
+    while (current.getTime() < myBoundaries[0]) {
+      metStart |= current.getTime() == start.getTime();
+      if (dates.size() > MAX_SIZE) {
+        break;
+      }
+      TimeUnit concreteUnit = OffsetBuilderImpl.getConcreteUnit(myUnit, current);
+      dates.add(current);
+      units.add(concreteUnit);
+      dayMasks.add(myCalendar.getDayMask(current));
+      current = concreteUnit.adjustRight(current);
+    }
+    if (!metStart || current.getTime() != myBoundaries[0]) {
+      reset(start);
+      return;
+    }
+    int count = dates.size();
+    int capacity = myUnits.length;
+    while (mySize + count + 1 > capacity) {
+      capacity *= 2;
+    }
+    long[] boundaries = new long[capacity + 1];
+    Date[] allDates = new Date[capacity + 1];
+    TimeUnit[] allUnits = new TimeUnit[capacity];
+    int[] allDayMasks = new int[capacity];
+    for (int i = 0; i < count; i++) {
+      allDates[i] = dates.get(i);
+      boundaries[i] = allDates[i].getTime();
+      allUnits[i] = units.get(i);
+      allDayMasks[i] = dayMasks.get(i);
+    }
+    System.arraycopy(myBoundaries, 0, boundaries, count, mySize + 1);
+    System.arraycopy(myDates, 0, allDates, count, mySize + 1);
+    System.arraycopy(myUnits, 0, allUnits, count, mySize);
+    System.arraycopy(myDayMasks, 0, allDayMasks, count, mySize);
+    myBoundaries = boundaries;
+    myDates = allDates;
+    myUnits = allUnits;
+    myDayMasks = allDayMasks;
+    mySize += count;
+  }
+
+  /**
+   * Keeps strips for the time units used by one chart, and drops them when the calendar changes.
+   */
+  public static class Cache {
+    private final List<OffsetStrip> myStrips = new ArrayList<>();
+
+    public OffsetStrip get(TimeUnit unit, GPCalendar calendar) {
+      myStrips.removeIf(strip -> strip.myCalendar == calendar && strip.myCalendarVersion != calendar.getVersion());
+      for (OffsetStrip strip : myStrips) {
+        if (strip.isValidFor(unit, calendar)) {
+          return strip;
+        }
+      }
+      OffsetStrip result = new OffsetStrip(unit, calendar);
+      myStrips.add(result);
+      return result;
+    }
+
+    public void clear() {
+      myStrips.clear();
+    }
+  }
+}
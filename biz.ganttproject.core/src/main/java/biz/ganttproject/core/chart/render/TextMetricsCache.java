@@ -0,0 +1,171 @@
+/*
+Copyright 2026 BarD Software s.r.o, GanttProject Team
+
+This file is part of GanttProject, an opensource project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package biz.ganttproject.core.chart.render;
+
+import biz.ganttproject.core.chart.canvas.Canvas.Label;
+import biz.ganttproject.core.chart.canvas.Canvas.Text;
+import biz.ganttproject.core.chart.canvas.TextMetrics;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import java.awt.*;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU cache of string widths and resolved label layouts.
+ *
+ * Entries are keyed by the metrics state (that is, the font and rendering context) and the text, so a change of
+ * the chart font makes the old entries unreachable. They are still dropped explicitly with {@link #invalidate()}
+ * when font options change, to release memory.
+ */
+public class TextMetricsCache {
+  public static final int DEFAULT_CAPACITY = 4096;
+
+  private final Cache<WidthKey, Integer> myWidths;
+  private final Cache<LayoutKey, LabelLayout[]> myLayouts;
+
+  public TextMetricsCache() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public TextMetricsCache(int capacity) {
+    myWidths = CacheBuilder.newBuilder().maximumSize(capacity).recordStats().build();
+    myLayouts = CacheBuilder.newBuilder().maximumSize(capacity).recordStats().build();
+  }
+
+  /**
+   * @return text metrics which answer text length requests from this cache and delegate
+   * to the given metrics on a miss.
+   */
+  public TextMetrics wrap(TextMetrics delegate) {
+    return delegate instanceof CachingTextMetrics ? delegate : new CachingTextMetrics(delegate, this);
+  }
+
+  /**
+   * Returns labels of the given owner text, laid out to fit into maxWidth. The layout function is called only
+   * if there is no cached layout for the same (text, metrics state, maxWidth) triple, and the labels are always
+   * created anew, because they are bound to their owner.
+   */
+  public Label[] getLabels(Text owner, String text, int maxWidth, TextMetrics metrics,
+                           Function<TextMetrics, Label[]> layoutFunction) {
+    var key = new LayoutKey(metrics.getState(), text, maxWidth);
+    LabelLayout[] layout = myLayouts.getIfPresent(key);
+    if (layout == null) {
+      Label[] labels = layoutFunction.apply(metrics);
+      layout = new LabelLayout[labels.length];
+      for (int i = 0; i < labels.length; i++) {
+        layout[i] = labels[i] == null ? null : new LabelLayout(labels[i].text, labels[i].lengthPx, labels[i].heightPx);
+      }
+      myLayouts.put(key, layout);
+      return labels;
+    }
+    Label[] result = new Label[layout.length];
+    for (int i = 0; i < layout.length; i++) {
+      if (layout[i] == null) {
+        continue;
+      }
+      result[i] = owner == null
+          ? new Label(null, layout[i].text, layout[i].lengthPx, layout[i].heightPx)
+          : owner.createLabel(layout[i].text, layout[i].lengthPx, layout[i].heightPx);
+    }
+    return result;
+  }
+
+  /**
+   * Resolves labels through the cache if the given metrics are backed by one, and calls the layout function
+   * directly otherwise.
+   */
+  public static Label[] getCachedLabels(Text owner, String text, int maxWidth, TextMetrics metrics,
+                                        Function<TextMetrics, Label[]> layoutFunction) {
+    if (metrics instanceof CachingTextMetrics caching) {
+      return caching.myCache.getLabels(owner, text, maxWidth, metrics, layoutFunction);
+    }
+    return layoutFunction.apply(metrics);
+  }
+
+  int getTextLength(TextMetrics delegate, String text) {
+    var key = new WidthKey(delegate.getState(), text);
+    Integer result = myWidths.getIfPresent(key);
+    if (result == null) {
+      result = delegate.getTextLength(text);
+      myWidths.put(key, result);
+    }
+    return result;
+  }
+
+  public void invalidate() {
+    myWidths.invalidateAll();
+    myLayouts.invalidateAll();
+  }
+
+  public CacheStats getWidthStats() {
+    return myWidths.stats();
+  }
+
+  public CacheStats getLayoutStats() {
+    return myLayouts.stats();
+  }
+
+  @Override
+  public String toString() {
+    CacheStats widths = getWidthStats();
+    CacheStats layouts = getLayoutStats();
+    return String.format("TextMetricsCache{widths=%d hit ratio=%.2f evictions=%d, layouts=%d hit ratio=%.2f evictions=%d}",
+        myWidths.size(), widths.hitRate(), widths.evictionCount(),
+        myLayouts.size(), layouts.hitRate(), layouts.evictionCount());
+  }
+
+  private record WidthKey(Object state, String text) {}
+
+  private record LayoutKey(Object state, String text, int maxWidth) {}
+
+  private record LabelLayout(String text, int lengthPx, int heightPx) {}
+
+  private static class CachingTextMetrics implements TextMetrics {
+    private final TextMetrics myDelegate;
+    private final TextMetricsCache myCache;
+
+    CachingTextMetrics(TextMetrics delegate, TextMetricsCache cache) {
+      myDelegate = Objects.requireNonNull(delegate);
+      myCache = cache;
+    }
+
+    @Override
+    public int getTextLength(String text) {
+      return myCache.getTextLength(myDelegate, text);
+    }
+
+    @Override
+    public int getTextHeight(String text) {
+      return myDelegate.getTextHeight(text);
+    }
+
+    @Override
+    public Object getState() {
+      return myDelegate.getState();
+    }
+
+    @Override
+    public int getTextHeight(Font f, String string) {
+      return myDelegate.getTextHeight(f, string);
+    }
+  }
+}
@@ -36,10 +36,22 @@ import java.util.function.Supplier;
 public class TextPainter extends AbstractTextPainter {
   private Graphics2D myGraphics;
   private final TextLengthCalculatorImpl myTextLengthCalculator;
+  private final TextMetricsCache myTextMetricsCache;
+  private final TextMetrics myCachingTextMetrics;
 
   public TextPainter(Properties props, Supplier<Font> baseFont) {
+    this(props, baseFont, new TextMetricsCache());
+  }
+
+  public TextPainter(Properties props, Supplier<Font> baseFont, TextMetricsCache textMetricsCache) {
     super(props, baseFont);
     myTextLengthCalculator = new TextLengthCalculatorImpl(null);
+    myTextMetricsCache = textMetricsCache;
+    myCachingTextMetrics = textMetricsCache.wrap(myTextLengthCalculator);
+  }
+
+  public TextMetricsCache getTextMetricsCache() {
+    return myTextMetricsCache;
   }
 
   public void setGraphics(Graphics2D graphics) {
@@ -57,7 +69,7 @@ public class TextPainter extends AbstractTextPainter {
 
     Style style = Style.getStyle(myProperties, next.getStyle());
 
-    Label[] labels = next.getLabels(myTextLengthCalculator);
+    Label[] labels = next.getLabels(myCachingTextMetrics);
     if (labels.length == 0) {
       return;
     }
@@ -113,7 +125,7 @@ public class TextPainter extends AbstractTextPainter {
 
   @Override
   protected TextMetrics getTextMetrics() {
-    return myTextLengthCalculator;
+    return myCachingTextMetrics;
   }
 
   @Override
@@ -121,7 +133,7 @@ public class TextPainter extends AbstractTextPainter {
     Graphics2D graphics = (Graphics2D) myGraphics.create();
     graphics.setFont((Font) styles.get("font"));
     graphics.setColor((Color) styles.get("color"));
-    return new TextLengthCalculatorImpl(graphics);
+    return myTextMetricsCache.wrap(new TextLengthCalculatorImpl(graphics));
   }
 
   @Override
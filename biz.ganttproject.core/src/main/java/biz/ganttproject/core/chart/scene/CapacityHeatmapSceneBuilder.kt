@@ -23,6 +23,7 @@ import biz.ganttproject.core.chart.canvas.Canvas.HAlignment
 import biz.ganttproject.core.chart.canvas.Canvas.VAlignment
 import biz.ganttproject.core.chart.grid.Offset
 import biz.ganttproject.core.chart.grid.OffsetLookup
+import biz.ganttproject.core.chart.render.TextMetricsCache
 import java.awt.Color
 import java.time.Instant
 import java.util.*
@@ -120,12 +121,14 @@ class CapacityHeatmapSceneBuilder(
 
   private fun createLoadText(rect: Canvas.Rectangle, load: Float) {
     val loadLabel = canvas.createText(rect.middleX, rect.middleY - input.getYCanvasOffset(), "")
+    val loadInt = load.roundToInt()
+    val loadStr = "$loadInt%"
     loadLabel.setSelector { textLengthCalculator ->
-      val loadInt = load.roundToInt()
-      val loadStr = "$loadInt%"
-      val emsLength = textLengthCalculator.getTextLength(loadStr)
-      val displayLoad = loadInt != 100 && emsLength <= rect.width
-      if (displayLoad) arrayOf(loadLabel.createLabel(loadStr, rect.width)) else emptyArray()
+      TextMetricsCache.getCachedLabels(loadLabel, loadStr, rect.width, textLengthCalculator) { metrics ->
+        val emsLength = metrics.getTextLength(loadStr)
+        val displayLoad = loadInt != 100 && emsLength <= rect.width
+        if (displayLoad) arrayOf(loadLabel.createLabel(loadStr, rect.width)) else emptyArray()
+      }
     }
     loadLabel.setAlignment(HAlignment.CENTER, VAlignment.CENTER)
     loadLabel.style = "text.resource.load"
@@ -9,13 +9,14 @@ import biz.ganttproject.core.time.DateFrameable;
 import biz.ganttproject.core.time.TimeUnit;
 
 import java.util.Date;
-import java.util.HashMap;
 
 /**
+ * Base class for the timeline formatters which keeps the formatted texts in the shared {@link TimeUnitTextCache}.
+ *
  * @author bard
  */
 public abstract class CachingTextFormatter {
-  private final HashMap<Date, TimeUnitText[]> myTextCache = new HashMap<Date, TimeUnitText[]>();
+  private TimeUnitTextCache myTextCache = TimeUnitTextCache.getInstance();
   private LocaleApi myLocale;
 
   protected CachingTextFormatter() {
@@ -26,19 +27,21 @@ public abstract class CachingTextFormatter {
   }
 
   public TimeUnitText[] format(TimeUnit timeUnit, Date baseDate) {
-    TimeUnitText[] result = null;
     Date adjustedLeft = ((DateFrameable) timeUnit).adjustLeft(baseDate);
-    result = getCachedText(adjustedLeft);
-    if (result == null) {
-      result = createTimeUnitText(adjustedLeft);
-      myTextCache.put(adjustedLeft, result);
-    }
+    return myTextCache.get(getCacheKey(), timeUnit.getName(), adjustedLeft,
+        myLocale == null ? null : myLocale.getLocale(), () -> createTimeUnitText(adjustedLeft));
+  }
 
-    return result;
+  /**
+   * @return an object which identifies this formatter output in the shared cache. It must be equal for the formatters
+   * which produce the same texts for the same date and locale, and must change whenever the output changes.
+   */
+  protected Object getCacheKey() {
+    return getClass();
   }
 
-  protected TimeUnitText[] getCachedText(Date startDate) {
-    return myTextCache.get(startDate);
+  void setTextCache(TimeUnitTextCache textCache) {
+    myTextCache = textCache;
   }
 
   public LocaleApi getLocale() {
@@ -47,11 +50,6 @@ public abstract class CachingTextFormatter {
 
   public void setLocale(LocaleApi locale) {
     myLocale = locale;
-    clearCache();
-  }
-
-  protected void clearCache() {
-    myTextCache.clear();
   }
 
   public int getTextCount() {
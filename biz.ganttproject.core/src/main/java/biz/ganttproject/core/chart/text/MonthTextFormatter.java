@@ -20,6 +20,7 @@ package biz.ganttproject.core.chart.text;
 
 import java.text.DateFormat;
 import java.util.Date;
+import java.util.List;
 
 import biz.ganttproject.core.chart.text.TimeFormatters.LocaleApi;
 
@@ -30,10 +31,13 @@ public class MonthTextFormatter extends CachingTextFormatter implements TimeForm
 
   private String myShortPattern;
 
+  private final Object myCacheKey;
+
   public MonthTextFormatter(LocaleApi localeApi, String longPattern, String mediumPattern, String shortPattern) {
     myLongPattern = longPattern;
     myMediumPattern = mediumPattern;
     myShortPattern = shortPattern;
+    myCacheKey = List.of(getClass(), longPattern, mediumPattern, shortPattern);
     initFormats(localeApi);
   }
 
@@ -47,6 +51,11 @@ public class MonthTextFormatter extends CachingTextFormatter implements TimeForm
     return new TimeUnitText[] { result };
   }
 
+  @Override
+  protected Object getCacheKey() {
+    return myCacheKey;
+  }
+
   private void initFormats(LocaleApi localeApi) {
     myLongFormat = localeApi.createDateFormat(myLongPattern);
     myMediumFormat = localeApi.createDateFormat(myMediumPattern);
@@ -53,6 +53,10 @@ public class TimeFormatters {
   };
 
   public TimeFormatters(LocaleApi localeApi) {
+    this(localeApi, TimeUnitTextCache.getInstance());
+  }
+
+  public TimeFormatters(LocaleApi localeApi, TimeUnitTextCache textCache) {
     Map<String, TimeFormatter> commonFormatters = new HashMap<String, TimeFormatter>();
 
     commonFormatters.put(GPTimeUnitStack.DAY.getName(), new DayTextFormatter());
@@ -67,6 +71,11 @@ public class TimeFormatters {
     ourLowerFormatters.putAll(commonFormatters);
     ourLowerFormatters.put(GPTimeUnitStack.MONTH.getName(), new MonthTextFormatter(localeApi, "MMMM", "MMM", "MM"));
     ourLowerFormatters.put(GPTimeUnitStack.WEEK.getName(), weekFormatter);
+    for (TimeFormatter tf : Iterables.concat(ourUpperFormatters.values(), ourLowerFormatters.values())) {
+      if (tf instanceof CachingTextFormatter) {
+        ((CachingTextFormatter)tf).setTextCache(textCache);
+      }
+    }
     setLocaleApi(localeApi);
   }
 
@@ -34,9 +34,9 @@ public class TimeUnitText {
 
   private String myShortText;
 
-  private Object myCalculatorState;
-
-  private Label[] myLabels;
+  // Texts are shared between chart models through TimeUnitTextCache, so the measured labels and the state they
+  // were measured with are replaced together.
+  private volatile MeasuredLabels myMeasuredLabels;
 
   public TimeUnitText(String longText, String mediumText, String shortText) {
     myLongText = longText;
@@ -51,18 +51,20 @@ public class TimeUnitText {
   }
 
   public Label[] getLabels(int requestedMaxLength, TextMetrics calculator) {
-    if (!calculator.getState().equals(myCalculatorState)) {
-      myCalculatorState = calculator.getState();
-      myLabels = new Label[] { new Label(null, myShortText, calculator.getTextLength(myShortText)),
+    MeasuredLabels measured = myMeasuredLabels;
+    if (measured == null || !calculator.getState().equals(measured.calculatorState)) {
+      measured = new MeasuredLabels(calculator.getState(), new Label[] {
+          new Label(null, myShortText, calculator.getTextLength(myShortText)),
           new Label(null, myMediumText, calculator.getTextLength(myMediumText)),
-          new Label(null, myLongText, calculator.getTextLength(myLongText)) };
+          new Label(null, myLongText, calculator.getTextLength(myLongText)) });
+      myMeasuredLabels = measured;
     }
-    int fitCount = getFitCount(myLabels, requestedMaxLength);
+    int fitCount = getFitCount(measured.labels, requestedMaxLength);
     if (fitCount == 0) {
       return EMPTY_LABELS;
     }
     Label[] result = new Label[fitCount];
-    System.arraycopy(myLabels, 0, result, 0, fitCount);
+    System.arraycopy(measured.labels, 0, result, 0, fitCount);
     return result;
   }
 
@@ -76,6 +78,8 @@ public class TimeUnitText {
     return count;
   }
 
+  private record MeasuredLabels(Object calculatorState, Label[] labels) {}
+
   @Override
   public String toString() {
     return "long=" + myLongText + ", medium=" + myMediumText + ", short=" + myShortText;
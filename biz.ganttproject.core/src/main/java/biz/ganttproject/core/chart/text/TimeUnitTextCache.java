@@ -0,0 +1,98 @@
+/*
+Copyright 2026 BarD Software s.r.o, GanttProject Team
+
+This file is part of GanttProject, an opensource project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package biz.ganttproject.core.chart.text;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of timeline header texts, shared by the formatters of all chart models.
+ *
+ * A cache key consists of the formatter identity, which also includes anything else the formatter output depends on
+ * (e.g. date patterns or week numbering function), time unit name, epoch day of the unit start and locale. Thus
+ * the same entries serve the Gantt chart, the resource chart and their print and export copies.
+ *
+ * The maximum size can be set with "chart.timeline.textCacheSize" system property.
+ */
+public class TimeUnitTextCache {
+  public static final int DEFAULT_MAXIMUM_SIZE = 8192;
+
+  private static final TimeUnitTextCache ourInstance =
+      new TimeUnitTextCache(Integer.getInteger("chart.timeline.textCacheSize", DEFAULT_MAXIMUM_SIZE));
+
+  private volatile Cache<Key, TimeUnitText[]> myCache;
+
+  public TimeUnitTextCache(int maximumSize) {
+    myCache = createCache(maximumSize);
+  }
+
+  public static TimeUnitTextCache getInstance() {
+    return ourInstance;
+  }
+
+  /**
+   * Replaces the underlying cache with a new one of the given size. Statistics are reset.
+   */
+  public void setMaximumSize(int maximumSize) {
+    myCache = createCache(maximumSize);
+  }
+
+  TimeUnitText[] get(Object formatterKey, String timeUnitName, Date unitStart, Locale locale,
+                     Supplier<TimeUnitText[]> factory) {
+    long epochDay = unitStart.toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    var key = new Key(formatterKey, timeUnitName, epochDay, locale);
+    TimeUnitText[] result = myCache.getIfPresent(key);
+    if (result == null) {
+      result = factory.get();
+      myCache.put(key, result);
+    }
+    return result;
+  }
+
+  public void clear() {
+    myCache.invalidateAll();
+  }
+
+  public long size() {
+    return myCache.size();
+  }
+
+  public CacheStats getStats() {
+    return myCache.stats();
+  }
+
+  @Override
+  public String toString() {
+    CacheStats stats = getStats();
+    return String.format("TimeUnitTextCache{size=%d hit ratio=%.2f evictions=%d}",
+        size(), stats.hitRate(), stats.evictionCount());
+  }
+
+  private static Cache<Key, TimeUnitText[]> createCache(int maximumSize) {
+    return CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+  }
+
+  private record Key(Object formatterKey, String timeUnitName, long epochDay, Locale locale) {}
+}
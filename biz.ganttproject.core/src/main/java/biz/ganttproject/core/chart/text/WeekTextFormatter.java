@@ -23,14 +23,21 @@ import kotlin.Unit;
 
 import java.text.DateFormat;
 import java.text.MessageFormat;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.function.Function;
 
 
 public class WeekTextFormatter extends CachingTextFormatter implements TimeFormatter {
   private DateFormat myDateFormat;
+  private String myDatePattern;
   private String myWeekText;
   private Function<Date, Integer> myWeekNumbering;
+  // Week numbers depend on the numbering function which may be project-specific. The key is built when any of
+  // its parts changes rather than on every lookup. The date format is keyed by its pattern, because DateFormat
+  // instances are mutable and a fresh one may be handed out on every call.
+  private Object myCacheKey = getClass();
 
   WeekTextFormatter() {
   }
@@ -56,15 +63,27 @@ public class WeekTextFormatter extends CachingTextFormatter implements TimeForma
   public void setLocale(LocaleApi localeApi) {
     super.setLocale(localeApi);
     myDateFormat = localeApi.getShortDateFormat();
+    myDatePattern = myDateFormat instanceof SimpleDateFormat
+        ? ((SimpleDateFormat) myDateFormat).toPattern() : myDateFormat.getClass().getName();
     myWeekText = localeApi.i18n("week");
     myWeekNumbering = localeApi.getWeekNumbering().getValue();
+    updateCacheKey();
     localeApi.getWeekNumbering().addWatcher(evt ->  {
-      clearCache();
       myWeekNumbering = evt.getNewValue();
+      updateCacheKey();
       return Unit.INSTANCE;
     });
   }
 
+  private void updateCacheKey() {
+    myCacheKey = Arrays.asList(getClass(), myWeekNumbering, myWeekText, getLocale().getLocale(), myDatePattern);
+  }
+
+  @Override
+  protected Object getCacheKey() {
+    return myCacheKey;
+  }
+
   @Override
   public int getTextCount() {
     return 2;
@@ -0,0 +1,82 @@
+/*
+Copyright 2026 BarD Software s.r.o, GanttProject Team
+
+This file is part of GanttProject, an open-source project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package biz.ganttproject.core.chart.canvas
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.awt.Color
+
+class CompactCanvasTest {
+  @Test
+  fun `rectangle view reads and writes the arrays`() {
+    val canvas = CompactCanvas(5, 10)
+    canvas.createRectangle(0, 0, 1, 1)
+    val rect = canvas.createRectangle(100, 20, -30, 8)
+    rect.style = "task"
+    rect.backgroundColor = Color.RED
+    rect.addStyle("critical")
+    rect.attributes["id"] = "42"
+
+    assertEquals(75, rect.leftX)
+    assertEquals(30, rect.topY)
+    assertEquals(105, rect.rightX)
+    assertEquals(38, rect.bottomY)
+    assertEquals("task", rect.style)
+    assertEquals(Color.RED, rect.backgroundColor)
+    assertTrue(rect.hasStyle("critical"))
+    assertEquals(mapOf("id" to "42"), rect.attributes)
+    assertNull(rect.opacity)
+
+    val found = canvas.getPrimitive(80, 33) as Canvas.Rectangle
+    assertEquals("task", found.style)
+    assertEquals(2, canvas.rectangleCount)
+  }
+
+  @Test
+  fun `painting visits visible primitives in creation order`() {
+    val canvas = CompactCanvas()
+    (0 until 200).forEach { canvas.createRectangle(it, 0, 1, 1).style = "r$it" }
+    canvas.createRectangle(500, 0, 1, 1).isVisible = false
+    canvas.createLine(0, 0, 10, 10).arrow = Canvas.Arrow.FINISH
+    val painted = mutableListOf<String>()
+    var arrow: Canvas.Arrow? = null
+    canvas.paint(object : Painter {
+      override fun prePaint() {}
+      override fun paint(rectangle: Canvas.Rectangle) { painted.add(rectangle.style) }
+      override fun paint(line: Canvas.Line) { arrow = line.arrow }
+      override fun paint(text: Canvas.Text) {}
+      override fun paint(textGroup: Canvas.TextGroup) {}
+      override fun paint(rhombus: Canvas.Rhombus) {}
+    })
+    assertEquals((0 until 200).map { "r$it" }, painted)
+    assertSame(Canvas.Arrow.FINISH, arrow)
+  }
+
+  @Test
+  fun `bound model objects survive until clear`() {
+    val canvas = CompactCanvas()
+    val model = Any()
+    val rect = canvas.createRectangle(0, 0, 10, 10)
+    canvas.bind(rect, model)
+    assertSame(model, canvas.getPrimitive(model).modelObject)
+    canvas.clear()
+    assertNull(canvas.getPrimitive(model))
+    assertEquals(0, canvas.rectangleCount)
+  }
+}
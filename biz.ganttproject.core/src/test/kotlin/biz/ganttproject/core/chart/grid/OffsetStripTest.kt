@@ -0,0 +1,114 @@
+/*
+Copyright 2026 BarD Software s.r.o, GanttProject Team
+
+This file is part of GanttProject, an open-source project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package biz.ganttproject.core.chart.grid
+
+import biz.ganttproject.core.calendar.GPCalendar
+import biz.ganttproject.core.calendar.WeekendCalendarImpl
+import biz.ganttproject.core.time.TimeTestHelper.initLocale
+import biz.ganttproject.core.time.TimeTestHelper.newMonday
+import biz.ganttproject.core.time.TimeTestHelper.newThursday
+import biz.ganttproject.core.time.TimeUnit
+import biz.ganttproject.core.time.impl.GPTimeUnitStack
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import java.util.*
+
+class OffsetStripTest {
+  private lateinit var calendar: WeekendCalendarImpl
+
+  @BeforeEach
+  fun setUp() {
+    initLocale()
+    calendar = WeekendCalendarImpl()
+    calendar.setWeekDayType(Calendar.SATURDAY, GPCalendar.DayType.WEEKEND)
+    calendar.setWeekDayType(Calendar.SUNDAY, GPCalendar.DayType.WEEKEND)
+  }
+
+  private fun buildOffsets(start: Date, strips: OffsetStrip.Cache?, topUnit: TimeUnit, bottomUnit: TimeUnit): Pair<OffsetList, OffsetList> {
+    val top = OffsetList()
+    val bottom = OffsetList()
+    OffsetBuilderImpl.FactoryImpl()
+      .withStartDate(start)
+      .withViewportStartDate(start)
+      .withCalendar(calendar)
+      .withTopUnit(topUnit)
+      .withBottomUnit(bottomUnit)
+      .withAtomicUnitWidth(20)
+      .withEndOffset(700)
+      .withWeekendDecreaseFactor(OffsetBuilderImpl.WEEKEND_UNIT_WIDTH_DECREASE_FACTOR.toFloat())
+      .withOffsetStrips(strips)
+      .build()
+      .constructOffsets(top, bottom)
+    return top to bottom
+  }
+
+  private fun assertSameOffsets(expected: List<Offset>, actual: List<Offset>) {
+    assertEquals(expected.size, actual.size)
+    expected.zip(actual).forEach { (e, a) ->
+      assertEquals(e.offsetStart, a.offsetStart)
+      assertEquals(e.offsetEnd, a.offsetEnd)
+      assertEquals(e.startPixels, a.startPixels)
+      assertEquals(e.offsetPixels, a.offsetPixels)
+      assertEquals(e.dayMask, a.dayMask)
+    }
+  }
+
+  @Test
+  fun `strip offsets are the same as calendar walk offsets`() {
+    val strips = OffsetStrip.Cache()
+    // Scroll right, then left past the first strip frame
+    val starts = listOf(newMonday().time, newThursday().time) +
+      (1..20).map { GPTimeUnitStack.DAY.adjustRight(Date(newMonday().time.time + it * 86_400_000L * 3)) } +
+      listOf(Date(newMonday().time.time - 86_400_000L * 100).let { GPTimeUnitStack.DAY.adjustLeft(it) })
+    starts.forEach { start ->
+      val (expectedTop, expectedBottom) = buildOffsets(start, null, GPTimeUnitStack.WEEK, GPTimeUnitStack.DAY)
+      val (actualTop, actualBottom) = buildOffsets(start, strips, GPTimeUnitStack.WEEK, GPTimeUnitStack.DAY)
+      assertSameOffsets(expectedBottom, actualBottom)
+      assertSameOffsets(expectedTop, actualTop)
+    }
+  }
+
+  @Test
+  fun `strip is dropped when calendar changes`() {
+    val strips = OffsetStrip.Cache()
+    val strip = strips.get(GPTimeUnitStack.DAY, calendar)
+    assertSame(strip, strips.get(GPTimeUnitStack.DAY, calendar))
+    calendar.setWeekDayType(Calendar.FRIDAY, GPCalendar.DayType.WEEKEND)
+    assertNotSame(strip, strips.get(GPTimeUnitStack.DAY, calendar))
+
+    val start = newMonday().time
+    val (expectedTop, expectedBottom) = buildOffsets(start, null, GPTimeUnitStack.WEEK, GPTimeUnitStack.DAY)
+    val (actualTop, actualBottom) = buildOffsets(start, strips, GPTimeUnitStack.WEEK, GPTimeUnitStack.DAY)
+    assertSameOffsets(expectedBottom, actualBottom)
+    assertSameOffsets(expectedTop, actualTop)
+  }
+
+  @Test
+  fun `lookup frame by date`() {
+    val strip = OffsetStrip.Cache().get(GPTimeUnitStack.DAY, calendar)
+    val monday = newMonday().time
+    assertEquals(0, strip.seek(monday))
+    val noon = Date(monday.time + 86_400_000L * 2 + 43_200_000L)
+    assertEquals(2, strip.lookupFrame(noon))
+    assertEquals(3, strip.lookupFrame(strip.getFrameEnd(2)))
+    assertEquals(-1, strip.lookupFrame(Date(monday.time - 1)))
+    assertEquals(-strip.size() - 1, strip.lookupFrame(strip.getFrameEnd(strip.size() - 1)))
+  }
+}
@@ -0,0 +1,102 @@
+/*
+Copyright 2026 BarD Software s.r.o, GanttProject Team
+
+This file is part of GanttProject, an open-source project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package biz.ganttproject.core.chart.render
+
+import biz.ganttproject.core.chart.canvas.Canvas
+import biz.ganttproject.core.chart.canvas.TextMetrics
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+import java.awt.Font
+
+class TextMetricsCacheTest {
+  @Test
+  fun `text length is measured once per state`() {
+    val metrics = CountingTextMetrics("state")
+    val cache = TextMetricsCache(16)
+    val cached = cache.wrap(metrics)
+
+    assertEquals(21, cached.getTextLength("foo"))
+    assertEquals(21, cached.getTextLength("foo"))
+    assertEquals(1, metrics.lengthCalls)
+    assertEquals(1, cache.widthStats.hitCount())
+
+    metrics.state = "another state"
+    assertEquals(21, cached.getTextLength("foo"))
+    assertEquals(2, metrics.lengthCalls)
+  }
+
+  @Test
+  fun `invalidate drops cached widths`() {
+    val metrics = CountingTextMetrics("state")
+    val cache = TextMetricsCache(16)
+    val cached = cache.wrap(metrics)
+    cached.getTextLength("foo")
+    cache.invalidate()
+    cached.getTextLength("foo")
+    assertEquals(2, metrics.lengthCalls)
+  }
+
+  @Test
+  fun `cache is bounded`() {
+    val metrics = CountingTextMetrics("state")
+    val cache = TextMetricsCache(2)
+    val cached = cache.wrap(metrics)
+    listOf("a", "b", "c", "d").forEach { cached.getTextLength(it) }
+    assertEquals(2, cache.widthStats.evictionCount())
+  }
+
+  @Test
+  fun `label layouts are keyed by max width`() {
+    val metrics = CountingTextMetrics("state")
+    val cache = TextMetricsCache(16)
+    val cached = cache.wrap(metrics)
+    val canvas = Canvas()
+    val text = canvas.createText(0, 0, "")
+    var layoutCalls = 0
+    val layout = { m: TextMetrics ->
+      layoutCalls++
+      arrayOf(text.createLabel("foo", m.getTextLength("foo"), 10))
+    }
+    val labels1 = TextMetricsCache.getCachedLabels(text, "foo", 100, cached, layout)
+    val labels2 = TextMetricsCache.getCachedLabels(text, "foo", 100, cached, layout)
+    assertEquals(1, layoutCalls)
+    assertEquals(labels1[0].text, labels2[0].text)
+    assertEquals(labels1[0].lengthPx, labels2[0].lengthPx)
+    assertEquals(labels1[0].heightPx, labels2[0].heightPx)
+
+    TextMetricsCache.getCachedLabels(text, "foo", 50, cached, layout)
+    assertEquals(2, layoutCalls)
+    assertEquals(1, cache.layoutStats.hitCount())
+  }
+}
+
+private class CountingTextMetrics(var state: Any) : TextMetrics {
+  var lengthCalls = 0
+
+  override fun getTextLength(text: String): Int {
+    lengthCalls++
+    return text.length * 7
+  }
+
+  override fun getTextHeight(text: String) = 10
+
+  override fun getTextHeight(font: Font, text: String) = font.size
+
+  override fun getState() = state
+}
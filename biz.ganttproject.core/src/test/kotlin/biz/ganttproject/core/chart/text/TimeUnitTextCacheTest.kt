@@ -0,0 +1,56 @@
+/*
+Copyright 2026 BarD Software s.r.o, GanttProject Team
+
+This file is part of GanttProject, an open-source project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package biz.ganttproject.core.chart.text
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.time.LocalDate
+import java.time.ZoneId
+import java.util.*
+
+class TimeUnitTextCacheTest {
+  private fun date(year: Int, month: Int, day: Int) =
+    Date.from(LocalDate.of(year, month, day).atStartOfDay(ZoneId.systemDefault()).toInstant())
+
+  @Test
+  fun `texts are shared between callers with the same key`() {
+    val cache = TimeUnitTextCache(16)
+    var created = 0
+    val factory = { created++; arrayOf(TimeUnitText("1")) }
+    val first = cache.get("day", "day", date(2026, 1, 1), Locale.US, factory)
+    val second = cache.get("day", "day", date(2026, 1, 1), Locale.US, factory)
+    assertSame(first, second)
+    assertEquals(1, created)
+
+    cache.get("day", "day", date(2026, 1, 1), Locale.GERMANY, factory)
+    cache.get("month", "month", date(2026, 1, 1), Locale.US, factory)
+    assertEquals(3, created)
+    assertEquals(1, cache.stats.hitCount())
+  }
+
+  @Test
+  fun `cache is bounded and counts evictions`() {
+    val cache = TimeUnitTextCache(4)
+    for (day in 1..10) {
+      cache.get("day", "day", date(2026, 1, day), Locale.US) { arrayOf(TimeUnitText("$day")) }
+    }
+    assertEquals(4, cache.size())
+    assertEquals(6, cache.stats.evictionCount())
+  }
+}
@@ -0,0 +1,50 @@
+/*
+Copyright 2026 BarD Software s.r.o., GanttProject Team
+
+This file is part of GanttProject, an opensource project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package biz.ganttproject.core.chart.text
+
+import biz.ganttproject.core.option.ObservableObject
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.text.DateFormat
+import java.text.SimpleDateFormat
+import java.util.*
+import java.util.function.Function
+
+class WeekTextFormatterTest {
+  private val weekNumbering = ObservableObject<Function<Date, Int>>("weekNumbering", Function { 1 })
+
+  private fun localeApi(locale: Locale, pattern: String) = object : TimeFormatters.LocaleApi {
+    override fun getShortDateFormat(): DateFormat = SimpleDateFormat(pattern, locale)
+    override fun createDateFormat(pattern: String): DateFormat = SimpleDateFormat(pattern, locale)
+    override fun getLocale() = locale
+    override fun i18n(key: String) = key
+    override fun getWeekNumbering() = weekNumbering
+  }
+
+  private fun cacheKey(localeApi: TimeFormatters.LocaleApi) =
+    WeekTextFormatter().also { it.setLocale(localeApi) }.cacheKey
+
+  @Test
+  fun `cache key depends on the date pattern rather than the date format instance`() {
+    val api = localeApi(Locale.US, "MM/dd/yy")
+    assertEquals(cacheKey(api), cacheKey(api))
+    assertNotEquals(cacheKey(api), cacheKey(localeApi(Locale.US, "dd.MM.yy")))
+    assertNotEquals(cacheKey(api), cacheKey(localeApi(Locale.GERMANY, "MM/dd/yy")))
+  }
+}
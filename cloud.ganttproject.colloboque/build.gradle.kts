@@ -56,6 +56,7 @@ dependencies {
     implementation("org.nanohttpd:nanohttpd-websocket:2.3.1")
 
     implementation("org.jetbrains.kotlinx:kotlinx-serialization-json:1.8.0")
+    implementation("org.jetbrains.kotlinx:kotlinx-serialization-cbor:1.8.0")
 
     implementation(files("lib/eclipsito.jar"))
 
@@ -42,7 +42,10 @@ import org.jooq.conf.RenderNameCase
 import org.jooq.impl.DSL
 import java.sql.Connection
 import java.text.DateFormat
+import java.time.Duration
+import java.time.Instant
 import java.util.*
+import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.Executors
 
 internal typealias ProjectRefid = String
@@ -67,13 +70,41 @@ val localeApi = object : CalendarFactory() {
     }
   }
 
+/**
+ * Defines when the server writes a full project XML snapshot. Between the snapshots, the project state is restored
+ * by replaying the transaction log records from the latest snapshot.
+ */
+data class SnapshotPolicy(
+  /** A snapshot is written when at least this many log records were committed since the latest snapshot. */
+  val maxLogRecords: Int = 100,
+  /** A snapshot is written on commit when the latest snapshot is older than this. */
+  val maxAge: Duration = Duration.ofMinutes(30),
+  /** Number of the latest snapshots which are kept. Older snapshots and their log records are removed. */
+  val keepSnapshots: Int = 2
+) {
+  fun isSnapshotDue(logRecordCount: Int, snapshotTime: Instant, now: Instant = Instant.now()) =
+    logRecordCount >= maxLogRecords || Duration.between(snapshotTime, now) >= maxAge
+}
+
 class ColloboqueServer(
   private val connectionFactory: (projectRefid: String) -> Connection,
   private val storageApi: StorageApi,
   private val updateInputChannel: Channel<InputXlog>,
-  private val serverResponseChannel: Channel<ServerResponse>) {
+  private val serverResponseChannel: Channel<ServerResponse>,
+  private val snapshotPolicy: SnapshotPolicy = SnapshotPolicy()) {
 
   private val wsCommunicationScope = CoroutineScope(Executors.newSingleThreadExecutor().asCoroutineDispatcher())
+  private val housekeepingScope = CoroutineScope(Executors.newSingleThreadExecutor().asCoroutineDispatcher())
+
+  /**
+   * The latest committed state of a project: its base txn ID, the latest snapshot it is built from,
+   * the number of log records committed since that snapshot and the tracking code of the last committed xlog.
+   */
+  private data class ProjectHead(
+    val baseTxnId: BaseTxnId, val snapshotTxnId: BaseTxnId, val snapshotTime: Instant, val logRecordCount: Int,
+    val lastTrackingCode: String? = null
+  )
+  private val projectHeads = ConcurrentHashMap<ProjectRefid, ProjectHead>()
 
   init {
     wsCommunicationScope.launch {
@@ -93,6 +124,7 @@ class ColloboqueServer(
     try {
       storageApi.initProject(projectRefid)
       storageApi.insertActualSnapshot(projectRefid, NULL_TXN_ID, projectXml)
+      projectHeads[projectRefid] = ProjectHead(NULL_TXN_ID, NULL_TXN_ID, Instant.now(), 0)
       loadProject(projectRefid, projectXml)
       return NULL_TXN_ID
     } catch (e: Exception) {
@@ -107,23 +139,35 @@ class ColloboqueServer(
   private suspend fun processUpdatesLoop() {
     for (inputXlog in updateInputChannel) {
       LOG.debug("Next xlog: $inputXlog")
+      // Set when the storage is modified, but the cached project head is not yet updated.
+      var isHeadStale = false
       try {
         val projectRefid = inputXlog.projectRefid
         val baseTxnId = inputXlog.baseTxnId
 
-        val actualSnapshot = storageApi.getProjectSnapshot(projectRefid) ?: throw ColloboqueServerException("Project $projectRefid is not yet initialized")
-        val expectedBaseTxnId = actualSnapshot.baseTxnId
+        val head = getProjectHead(projectRefid) ?: throw ColloboqueServerException("Project $projectRefid is not yet initialized")
+        val expectedBaseTxnId = head.baseTxnId
         if (expectedBaseTxnId != baseTxnId) {
           throw ColloboqueServerException("Base txn ID mismatch. Expected: $expectedBaseTxnId. Received: $baseTxnId")
         }
+        // A pipelined xlog is predicted on top of the previous xlog from the same client. The base txn IDs may match
+        // even if the previous xlog was rejected and another one was committed instead, so we check the tracking codes.
+        if (inputXlog.previousTrackingCode != null && inputXlog.previousTrackingCode != head.lastTrackingCode) {
+          throw ColloboqueServerException("Previous xlog ${inputXlog.previousTrackingCode} was not committed")
+        }
 
         // TODO: we are inserting and applying xlog records, so we need to lock the base txn ID, to prevent its
         // concurrent updates.
-        storageApi.insertXlogs(inputXlog.projectRefid, inputXlog.baseTxnId, inputXlog.transactions)
-
+        isHeadStale = true
         val newBaseTxnId = applyXlog(inputXlog)
-        val newProjectXml = buildProjectXml(projectRefid, actualSnapshot)
-        storageApi.insertActualSnapshot(projectRefid, newBaseTxnId, newProjectXml.projectXml)
+        val logRecordCount = head.logRecordCount + inputXlog.transactions.size
+        projectHeads[projectRefid] = if (newBaseTxnId > head.snapshotTxnId
+          && snapshotPolicy.isSnapshotDue(logRecordCount, head.snapshotTime)) {
+          writeSnapshot(projectRefid, head.snapshotTxnId, newBaseTxnId)
+        } else {
+          head.copy(baseTxnId = newBaseTxnId, logRecordCount = logRecordCount)
+        }.copy(lastTrackingCode = inputXlog.clientTrackingCode)
+        isHeadStale = false
 
         val response = ServerResponse.CommitResponse(
           inputXlog.baseTxnId,
@@ -135,20 +179,78 @@ class ColloboqueServer(
         serverResponseChannel.send(response)
       } catch (e: Exception) {
         LOG.error("Failed to commit\n {}", inputXlog, exception = e)
+        if (isHeadStale) {
+          // The head will be restored from the storage on the next commit.
+          projectHeads.remove(inputXlog.projectRefid)
+        }
         val errorResponse = ServerResponse.ErrorResponse(
           inputXlog.baseTxnId,
           inputXlog.projectRefid,
-          e.message.orEmpty()
+          e.message.orEmpty(),
+          inputXlog.clientTrackingCode
         )
         serverResponseChannel.send(errorResponse)
       }
     }
   }
 
+  /**
+   * Returns the cached project head, or restores it from the latest snapshot and the log records which follow it.
+   */
+  private fun getProjectHead(projectRefid: ProjectRefid): ProjectHead? {
+    projectHeads[projectRefid]?.let { return it }
+    val snapshot = storageApi.getProjectSnapshot(projectRefid) ?: return null
+    val snapshotTxnId = snapshot.baseTxnId!!
+    val transactionLogs = getTransactionLogs(projectRefid, snapshotTxnId)
+    val baseTxnId = transactionLogs.fold(snapshotTxnId) { txnId, xlogRecord ->
+      if (xlogRecord.colloboqueOperations.isEmpty()) txnId else generateNextTxnId(projectRefid, txnId, xlogRecord)
+    }
+    // We don't know how old the snapshot is, so we count its age from now.
+    return ProjectHead(baseTxnId, snapshotTxnId, Instant.now(), transactionLogs.size).also {
+      projectHeads[projectRefid] = it
+    }
+  }
+
+  /**
+   * Replays the log records on top of the latest snapshot, writes the result as a new snapshot and removes
+   * the superseded history in the background. The new base txn ID must be greater than the snapshot one: a snapshot
+   * with the same ID already exists.
+   */
+  private fun writeSnapshot(projectRefid: ProjectRefid, snapshotTxnId: BaseTxnId, newBaseTxnId: BaseTxnId): ProjectHead {
+    check(newBaseTxnId > snapshotTxnId) { "Snapshot $newBaseTxnId would not be newer than snapshot $snapshotTxnId" }
+    val snapshot = storageApi.getProjectSnapshot(projectRefid, snapshotTxnId)
+      ?: throw ColloboqueServerException("Snapshot $snapshotTxnId of project $projectRefid not found")
+    val newProjectXml = buildProjectXml(projectRefid, snapshot)
+    storageApi.insertActualSnapshot(projectRefid, newBaseTxnId, newProjectXml.projectXml)
+    housekeepingScope.launch {
+      try {
+        storageApi.pruneHistory(projectRefid, snapshotPolicy.keepSnapshots.coerceAtLeast(1))
+      } catch (e: Exception) {
+        LOG.error("Failed to prune the history of project {}", projectRefid, exception = e)
+      }
+    }
+    return ProjectHead(newBaseTxnId, newBaseTxnId, Instant.now(), 0)
+  }
+
+  /**
+   * Applies the xlog records one by one and writes the applied ones into the transaction log. If some record fails,
+   * the records which follow it are neither applied nor logged, so that replaying the log reproduces exactly
+   * the committed state.
+   */
   private fun applyXlog(xlog: InputXlog): BaseTxnId {
-    return xlog.transactions.fold(xlog.baseTxnId) { txnId: BaseTxnId, xlogRecord: XlogRecord ->
-      applyXlog(xlog.projectRefid, txnId, xlogRecord)
+    var txnId = xlog.baseTxnId
+    var appliedCount = 0
+    try {
+      xlog.transactions.forEach { xlogRecord ->
+        txnId = applyXlog(xlog.projectRefid, txnId, xlogRecord)
+        appliedCount++
+      }
+    } finally {
+      if (appliedCount > 0) {
+        storageApi.insertXlogs(xlog.projectRefid, xlog.baseTxnId, xlog.transactions.take(appliedCount))
+      }
     }
+    return txnId
   }
   /**
    * Performs transaction commit if `baseTxnId` corresponds to the value hold by the server.
@@ -181,12 +283,14 @@ class ColloboqueServer(
   data class BuildProjectXmlResult(val projectXml: String, val txnId: BaseTxnId)
 
   /**
-   * Takes the actual project snapshot, applies the recorded update logs and builds a new XML
+   * Takes the actual project snapshot, applies the recorded update logs and builds a new XML.
+   * If `maxLogRecords` is specified, only that many first log records are applied.
    */
-  fun buildProjectXml(projectRefid: ProjectRefid, baseSnapshot: ProjectfilesnapshotRecord): BuildProjectXmlResult {
+  fun buildProjectXml(projectRefid: ProjectRefid, baseSnapshot: ProjectfilesnapshotRecord,
+                      maxLogRecords: Int = Int.MAX_VALUE): BuildProjectXmlResult {
     val baseTxnId = baseSnapshot.baseTxnId!!
     LOG.debug(">> buildProjectXml refid={} baseTxnId={}", projectRefid, baseTxnId)
-    val transactionLogs = getTransactionLogs(projectRefid, baseTxnId)
+    val transactionLogs = getTransactionLogs(projectRefid, baseTxnId).take(maxLogRecords)
     val updatedXml = transactionLogs.fold(baseSnapshot.projectXml!!) { xml, xlog -> updateProjectXml(xml, xlog) }
     LOG.debug("..result: {}", updatedXml)
     LOG.debug("<< buildProjectXml")
@@ -198,14 +302,30 @@ class ColloboqueServer(
     return oldTxnId + 1
   }
 
-  fun getProjectXml(projectRefid: String): ProjectfilesnapshotRecord =
-    storageApi.getProjectSnapshot(projectRefid) ?: run {
+  /**
+   * Returns the XML of the latest committed project state, which is the latest snapshot with the log records
+   * committed after it applied.
+   */
+  fun getProjectXml(projectRefid: String): ProjectfilesnapshotRecord {
+    val head = getProjectHead(projectRefid) ?: run {
       val baseTxnId = init(projectRefid, PROJECT_XML_TEMPLATE)
-      ProjectfilesnapshotRecord().apply {
+      return ProjectfilesnapshotRecord().apply {
         this.baseTxnId = baseTxnId
         this.projectXml = PROJECT_XML_TEMPLATE
       }
     }
+    val snapshot = storageApi.getProjectSnapshot(projectRefid, head.snapshotTxnId)
+      ?: throw ColloboqueServerException("Snapshot ${head.snapshotTxnId} of project $projectRefid not found")
+    if (head.logRecordCount == 0) {
+      return snapshot
+    }
+    // The commits which happen while we are building XML must not get into the result.
+    val projectXml = buildProjectXml(projectRefid, snapshot, head.logRecordCount).projectXml
+    return ProjectfilesnapshotRecord().apply {
+      this.baseTxnId = head.baseTxnId
+      this.projectXml = projectXml
+    }
+  }
 
 }
 
@@ -220,7 +340,7 @@ internal fun loadProject(projectRefid: ProjectRefid, xmlInput: String, storageAp
       true
     }
   }
-  bufferProject.taskManager.tasks.forEach { task -> storageApi.insertTask(projectRefid, task) }
+  storageApi.insertTasks(projectRefid, bufferProject.taskManager.tasks.toList())
 }
 
 private val LOG = GPLogger.create("ColloboqueServer")
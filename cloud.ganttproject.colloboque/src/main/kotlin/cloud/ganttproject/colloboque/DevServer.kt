@@ -18,12 +18,14 @@ along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
 */
 package cloud.ganttproject.colloboque
 
+import biz.ganttproject.storage.cloud.DocumentDelta
 import com.github.ajalt.clikt.core.CliktCommand
 import com.github.ajalt.clikt.core.context
 import com.github.ajalt.clikt.parameters.options.default
 import com.github.ajalt.clikt.parameters.options.option
 import com.github.ajalt.clikt.parameters.types.int
 import com.github.ajalt.clikt.output.MordantHelpFormatter
+import com.google.common.hash.Hashing
 import fi.iki.elonen.NanoHTTPD
 import fi.iki.elonen.NanoHTTPD.Response.Status
 import fi.iki.elonen.NanoWSD
@@ -37,6 +39,7 @@ import net.sourceforge.ganttproject.GPLogger
 import net.sourceforge.ganttproject.storage.InitRecord
 import net.sourceforge.ganttproject.storage.InputXlog
 import net.sourceforge.ganttproject.storage.ServerResponse
+import net.sourceforge.ganttproject.storage.XlogCodec
 import java.io.IOException
 import java.util.*
 import java.util.concurrent.Executors
@@ -63,7 +66,8 @@ class DevServerMain : CliktCommand() {
     STARTUP_LOG.debug("Starting dev Colloboque server on port {}", port)
 
     val initInputChannel = Channel<InitRecord>()
-    val updateInputChannel = Channel<InputXlog>()
+    // Xlogs are queued in the order they are received, so that pipelined xlogs are committed in the order they were sent.
+    val updateInputChannel = Channel<InputXlog>(Channel.UNLIMITED)
     val serverResponseChannel = Channel<ServerResponse>()
     val connectionFactory = PostgresConnectionFactory(pgHost, pgPort, pgSuperUser, pgSuperAuth)
     val colloboqueServer = ColloboqueServer(connectionFactory::createConnection,
@@ -75,6 +79,10 @@ class DevServerMain : CliktCommand() {
 }
 
 class ColloboqueHttpServer(port: Int, private val colloboqueServer: ColloboqueServer) : NanoHTTPD("localhost", port) {
+  // Documents which were uploaded with /p/write. Only the latest version is kept, which is enough for accepting
+  // the deltas from the clients which are in sync.
+  private val documents = mutableMapOf<ProjectRefid, UploadedDocument>()
+
   override fun serve(session: IHTTPSession): Response {
     LOG.debug(session.uri)
     return when (session.uri) {
@@ -88,6 +96,11 @@ class ColloboqueHttpServer(port: Int, private val colloboqueServer: ColloboqueSe
       "/" -> newFixedLengthResponse("Hello")
       "/p/read" -> {
         session.parameters["projectRefid"]?.firstOrNull()?.let {projectRefid ->
+          synchronized(documents) { documents[projectRefid] }?.let { document ->
+            return newFixedLengthResponse(Base64.getEncoder().encodeToString(document.body)).also {
+              it.addDocumentHeaders(document)
+            }
+          }
 
           val snapshot = colloboqueServer.getProjectXml(projectRefid)
           newFixedLengthResponse(snapshot.projectXml!!.toBase64()).also { response ->
@@ -101,9 +114,71 @@ class ColloboqueHttpServer(port: Int, private val colloboqueServer: ColloboqueSe
         } ?: newFixedLengthResponse(Status.BAD_REQUEST, MIME_PLAINTEXT, "projectRefid is missing")
       }
 
+      "/p/write" -> writeDocument(session)
       else -> newFixedLengthResponse(Status.NOT_FOUND, MIME_PLAINTEXT, "Not Found")
     }
   }
+
+  /**
+   * Stores the uploaded document. The contents is sent either as a whole, or as a delta relative to the version
+   * which is specified in oldVersion parameter.
+   */
+  private fun writeDocument(session: IHTTPSession): Response {
+    session.parseBody(mutableMapOf())
+    val params = session.parameters.mapValues { it.value.firstOrNull() }
+    val projectRefid = params["projectRefid"]
+      ?: return newFixedLengthResponse(Status.BAD_REQUEST, MIME_PLAINTEXT, "projectRefid is missing")
+    val oldVersion = params["oldVersion"]?.toLongOrNull()
+    synchronized(documents) {
+      val current = documents[projectRefid]
+      if (current != null && oldVersion != null && oldVersion != current.version) {
+        return newFixedLengthResponse(Status.PRECONDITION_FAILED, MIME_PLAINTEXT,
+          "Version $oldVersion is outdated, the latest one is ${current.version}")
+      }
+      val body = params["fileContents"]?.let { Base64.getDecoder().decode(it) }
+        ?: params["fileDelta"]?.let { delta ->
+          if (current == null || oldVersion != current.version) {
+            return cannotApplyDelta("the base version $oldVersion is unknown")
+          }
+          val result = try {
+            DocumentDelta.apply(current.body, Base64.getDecoder().decode(delta))
+          } catch (e: IOException) {
+            return cannotApplyDelta(e.message ?: "the delta is malformed")
+          }
+          if (result.crc32c() != params["fileChecksum"]) {
+            return cannotApplyDelta("the checksum of the result doesn't match")
+          }
+          result
+        }
+        ?: return newFixedLengthResponse(Status.BAD_REQUEST, MIME_PLAINTEXT, "fileContents is missing")
+      val document = UploadedDocument((current?.version ?: 0) + 1, body)
+      documents[projectRefid] = document
+      LOG.debug("Document {} is written, version={} size={}", projectRefid, document.version, body.size)
+      return newFixedLengthResponse(Status.OK, "application/json", """{"projectRefid":"$projectRefid"}""").also {
+        it.addDocumentHeaders(document)
+      }
+    }
+  }
+
+  private fun cannotApplyDelta(reason: String): Response {
+    LOG.debug("Can't apply the delta: {}", reason)
+    return newFixedLengthResponse(UNPROCESSABLE_ENTITY, MIME_PLAINTEXT, "Can't apply the delta: $reason")
+  }
+
+  private fun Response.addDocumentHeaders(document: UploadedDocument) {
+    addHeader("ETag", document.version.toString())
+    addHeader("Digest", "crc32c=${document.body.crc32c()}")
+    addHeader(DocumentDelta.ACCEPT_HEADER, DocumentDelta.FORMAT)
+  }
+}
+
+private class UploadedDocument(val version: Long, val body: ByteArray)
+
+private fun ByteArray.crc32c() = Hashing.crc32c().hashBytes(this).toString()
+
+private val UNPROCESSABLE_ENTITY = object : NanoHTTPD.Response.IStatus {
+  override fun getDescription() = "${DocumentDelta.CANNOT_APPLY_STATUS} Unprocessable Entity"
+  override fun getRequestStatus() = DocumentDelta.CANNOT_APPLY_STATUS
 }
 
 class ColloboqueWebSocketServer(port: Int, private val colloboqueServer: ColloboqueServer,
@@ -111,15 +186,20 @@ class ColloboqueWebSocketServer(port: Int, private val colloboqueServer: Collobo
                                 private val serverResponseChannel: Channel<ServerResponse>) :
   NanoWSD("localhost", port) {
   private val wsResponseScope = CoroutineScope(Executors.newSingleThreadExecutor().asCoroutineDispatcher())
-  private val wsRequestScope = CoroutineScope(Executors.newSingleThreadExecutor().asCoroutineDispatcher())
-  private val connectedClients = mutableMapOf<ProjectRefid, MutableList<WebSocket>>()
+  private val connectedClients = mutableMapOf<ProjectRefid, MutableList<WebSocketImpl>>()
 
   override fun openWebSocket(handshake: IHTTPSession): WebSocket {
     return WebSocketImpl(handshake)
   }
 
   private inner class WebSocketImpl(handshake: IHTTPSession) : WebSocket(handshake) {
+    // Codec of the binary frames, if the client asked for them. Header names are lowercase in NanoHTTPD.
+    private val codec = XlogCodec.negotiate(handshake.headers[XlogCodec.ENCODING_HEADER.lowercase()])
+
     init {
+      if (codec != null) {
+        this.handshakeResponse.addHeader(XlogCodec.ENCODING_HEADER, XlogCodec.ENCODING)
+      }
 //      handshake.parameters["projectRefid"]?.firstOrNull()?.also { refid ->
 //        colloboqueServer.init(refid)
 //        this.handshakeResponse.addHeader("baseTxnId", colloboqueServer.getBaseTxnId(refid))
@@ -134,7 +214,7 @@ class ColloboqueWebSocketServer(port: Int, private val colloboqueServer: Collobo
               is ServerResponse.ErrorResponse -> response.projectRefid
             }
             connectedClients[projectRefid]?.forEach {
-              it.send(Json.encodeToString(ServerResponse.serializer(), response))
+              it.sendResponse(response)
             }
           } catch (e: Exception) {
             LOG.error("Failed to send response {}", response, e)
@@ -142,6 +222,31 @@ class ColloboqueWebSocketServer(port: Int, private val colloboqueServer: Collobo
         }
       }
     }
+    fun sendResponse(response: ServerResponse) {
+      if (codec != null) {
+        send(codec.encodeServerResponse(response))
+      } else {
+        send(Json.encodeToString(ServerResponse.serializer(), response))
+      }
+    }
+
+    private fun parseInputXlog(message: WebSocketFrame): InputXlog? =
+      if (message.opCode == WebSocketFrame.OpCode.Binary) {
+        decodeInputXlog(message.binaryPayload)
+      } else {
+        parseInputXlog(message.textPayload)
+      }
+
+    private fun decodeInputXlog(frame: ByteArray): InputXlog? = try {
+      codec?.decodeInputXlog(frame) ?: run {
+        LOG.error("Binary frame received, but the binary encoding was not negotiated")
+        null
+      }
+    } catch (e: Exception) {
+      LOG.error("Failed to decode the binary frame of {} bytes", frame.size, exception = e)
+      null
+    }
+
     private fun parseInputXlog(message: String): InputXlog? = try {
       if (message.startsWith("XLOG ")) {
         Json.decodeFromStream<InputXlog>(
@@ -161,19 +266,20 @@ class ColloboqueWebSocketServer(port: Int, private val colloboqueServer: Collobo
       for (webSockets in connectedClients.values) {
         webSockets.remove(this)
       }
+      codec?.close()
       LOG.debug("WebSocket closed")
     }
 
     override fun onMessage(message: WebSocketFrame) {
-      if (message.textPayload.startsWith("LISTEN")) {
+      if (message.opCode == WebSocketFrame.OpCode.Text && message.textPayload.startsWith("LISTEN")) {
         val refid = message.textPayload.substring("LISTEN ".length)
         connectedClients.getOrPut(refid) { mutableListOf() }.add(this)
         return
       }
-      val inputXlog = parseInputXlog(message.textPayload) ?: return
+      val inputXlog = parseInputXlog(message) ?: return
       LOG.debug("Message received\n {}", inputXlog)
-      wsRequestScope.launch {
-        updateInputChannel.send(inputXlog)
+      if (updateInputChannel.trySend(inputXlog).isFailure) {
+        LOG.error("Failed to queue xlog {}", inputXlog)
       }
     }
 
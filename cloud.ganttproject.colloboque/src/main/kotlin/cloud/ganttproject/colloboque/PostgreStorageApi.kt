@@ -33,13 +33,18 @@ import org.jooq.Schema
 import org.jooq.impl.DSL
 import org.jooq.impl.SchemaImpl
 import org.slf4j.LoggerFactory
+import java.util.concurrent.ConcurrentHashMap
 
 class PostgreStorageApi(private val connectionFactory: PostgresConnectionFactory) : StorageApi {
+  private val migratedSchemas = ConcurrentHashMap.newKeySet<String>()
+
   override fun initProject(projectRefid: String) {
     val schema = PostgresConnectionFactory.getSchema(projectRefid)
+    // The template is migrated first, so that the clone doesn't need a migration.
+    migrateSchema(TEMPLATE_SCHEMA)
     connectionFactory.createSuperConnection().use {
       it.prepareCall("SELECT clone_schema(?, ?, ?)").use { stmt ->
-        stmt.setString(1, "project_template")
+        stmt.setString(1, TEMPLATE_SCHEMA)
         stmt.setString(2, schema)
         stmt.setBoolean(3, false)
         stmt.execute()
@@ -71,11 +76,15 @@ class PostgreStorageApi(private val connectionFactory: PostgresConnectionFactory
   override fun insertXlogs(projectRefid: ProjectRefid, baseTxnId: BaseTxnId, xlog: List<XlogRecord>) =
     txn(projectRefid) { db ->
       val logTable = TransactionLogTable(getOrCreateProjectSchema(projectRefid))
-      xlog.forEachIndexed { num, xlogRecord ->
-        LOG.debug("Inserting log record with baseTxn={}, num={}, record={}", baseTxnId, num, xlogRecord)
-        db.insertInto(logTable, TRANSACTIONLOG.BASE_TXN_ID, TRANSACTIONLOG.LOG_RECORD_NUM, TRANSACTIONLOG.LOG_RECORD_JSON)
-          .values(baseTxnId, num, Json.encodeToString(xlogRecord))
-          .execute()
+      LOG.debug("Inserting {} log records with baseTxn={}", xlog.size, baseTxnId)
+      // Records are inserted with multi-row INSERT statements, which are chunked to keep the number of bind
+      // parameters within the driver limits.
+      xlog.withIndex().chunked(INSERT_BATCH_SIZE).forEach { chunk ->
+        chunk.fold(
+          db.insertInto(logTable, TRANSACTIONLOG.BASE_TXN_ID, TRANSACTIONLOG.LOG_RECORD_NUM, TRANSACTIONLOG.LOG_RECORD_JSON)
+        ) { query, (num, xlogRecord) ->
+          query.values(baseTxnId, num, Json.encodeToString(xlogRecord))
+        }.execute()
       }
     }
 
@@ -86,15 +95,25 @@ class PostgreStorageApi(private val connectionFactory: PostgresConnectionFactory
     }
   }
 
+  /**
+   * Inserts the tasks in a single transaction, sending the INSERT statements in JDBC batches. Task rows are inserted
+   * into a view with INSTEAD OF triggers, so COPY is not an option here.
+   */
+  override fun insertTasks(projectRefid: String, tasks: List<Task>) {
+    txn(projectRefid) { db ->
+      tasks.chunked(INSERT_BATCH_SIZE).forEach { chunk ->
+        db.batch(chunk.map { buildInsertTaskQuery(db, it) }).execute()
+      }
+    }
+  }
+
   override fun getProjectSnapshot(projectRefid: String, baseTxnId: BaseTxnId?): ProjectfilesnapshotRecord? {
     val snapshotTable = ProjectFileSnapshot(getOrCreateProjectSchema(projectRefid))
     return txn(projectRefid) { db ->
       val query = baseTxnId?.let {
         db.selectFrom(snapshotTable).where(snapshotTable.BASE_TXN_ID.eq(it))
       } ?: run {
-        db.selectFrom(snapshotTable).where(
-          snapshotTable.BASE_TXN_ID.eq(db.select(DSL.max(snapshotTable.BASE_TXN_ID)).from(snapshotTable))
-        )
+        db.selectFrom(snapshotTable).orderBy(snapshotTable.BASE_TXN_ID.desc()).limit(1)
       }
       query.fetchOne()
     }
@@ -106,6 +125,22 @@ class PostgreStorageApi(private val connectionFactory: PostgresConnectionFactory
       db.insertInto(snapshotTable).columns(snapshotTable.BASE_TXN_ID, snapshotTable.PROJECT_XML).values(baseTxnId, projectXml).execute()
     }
   }
+
+  override fun pruneHistory(projectRefid: String, keepSnapshots: Int) {
+    val schema = getOrCreateProjectSchema(projectRefid)
+    val snapshotTable = ProjectFileSnapshot(schema)
+    val logTable = TransactionLogTable(schema)
+    txn(projectRefid) { db ->
+      val oldestKeptTxnId = db.select(snapshotTable.BASE_TXN_ID).from(snapshotTable)
+        .orderBy(snapshotTable.BASE_TXN_ID.desc())
+        .limit(1).offset(keepSnapshots - 1)
+        .fetchOne()?.value1() ?: return@txn
+      val logCount = db.deleteFrom(logTable).where(logTable.BASE_TXN_ID.lt(oldestKeptTxnId)).execute()
+      val snapshotCount = db.deleteFrom(snapshotTable).where(snapshotTable.BASE_TXN_ID.lt(oldestKeptTxnId)).execute()
+      LOG.debug("Pruned {} snapshots and {} log records preceding baseTxn={}", snapshotCount, logCount, oldestKeptTxnId)
+    }
+  }
+
   fun <T> txn(projectRefid: ProjectRefid, code: (DSLContext)->T): T {
     return connectionFactory.createConnection(projectRefid).use {cxn -> dsl(cxn).transactionResult { it -> code(it.dsl()) }
     }
@@ -124,8 +159,31 @@ class PostgreStorageApi(private val connectionFactory: PostgresConnectionFactory
     if (!hasSchema) {
       initProject(projectRefid)
     }
+    migrateSchema(schemaName)
     return schemaName
   }
+
+  /**
+   * Brings a project schema which was created from an older template up to date. Runs once per schema in the server
+   * process, and every step is idempotent.
+   */
+  private fun migrateSchema(schemaName: String) {
+    if (!migratedSchemas.add(schemaName)) {
+      return
+    }
+    connectionFactory.createSuperConnection().use { cxn ->
+      val db = dsl(cxn)
+      // TransactionLog used to reference ProjectFileSnapshot, however, log records are now based on states which
+      // have no snapshot.
+      db.resultQuery(
+        "SELECT conname FROM pg_constraint WHERE conrelid = to_regclass(?) AND contype = 'f'",
+        "$schemaName.transactionlog"
+      ).fetch().forEach { constraint ->
+        LOG.debug("Dropping constraint {} of {}.transactionlog", constraint[0], schemaName)
+        db.alterTable(DSL.name(schemaName, "transactionlog")).dropConstraint(DSL.name(constraint[0] as String)).execute()
+      }
+    }
+  }
 }
 
 internal class TransactionLogTable(private val schemaName: String) : Transactionlog() {
@@ -141,4 +199,6 @@ internal class ProjectFileSnapshot(private val schemaName: String) : Projectfile
 }
 
 private val NULL_TXN_ID = 0L
+private const val TEMPLATE_SCHEMA = "project_template"
+private const val INSERT_BATCH_SIZE = 500
 private val LOG = LoggerFactory.getLogger("Postgres.StorageApi")
\ No newline at end of file
@@ -27,6 +27,9 @@ import java.util.concurrent.Executors
 
 /**
  * This class checks if applying two concurrent transaction logs to the same base snapshot produces any conflicts.
+ *
+ * The read/write footprints of the logs are compared in memory first. Only if some operations can't be classified,
+ * the logs are applied to a temporary copy of the project database in two concurrent transactions.
  */
 class PostgreXlogMerger(private val connectionFactory: PostgresConnectionFactory, private val projectRefid: ProjectRefid) {
   /**
@@ -45,9 +48,37 @@ class PostgreXlogMerger(private val connectionFactory: PostgresConnectionFactory
    * This function applies the transaction logs stored on the server and those received from a client.
    * The logs are executed in two concurrent transactions and if they both complete successfully, we believe that there
    * are no conflicts, and we can merge the client's changes. Otherwise, client's changes conflict with the server's and must be
-   * rejected.
+   * rejected. The database is not touched if the footprints of the logs tell the answer.
+   *
+   * @param createTemporaryDataSource creates the base snapshot database, e.g. with [createProjectSnapshotDatabase].
+   * It is called only if the footprints can't tell the answer, and the created database is shut down after the merge.
    */
   fun tryMergeConcurrentUpdates(
+    createTemporaryDataSource: () -> PostgresConnectionFactory.TemporaryDataSource,
+    serverTransaction: List<XlogRecord>,
+    clientTransaction: List<XlogRecord>
+  ): Boolean =
+    mergeByFootprints(serverTransaction, clientTransaction)
+      ?: createTemporaryDataSource().let { temporaryDataSource ->
+        try {
+          tryMergeInDatabase(temporaryDataSource, serverTransaction, clientTransaction)
+        } finally {
+          temporaryDataSource.shutdown()
+        }
+      }
+
+  /**
+   * Returns true if the logs commute, false if they conflict and null if some operations can't be classified.
+   */
+  private fun mergeByFootprints(serverTransaction: List<XlogRecord>, clientTransaction: List<XlogRecord>): Boolean? {
+    val serverFootprint = XlogFootprint.of(serverTransaction) ?: return null
+    val clientFootprint = XlogFootprint.of(clientTransaction) ?: return null
+    return !serverFootprint.conflictsWith(clientFootprint).also {
+      LOG.debug("Footprint check for project {}: conflict={}", projectRefid, it)
+    }
+  }
+
+  private fun tryMergeInDatabase(
     temporaryDataSource: PostgresConnectionFactory.TemporaryDataSource,
     serverTransaction: List<XlogRecord>,
     clientTransaction: List<XlogRecord>
@@ -28,12 +28,23 @@ interface StorageApi {
   fun insertXlogs(projectRefid: ProjectRefid, baseTxnId: BaseTxnId, xlog: List<XlogRecord>)
   fun insertTask(projectRefid: String, task: Task)
 
+  /**
+   * Inserts all tasks at once. Implementations are expected to do it in a single transaction.
+   */
+  fun insertTasks(projectRefid: String, tasks: List<Task>) = tasks.forEach { insertTask(projectRefid, it) }
+
   /**
    * Fetches a snapshot record corresponding to the given project and base transaction identifier. If the latter is null,
    * returns the latest available snapshot.
    */
   fun getProjectSnapshot(projectRefid: String, baseTxnId: BaseTxnId? = null): ProjectfilesnapshotRecord?
   fun insertActualSnapshot(projectRefid: String, baseTxnId: BaseTxnId, projectXml: String)
+
+  /**
+   * Removes all snapshots except for the latest `keepSnapshots` ones, and the log records which precede the oldest
+   * remaining snapshot.
+   */
+  fun pruneHistory(projectRefid: String, keepSnapshots: Int)
 }
 
 class PluggableStorageApi(
@@ -49,6 +60,7 @@ class PluggableStorageApi(
     error("Not implemented")
   },
   private val insertActualSnapshot_: (projectRefid: String, baseTxnId: BaseTxnId, projectXml: String) -> Unit = {_, _, _ -> },
+  private val pruneHistory_: (projectRefid: String, keepSnapshots: Int) -> Unit = {_, _ -> },
 ) : StorageApi {
   override fun initProject(projectRefid: String) = initProject_(projectRefid)
 
@@ -61,4 +73,6 @@ class PluggableStorageApi(
   override fun getProjectSnapshot(projectRefid: String, baseTxnId: BaseTxnId?) = getProjectSnapshot_(projectRefid, baseTxnId)
 
   override fun insertActualSnapshot(projectRefid: String, baseTxnId: BaseTxnId, projectXml: String) = insertActualSnapshot_(projectRefid, baseTxnId, projectXml)
+
+  override fun pruneHistory(projectRefid: String, keepSnapshots: Int) = pruneHistory_(projectRefid, keepSnapshots)
 }
@@ -0,0 +1,134 @@
+/*
+Copyright 2026 BarD Software s.r.o., GanttProject Team
+
+This file is part of GanttProject Cloud.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package cloud.ganttproject.colloboque
+
+import net.sourceforge.ganttproject.storage.BinaryPred
+import net.sourceforge.ganttproject.storage.OperationDto
+import net.sourceforge.ganttproject.storage.RangePred
+import net.sourceforge.ganttproject.storage.XlogRecord
+
+/**
+ * Read/write footprint of a transaction log: the task rows it inserts or deletes, and the column families
+ * it updates in the other task rows.
+ *
+ * The column families mirror the tables behind the Task view in the project database schema: the updates of
+ * different families write different database rows, so they don't conflict even if they update the same task.
+ * Two logs conflict if one of them inserts or deletes a row which is touched by the other one, or if they update
+ * the same family of the same row.
+ */
+internal class XlogFootprint private constructor() {
+  // Rows which are inserted or deleted
+  private val wholeRows = mutableSetOf<String>()
+  // Updated column families by row
+  private val updatedFamilies = mutableMapOf<String, MutableSet<String>>()
+
+  fun conflictsWith(other: XlogFootprint): Boolean =
+    wholeRows.any(other::touches) || other.wholeRows.any(this::touches) ||
+      updatedFamilies.any { (uid, families) -> other.updatedFamilies[uid]?.any(families::contains) ?: false }
+
+  private fun touches(uid: String) = uid in wholeRows || uid in updatedFamilies
+
+  /**
+   * Adds the footprint of the operation and returns true, or returns false if the operation can't be classified.
+   */
+  private fun add(operation: OperationDto): Boolean = when (operation) {
+    is OperationDto.NoOperationDto -> true
+    is OperationDto.InsertOperationDto -> {
+      val uid = operation.values[UID_COLUMN]
+      if (isTaskTable(operation.tableName) && uid != null) {
+        wholeRows.add(uid)
+        true
+      } else false
+    }
+    is OperationDto.DeleteOperationDto -> {
+      val uids = getRowUids(operation.tableName, operation.deleteBinaryConditions, operation.deleteRangeConditions)
+      uids?.let { wholeRows.addAll(it) } != null
+    }
+    is OperationDto.UpdateOperationDto -> {
+      val uids = getRowUids(operation.tableName, operation.updateBinaryConditions, operation.updateRangeConditions)
+      val families = operation.newValues.keys.map { TASK_COLUMN_FAMILIES[it.lowercase()] }
+      if (uids != null && families.none { it == null }) {
+        uids.forEach { uid -> updatedFamilies.getOrPut(uid) { mutableSetOf() }.addAll(families.filterNotNull()) }
+        true
+      } else false
+    }
+    // Merge may either insert or update, depending on the data, so we leave it to the database.
+    is OperationDto.MergeOperationDto -> false
+  }
+
+  companion object {
+    /**
+     * Builds the footprint of the transaction log, or returns null if some of its operations can't be classified.
+     */
+    fun of(xlog: List<XlogRecord>): XlogFootprint? {
+      val result = XlogFootprint()
+      xlog.forEach { record ->
+        record.colloboqueOperations.forEach { if (!result.add(it)) return null }
+      }
+      return result
+    }
+  }
+}
+
+/**
+ * Returns the task uids which are selected by the conditions, or null if the conditions are not a simple
+ * uid lookup.
+ */
+private fun getRowUids(tableName: String,
+                       binaryConditions: List<Triple<String, BinaryPred, String>>,
+                       rangeConditions: List<Triple<String, RangePred, List<String>>>): List<String>? {
+  if (!isTaskTable(tableName)) {
+    return null
+  }
+  if (binaryConditions.size == 1 && rangeConditions.isEmpty()) {
+    val (column, pred, value) = binaryConditions[0]
+    return if (column.lowercase() == UID_COLUMN && pred == BinaryPred.EQ) listOf(value) else null
+  }
+  if (binaryConditions.isEmpty() && rangeConditions.size == 1) {
+    val (column, pred, values) = rangeConditions[0]
+    return if (column.lowercase() == UID_COLUMN && pred == RangePred.IN) values else null
+  }
+  return null
+}
+
+private fun isTaskTable(tableName: String) = tableName.lowercase() == TASK_TABLE
+
+private const val TASK_TABLE = "task"
+private const val UID_COLUMN = "uid"
+
+// Column families of the Task view. Each family is written to its own database row.
+private val TASK_COLUMN_FAMILIES = mapOf(
+  "num" to "TaskName",
+  "name" to "TaskName",
+  "start_date" to "TaskDates",
+  "end_date" to "TaskDates",
+  "duration" to "TaskDates",
+  "earliest_start_date" to "TaskDates",
+  "is_cost_calculated" to "TaskCostProperties",
+  "cost_manual_value" to "TaskCostProperties",
+  "cost" to "TaskCostProperties",
+  "is_milestone" to "TaskClassProperties",
+  "is_project_task" to "TaskClassProperties",
+  "completion" to "TaskIntProperties.completion",
+  "priority" to "TaskTextProperties.priority",
+  "color" to "TaskTextProperties.color",
+  "shape" to "TaskTextProperties.shape",
+  "web_link" to "TaskTextProperties.web_link",
+  "notes" to "TaskTextProperties.notes",
+)
@@ -92,8 +92,10 @@ CREATE TABLE ProjectFileSnapshot(
 -- We expect that normally there is just 1 log record that applies to each base state, however,
 -- if a client goes offline, the log records may stack on top of each other and, until they are received and
 -- applied on the server, they refer to the same base txn ID.
+-- Snapshots are written only from time to time, so the base state of a log record is not necessarily a snapshot.
+-- It is restored by replaying the log records from the nearest preceding snapshot.
 CREATE TABLE TransactionLog(
-    base_txn_id BIGINT REFERENCES ProjectFileSnapshot,
+    base_txn_id BIGINT NOT NULL,
     log_record_num INT CHECK(log_record_num >= 0),
     log_record_json VARCHAR(65535),
     PRIMARY KEY (base_txn_id, log_record_num)
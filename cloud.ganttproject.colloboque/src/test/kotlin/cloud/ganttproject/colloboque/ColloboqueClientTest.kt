@@ -0,0 +1,201 @@
+/*
+ * Copyright 2026 BarD Software s.r.o., GanttProject Team.
+ *
+ * This file is part of GanttProject, an opensource project management tool.
+ *
+ * GanttProject is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ * GanttProject is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cloud.ganttproject.colloboque
+
+import biz.ganttproject.storage.cloud.ColloboqueClient
+import biz.ganttproject.storage.cloud.RetryPolicy
+import cloud.ganttproject.colloboque.db.project_template.tables.records.ProjectfilesnapshotRecord
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.withTimeout
+import net.sourceforge.ganttproject.storage.InputXlog
+import net.sourceforge.ganttproject.storage.SQL_PROJECT_DATABASE_OPTIONS
+import net.sourceforge.ganttproject.storage.ServerResponse
+import net.sourceforge.ganttproject.storage.SqlProjectDatabaseImpl
+import net.sourceforge.ganttproject.task.TaskManager
+import org.h2.jdbcx.JdbcDataSource
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Runs the client against the same server core which DevServer runs. The websocket is replaced with the channels.
+ */
+class ColloboqueClientTest {
+  private val clientDataSource = JdbcDataSource().also {
+    it.setURL("jdbc:h2:mem:client$SQL_PROJECT_DATABASE_OPTIONS")
+  }
+  private val serverDataSource = JdbcDataSource().also {
+    it.setURL("jdbc:h2:mem:server$SQL_PROJECT_DATABASE_OPTIONS")
+  }
+  private lateinit var clientDatabase: SqlProjectDatabaseImpl
+  private lateinit var taskManager: TaskManager
+  private val updateInputChannel = Channel<InputXlog>(Channel.UNLIMITED)
+  private val serverResponseChannel = Channel<ServerResponse>()
+  private val bridgeScope = CoroutineScope(Dispatchers.Default)
+
+  // Tracking codes of the xlogs which were sent and are not yet answered.
+  private val unansweredXlogs = ConcurrentHashMap.newKeySet<String>()
+  private val maxUnansweredXlogs = AtomicInteger()
+  private val sentXlogCount = AtomicInteger()
+  private val sentXlogs = ConcurrentLinkedQueue<InputXlog>()
+  private val commits = Channel<ServerResponse.CommitResponse>(Channel.UNLIMITED)
+
+  @BeforeEach fun setUp() {
+    localeApi  // This will set a static field in CalendarFactory
+    clientDatabase = SqlProjectDatabaseImpl(clientDataSource).also {
+      it.init()
+      it.startLog(0)
+    }
+    SqlProjectDatabaseImpl(serverDataSource).init()
+    taskManager = TestSetupHelper.newTaskManagerBuilder().also {
+      it.setTaskUpdateBuilderFactory { task -> clientDatabase.createTaskUpdateBuilder(task) }
+    }.build()
+  }
+
+  @AfterEach fun tearDown() {
+    listOf(clientDataSource, serverDataSource).forEach { dataSource ->
+      dataSource.connection.use { it.createStatement().execute("shutdown") }
+    }
+  }
+
+  @Test fun `xlogs are pipelined within the window`() {
+    startServer { serverDataSource.connection }
+    val client = startClient(windowSize = 2)
+    repeat(6) {
+      clientDatabase.insertTask(taskManager.newTaskBuilder().withId(it).withUid("uid$it").build())
+      client.sendProjectStateLogs()
+    }
+    runBlocking {
+      withTimeout(5000) {
+        while (commits.receive().newBaseTxnId < 6) {}
+      }
+    }
+    assertTrue(maxUnansweredXlogs.get() in 1..2) { "Max xlogs in flight: ${maxUnansweredXlogs.get()}" }
+    val serverTaskCount = serverDataSource.connection.use { cxn ->
+      cxn.createStatement().executeQuery("SELECT count(*) FROM Task").use { rs -> rs.next(); rs.getInt(1) }
+    }
+    assertEquals(6, serverTaskCount)
+  }
+
+  @Test fun `client requests resync when xlogs are persistently rejected`() {
+    startServer { error("The server can't apply anything") }
+    val resync = CompletableFuture<Unit>()
+    val client = startClient(
+      windowSize = 2, retryPolicy = RetryPolicy(maxRetries = 2, initialBackoff = Duration.ofMillis(1)),
+      resyncHead = { resync.complete(Unit) }
+    )
+    clientDatabase.insertTask(taskManager.newTaskBuilder().withId(1).withUid("uid1").build())
+    client.sendProjectStateLogs()
+
+    resync.get(5, TimeUnit.SECONDS)
+    // The first attempt and two retries
+    assertEquals(3, sentXlogCount.get())
+  }
+
+  @Test fun `only new transactions are sent after the resync`() {
+    val isRejecting = AtomicBoolean(true)
+    startServer { if (isRejecting.get()) error("The server can't apply anything") else serverDataSource.connection }
+    val resync = CompletableFuture<Unit>()
+    val client = startClient(
+      windowSize = 2, retryPolicy = RetryPolicy(maxRetries = 1, initialBackoff = Duration.ofMillis(1)),
+      resyncHead = { resync.complete(Unit) }
+    )
+    clientDatabase.insertTask(taskManager.newTaskBuilder().withId(1).withUid("uid1").build())
+    client.sendProjectStateLogs()
+    resync.get(5, TimeUnit.SECONDS)
+
+    // The server head has not moved, because nothing was committed
+    isRejecting.set(false)
+    sentXlogs.clear()
+    client.start("project", 0L)
+    clientDatabase.insertTask(taskManager.newTaskBuilder().withId(2).withUid("uid2").build())
+    client.sendProjectStateLogs()
+    runBlocking {
+      withTimeout(5000) {
+        assertEquals(1L, commits.receive().newBaseTxnId)
+      }
+    }
+
+    assertEquals(1, sentXlogs.size)
+    assertEquals(0L, sentXlogs.single().baseTxnId)
+    assertEquals(1, sentXlogs.single().transactions.size)
+    val serverTaskUids = serverDataSource.connection.use { cxn ->
+      cxn.createStatement().executeQuery("SELECT uid FROM Task").use { rs ->
+        buildList { while (rs.next()) add(rs.getString(1)) }
+      }
+    }
+    assertEquals(listOf("uid2"), serverTaskUids)
+  }
+
+  private fun startServer(connectionFactory: (String) -> java.sql.Connection) {
+    val storageApi = PluggableStorageApi(
+      getTransactionLogs_ = { _, _ -> emptyList() },
+      insertXlogs_ = { _, _, _ -> },
+      getProjectSnapshot_ = { _, _ -> ProjectfilesnapshotRecord().also {
+        it.baseTxnId = 0L
+        it.projectXml = PROJECT_XML_TEMPLATE
+      }},
+    )
+    ColloboqueServer(connectionFactory, storageApi, updateInputChannel, serverResponseChannel)
+  }
+
+  private fun startClient(
+    windowSize: Int, retryPolicy: RetryPolicy = RetryPolicy(), resyncHead: () -> Unit = {}
+  ): ColloboqueClient {
+    val client = ColloboqueClient(
+      clientDatabase, windowSize = windowSize, maxXlogTransactions = 1, retryPolicy = retryPolicy,
+      sendLogs = { xlog ->
+        sentXlogCount.incrementAndGet()
+        sentXlogs.add(xlog)
+        unansweredXlogs.add(xlog.clientTrackingCode)
+        maxUnansweredXlogs.accumulateAndGet(unansweredXlogs.size) { a, b -> maxOf(a, b) }
+        // The channel is unlimited, so the xlogs get to the server in the order they were sent.
+        updateInputChannel.trySend(xlog)
+      },
+      resyncHead = resyncHead
+    )
+    bridgeScope.launch {
+      for (response in serverResponseChannel) {
+        when (response) {
+          is ServerResponse.CommitResponse -> {
+            unansweredXlogs.remove(response.clientTrackingCode)
+            commits.send(response)
+          }
+          is ServerResponse.ErrorResponse -> unansweredXlogs.remove(response.clientTrackingCode)
+        }
+        client.onServerResponse(response)
+      }
+    }
+    client.start("project", 0L)
+    return client
+  }
+}
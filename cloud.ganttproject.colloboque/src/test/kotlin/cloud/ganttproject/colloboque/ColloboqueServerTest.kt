@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026 BarD Software s.r.o., GanttProject Team.
+ *
+ * This file is part of GanttProject, an opensource project management tool.
+ *
+ * GanttProject is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ * GanttProject is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cloud.ganttproject.colloboque
+
+import cloud.ganttproject.colloboque.db.project_template.tables.records.ProjectfilesnapshotRecord
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.runBlocking
+import net.sourceforge.ganttproject.storage.InputXlog
+import net.sourceforge.ganttproject.storage.OperationDto
+import net.sourceforge.ganttproject.storage.ServerResponse
+import net.sourceforge.ganttproject.storage.XlogRecord
+import net.sourceforge.ganttproject.storage.predictNextBaseTxnId
+import org.h2.jdbcx.JdbcDataSource
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.TimeUnit
+
+class ColloboqueServerTest {
+  @BeforeEach fun setUp() {
+    localeApi  // This will set a static field in CalendarFactory
+  }
+
+  @Test fun `snapshots are written according to the policy`() {
+    val snapshots = mutableListOf<Long>()
+    val prune = CompletableFuture<Int>()
+    val storageApi = PluggableStorageApi(
+      getTransactionLogs_ = { _, _ -> emptyList() },
+      insertXlogs_ = { _, _, _ -> },
+      getProjectSnapshot_ = { _, _ -> baseSnapshot() },
+      insertActualSnapshot_ = { _, baseTxnId, _ -> snapshots.add(baseTxnId) },
+      pruneHistory_ = { _, keepSnapshots -> prune.complete(keepSnapshots) }
+    )
+    val dataSource = JdbcDataSource().also { it.setURL("jdbc:h2:mem:snapshots;DB_CLOSE_DELAY=-1") }
+    val updateInputChannel = Channel<InputXlog>()
+    val serverResponseChannel = Channel<ServerResponse>()
+    ColloboqueServer(
+      connectionFactory = { dataSource.connection }, storageApi = storageApi,
+      updateInputChannel = updateInputChannel, serverResponseChannel = serverResponseChannel,
+      snapshotPolicy = SnapshotPolicy(maxLogRecords = 2, maxAge = Duration.ofDays(1), keepSnapshots = 3)
+    )
+    runBlocking {
+      for (baseTxnId in 0L..2L) {
+        updateInputChannel.send(InputXlog(baseTxnId, "user", "project", NOOP_TXNS, "code$baseTxnId"))
+        assertTrue(serverResponseChannel.receive() is ServerResponse.CommitResponse)
+      }
+    }
+    // The second commit makes the log long enough, and the third one starts a new log.
+    assertEquals(listOf(2L), snapshots)
+    // The history is pruned in the background
+    assertEquals(3, prune.get(5, TimeUnit.SECONDS))
+  }
+
+  @Test fun `snapshot is not written when the base txn ID does not advance`() {
+    val snapshots = mutableListOf<Long>()
+    val storageApi = PluggableStorageApi(
+      getTransactionLogs_ = { _, _ -> emptyList() },
+      insertXlogs_ = { _, _, _ -> },
+      getProjectSnapshot_ = { _, _ -> baseSnapshot() },
+      insertActualSnapshot_ = { _, baseTxnId, _ -> snapshots.add(baseTxnId) },
+    )
+    val updateInputChannel = Channel<InputXlog>()
+    val serverResponseChannel = Channel<ServerResponse>()
+    ColloboqueServer(
+      connectionFactory = { error("Do not connect") }, storageApi = storageApi,
+      updateInputChannel = updateInputChannel, serverResponseChannel = serverResponseChannel,
+      snapshotPolicy = SnapshotPolicy(maxLogRecords = 1)
+    )
+    runBlocking {
+      repeat(3) {
+        updateInputChannel.send(InputXlog(0L, "user", "project", listOf(XlogRecord(emptyList())), "code$it"))
+        assertTrue(serverResponseChannel.receive() is ServerResponse.CommitResponse)
+      }
+    }
+    // Empty records don't change the state, and the base snapshot 0 already exists.
+    assertEquals(emptyList<Long>(), snapshots)
+  }
+
+  @Test fun `only applied records get into the transaction log`() {
+    val loggedRecords = mutableListOf<XlogRecord>()
+    val storageApi = PluggableStorageApi(
+      getTransactionLogs_ = { _, _ -> loggedRecords.toList() },
+      insertXlogs_ = { _, _, xlog -> loggedRecords.addAll(xlog) },
+      getProjectSnapshot_ = { _, _ -> baseSnapshot() },
+    )
+    val dataSource = JdbcDataSource().also { it.setURL("jdbc:h2:mem:rejected;DB_CLOSE_DELAY=-1") }
+    var connectionCount = 0
+    val updateInputChannel = Channel<InputXlog>()
+    val serverResponseChannel = Channel<ServerResponse>()
+    ColloboqueServer(
+      connectionFactory = {
+        // The second record of the first xlog fails to apply.
+        if (++connectionCount == 2) error("Connection failed") else dataSource.connection
+      },
+      storageApi = storageApi,
+      updateInputChannel = updateInputChannel, serverResponseChannel = serverResponseChannel
+    )
+    val first = XlogRecord(listOf(OperationDto.NoOperationDto("task1")))
+    val second = XlogRecord(listOf(OperationDto.NoOperationDto("task2")))
+    runBlocking {
+      updateInputChannel.send(InputXlog(0L, "user", "project", listOf(first, second), "a"))
+      assertTrue(serverResponseChannel.receive() is ServerResponse.ErrorResponse)
+      assertEquals(listOf(first), loggedRecords)
+
+      // The rejected record is not in the log, so the server continues from the state after the first record.
+      updateInputChannel.send(InputXlog(1L, "user", "project", listOf(second), "b"))
+      val response = serverResponseChannel.receive() as ServerResponse.CommitResponse
+      assertEquals(2L, response.newBaseTxnId)
+      assertEquals(listOf(first, second), loggedRecords)
+    }
+  }
+
+  @Test fun `pipelined xlogs are committed in order and rejected after a rejected one`() {
+    val storageApi = PluggableStorageApi(
+      getTransactionLogs_ = { _, _ -> emptyList() },
+      insertXlogs_ = { _, _, _ -> },
+      getProjectSnapshot_ = { _, _ -> baseSnapshot() },
+    )
+    val dataSource = JdbcDataSource().also { it.setURL("jdbc:h2:mem:pipelined;DB_CLOSE_DELAY=-1") }
+    val updateInputChannel = Channel<InputXlog>(Channel.UNLIMITED)
+    val serverResponseChannel = Channel<ServerResponse>()
+    ColloboqueServer(
+      connectionFactory = { dataSource.connection }, storageApi = storageApi,
+      updateInputChannel = updateInputChannel, serverResponseChannel = serverResponseChannel
+    )
+    val txns = NOOP_TXNS
+    runBlocking {
+      // Three xlogs are sent at once, each one predicted on top of the previous one.
+      var previousCode: String? = null
+      var baseTxnId = 0L
+      for (code in listOf("a", "b", "c")) {
+        updateInputChannel.send(InputXlog(baseTxnId, "user", "project", txns, code, previousCode))
+        previousCode = code
+        baseTxnId = predictNextBaseTxnId(baseTxnId, txns)
+      }
+      for ((code, newBaseTxnId) in listOf("a" to 1L, "b" to 2L, "c" to 3L)) {
+        val response = serverResponseChannel.receive() as ServerResponse.CommitResponse
+        assertEquals(code, response.clientTrackingCode)
+        assertEquals(newBaseTxnId, response.newBaseTxnId)
+      }
+
+      // The base txn ID is right, but the previous xlog was not the last committed one.
+      updateInputChannel.send(InputXlog(3L, "user", "project", txns, "e", "d"))
+      val error = serverResponseChannel.receive() as ServerResponse.ErrorResponse
+      assertEquals("e", error.clientTrackingCode)
+    }
+  }
+}
+
+private fun baseSnapshot() = ProjectfilesnapshotRecord().also {
+  it.baseTxnId = 0L
+  it.projectXml = PROJECT_XML_TEMPLATE
+}
+
+private val NOOP_TXNS = listOf(XlogRecord(listOf(OperationDto.NoOperationDto("task"))))
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2026 BarD Software s.r.o., GanttProject Team.
+ *
+ * This file is part of GanttProject, an opensource project management tool.
+ *
+ * GanttProject is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ * GanttProject is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cloud.ganttproject.colloboque
+
+import net.sourceforge.ganttproject.storage.OperationDto
+import net.sourceforge.ganttproject.storage.XlogRecord
+import org.jooq.impl.DSL
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+
+class PostgreStorageApiTest {
+  @BeforeEach fun setUp() {
+    localeApi  // This will set a static field in CalendarFactory
+  }
+
+  @Test fun `bulk load of project tasks and log records`() {
+    val taskCount = 5000
+    val projectXml = buildString {
+      append("""<?xml version="1.0" encoding="UTF-8"?>""").append('\n')
+      append("""<project name="" company="" webLink="" view-date="2022-01-01" view-index="0" version="3.0.2906" locale="en">""")
+      append("""<tasks empty-milestones="true">""")
+      repeat(taskCount) {
+        append("""<task id="$it" uid="uid$it" name="Task$it" meeting="false" start="2022-02-10" duration="5" complete="0" expand="true"/>""")
+      }
+      append("</tasks></project>")
+    }
+    val connectionFactory = PostgresConnectionFactory("localhost", 5432, "postgres", "")
+    val dataSource = connectionFactory.createTemporaryDataSource()
+    try {
+      val projectRefid = "bulk_load"
+      val storageApi = PostgreStorageApi(dataSource.connectionFactory)
+      storageApi.getOrCreateProjectSchema(projectRefid)
+
+      loadProject(projectRefid, projectXml, storageApi)
+
+      val xlog = List(taskCount) { XlogRecord(listOf(OperationDto.NoOperationDto("task"))) }
+      storageApi.insertXlogs(projectRefid, 0L, xlog)
+
+      assertEquals(taskCount, storageApi.txn(projectRefid) { it.fetchCount(DSL.table("task")) })
+      assertEquals(taskCount, storageApi.getTransactionLogs(projectRefid, 0L).size)
+    } finally {
+      dataSource.shutdown()
+      connectionFactory.close()
+    }
+  }
+}
@@ -118,10 +118,9 @@ class ProjectFileUpdaterTest {
     val connectionFactory = PostgresConnectionFactory("localhost", 5432, "postgres", "")
     val schemaName = "merge_wil_fail"
     PostgreXlogMerger(connectionFactory, schemaName).run {
-      val dataSource = createProjectSnapshotDatabase(PROJECT_XML_TEMPLATE)
-      assertFalse(tryMergeConcurrentUpdates(dataSource, listOf(serverChanges), listOf(clientChanges)).also {
-        dataSource.shutdown()
-      })
+      assertFalse(tryMergeConcurrentUpdates(
+        { createProjectSnapshotDatabase(PROJECT_XML_TEMPLATE) }, listOf(serverChanges), listOf(clientChanges)
+      ))
     }
     connectionFactory.close()
   }
@@ -152,10 +151,10 @@ class ProjectFileUpdaterTest {
     val connectionFactory = PostgresConnectionFactory("localhost", 5432, "postgres", "")
     val schemaName = "merge_will_succeed"
     PostgreXlogMerger(connectionFactory, schemaName).run {
-      val dataSource = createProjectSnapshotDatabase(PROJECT_XML_TEMPLATE)
-      assertTrue(tryMergeConcurrentUpdates(dataSource, listOf(serverChanges), listOf(clientChanges)).also {
-        dataSource.shutdown()
-      })
+      assertTrue(tryMergeConcurrentUpdates(
+        // Different column families of the same task commute, so the footprints answer without a database
+        { fail("The temporary database must not be created") }, listOf(serverChanges), listOf(clientChanges)
+      ))
     }
     connectionFactory.close()
   }
@@ -190,10 +189,9 @@ class ProjectFileUpdaterTest {
     val connectionFactory = PostgresConnectionFactory("localhost", 5432, "postgres", "")
     val schemaName = "merge_will_succeed"
     PostgreXlogMerger(connectionFactory, schemaName).run {
-      val dataSource = createProjectSnapshotDatabase(PROJECT_XML_TEMPLATE)
-      assertTrue(tryMergeConcurrentUpdates(dataSource, listOf(serverChanges), listOf(clientChanges)).also {
-        dataSource.shutdown()
-      })
+      assertTrue(tryMergeConcurrentUpdates(
+        { createProjectSnapshotDatabase(PROJECT_XML_TEMPLATE) }, listOf(serverChanges), listOf(clientChanges)
+      ))
     }
     connectionFactory.close()
   }
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 BarD Software s.r.o., GanttProject Team.
+ *
+ * This file is part of GanttProject, an opensource project management tool.
+ *
+ * GanttProject is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ * GanttProject is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cloud.ganttproject.colloboque
+
+import kotlinx.serialization.json.Json
+import net.sourceforge.ganttproject.storage.*
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import java.util.*
+
+class XlogCodecTest {
+  private fun xlog(baseTxnId: Long, uid: String) = InputXlog(
+    baseTxnId = baseTxnId,
+    userId = "user",
+    projectRefid = "project",
+    transactions = listOf(XlogRecord(listOf(
+      OperationDto.UpdateOperationDto("task",
+        updateBinaryConditions = mutableListOf(Triple("uid", BinaryPred.EQ, uid)),
+        updateRangeConditions = mutableListOf(),
+        newValues = mutableMapOf("name" to "Task $baseTxnId", "duration" to "3")
+      ),
+      OperationDto.DeleteOperationDto("task", deleteRangeConditions = listOf(Triple("uid", RangePred.IN, listOf("a", "b"))))
+    ))),
+    clientTrackingCode = "code$baseTxnId",
+    previousTrackingCode = if (baseTxnId > 1) "code${baseTxnId - 1}" else null
+  )
+
+  @Test fun `frames are decoded in the order they were encoded`() {
+    val clientSide = XlogCodec()
+    val serverSide = XlogCodec()
+    val xlogs = (1L..20L).map { xlog(it, "uid$it") }
+    val frames = xlogs.map(clientSide::encodeInputXlog)
+    assertEquals(xlogs, frames.map(serverSide::decodeInputXlog))
+
+    val responses = xlogs.map { ServerResponse.CommitResponse(it.baseTxnId, it.baseTxnId + 1, it.projectRefid, it.transactions, it.clientTrackingCode) } +
+      ServerResponse.ErrorResponse(21, "project", "Conflict", "code21")
+    assertEquals(responses, responses.map(serverSide::encodeServerResponse).map(clientSide::decodeServerResponse))
+  }
+
+  @Test fun `binary frames are smaller than the text ones`() {
+    val codec = XlogCodec()
+    val xlogs = (1L..20L).map { xlog(it, "uid$it") }
+    val binarySize = xlogs.sumOf { codec.encodeInputXlog(it).size }
+    val textSize = xlogs.sumOf { "XLOG ${Base64.getEncoder().encodeToString(Json.encodeToString(it).toByteArray())}".length }
+    assertTrue(binarySize * 4 < textSize)
+  }
+
+  @Test fun `unexpected frames are rejected`() {
+    val frame = XlogCodec().encodeInputXlog(xlog(1, "uid1"))
+    assertThrows<XlogCodecException> { XlogCodec().decodeServerResponse(frame) }
+    frame[0] = 2
+    assertThrows<XlogCodecException> { XlogCodec().decodeInputXlog(frame) }
+    assertNull(XlogCodec.negotiate("cbor-deflate/2"))
+    assertNull(XlogCodec.negotiate(null))
+  }
+
+  @Test fun `closed codec rejects frames`() {
+    val codec = XlogCodec()
+    val frame = XlogCodec().encodeInputXlog(xlog(1, "uid1"))
+    codec.close()
+    codec.close()
+    assertThrows<XlogCodecException> { codec.encodeInputXlog(xlog(1, "uid1")) }
+    assertThrows<XlogCodecException> { codec.decodeInputXlog(frame) }
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 BarD Software s.r.o., GanttProject Team.
+ *
+ * This file is part of GanttProject, an opensource project management tool.
+ *
+ * GanttProject is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ * GanttProject is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cloud.ganttproject.colloboque
+
+import net.sourceforge.ganttproject.storage.*
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+
+class XlogFootprintTest {
+  private fun update(uid: String, vararg values: Pair<String, String>) = OperationDto.UpdateOperationDto(
+    "task",
+    updateBinaryConditions = mutableListOf(Triple("uid", BinaryPred.EQ, uid)),
+    updateRangeConditions = mutableListOf(),
+    newValues = mutableMapOf(*values)
+  )
+
+  private fun footprint(vararg operations: OperationDto) = XlogFootprint.of(listOf(XlogRecord(operations.toList())))!!
+
+  @Test fun `updates of the same column family conflict`() {
+    assertTrue(footprint(update("qwerty", "name" to "A")).conflictsWith(footprint(update("qwerty", "num" to "2"))))
+    assertTrue(footprint(update("qwerty", "start_date" to "2024-04-22")).conflictsWith(footprint(update("qwerty", "duration" to "3"))))
+  }
+
+  @Test fun `updates of different column families or rows commute`() {
+    assertFalse(footprint(update("qwerty", "name" to "A")).conflictsWith(footprint(update("qwerty", "duration" to "2"))))
+    assertFalse(footprint(update("qwerty", "color" to "red")).conflictsWith(footprint(update("qwerty", "notes" to "abc"))))
+    assertFalse(footprint(update("qwerty", "name" to "A")).conflictsWith(footprint(update("asdfg", "name" to "B"))))
+  }
+
+  @Test fun `inserted and deleted rows conflict with any operation on the same row`() {
+    val insert = OperationDto.InsertOperationDto("task", mapOf("uid" to "zxcvb", "name" to "New"))
+    val delete = OperationDto.DeleteOperationDto("task", deleteRangeConditions = listOf(Triple("uid", RangePred.IN, listOf("qwerty", "asdfg"))))
+    assertFalse(footprint(insert).conflictsWith(footprint(update("qwerty", "name" to "A"))))
+    assertTrue(footprint(update("zxcvb", "color" to "red")).conflictsWith(footprint(insert)))
+    assertTrue(footprint(delete).conflictsWith(footprint(update("asdfg", "color" to "red"))))
+  }
+
+  @Test fun `unclassified operations have no footprint`() {
+    val rangeUpdate = OperationDto.UpdateOperationDto("task",
+      updateBinaryConditions = mutableListOf(Triple("num", BinaryPred.GT, "1")),
+      updateRangeConditions = mutableListOf(),
+      newValues = mutableMapOf("name" to "A")
+    )
+    assertNull(XlogFootprint.of(listOf(XlogRecord(listOf(rangeUpdate)))))
+    assertNull(XlogFootprint.of(listOf(XlogRecord(listOf(update("qwerty", "unknown_column" to "A"))))))
+    assertNull(XlogFootprint.of(listOf(XlogRecord(listOf(
+      OperationDto.MergeOperationDto("task", listOf(Triple("uid", BinaryPred.EQ, "qwerty")), listOf(), mapOf(), mapOf())
+    )))))
+  }
+}
@@ -31,12 +31,13 @@ import java.io.ByteArrayInputStream
 import java.io.ByteArrayOutputStream
 import java.io.IOException
 import java.io.InputStream
+import java.io.OutputStream
 import java.math.BigDecimal
 import java.util.*
 import java.util.concurrent.atomic.AtomicBoolean
 
 /**
- * Tests for spreadsheet (CSV and XLS) import.
+ * Tests for spreadsheet (CSV, XLS and XLSX) import.
  *
  * @author dbarashev (Dmitry Barashev)
  */
@@ -204,14 +205,15 @@ class CsvImportTest : TestCase() {
         createSupplier(Joiner.on('\n').join(data).toByteArray(Charsets.UTF_8))
       )
     )
-    pairs.add(Pair.create(SpreadsheetFormat.XLS, createSupplier(createXls(*data))))
+    pairs.add(Pair.create(SpreadsheetFormat.XLS, createSupplier(createXls(::XlsWriterImpl, *data))))
+    pairs.add(Pair.create(SpreadsheetFormat.XLSX, createSupplier(createXls(::createXlsxWriter, *data))))
     return pairs
   }
 
   @Throws(Exception::class)
-  private fun createXls(vararg rows: String): ByteArray {
+  private fun createXls(createWriter: (OutputStream) -> SpreadsheetWriter, vararg rows: String): ByteArray {
     val stream = ByteArrayOutputStream()
-    XlsWriterImpl(stream).use { writer ->
+    createWriter(stream).use { writer ->
       for (row in rows) {
         for (cell in row.split(",").dropLastWhile { it.isEmpty() }.toTypedArray()) {
           writer.print(cell.trim { it <= ' ' })
@@ -29,6 +29,8 @@ import net.sourceforge.ganttproject.language.GanttLanguage
 import org.w3c.util.DateParser
 import java.io.ByteArrayInputStream
 import java.io.ByteArrayOutputStream
+import java.io.InputStream
+import java.io.OutputStream
 import java.math.BigDecimal
 
 /**
@@ -55,8 +57,17 @@ class XlsTest : TestCase() {
    * Excel numeric values are all doubles.
    */
   fun testRawTypedValuesExportImport() {
+    doTestRawTypedValuesExportImport(::XlsWriterImpl, ::XlsReaderImpl)
+  }
+
+  fun testRawTypedValuesXlsxExportImport() {
+    doTestRawTypedValuesExportImport(::createXlsxWriter, ::XlsxReaderImpl)
+  }
+
+  private fun doTestRawTypedValuesExportImport(
+    createWriter: (OutputStream) -> SpreadsheetWriter, createReader: (InputStream, List<String>) -> SpreadsheetReader) {
     val out = ByteArrayOutputStream()
-    XlsWriterImpl(out).let {
+    createWriter(out).let {
       "A,B,C,D,E,F,G".split(",").forEach(it::print)
       it.println()
       it.print("foo")
@@ -70,7 +81,7 @@ class XlsTest : TestCase() {
       it.close()
     }
     val inputStream = ByteArrayInputStream(out.toByteArray())
-    XlsReaderImpl(inputStream, "A,B,C,D,E,F,G".split(",")).iterator().let {
+    createReader(inputStream, "A,B,C,D,E,F,G".split(",")).iterator().let {
       it.next().let { header ->
         assertEquals("A,B,C,D,E,F,G", header.iterator().asSequence().joinToString(","))
         assertTrue(it.hasNext())
@@ -73,6 +73,36 @@ public class CostAlgorithmTest extends TaskTestCase {
     assertEquals(BigDecimal.valueOf(10), t.getCost().getValue());
   }
 
+  public void testCachedCostIsUpdated() {
+    TaskManagerBuilder builder = TestSetupHelper.newTaskManagerBuilder();
+    setTaskManager(builder.build());
+    HumanResource joe = new HumanResource("Joe", 1, builder.getResourceManager());
+    joe.setStandardPayRate(BigDecimal.valueOf(5));
+    builder.getResourceManager().add(joe);
+
+    Task supertask = createTask();
+    Task subtask1 = createTask();
+    Task subtask2 = createTask();
+    TaskContainmentHierarchyFacade hierarchy = getTaskManager().getTaskHierarchy();
+    hierarchy.move(subtask1, supertask);
+    subtask1.setDuration(getTaskManager().createLength(2));
+    subtask1.getAssignmentCollection().addAssignment(joe).setLoad(100f);
+    subtask2.setCost(new CostStub(BigDecimal.valueOf(15), false));
+    assertEquals(0, BigDecimal.valueOf(10).compareTo(supertask.getCost().getValue()));
+
+    subtask1.setDuration(getTaskManager().createLength(4));
+    assertEquals(0, BigDecimal.valueOf(20).compareTo(supertask.getCost().getValue()));
+
+    joe.setStandardPayRate(BigDecimal.valueOf(10));
+    assertEquals(0, BigDecimal.valueOf(40).compareTo(supertask.getCost().getValue()));
+
+    hierarchy.move(subtask2, supertask);
+    assertEquals(0, BigDecimal.valueOf(55).compareTo(supertask.getCost().getValue()));
+
+    subtask1.getAssignmentCollection().removeAssignment(joe);
+    assertEquals(0, BigDecimal.valueOf(15).compareTo(supertask.getCost().getValue()));
+  }
+
   public void testResourceTotalCost() {
     TaskManagerBuilder builder = TestSetupHelper.newTaskManagerBuilder();
     setTaskManager(builder.build());
@@ -20,6 +20,7 @@ import net.sourceforge.ganttproject.task.event.TaskListenerAdapter;
 import net.sourceforge.ganttproject.task.event.TaskPropertyEvent;
 
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Created by IntelliJ IDEA. User: bard
@@ -209,4 +210,50 @@ public class TestTaskCompletionPercentage extends TaskTestCase {
     assertEquals(30, task.getCompletionPercentage());
     assertEquals(false, listenerCalled.get());
   }
+
+  public void testCompletionIsRolledUpAlongAncestors() {
+    TaskManager taskManager = getTaskManager();
+    Task supertask = taskManager.newTaskBuilder().withParent(taskManager.getRootTask()).build();
+    Task supertask_0 = taskManager.newTaskBuilder().withParent(supertask).build();
+    Task task0 = taskManager.newTaskBuilder()
+            .withStartDate(TestSetupHelper.newMonday().getTime())
+            .withDuration(taskManager.createLength(1))
+            .withParent(supertask_0)
+            .build();
+    Task task1 = taskManager.newTaskBuilder()
+            .withStartDate(TestSetupHelper.newMonday().getTime())
+            .withDuration(taskManager.createLength(3))
+            .withParent(supertask)
+            .build();
+    taskManager.getAlgorithmCollection().getRecalculateTaskCompletionPercentageAlgorithm().run();
+    assertEquals(0, supertask.getCompletionPercentage());
+
+    var supertaskEvents = new AtomicInteger();
+    taskManager.addTaskListener(new TaskListenerAdapter() {
+      @Override
+      public void taskProgressChanged(TaskPropertyEvent e) {
+        if (e.getTask() == supertask) {
+          supertaskEvents.incrementAndGet();
+        }
+      }
+    });
+    {
+      var mutator = task0.createMutator();
+      mutator.setCompletionPercentage(100);
+      mutator.commit();
+    }
+    assertEquals(100, supertask_0.getCompletionPercentage());
+    // one day of four
+    assertEquals(25, supertask.getCompletionPercentage());
+    assertEquals(1, supertaskEvents.get());
+
+    {
+      var mutator = task1.createMutator();
+      mutator.setCompletionPercentage(1);
+      mutator.commit();
+    }
+    // 1.03 days of four still round down to 25%, so supertask is not updated
+    assertEquals(25, supertask.getCompletionPercentage());
+    assertEquals(1, supertaskEvents.get());
+  }
 }
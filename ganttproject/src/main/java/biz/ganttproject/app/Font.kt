@@ -35,11 +35,38 @@ val applicationFontSpec = SimpleObjectProperty<FontSpec>(null)
  */
 object FontManager {
   val fontFamilies by lazy {
-    val swingFamilies = GraphicsEnvironment.getLocalGraphicsEnvironment().availableFontFamilyNames
     val javafxFamilies = FxFont.getFamilies()
-    swingFamilies.toSet().intersect(javafxFamilies.toSet()).sorted().toList()
+    AwtFonts.fontFamilies.intersect(javafxFamilies.toSet()).sorted().toList()
   }
-  val fallbackFontFile by lazy {
+  val fallbackFontFile: File get() = AwtFonts.fallbackFontFile
+
+  init {
+    try {
+      FxFont.loadFonts(fallbackFontFile.inputStream(), -1.0)
+    } catch (ex: Exception) {
+      LOGGER.error("Failed to register fallback font", ex)
+    }
+  }
+}
+
+/**
+ * The part of the font initialization which doesn't touch JavaFX: extracting the fallback font, registering it
+ * in AWT and listing the AWT font families. It may run in a background thread before the UI starts, which makes
+ * the first access to FontManager cheaper.
+ */
+object AwtFonts {
+  private val logger = GPLogger.create("App.Fonts").delegate()
+
+  private val fontCacheDir by lazy {
+    val userHomeDir = File(System.getProperty("user.home").replace("\\", "/"))
+    if (userHomeDir.exists() && userHomeDir.isDirectory && userHomeDir.canWrite()) {
+      Files.createDirectories(userHomeDir.toPath().resolve(".ganttproject.d/font-cache")).toFile()
+    } else {
+      Files.createTempDirectory(".gp-font-cache").toFile()
+    }
+  }
+
+  val fallbackFontFile: File by lazy {
     val cachedFile = File(fontCacheDir, FALLBACK_FONT_FILENAME)
     val fontFile = if (cachedFile.canWrite() || !cachedFile.exists() && cachedFile.parentFile.canWrite()) {
       cachedFile
@@ -55,28 +82,26 @@ object FontManager {
             println("Fallback font not found!")
           }
       }
+      try {
+        val fallbackAwtFonts = Font.createFonts(file)
+        if (fallbackAwtFonts.isNotEmpty()) {
+          logger.debug("Registering fallback font {} in AWT", fallbackAwtFonts[0])
+          GraphicsEnvironment.getLocalGraphicsEnvironment().registerFont(fallbackAwtFonts[0])
+        }
+      } catch (ex: Exception) {
+        logger.error("Failed to register fallback font", ex)
+      }
     }
   }
-  val fontCacheDir by lazy {
-    val userHomeDir = File(System.getProperty("user.home").replace("\\", "/"))
-    if (userHomeDir.exists() && userHomeDir.isDirectory && userHomeDir.canWrite()) {
-      Files.createDirectories(userHomeDir.toPath().resolve(".ganttproject.d/font-cache")).toFile()
-    } else {
-      Files.createTempDirectory(".gp-font-cache").toFile()
-    }
+
+  // The fallback font is registered before the families are listed, so that it is included into the list.
+  val fontFamilies: Set<String> by lazy {
+    fallbackFontFile
+    GraphicsEnvironment.getLocalGraphicsEnvironment().availableFontFamilyNames.toSet()
   }
 
-  init {
-    try {
-      val fallbackAwtFonts = Font.createFonts(fallbackFontFile)
-      if (fallbackAwtFonts.isNotEmpty()) {
-        LOGGER.debug("Registering fallback font {} in AWT", fallbackAwtFonts[0])
-        GraphicsEnvironment.getLocalGraphicsEnvironment().registerFont(fallbackAwtFonts[0])
-      }
-      FxFont.loadFonts(fallbackFontFile.inputStream(), -1.0)
-    } catch (ex: Exception) {
-      LOGGER.error("Failed to register fallback font", ex)
-    }
+  fun prefetch() {
+    fontFamilies
   }
 }
 
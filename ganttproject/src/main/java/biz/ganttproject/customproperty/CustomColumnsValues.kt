@@ -33,12 +33,22 @@ class CustomColumnsValues(private val customPropertyManager: CustomPropertyManag
   : CustomPropertyHolder, Cloneable {
   /**
    * CustomColumnName(String) -> Value (Object)
+   *
+   * Most tasks have no custom values, so the hash map is allocated when the first value is set.
    */
-  private val mapCustomColumnValue: MutableMap<String, Any> = HashMap()
+  private var mapCustomColumnValue: HashMap<String, Any>? = null
+
+  private val values: Map<String, Any> get() = mapCustomColumnValue ?: emptyMap()
+
+  private fun valuesForUpdate(): HashMap<String, Any> =
+    mapCustomColumnValue ?: HashMap<String, Any>().also { mapCustomColumnValue = it }
+
   @Throws(CustomColumnsException::class)
   override fun setValue(def: CustomPropertyDefinition, value: Any?) {
     if (value == null) {
-      mapCustomColumnValue.remove(def.id)
+      if (mapCustomColumnValue?.remove(def.id) != null) {
+        eventDispatcher(CustomPropertyValueEventStub(def))
+      }
       return
     }
     val c1 = def.type
@@ -47,44 +57,51 @@ class CustomColumnsValues(private val customPropertyManager: CustomPropertyManag
       throw CustomColumnsException(CustomColumnsException.CLASS_MISMATCH, "Failed to set value=" + value
           + "of prop="+ def + ". value class=" + c2 + ", column class=" + c1)
     }
-    mapCustomColumnValue[def.id] = value
+    valuesForUpdate()[def.id] = value
     eventDispatcher(CustomPropertyValueEventStub((def)))
   }
 
   override fun getValue(def: CustomPropertyDefinition): Any? {
-    val result = mapCustomColumnValue[def.id]
+    val result = values[def.id]
     return result ?: def.defaultValue
   }
 
   fun hasOwnValue(def: CustomPropertyDefinition): Boolean {
-    return mapCustomColumnValue.containsKey(def.id)
+    return values.containsKey(def.id)
   }
 
   fun removeCustomColumn(definition: CustomPropertyDefinition) {
-    mapCustomColumnValue.remove(definition.id)
+    mapCustomColumnValue?.remove(definition.id)
   }
 
   fun copyOf(): CustomColumnsValues {
     val res = CustomColumnsValues(customPropertyManager, eventDispatcher)
-    res.mapCustomColumnValue.putAll(mapCustomColumnValue)
+    if (values.isNotEmpty()) {
+      res.mapCustomColumnValue = HashMap(values)
+    }
     return res
   }
 
   @Throws(CustomColumnsException::class)
   fun importFrom(value: CustomPropertyHolder) {
-    mapCustomColumnValue.clear()
+    val oldIds = values.keys
+    mapCustomColumnValue = null
     for (prop in value.customProperties) {
       setValue(prop.definition, prop.value)
     }
+    // Values which are not in the imported holder were removed
+    oldIds.filter { !values.containsKey(it) }.forEach { id ->
+      getCustomPropertyDefinition(customPropertyManager, id)?.let { eventDispatcher(CustomPropertyValueEventStub(it)) }
+    }
   }
 
   override fun toString(): String {
-    return mapCustomColumnValue.toString()
+    return values.toString()
   }
 
   override fun getCustomProperties(): List<CustomProperty> {
-    val result: MutableList<CustomProperty> = ArrayList(mapCustomColumnValue.size)
-    for ((id, value) in mapCustomColumnValue) {
+    val result: MutableList<CustomProperty> = ArrayList(values.size)
+    for ((id, value) in values) {
       val def = getCustomPropertyDefinition(customPropertyManager, id)
       if (def != null) {
         result.add(CustomPropertyImpl(def, value))
@@ -118,11 +135,11 @@ class CustomColumnsValues(private val customPropertyManager: CustomPropertyManag
   override fun equals(other: Any?): Boolean {
     if (this === other) return true
     if (other !is CustomColumnsValues) return false
-    return mapCustomColumnValue == other.mapCustomColumnValue
+    return values == other.values
   }
 
   override fun hashCode(): Int {
-    return mapCustomColumnValue.hashCode()
+    return values.hashCode()
   }
 
   companion object {
@@ -62,8 +62,12 @@ import net.sourceforge.ganttproject.action.GPAction
 import net.sourceforge.ganttproject.chart.export.TreeTableApi
 import net.sourceforge.ganttproject.chart.gantt.ClipboardContents
 import net.sourceforge.ganttproject.chart.gantt.ClipboardTaskProcessor
+import net.sourceforge.ganttproject.resource.HumanResourceManager
+import net.sourceforge.ganttproject.resource.ResourceEvent
+import net.sourceforge.ganttproject.resource.ResourceView
 import net.sourceforge.ganttproject.task.*
 import net.sourceforge.ganttproject.task.algorithm.RetainRootsAlgorithm
+import net.sourceforge.ganttproject.task.event.TaskBatchEvent
 import net.sourceforge.ganttproject.task.event.TaskHierarchyEvent
 import net.sourceforge.ganttproject.task.event.TaskListenerAdapter
 import net.sourceforge.ganttproject.undo.GPUndoManager
@@ -108,6 +112,11 @@ class TaskTable(
   private val isSortedProperty = SimpleBooleanProperty()
   override val tableModel = TaskTableModel(taskManager.customPropertyManager)
   private val task2treeItem = mutableMapOf<Task, TreeItem<Task>>()
+  // Containers whose children changed since the last sync. Hierarchy events come from the model thread, and
+  // the tree is synced on the FX thread, so the pending state is guarded with the lock on this set.
+  private val pendingSyncContainers = mutableSetOf<Task>()
+  private var isPendingMove = false
+  private var isSyncScheduled = false
 
   val control: Parent get() = treeTable
   val actionConnector by lazy {
@@ -247,6 +256,7 @@ class TaskTable(
         }
       }
     )
+    initDerivedValueInvalidation(tableModel.derivedValues, taskManager, project.humanResourceManager)
     initTaskEventHandlers()
     initProjectEventHandlers()
     initChartConnector()
@@ -359,13 +369,12 @@ class TaskTable(
         if (e.taskSource == TaskManager.EventSource.USER) {
           runBlocking { newTaskActor.inboxChannel.send(TaskReady(e.task)) }
           FXUtil.runLater {
-            sync()
+            // The new task is selected and edited right away, so we don't wait for the scheduled sync.
+            syncPendingContainers(listOfNotNull(e.newContainer))
             treeTable.selectionModel.clearSelection()
             CellBehaviorBase.removeAnchor(treeTable)
             val treeItem = task2treeItem[e.task]
             if (treeItem != null) {
-              taskTableChartConnector.visibleTasks.clear()
-              taskTableChartConnector.visibleTasks.addAll(getExpandedTasks())
               treeTable.selectionModel.select(treeItem)
               runBlocking { newTaskActor.inboxChannel.send(TreeItemReady(treeItem)) }
             } else {
@@ -373,11 +382,7 @@ class TaskTable(
             }
           }
         } else {
-          keepSelection {
-            addChildTreeItem(e.newContainer!!, e.task, e.indexAtNew, task2treeItem, ::onCreateTreeItem)
-            taskTableChartConnector.visibleTasks.clear()
-            taskTableChartConnector.visibleTasks.addAll(getExpandedTasks())
-          }
+          requestSync(listOfNotNull(e.newContainer))
         }
       }
 
@@ -385,15 +390,17 @@ class TaskTable(
         if (e.oldContainer == null) {
           return
         }
-        FXUtil.runLater {
-          sync(true)
-          // Force selection changed event because some actions depend on the relative location of tasks.
-          selectionManager.fireSelectionChanged()
-        }
+        requestSync(listOfNotNull(e.oldContainer, e.newContainer), isMove = true)
       }
 
       override fun taskRemoved(e: TaskHierarchyEvent) {
-        FXUtil.runLater { sync() }
+        requestSync(listOfNotNull(e.oldContainer))
+      }
+
+      override fun taskBatchChanged(e: TaskBatchEvent) {
+        super.taskBatchChanged(e)
+        // The hierarchy changes made in the batch were collected, and now they are synced at once.
+        requestSync(e.hierarchyContainers)
       }
 
       override fun taskModelReset() {
@@ -505,20 +512,86 @@ class TaskTable(
       val treeModel = taskManager.taskHierarchy
       task2treeItem.clear()
 
-      val syncAlgorithm = SyncAlgorithm(treeModel, task2treeItem, rootItem, filterManager.filterFxn, ::onCreateTreeItem, taskManager.taskCount)
+      val syncAlgorithm = SyncAlgorithm(treeModel, task2treeItem, rootItem, filterManager.filterFxn, ::onCreateTreeItem)
       syncAlgorithm.sync()
-      val visibleTasks = getExpandedTasks()
-      taskTableChartConnector.visibleTasks.setAll(visibleTasks)
-      if (visibleTasks.isEmpty()) {
-        treeTable.placeholder = if (syncAlgorithm.filteredCount > 0) {
-          placeholderShowHidden
+      onSyncCompleted(filteredCount(taskManager, task2treeItem))
+      LOGGER.debug("Sync <<<<<<<<<<<<<<<<<")
+  }
+
+  /**
+   * Remembers the containers whose children changed and schedules a single sync of all remembered containers
+   * on the FX thread. While a batch of task mutations is open, the sync is scheduled when the batch closes.
+   */
+  private fun requestSync(containers: Collection<Task>, isMove: Boolean = false) {
+    synchronized(pendingSyncContainers) {
+      pendingSyncContainers.addAll(containers)
+      isPendingMove = isPendingMove || isMove
+      if (pendingSyncContainers.isEmpty() || isSyncScheduled || taskManager.isBatchOpen) {
+        return
+      }
+      isSyncScheduled = true
+    }
+    FXUtil.runLater { syncPendingContainers() }
+  }
+
+  private fun syncPendingContainers(containers: Collection<Task> = emptyList()) {
+    val (pendingContainers, isMove) = synchronized(pendingSyncContainers) {
+      isSyncScheduled = false
+      (pendingSyncContainers + containers to isPendingMove).also {
+        pendingSyncContainers.clear()
+        isPendingMove = false
+      }
+    }
+    if (pendingContainers.isEmpty()) {
+      return
+    }
+    syncContainers(pendingContainers, keepFocus = isMove)
+    if (isMove) {
+      // Force selection changed event because some actions depend on the relative location of tasks.
+      selectionManager.fireSelectionChanged()
+    }
+  }
+
+  /**
+   * Applies structural changes in the given containers to the tree, without walking the whole task hierarchy.
+   * Only the rows of the changed subtrees are replaced in the list of visible tasks.
+   * Falls back to the full sync if the tree has not been synced yet.
+   */
+  private fun syncContainers(containers: Collection<Task>, keepFocus: Boolean = false) {
+    keepSelection(keepFocus) {
+      try {
+        if (task2treeItem.isEmpty()) {
+          doSync()
         } else {
-          placeholderEmpty
+          val visibleRows = VisibleRowsUpdate(
+            rootItem, treeCollapseView::isExpanded, treeTable::getRow, taskTableChartConnector.visibleTasks
+          )
+          IncrementalSyncAlgorithm(
+            taskManager.taskHierarchy, task2treeItem, filterManager.filterFxn, ::onCreateTreeItem, visibleRows::onChildrenReplaced
+          ).sync(containers)
+          LOGGER.debug("Incremental sync touched {} visible rows", visibleRows.touchedRowCount)
+          onSyncCompleted(filteredCount(taskManager, task2treeItem), isVisibleTasksUpdated = true)
         }
+      } catch (ex: Exception) {
+        LOGGER.error("Failure when syncing the task table incrementally", exception = ex)
+        doSync()
       }
-      filterManager.hiddenTaskCount.set(syncAlgorithm.filteredCount)
-      initializationCompleted()
-      LOGGER.debug("Sync <<<<<<<<<<<<<<<<<")
+    }
+  }
+
+  private fun onSyncCompleted(filteredCount: Int, isVisibleTasksUpdated: Boolean = false) {
+    if (!isVisibleTasksUpdated) {
+      taskTableChartConnector.visibleTasks.setAll(getExpandedTasks())
+    }
+    if (taskTableChartConnector.visibleTasks.isEmpty()) {
+      treeTable.placeholder = if (filteredCount > 0) {
+        placeholderShowHidden
+      } else {
+        placeholderEmpty
+      }
+    }
+    filterManager.hiddenTaskCount.set(filteredCount)
+    initializationCompleted()
   }
 
 
@@ -539,14 +612,7 @@ class TaskTable(
 
   }
 
-  private fun getExpandedTasks(): List<Task> {
-    val result = mutableListOf<Task>()
-    rootItem.depthFirstWalk { child ->
-      result.add(child.value)
-      treeCollapseView.isExpanded(child.value)
-    }
-    return result
-  }
+  private fun getExpandedTasks(): List<Task> = rootItem.visibleRows(treeCollapseView::isExpanded)
 
   override fun onProperties() {
     SwingUtilities.invokeLater {
@@ -594,11 +660,8 @@ internal class SyncAlgorithm(
   private val rootItem: TreeItem<Task>,
   private val activeFilter: TaskFilterFxn,
   private val onCreateTreeItem: (TreeItem<Task>) -> Unit,
-  private val taskCount: Int
 ) {
 
-  internal val filteredCount get() = taskCount - task2treeItem.size + 1
-
   fun sync() {
     task2treeItem[treeModel.rootTask] = rootItem
 
@@ -650,6 +713,182 @@ internal class SyncAlgorithm(
     addChildTreeItem(this, child, pos, task2treeItem, onCreateTreeItem)
 }
 
+/**
+ * This algorithm applies structural changes of the task hierarchy to the existing tree items. It only visits
+ * the children of the containers where tasks were inserted, removed or moved, reuses the tree items of the moved
+ * tasks together with their subtrees, and keeps the task to tree item index up to date, so its cost depends on
+ * the size of the change rather than on the size of the project.
+ */
+internal class IncrementalSyncAlgorithm(
+  private val treeModel: TaskContainmentHierarchyFacade,
+  private val task2treeItem: MutableMap<Task, TreeItem<Task>>,
+  private val activeFilter: TaskFilterFxn,
+  private val onCreateTreeItem: (TreeItem<Task>) -> Unit,
+  /** Called with the parent item, the index of the first replaced child, the removed and the added children. */
+  private val onChildrenReplaced: (TreeItem<Task>, Int, List<TreeItem<Task>>, List<TreeItem<Task>>) -> Unit = { _, _, _, _ -> },
+) {
+  private val detachedItems = mutableListOf<TreeItem<Task>>()
+
+  fun sync(containers: Collection<Task>) {
+    containers.forEach { container ->
+      if (container == treeModel.rootTask || treeModel.contains(container)) {
+        // If the container has no tree item, it is filtered out or it is a new task which will get its subtree
+        // when its own container is synced.
+        task2treeItem[container]?.let { syncChildren(container, it) }
+      }
+    }
+    // Items which were removed from their parents and were not inserted anywhere else
+    detachedItems.filter { it.parent == null }.forEach { it.forgetSubtree() }
+    detachedItems.clear()
+  }
+
+  private fun syncChildren(container: Task, parentItem: TreeItem<Task>) {
+    LOGGER.debug(">>> [incremental] container={}", container)
+    val newItems = treeModel.getNestedTasks(container).filter { activeFilter(container, it) }.map { child ->
+      task2treeItem[child]?.also { childItem ->
+        childItem.value = child
+        // TreeItem resets the parent when it is removed from the old parent's children, even if it was added to
+        // another parent before, so we detach it explicitly.
+        childItem.parent?.let { oldParentItem ->
+          if (oldParentItem != parentItem) {
+            onChildrenReplaced(oldParentItem, oldParentItem.children.indexOf(childItem), listOf(childItem), emptyList())
+            oldParentItem.children.remove(childItem)
+          }
+        }
+      } ?: createSubtree(child)
+    }
+
+    // We replace only the range between the common prefix and suffix, so that inserting or removing a task in
+    // a long list of siblings fires one small change.
+    val currentItems = parentItem.children
+    var start = 0
+    while (start < currentItems.size && start < newItems.size && currentItems[start] === newItems[start]) {
+      start++
+    }
+    var currentEnd = currentItems.size
+    var newEnd = newItems.size
+    while (currentEnd > start && newEnd > start && currentItems[currentEnd - 1] === newItems[newEnd - 1]) {
+      currentEnd--
+      newEnd--
+    }
+    if (start == currentEnd && start == newEnd) {
+      return
+    }
+    onChildrenReplaced(parentItem, start, currentItems.subList(start, currentEnd).toList(), newItems.subList(start, newEnd))
+    detachedItems.addAll(currentItems.subList(start, currentEnd))
+    currentItems.remove(start, currentEnd)
+    currentItems.addAll(start, newItems.subList(start, newEnd))
+    LOGGER.debug("<<< [incremental] container={} replaced [{}, {}) with {} items", container, start, currentEnd, newEnd - start)
+  }
+
+  private fun createSubtree(task: Task): TreeItem<Task> =
+    TreeItem(task).also { item ->
+      onCreateTreeItem(item)
+      task2treeItem[task] = item
+      treeModel.getNestedTasks(task).filter { activeFilter(task, it) }.forEach { child ->
+        item.children.add(createSubtree(child))
+      }
+    }
+
+  private fun TreeItem<Task>.forgetSubtree() {
+    if (task2treeItem[value] === this) {
+      task2treeItem.remove(value)
+    }
+    children.forEach { it.forgetSubtree() }
+  }
+}
+
+/**
+ * Splices the rows of the replaced children into the list of visible tasks, which is the depth-first walk over
+ * the expanded tree items. It is notified before each change of the children in the incremental sync, so the list
+ * matches the tree at every step, and only the rows of the removed and added subtrees are touched. The row of an
+ * existing item is found with the given function, which the tree table answers from its cached row counts.
+ */
+internal class VisibleRowsUpdate(
+  private val rootItem: TreeItem<Task>,
+  private val isExpanded: (Task) -> Boolean,
+  private val rowOf: (TreeItem<Task>) -> Int,
+  private val visibleTasks: MutableList<Task>
+) {
+  /** The number of removed and added rows. */
+  var touchedRowCount = 0
+    private set
+
+  fun onChildrenReplaced(parentItem: TreeItem<Task>, start: Int, removed: List<TreeItem<Task>>, added: List<TreeItem<Task>>) {
+    if (!parentItem.areChildrenVisible()) {
+      return
+    }
+    val children = parentItem.children
+    val firstRow = when {
+      start < children.size -> rowOf(children[start])
+      start == 0 -> if (parentItem === rootItem) 0 else rowOf(parentItem) + 1
+      // Appending to the root or after the subtree of the last child
+      parentItem === rootItem -> visibleTasks.size
+      else -> children[start - 1].let { rowOf(it) + it.rowCount() }
+    }
+    check(firstRow >= 0) { "Task ${children.getOrNull(start)?.value ?: parentItem.value} is not in the list of visible tasks" }
+    val removedRowCount = removed.sumOf { it.rowCount() }
+    val addedRows = added.flatMap { listOf(it.value) + it.subtreeRows() }
+    visibleTasks.subList(firstRow, firstRow + removedRowCount).clear()
+    visibleTasks.addAll(firstRow, addedRows)
+    touchedRowCount += removedRowCount + addedRows.size
+  }
+
+  private fun TreeItem<Task>.ancestors() = generateSequence(parent) { it.parent }
+
+  private fun TreeItem<Task>.areChildrenVisible() =
+    this === rootItem || (isExpanded(value) && ancestors().all { it === rootItem || isExpanded(it.value) } && ancestors().lastOrNull() === rootItem)
+
+  private fun TreeItem<Task>.subtreeRows() = if (isExpanded(value)) visibleRows(isExpanded) else emptyList()
+
+  private fun TreeItem<Task>.rowCount() = 1 + subtreeRows().size
+}
+
+/**
+ * The number of tasks which are filtered out of the tree, together with their subtrees. The root task is not a row,
+ * so it is counted neither in the task manager nor in the tree.
+ */
+internal fun filteredCount(taskManager: TaskManager, task2treeItem: Map<Task, TreeItem<Task>>) =
+  taskManager.taskCount - task2treeItem.size + (if (task2treeItem.containsKey(taskManager.rootTask)) 1 else 0)
+
+/**
+ * Collects the tasks of the descendants of this item which are visible when the collapsed items hide their children.
+ */
+internal fun TreeItem<Task>.visibleRows(isExpanded: (Task) -> Boolean): List<Task> {
+  val result = mutableListOf<Task>()
+  depthFirstWalk { child ->
+    result.add(child.value)
+    isExpanded(child.value)
+  }
+  return result
+}
+
+/**
+ * Drops the cached derived cell values which depend on the data changed in the task and resource models.
+ */
+internal fun initDerivedValueInvalidation(
+  derivedValues: DerivedValueCache, taskManager: TaskManager, resourceManager: HumanResourceManager
+) {
+  taskManager.addTaskListener(TaskListenerAdapter().also {
+    it.taskAddedHandler = { derivedValues.hierarchyChanged() }
+    it.taskMovedHandler = { derivedValues.hierarchyChanged() }
+    it.taskRemovedHandler = { e -> derivedValues.taskRemoved(e.task) }
+    it.dependencyAddedHandler = { e -> derivedValues.dependenciesChanged(e.dependency.dependant) }
+    it.dependencyRemovedHandler = { e -> derivedValues.dependenciesChanged(e.dependency.dependant) }
+    it.dependencyChangedHandler = { e -> derivedValues.dependenciesChanged(e.dependency.dependant) }
+    it.taskModelResetHandler = { derivedValues.clear() }
+  })
+  resourceManager.addView(object : ResourceView {
+    override fun resourceAdded(event: ResourceEvent) {}
+    override fun resourcesRemoved(event: ResourceEvent) = derivedValues.assignmentsChanged()
+    override fun resourceChanged(e: ResourceEvent) =
+      derivedValues.assigneesChanged(e.resources.flatMap { resource -> resource.assignments.map { it.task } })
+    override fun resourceAssignmentsChanged(e: ResourceEvent) = derivedValues.assignmentsChanged()
+    override fun resourceStructureChanged() {}
+    override fun resourceModelReset() = derivedValues.assignmentsChanged()
+  })
+}
+
 internal fun addChildTreeItem(parent: Task, child: Task, pos: Int = -1,
                               task2treeItem: MutableMap<Task, TreeItem<Task>>,
                               onCreateTreeItem: (TreeItem<Task>) -> Unit): TreeItem<Task> {
@@ -38,6 +38,7 @@ import net.sourceforge.ganttproject.task.dependency.TaskDependency
 import net.sourceforge.ganttproject.task.dependency.TaskDependencyException
 import java.math.BigDecimal
 import java.text.MessageFormat
+import java.util.concurrent.ConcurrentHashMap
 import java.util.function.Predicate
 import java.util.function.Supplier
 
@@ -47,7 +48,16 @@ import java.util.function.Supplier
  * @author dbarashev@bardsoftware.com
  */
 class TaskTableModel(private val customColumnsManager: CustomPropertyManager): TableModel<Task, TaskDefaultColumn> {
+  val derivedValues = DerivedValueCache()
+
   override fun getValueAt(t: Task, defaultColumn: TaskDefaultColumn): Any? =
+    if (defaultColumn in DerivedValueCache.COLUMNS) {
+      derivedValues.get(t, defaultColumn) { computeValueAt(t, defaultColumn) as String }
+    } else {
+      computeValueAt(t, defaultColumn)
+    }
+
+  private fun computeValueAt(t: Task, defaultColumn: TaskDefaultColumn): Any? =
     when (defaultColumn) {
       TaskDefaultColumn.PRIORITY       -> t.priority
       TaskDefaultColumn.INFO           -> t.getProgressStatus()
@@ -214,6 +224,71 @@ fun Task.getProgressStatus(): Task.ProgressStatus =
 
 private val STANDARD_COLUMN_COUNT = TaskDefaultColumn.entries.size
 
+/**
+ * Cache of the cell values which are derived from the task hierarchy, dependencies and resource assignments rather
+ * than read from a task field. Values are keyed by column and task and are computed when a cell is painted for
+ * the first time. Each invalidation method drops only the columns which depend on the changed data.
+ *
+ * Model events may come from any thread, so the storage is concurrent.
+ */
+class DerivedValueCache {
+  private val values = COLUMNS.associateWith { ConcurrentHashMap<Task, String>() }
+
+  fun get(task: Task, column: TaskDefaultColumn, compute: () -> String): String =
+    values[column]!!.computeIfAbsent(task) { compute() }
+
+  /**
+   * Outline numbers depend on the positions of the tasks and all their ancestors, so any structural change
+   * invalidates the whole column.
+   */
+  fun hierarchyChanged() {
+    values[TaskDefaultColumn.OUTLINE_NUMBER]!!.clear()
+  }
+
+  /**
+   * The descendants of the removed task are deleted together with it, but they are already detached from it
+   * when the event comes, so we drop the values of all deleted tasks.
+   */
+  fun taskRemoved(task: Task) {
+    values.values.forEach { columnValues ->
+      columnValues.remove(task)
+      columnValues.keys.removeIf { it.isDeleted }
+    }
+    hierarchyChanged()
+  }
+
+  fun dependenciesChanged(dependant: Task) {
+    values[TaskDefaultColumn.PREDECESSORS]!!.remove(dependant)
+  }
+
+  fun assigneesChanged(tasks: Iterable<Task>) {
+    tasks.forEach { task ->
+      values[TaskDefaultColumn.COORDINATOR]!!.remove(task)
+      values[TaskDefaultColumn.RESOURCES]!!.remove(task)
+    }
+  }
+
+  /**
+   * We can't tell which tasks lost an assignment, because the resource no longer references them, so the
+   * assignment columns are dropped completely.
+   */
+  fun assignmentsChanged() {
+    values[TaskDefaultColumn.COORDINATOR]!!.clear()
+    values[TaskDefaultColumn.RESOURCES]!!.clear()
+  }
+
+  fun clear() {
+    values.values.forEach { it.clear() }
+  }
+
+  companion object {
+    val COLUMNS = setOf(
+      TaskDefaultColumn.OUTLINE_NUMBER, TaskDefaultColumn.PREDECESSORS,
+      TaskDefaultColumn.COORDINATOR, TaskDefaultColumn.RESOURCES
+    )
+  }
+}
+
 val NOT_SUPERTASK: Predicate<Task> = Predicate<Task> { task ->
   task?.isSupertask?.not() ?: false
 }
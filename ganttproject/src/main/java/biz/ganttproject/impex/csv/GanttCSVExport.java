@@ -100,6 +100,8 @@ public class GanttCSVExport {
         return getCsvWriter(stream);
       case XLS:
         return getXlsWriter(stream);
+      case XLSX:
+        return XlsWriterImplKt.createXlsxWriter(stream);
       default:
         throw new IllegalArgumentException("Unsupported format == " + format + "!");
     }
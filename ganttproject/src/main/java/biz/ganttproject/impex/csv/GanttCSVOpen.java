@@ -50,7 +50,7 @@ import static net.sourceforge.ganttproject.GPLogger.debug;
 import static net.sourceforge.ganttproject.util.FileUtil.getExtension;
 
 /**
- * Handles opening CSV and XLS files.
+ * Handles opening CSV, XLS and XLSX files.
  */
 public class GanttCSVOpen {
   static Collection<String> getFieldNames(Enum... fieldsEnum) {
@@ -221,6 +221,8 @@ public class GanttCSVOpen {
         return new CsvReaderImpl(is, createCSVFormat(headers));
       case XLS:
         return new XlsReaderImpl(is, headers);
+      case XLSX:
+        return new XlsxReaderImpl(is, headers);
       default:
         throw new IllegalArgumentException("Unsupported format: " + myFormat);
     }
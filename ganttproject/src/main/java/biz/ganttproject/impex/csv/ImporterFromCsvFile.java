@@ -52,7 +52,7 @@ public class ImporterFromCsvFile extends ImporterBase {
 
   @Override
   public String getFileNamePattern() {
-    return "csv|xls";
+    return "csv|xls|xlsx";
   }
 
   @Override
@@ -98,7 +98,7 @@ interface SpreadsheetWriter : AutoCloseable {
 
 
 enum class SpreadsheetFormat(val extension: String) {
-  CSV("csv"), XLS("xls");
+  CSV("csv"), XLS("xls"), XLSX("xlsx");
 
   override fun toString(): String {
     return "impex.csv.fileformat." + name.lowercase()
@@ -22,6 +22,7 @@ import biz.ganttproject.core.model.task.TaskDefaultColumn
 import biz.ganttproject.core.option.ColorOption
 import biz.ganttproject.core.time.CalendarFactory
 import biz.ganttproject.core.time.TimeUnitStack
+import biz.ganttproject.customproperty.CustomPropertyDefinition
 import com.google.common.base.Function
 import com.google.common.base.Joiner
 import com.google.common.base.Strings
@@ -37,6 +38,7 @@ import net.sourceforge.ganttproject.task.TaskProperties
 import net.sourceforge.ganttproject.task.dependency.TaskDependencyException
 import net.sourceforge.ganttproject.util.ColorConvertion
 import net.sourceforge.ganttproject.util.collect.Pair
+import java.math.BigDecimal
 import java.util.*
 import java.util.logging.Level
 
@@ -88,10 +90,31 @@ class TaskRecords(
     }
   }
 
-  private val myAssignmentMap: MutableMap<Task, AssignmentSpec?> = Maps.newHashMap()
-  private val myPredecessorMap: MutableMap<Task, String?> = Maps.newHashMap()
-  private val myWbsMap: SortedMap<String, Task> = Maps.newTreeMap(OUTLINE_NUMBER_COMPARATOR)
-  private val myTaskIdMap: MutableMap<Int, Task> = Maps.newHashMap()
+  /**
+   * Values parsed from a task record. Records are parsed while they are read, and the tasks are created
+   * from the parsed values in postProcess, all at once.
+   */
+  private class TaskSpec(
+    val name: String?,
+    val startDate: Date?,
+    val webLink: String?,
+    val notes: String?,
+    val duration: String?,
+    val isLegacyMilestone: Boolean,
+    val endDate: Date?,
+    val completion: Int?,
+    val color: String?,
+    val cost: BigDecimal?,
+    val priority: String?,
+    val id: Int?,
+    val earliestBegin: Date?,
+    val assignments: AssignmentSpec,
+    val predecessors: String?,
+    val outlineNumber: String?,
+    val customValues: List<Pair<CustomPropertyDefinition, String?>>
+  )
+
+  private val mySpecs = mutableListOf<TaskSpec>()
 
   override fun doProcess(record: SpreadsheetRecord): Boolean {
     if (!super.doProcess(record)) {
@@ -105,104 +128,119 @@ class TaskRecords(
       myTimeUnitStack.defaultTimeUnit.adjustLeft(it)
     }
 
-      // Create the task
-    var builder = taskManager.newTaskBuilder()
-      .withName(record[TaskFields.NAME.toString()])
-      .withStartDate(startDate)
-      .withWebLink(record[TaskFields.WEB_LINK.toString()])
-      .withNotes(record[TaskFields.NOTES.toString()])
-
     val duration =
       if (record.isSet(TaskDefaultColumn.DURATION.getName())) {
         record.getInt(TaskDefaultColumn.DURATION.getName())?.toString()
           ?: record[TaskDefaultColumn.DURATION.getName()]?.trim { it <= ' ' }
       } else ""
 
-    if (!duration.isNullOrBlank()) {
-      builder = builder.withDuration(taskManager.createLength(duration))
-    }
-
+    var isLegacyMilestone = false
+    var endDate: Date? = null
     if (record.isSet(TaskFields.END_DATE.toString())) {
       if (!duration.isNullOrBlank()) {
         if (record.digDate(TaskFields.BEGIN_DATE.toString(), this::addError) == record.digDate(TaskFields.END_DATE.toString(), this::addError)
           && "0" == duration
         ) {
-          builder = builder.withLegacyMilestone()
+          isLegacyMilestone = true
         }
       } else {
-        val endDate = record.digDate(TaskFields.END_DATE.toString(), this::addError)
-        if (endDate != null) {
-          builder = builder.withEndDate(myTimeUnitStack.defaultTimeUnit.adjustRight(endDate))
+        endDate = record.digDate(TaskFields.END_DATE.toString(), this::addError)?.let {
+          myTimeUnitStack.defaultTimeUnit.adjustRight(it)
         }
       }
     }
 
-    if (record.isSet(TaskFields.COMPLETION.toString())) {
-      record.getInt(TaskFields.COMPLETION.toString())?.let {
-        builder = builder.withCompletion(it)
-      }
-    }
+    val completion =
+      if (record.isSet(TaskFields.COMPLETION.toString())) record.getInt(TaskFields.COMPLETION.toString()) else null
 
-    if (record.isSet(TaskFields.COLOR.toString())) {
-      getOrNull(record, TaskFields.COLOR.toString())?.let {
-        if (ColorOption.Util.isValidColor(it)) {
-          builder = builder.withColor(ColorConvertion.determineColor(it))
-        }
-      }
-    }
+    val color =
+      if (record.isSet(TaskFields.COLOR.toString())) {
+        getOrNull(record, TaskFields.COLOR.toString())?.takeIf { ColorOption.Util.isValidColor(it) }
+      } else null
 
+    var cost: BigDecimal? = null
     if (record.isSet(TaskDefaultColumn.COST.getName())) {
       try {
-        record.getBigDecimal(TaskDefaultColumn.COST.getName())?.let {
-          builder = builder.withCost(it)
-        }
+        cost = record.getBigDecimal(TaskDefaultColumn.COST.getName())
       } catch (e: NumberFormatException) {
         GPLogger.logToLogger(e)
         GPLogger.log(String.format("Failed to parse %s as cost value", record[TaskDefaultColumn.COST.getName()]))
       }
     }
 
-    if (record.isSet(TaskDefaultColumn.PRIORITY.getName())) {
-      record.get(TaskDefaultColumn.PRIORITY.getName())?.let {
-        builder = builder.withPriority(Task.Priority.fromPersistentValue(it))
-      }
-    }
-    if (record.isSet(TaskDefaultColumn.ID.getName())) {
-      builder = record.getInt(TaskDefaultColumn.ID.getName())?.let { builder.withId(it)} ?: builder
-    }
-    val task = builder.build()
-    if (record.isSet(TaskFields.EARLIEST_BEGIN.toString()) && record.get(TaskFields.EARLIEST_BEGIN.toString()).isNullOrBlank().not()) {
-      record.digDate(TaskFields.EARLIEST_BEGIN.toString(), this::addError)?.let {
-        task.thirdDateConstraint = TaskImpl.EARLIESTBEGIN
-        task.setThirdDate(CalendarFactory.createGanttCalendar(myTimeUnitStack.defaultTimeUnit.adjustLeft(it)))
-      }
-    }
-    if (record.isSet(TaskDefaultColumn.ID.getName())) {
-      record.getInt(TaskDefaultColumn.ID.getName())?.let {
-        myTaskIdMap[it] = task
-      }
-    }
-    myAssignmentMap[task] = parseAssignmentSpec(record)
-    myPredecessorMap[task] = getOrNull(record, TaskDefaultColumn.PREDECESSORS.getName())
+    val priority =
+      if (record.isSet(TaskDefaultColumn.PRIORITY.getName())) record.get(TaskDefaultColumn.PRIORITY.getName()) else null
+    val id = if (record.isSet(TaskDefaultColumn.ID.getName())) record.getInt(TaskDefaultColumn.ID.getName()) else null
+    val earliestBegin =
+      if (record.isSet(TaskFields.EARLIEST_BEGIN.toString()) && record.get(TaskFields.EARLIEST_BEGIN.toString()).isNullOrBlank().not()) {
+        record.digDate(TaskFields.EARLIEST_BEGIN.toString(), this::addError)?.let {
+          myTimeUnitStack.defaultTimeUnit.adjustLeft(it)
+        }
+      } else null
     val outlineNumber =
       getOrNull(record, TaskDefaultColumn.OUTLINE_NUMBER.getName())?.let {
         if (it.endsWith(".0")) {
           it.removeSuffix(".0")
         } else it
       }
-    if (outlineNumber != null) {
-      myWbsMap[outlineNumber] = task
-    }
+    val customValues = mutableListOf<Pair<CustomPropertyDefinition, String?>>()
     readCustomProperties(
         headerRecord = header!!,
         customFields = customFields ?: emptyList(),
         customPropertyMgr = taskManager.customPropertyManager,
         record = record,
-        receiver = task.customValues::addCustomProperty
+        receiver = { def, value -> customValues.add(Pair.create(def, value)) }
     )
+    mySpecs.add(TaskSpec(
+      name = record[TaskFields.NAME.toString()],
+      startDate = startDate,
+      webLink = record[TaskFields.WEB_LINK.toString()],
+      notes = record[TaskFields.NOTES.toString()],
+      duration = duration,
+      isLegacyMilestone = isLegacyMilestone,
+      endDate = endDate,
+      completion = completion,
+      color = color,
+      cost = cost,
+      priority = priority,
+      id = id,
+      earliestBegin = earliestBegin,
+      assignments = parseAssignmentSpec(record),
+      predecessors = getOrNull(record, TaskDefaultColumn.PREDECESSORS.getName()),
+      outlineNumber = outlineNumber,
+      customValues = customValues
+    ))
     return true
   }
 
+  private fun buildTask(spec: TaskSpec, parent: Task?): Task {
+    var builder = taskManager.newTaskBuilder()
+      .withName(spec.name)
+      .withStartDate(spec.startDate)
+      .withWebLink(spec.webLink)
+      .withNotes(spec.notes)
+    if (!spec.duration.isNullOrBlank()) {
+      builder = builder.withDuration(taskManager.createLength(spec.duration))
+    }
+    if (spec.isLegacyMilestone) {
+      builder = builder.withLegacyMilestone()
+    }
+    spec.endDate?.let { builder = builder.withEndDate(it) }
+    spec.completion?.let { builder = builder.withCompletion(it) }
+    spec.color?.let { builder = builder.withColor(ColorConvertion.determineColor(it)) }
+    spec.cost?.let { builder = builder.withCost(it) }
+    spec.priority?.let { builder = builder.withPriority(Task.Priority.fromPersistentValue(it)) }
+    spec.id?.let { builder = builder.withId(it) }
+    parent?.let { builder = builder.withParent(it) }
+    val task = builder.build()
+    spec.earliestBegin?.let {
+      task.thirdDateConstraint = TaskImpl.EARLIESTBEGIN
+      task.setThirdDate(CalendarFactory.createGanttCalendar(it))
+    }
+    spec.customValues.forEach { task.customValues.addCustomProperty(it.first(), it.second()) }
+    return task
+  }
+
   private fun parseAssignmentSpec(record: SpreadsheetRecord): AssignmentSpec {
     val assignmentsColumn = getOrNull(record, TaskFields.ASSIGNMENTS.toString())
     val coordinatorColumn = getOrNull(record, TaskFields.COORDINATOR.toString())
@@ -215,50 +253,83 @@ class TaskRecords(
     } else AssignmentSpec.VOID
   }
 
+  /**
+   * Creates the tasks from the parsed records as one batch of task mutations, so that the scheduler and other
+   * algorithms run once for the whole import.
+   *
+   * Outline numbers are resolved before the tasks are created, and a task is created right in its parent if
+   * the parent record comes first, which is the case in the files we export. Otherwise, the task is moved
+   * to its parent afterwards, as it used to be.
+   */
   override fun postProcess() {
-    for ((outlineNumber, value) in myWbsMap) {
+    val wbsMap: SortedMap<String, TaskSpec> = TreeMap(OUTLINE_NUMBER_COMPARATOR)
+    mySpecs.forEach { spec -> spec.outlineNumber?.let { wbsMap[it] = spec } }
+    val parentSpecs = IdentityHashMap<TaskSpec, TaskSpec>()
+    for ((outlineNumber, spec) in wbsMap) {
       val components = outlineNumber.split(".")
       if (components.size <= 1) {
         continue
       }
-      val parentOutlineNumber = Joiner.on('.').join(components.subList(0, components.size - 1))
-      val parentTask = myWbsMap[parentOutlineNumber] ?: continue
-      taskManager.taskHierarchy.move(value, parentTask)
+      wbsMap[Joiner.on('.').join(components.subList(0, components.size - 1))]?.let { parentSpecs[spec] = it }
     }
-    if (resourceManager != null) {
-      for ((key, value) in myAssignmentMap) {
-        if (value == null) {
-          continue
+
+    taskManager.startBatch().use { batch ->
+      val tasks = IdentityHashMap<TaskSpec, Task>()
+      val taskIdMap = mutableMapOf<Int, Task>()
+      val pendingMoves = mutableListOf<TaskSpec>()
+      for (spec in mySpecs) {
+        val parentSpec = parentSpecs[spec]
+        val parentTask = parentSpec?.let { tasks[it] }
+        if (parentSpec != null && parentTask == null) {
+          pendingMoves.add(spec)
+        }
+        try {
+          val task = buildTask(spec, parentTask)
+          tasks[spec] = task
+          spec.id?.let { taskIdMap[it] = task }
+        } catch (e: Exception) {
+          GPLogger.getLogger(TaskRecords::class.java).log(Level.SEVERE, "Can't create task ${spec.name}", e)
         }
-        value.apply(key, resourceManager)
       }
-    }
-    val taskIndex = Function<Int, Task?> {
-      myTaskIdMap[it]
-    }
-    for ((successor, value) in myPredecessorMap) {
-      if (value == null) {
-        continue
+      pendingMoves.sortWith(compareBy(OUTLINE_NUMBER_COMPARATOR) { it.outlineNumber!! })
+      for (spec in pendingMoves) {
+        val task = tasks[spec] ?: continue
+        val parentTask = parentSpecs[spec]?.let { tasks[it] } ?: continue
+        taskManager.taskHierarchy.move(task, parentTask)
       }
-      val depSpecs = value.split(";").filter { it.isNotBlank() }
-      try {
-        val constructors = TaskProperties.parseDependencies(
-          depSpecs, successor, taskIndex
-        )
-        for (constructor in constructors.values) {
-          constructor.get()
+      if (resourceManager != null) {
+        for (spec in mySpecs) {
+          tasks[spec]?.let { spec.assignments.apply(it, resourceManager) }
         }
-      } catch (e: IllegalArgumentException) {
-        GPLogger.logToLogger(
-          String.format(
-            "%s\nwhen parsing predecessor specification %s of task %s",
-            e.message, value, successor
+      }
+      val taskIndex = Function<Int, Task?> {
+        taskIdMap[it]
+      }
+      for (spec in mySpecs) {
+        val value = spec.predecessors ?: continue
+        val successor = tasks[spec] ?: continue
+        val depSpecs = value.split(";").filter { it.isNotBlank() }
+        try {
+          val constructors = TaskProperties.parseDependencies(
+            depSpecs, successor, taskIndex
           )
-        )
-      } catch (e: TaskDependencyException) {
-        GPLogger.logToLogger(e)
+          for (constructor in constructors.values) {
+            constructor.get()
+          }
+        } catch (e: IllegalArgumentException) {
+          GPLogger.logToLogger(
+            String.format(
+              "%s\nwhen parsing predecessor specification %s of task %s",
+              e.message, value, successor
+            )
+          )
+        } catch (e: TaskDependencyException) {
+          GPLogger.logToLogger(e)
+        }
       }
+      batch.commit()
     }
+    mySpecs.clear()
   }
 }
 
@@ -23,13 +23,16 @@ import org.apache.poi.hssf.usermodel.HSSFWorkbook
 import org.apache.poi.ss.usermodel.Row
 import org.apache.poi.ss.usermodel.Sheet
 import org.apache.poi.ss.usermodel.Workbook
+import org.apache.poi.xssf.streaming.SXSSFWorkbook
 import java.io.IOException
 import java.io.OutputStream
 import java.math.BigDecimal
 
 
 /**
- * This is an implementation of SpreadsheetWriter which writes to Excel workbook.
+ * This is an implementation of SpreadsheetWriter which writes to Excel workbook. By default, it writes
+ * a legacy .xls workbook. Use createXlsxWriter to write an .xlsx workbook which keeps only a window of the recent rows
+ * in memory and flushes the older rows to a temporary file.
  *
  * @author Dmitry Barashev
  * ------
@@ -37,8 +40,8 @@ import java.math.BigDecimal
  *       by Dmitry Barashev
  * 2017: initially written in Java by Alexander Kurutin.
  */
-class XlsWriterImpl(private val myStream: OutputStream) : SpreadsheetWriter {
-  private val myWorkbook: Workbook = HSSFWorkbook()
+class XlsWriterImpl @JvmOverloads constructor(
+  private val myStream: OutputStream, private val myWorkbook: Workbook = HSSFWorkbook()) : SpreadsheetWriter {
   private val mySheet: Sheet = myWorkbook.createSheet()
   private val dateFormat = myWorkbook.creationHelper.createDataFormat().getFormat("m/d/yy")
   private val dateCellStyle = myWorkbook.createCellStyle().also { it.dataFormat = dateFormat }
@@ -108,9 +111,14 @@ class XlsWriterImpl(private val myStream: OutputStream) : SpreadsheetWriter {
 
   @Throws(IOException::class)
   override fun close() {
-    myWorkbook.write(myStream)
-    myWorkbook.close()
-    myStream.close()
+    try {
+      myWorkbook.write(myStream)
+    } finally {
+      // Removes the temporary files of the streaming workbook
+      (myWorkbook as? SXSSFWorkbook)?.dispose()
+      myWorkbook.close()
+      myStream.close()
+    }
   }
 
   private fun createNewRow() =
@@ -119,3 +127,8 @@ class XlsWriterImpl(private val myStream: OutputStream) : SpreadsheetWriter {
   private fun createCell() = myCurrentRow.createCell(myNextCellInd++)
 
 }
+
+private const val XLSX_ROW_WINDOW = 100
+
+fun createXlsxWriter(stream: OutputStream) =
+  XlsWriterImpl(stream, SXSSFWorkbook(XLSX_ROW_WINDOW).also { it.setCompressTempFiles(true) })
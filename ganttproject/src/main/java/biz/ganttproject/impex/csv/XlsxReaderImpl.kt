@@ -0,0 +1,326 @@
+/*
+Copyright 2026 BarD Software s.r.o, GanttProject Team
+
+This file is part of GanttProject, an opensource project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package biz.ganttproject.impex.csv
+
+import biz.ganttproject.customproperty.CustomPropertyClass
+import net.sourceforge.ganttproject.language.GanttLanguage
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException
+import org.apache.poi.openxml4j.opc.OPCPackage
+import org.apache.poi.openxml4j.opc.PackageAccess
+import org.apache.poi.ss.usermodel.DateUtil
+import org.apache.poi.ss.util.CellReference
+import org.apache.poi.util.XMLHelper
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable
+import org.apache.poi.xssf.eventusermodel.XSSFReader
+import org.apache.poi.xssf.model.StylesTable
+import org.xml.sax.SAXException
+import java.io.File
+import java.io.IOException
+import java.io.InputStream
+import java.io.UncheckedIOException
+import java.math.BigDecimal
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+import java.util.*
+import javax.xml.stream.XMLStreamConstants
+import javax.xml.stream.XMLStreamException
+import javax.xml.stream.XMLStreamReader
+
+/**
+ * This is a SpreadsheetReader implementation which reads the first sheet of an .xlsx workbook.
+ *
+ * Unlike XlsReaderImpl, it doesn't load the whole workbook: the input is copied to a temporary file,
+ * and the sheet XML is parsed row by row as the records are requested, so only the shared strings
+ * and the current row are kept in memory.
+ */
+class XlsxReaderImpl(`is`: InputStream, columnHeaders: List<String>?) : SpreadsheetReader {
+  private val myFile: File = File.createTempFile("ganttproject-import", ".xlsx")
+  private val myPackage: OPCPackage
+  private val mySheetStream: InputStream
+  private val myXml: XMLStreamReader
+  private val mySharedStrings: ReadOnlySharedStringsTable
+  private val myStyles: StylesTable
+  private val myDateStyles = mutableMapOf<Int, Boolean>()
+  private val myHeaders: Map<String, Int>?
+  // Row which was parsed ahead, e.g. in order to read the header
+  private var myNextRow: XlsxRow? = null
+  private var myLastRowNum = -1
+
+  init {
+    try {
+      `is`.use { Files.copy(it, myFile.toPath(), StandardCopyOption.REPLACE_EXISTING) }
+      myPackage = OPCPackage.open(myFile, PackageAccess.READ)
+      val reader = XSSFReader(myPackage)
+      mySharedStrings = ReadOnlySharedStringsTable(myPackage)
+      myStyles = reader.stylesTable
+      mySheetStream = reader.sheetsData.next()
+      myXml = XMLHelper.newXMLInputFactory().createXMLStreamReader(mySheetStream)
+    } catch (e: Exception) {
+      myFile.delete()
+      when (e) {
+        is IOException -> throw e
+        is OpenXML4JException, is SAXException, is XMLStreamException -> throw IOException("Failed to open XLSX workbook", e)
+        else -> throw e
+      }
+    }
+    myHeaders = try {
+      initializeHeader(columnHeaders)
+    } catch (e: Exception) {
+      // The caller never gets a reader to close, so we release the package and the temporary file here
+      try {
+        close()
+      } catch (closeError: IOException) {
+        e.addSuppressed(closeError)
+      }
+      throw e
+    }
+  }
+
+  @Throws(IOException::class)
+  override fun close() {
+    try {
+      myXml.close()
+      mySheetStream.close()
+      // The package was opened for reading, so we don't want to save it on close
+      myPackage.revert()
+    } finally {
+      myFile.delete()
+    }
+  }
+
+  override fun iterator(): Iterator<SpreadsheetRecord> = object : Iterator<SpreadsheetRecord> {
+    override fun hasNext() = peekRow() != null
+
+    override fun next(): SpreadsheetRecord {
+      val row = peekRow() ?: throw NoSuchElementException()
+      // Rows which are missing in the sheet are returned as empty records
+      if (row.rowNum > myLastRowNum + 1) {
+        myLastRowNum++
+        return XlsxRecordImpl(emptyList())
+      }
+      myNextRow = null
+      myLastRowNum = row.rowNum
+      return myHeaders?.let { XlsxRecordImpl(row.values, it) } ?: XlsxRecordImpl(row.values)
+    }
+  }
+
+  private fun peekRow(): XlsxRow? {
+    if (myNextRow == null) {
+      myNextRow = try {
+        readRow()
+      } catch (e: XMLStreamException) {
+        throw UncheckedIOException(IOException("Failed to read XLSX sheet", e))
+      }
+    }
+    return myNextRow
+  }
+
+  private fun readRow(): XlsxRow? {
+    while (myXml.hasNext()) {
+      if (myXml.next() == XMLStreamConstants.START_ELEMENT && myXml.localName == "row") {
+        val rowNum = myXml.getAttributeValue(null, "r")?.toIntOrNull()?.minus(1) ?: (myLastRowNum + 1)
+        val values = mutableListOf<XlsxValue?>()
+        while (myXml.next() != XMLStreamConstants.END_ELEMENT || myXml.localName != "row") {
+          if (myXml.eventType == XMLStreamConstants.START_ELEMENT && myXml.localName == "c") {
+            val col = myXml.getAttributeValue(null, "r")?.let { CellReference(it).col.toInt() } ?: values.size
+            val value = readCell()
+            while (values.size <= col) {
+              values.add(null)
+            }
+            values[col] = value
+          }
+        }
+        return XlsxRow(rowNum, values)
+      }
+    }
+    return null
+  }
+
+  /**
+   * Reads the value of the current cell element and leaves the reader at the end of the element.
+   */
+  private fun readCell(): XlsxValue? {
+    val type = myXml.getAttributeValue(null, "t") ?: "n"
+    val style = myXml.getAttributeValue(null, "s")?.toIntOrNull() ?: 0
+    var text: String? = null
+    val inlineText = StringBuilder()
+    while (myXml.next() != XMLStreamConstants.END_ELEMENT || myXml.localName != "c") {
+      if (myXml.eventType != XMLStreamConstants.START_ELEMENT) {
+        continue
+      }
+      when (myXml.localName) {
+        "v" -> text = myXml.elementText
+        "t" -> inlineText.append(myXml.elementText)
+        // Phonetic runs also have text elements which are not a part of the value
+        "rPh" -> skipElement()
+      }
+    }
+    return when (type) {
+      "inlineStr" -> XlsxValue.Text(inlineText.toString())
+      "s" -> text?.toIntOrNull()?.let { XlsxValue.Text(mySharedStrings.getItemAt(it).string) }
+      "str" -> text?.let { XlsxValue.Text(it) }
+      "b" -> text?.let { XlsxValue.Bool(it == "1") }
+      "n" -> text?.toDoubleOrNull()?.let { XlsxValue.Number(it, isDateStyle(style)) }
+      else -> null
+    }
+  }
+
+  private fun skipElement() {
+    var depth = 1
+    while (depth > 0) {
+      when (myXml.next()) {
+        XMLStreamConstants.START_ELEMENT -> depth++
+        XMLStreamConstants.END_ELEMENT -> depth--
+      }
+    }
+  }
+
+  private fun isDateStyle(styleIdx: Int) = myDateStyles.getOrPut(styleIdx) {
+    if (styleIdx < myStyles.numCellStyles) {
+      myStyles.getStyleAt(styleIdx).let { DateUtil.isADateFormat(it.dataFormat.toInt(), it.dataFormatString) }
+    } else false
+  }
+
+  /**
+   * Create the name to index mapping if the column headers not `null`.
+   * @see XlsReaderImpl.initializeHeader
+   */
+  private fun initializeHeader(columnHeaders: List<String>?): Map<String, Int>? {
+    if (columnHeaders == null) {
+      return null
+    }
+    val headerRecord = columnHeaders.ifEmpty {
+      // read the header from the first line of the file
+      peekRow()?.takeIf { it.rowNum == 0 }?.let { row -> XlsxRecordImpl(row.values).iterator().asSequence().filterNotNull().toList() }
+    }
+    val hdrMap = LinkedHashMap<String, Int>()
+    headerRecord?.forEachIndexed { i, header ->
+      require(!hdrMap.containsKey(header)) { "The header contains a duplicate name: \"$header\" in $headerRecord" }
+      hdrMap[header] = i
+    }
+    return hdrMap
+  }
+}
+
+private class XlsxRow(val rowNum: Int, val values: List<XlsxValue?>)
+
+internal sealed class XlsxValue {
+  class Text(val value: String) : XlsxValue()
+  class Number(val value: Double, val isDate: Boolean) : XlsxValue()
+  class Bool(val value: Boolean) : XlsxValue()
+}
+
+/**
+ * This is an implementation of SpreadsheetRecord over the cell values of a row which was read by XlsxReaderImpl.
+ * Missing and blank cells are nulls.
+ */
+internal class XlsxRecordImpl(
+  private val myValues: List<XlsxValue?>,
+  private val myMapping: Map<String, Int> = mapOf()) : SpreadsheetRecord {
+
+  override fun getType(name: String) = if (isMapped(name)) getType(idx(name)) else null
+
+  override fun getType(idx: Int) = withCell(idx) {
+    when (it) {
+      is XlsxValue.Text -> CustomPropertyClass.TEXT
+      is XlsxValue.Number -> if (it.isDate) CustomPropertyClass.DATE else CustomPropertyClass.DOUBLE
+      is XlsxValue.Bool -> CustomPropertyClass.BOOLEAN
+    }
+  }
+
+  override fun get(name: String): String? = if (isMapped(name)) get(idx(name)) else null
+
+  override fun get(idx: Int): String? = withCell(idx, ::getString)
+
+  private fun getString(value: XlsxValue) =
+    when (value) {
+      is XlsxValue.Text -> value.value
+      is XlsxValue.Number ->
+        if (value.isDate) GanttLanguage.getInstance().shortDateFormat.format(DateUtil.getJavaDate(value.value))
+        else value.value.toString()
+      is XlsxValue.Bool -> value.value.toString()
+    }
+
+  private fun idx(name: String) =
+    myMapping[name] ?: throw IllegalArgumentException(
+      "Mapping for $name not found, expected one of ${myMapping.keys}"
+    )
+
+  override fun getDouble(name: String): Double? = if (isMapped(name)) getDouble(idx(name)) else null
+
+  override fun getDouble(idx: Int): Double? = withCell(idx) {
+    when (it) {
+      is XlsxValue.Text -> it.value.toDoubleOrNull()
+      is XlsxValue.Number -> it.value
+      else -> null
+    }
+  }
+
+  override fun getDate(name: String): Date? = if (isMapped(name)) getDate(idx(name)) else null
+
+  override fun getDate(idx: Int): Date? = withCell(idx) {
+    when (it) {
+      is XlsxValue.Text -> if (it.value.isNotBlank()) GanttCSVOpen.language.parseDate(it.value) else null
+      is XlsxValue.Number -> DateUtil.getJavaDate(it.value)
+      else -> null
+    }
+  }
+
+  override fun getInt(name: String): Int? = if (isMapped(name)) getInt(idx(name)) else null
+
+  override fun getInt(idx: Int): Int? = withCell(idx) {
+    when (it) {
+      is XlsxValue.Text -> it.value.toIntOrNull()
+      is XlsxValue.Number -> it.value.toInt()
+      else -> null
+    }
+  }
+
+  override fun getBigDecimal(name: String): BigDecimal? = if (isMapped(name)) getBigDecimal(idx(name)) else null
+
+  override fun getBigDecimal(idx: Int): BigDecimal? = withCell(idx) {
+    when (it) {
+      is XlsxValue.Text -> it.value.toBigDecimalOrNull()
+      is XlsxValue.Number -> it.value.toBigDecimal()
+      else -> null
+    }
+  }
+
+  override fun getBoolean(name: String): Boolean? = if (isMapped(name)) getBoolean(idx(name)) else null
+
+  override fun getBoolean(idx: Int): Boolean? = withCell(idx) {
+    when (it) {
+      is XlsxValue.Text -> it.value.toBoolean()
+      is XlsxValue.Bool -> it.value
+      else -> null
+    }
+  }
+
+  override fun isEmpty(): Boolean = myValues.all { it == null || it is XlsxValue.Text && it.value.isBlank() }
+
+  override fun isMapped(name: String): Boolean = myMapping.containsKey(name)
+
+  override fun isSet(name: String): Boolean = myMapping[name]?.let { myValues.getOrNull(it) != null } ?: false
+
+  override fun iterator(): Iterator<String?> = myValues.asSequence().filterNotNull().map(::getString).iterator()
+
+  private fun <T> withCell(idx: Int, code: (XlsxValue) -> T): T? = myValues.getOrNull(idx)?.let(code)
+
+  override fun toString() = myValues.map { it?.let(::getString) }.toString()
+}
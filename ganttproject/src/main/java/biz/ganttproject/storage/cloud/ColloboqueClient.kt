@@ -21,9 +21,14 @@ package biz.ganttproject.storage.cloud
 import biz.ganttproject.core.calendar.ImportCalendarOption
 import javafx.application.Platform
 import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.GlobalScope
+import kotlinx.coroutines.Job
 import kotlinx.coroutines.asCoroutineDispatcher
 import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.delay
 import kotlinx.coroutines.launch
+import kotlinx.coroutines.runBlocking
 import kotlinx.coroutines.selects.select
 import net.sourceforge.ganttproject.GPLogger
 import net.sourceforge.ganttproject.IGanttProject
@@ -38,13 +43,37 @@ import net.sourceforge.ganttproject.task.export
 import net.sourceforge.ganttproject.task.importFromDatabase
 import net.sourceforge.ganttproject.undo.GPUndoListener
 import net.sourceforge.ganttproject.undo.GPUndoManager
+import java.time.Duration
 import java.util.*
 import java.util.concurrent.Executors
 import javax.swing.event.UndoableEditEvent
 
 fun installColloboque(it: GPCloudDocument, project: IGanttProject, undoManager: GPUndoManager, uiFacade: UIFacade) {
   if (!isColloboqueOn()) return
-  it.colloboqueClient = ColloboqueClient(project.projectDatabase, undoManager)
+  lateinit var client: ColloboqueClient
+  client = ColloboqueClient(project.projectDatabase, resyncHead = {
+    GlobalScope.launch(Dispatchers.IO) {
+      try {
+        val head = it.fetch().also { fetchResult -> fetchResult.update() }
+        Platform.runLater {
+          // Reloading the project recreates the project database, so the log is started again after that.
+          reloadProject(it, project, uiFacade)
+          head.baseColloboqueTxnId?.let { baseTxnId -> client.start(it.projectRefid!!, baseTxnId) }
+        }
+      } catch (e: Exception) {
+        LOG.error("Failed to resync with the server head", exception = e)
+      }
+    }
+  })
+  undoManager.addUndoableEditListener(object: GPUndoListener {
+    override fun undoableEditHappened(e: UndoableEditEvent) {
+      client.sendProjectStateLogs()
+    }
+
+    override fun undoOrRedoHappened() {}
+    override fun undoReset() {}
+  })
+  it.colloboqueClient = client
   project.projectDatabase.addExternalUpdatesListener {
     Platform.runLater {
       val emptyTaskManager = project.taskManager.emptyClone()
@@ -56,39 +85,77 @@ fun installColloboque(it: GPCloudDocument, project: IGanttProject, undoManager:
         project.activeCalendar,
         uiFacade
       )
-      val mergeOption = HumanResourceMerger.MergeResourcesOption()
-      val importCalendarOption = ImportCalendarOption()
-      mergeOption.setSelectedValue(MergeResourcesEnum.BY_ID)
-      importCalendarOption.loadPersistentValue(ImportCalendarOption.Values.REPLACE.name)
-      importBufferProject(
-        project,
-        bufferProject,
-        uiFacade.asImportBufferProjectApi(),
-        mergeOption,
-        importCalendarOption,
-        closeCurrentProject = true
-      )
+      replaceProject(project, bufferProject, uiFacade)
     }
   }
 }
 
-class ColloboqueClient(private val projectDatabase: ProjectDatabase, undoManager: GPUndoManager) {
+/**
+ * Replaces the project contents with the contents of the document which were fetched last.
+ */
+private fun reloadProject(document: GPCloudDocument, project: IGanttProject, uiFacade: UIFacade) {
+  val bufferProject = BufferProject(project, uiFacade)
+  bufferProject.documentManager.getProxyDocument(document).read()
+  replaceProject(project, bufferProject, uiFacade)
+}
+
+private fun replaceProject(project: IGanttProject, bufferProject: BufferProject, uiFacade: UIFacade) {
+  val mergeOption = HumanResourceMerger.MergeResourcesOption()
+  val importCalendarOption = ImportCalendarOption()
+  mergeOption.setSelectedValue(MergeResourcesEnum.BY_ID)
+  importCalendarOption.loadPersistentValue(ImportCalendarOption.Values.REPLACE.name)
+  importBufferProject(
+    project,
+    bufferProject,
+    uiFacade.asImportBufferProjectApi(),
+    mergeOption,
+    importCalendarOption,
+    closeCurrentProject = true
+  )
+}
+
+/**
+ * Sends the transactions committed in this GanttProject instance to the Colloboque server and applies the transactions
+ * committed by other clients.
+ *
+ * Up to windowSize xlogs may be in flight, that is, sent but not yet committed. The base txn ID of each xlog
+ * is predicted from the previous in-flight xlog, so the edits are not serialized to one round trip each.
+ * The server commits or rejects the xlogs in the order they were sent. When an xlog is rejected, it and all xlogs
+ * which were predicted on top of it are sent again from the actual base txn ID, after a delay which grows with every
+ * consecutive rejection. When the rejections persist, the client stops sending and asks for a resync with the server
+ * head, which is expected to reload the project and call [start].
+ */
+class ColloboqueClient(
+  private val projectDatabase: ProjectDatabase,
+  private val windowSize: Int = IN_FLIGHT_WINDOW_SIZE,
+  private val maxXlogTransactions: Int = MAX_XLOG_TRANSACTIONS,
+  private val retryPolicy: RetryPolicy = RetryPolicy(),
+  private val sendLogs: (InputXlog) -> Unit = webSocket::sendLogs,
+  private val resyncHead: () -> Unit = {}) {
   private val myBaseTxnCommitInfo = TxnCommitInfo(0)
   private var projectRefid: String? = null
-  private val eventLoopScope = CoroutineScope(Executors.newSingleThreadExecutor().asCoroutineDispatcher())
+  private val eventLoopDispatcher = Executors.newSingleThreadExecutor().asCoroutineDispatcher()
+  private val eventLoopScope = CoroutineScope(eventLoopDispatcher)
   private val channelScope = CoroutineScope(Executors.newSingleThreadExecutor().asCoroutineDispatcher())
-  private val internalChannel = Channel<List<XlogRecord>>()
-  private val externalChannel = Channel<ServerResponse.CommitResponse>()
+  // Signals that there are new local transactions. The transactions are fetched in the event loop.
+  private val internalChannel = Channel<Unit>(Channel.CONFLATED)
+  private val externalChannel = Channel<ServerResponse>()
 
-  init {
-    undoManager.addUndoableEditListener(object: GPUndoListener {
-      override fun undoableEditHappened(e: UndoableEditEvent) {
-        sendProjectStateLogs()
-      }
+  /** Xlog which was sent to the server and is not yet committed or rejected. */
+  private class InFlightXlog(
+    val baseTxnId: BaseTxnId, val predictedNewBaseTxnId: BaseTxnId, val trackingCode: String, val startLocalTxnId: Int
+  )
+  // These fields are accessed only in the event loop.
+  private val inFlightXlogs = mutableListOf<InFlightXlog>()
+  private var unsentLocalTxnId = 0
+  // Number of rejections since our last committed xlog.
+  private var rejectionCount = 0
+  // Set while we wait before sending the rejected xlogs again.
+  private var retryJob: Job? = null
+  // Set when we gave up retrying and wait for the resync.
+  private var isResyncRequested = false
 
-      override fun undoOrRedoHappened() {}
-      override fun undoReset() {}
-    })
+  init {
     eventLoopScope.launch {
       runEventLoop(internalChannel, externalChannel)
     }
@@ -97,98 +164,178 @@ class ColloboqueClient(private val projectDatabase: ProjectDatabase, undoManager
   /**
    * We process updates generated by this GanttProject instance (internal updates) and updates coming from the
    * cloud (external updates) in a single thread.
-   * Once we receive an internal update, we send the log to the server and stop processing further internal updates
-   * until we hear a response.
+   * Once we receive an internal update, we send the new local transactions to the server. When the window of in-flight
+   * xlogs is full, we stop processing internal updates until we hear a response.
    */
-  private suspend fun runEventLoop(internalChannel: Channel<List<XlogRecord>>, externalChannel: Channel<ServerResponse.CommitResponse>) {
-    var acceptInternal = true
+  private suspend fun runEventLoop(internalChannel: Channel<Unit>, externalChannel: Channel<ServerResponse>) {
     while (true) {
+      val acceptInternal = inFlightXlogs.size < windowSize
       LOG.debug("Next event loop cycle. Accept internal=$acceptInternal")
       if (acceptInternal) {
         select {
-          internalChannel.onReceive { txns ->
+          internalChannel.onReceive {
             LOG.debug("Message from the internal channel")
-            sendXlog(txns)
-            // TODO: start timeout to report missing response in a few moments
-            acceptInternal = false
-            LOG.debug("We will stop accepting internal messages until we hear a response")
+            sendPendingXlogs()
           }
           externalChannel.onReceive { response ->
             LOG.debug("Message from the EXTERNAL channel")
-            receiveXlog(response)
-            acceptInternal = true
+            receiveResponse(response)
           }
         }
       } else {
         val response = externalChannel.receive()
         LOG.debug("Message from the EXTERNAL channel")
-        receiveXlog(response)
-        acceptInternal = true
+        receiveResponse(response)
       }
     }
   }
 
-  private fun sendXlog(txns: List<XlogRecord>) {
-    webSocket.sendLogs(
+  /**
+   * Sends the local transactions which were not sent yet, while there is room in the window.
+   */
+  private fun sendPendingXlogs() {
+    if (retryJob != null || isResyncRequested) {
+      return
+    }
+    try {
+      while (inFlightXlogs.size < windowSize) {
+        val txns = projectDatabase.fetchLocalTransactions(unsentLocalTxnId, maxXlogTransactions)
+        if (txns.isEmpty()) {
+          return
+        }
+        sendXlog(txns)
+      }
+      LOG.debug("The window of in-flight xlogs is full")
+    } catch (e: ProjectDatabaseException) {
+      LOG.error("Failed to send logs", exception = e)
+    }
+  }
+
+  private fun sendXlog(localTxns: Map<Int, XlogRecord>) {
+    val txns = localTxns.values.toList()
+    val previous = inFlightXlogs.lastOrNull()
+    val baseTxnId = previous?.predictedNewBaseTxnId ?: myBaseTxnCommitInfo.baseTxnId
+    val trackingCode = generateTrackingCode()
+    inFlightXlogs.add(InFlightXlog(baseTxnId, predictNextBaseTxnId(baseTxnId, txns), trackingCode, unsentLocalTxnId))
+    // Local txn IDs may have gaps, so we continue after the last fetched one.
+    unsentLocalTxnId = localTxns.keys.last() + 1
+    sendLogs(
       InputXlog(
-        myBaseTxnCommitInfo.baseTxnId,
+        baseTxnId,
         // TODO: use real user id
         "userId",
         projectRefid!!,
         txns,
-        myBaseTxnCommitInfo.generateTrackingCode()
+        trackingCode,
+        previous?.trackingCode
       )
     )
   }
 
+  private fun receiveResponse(response: ServerResponse) {
+    when (response) {
+      is ServerResponse.CommitResponse -> receiveXlog(response)
+      is ServerResponse.ErrorResponse -> receiveError(response)
+    }
+    sendPendingXlogs()
+  }
+
   private fun receiveXlog(response: ServerResponse.CommitResponse) {
     try {
-      // Check if we received our own update.
-      if (response.clientTrackingCode != myBaseTxnCommitInfo.trackingCode) {
+      // Check if we received our own update. The server commits our xlogs in the order they were sent.
+      val ownXlog = inFlightXlogs.firstOrNull()?.takeIf { it.trackingCode == response.clientTrackingCode }
+      if (ownXlog == null) {
         // This is not our own update so let's apply it.
         projectDatabase.applyUpdate(response.logRecords, response.baseTxnId, response.newBaseTxnId)
       } else {
+        inFlightXlogs.removeAt(0)
+        rejectionCount = 0
+        if (ownXlog.predictedNewBaseTxnId != response.newBaseTxnId) {
+          // The xlogs which follow will be rejected because their base txn IDs are wrong, and we will send them again.
+          LOG.error("Unexpected newBaseTxnId={}, predicted {}", response.newBaseTxnId, ownXlog.predictedNewBaseTxnId)
+        }
         // We need to advance base txn id anyway.
         projectDatabase.applyUpdate(emptyList(), response.baseTxnId, response.newBaseTxnId)
       }
-      myBaseTxnCommitInfo.update(response.baseTxnId, response.newBaseTxnId,)
+      myBaseTxnCommitInfo.update(response.baseTxnId, response.newBaseTxnId)
     } catch (ex: Exception) {
       LOG.error("Failed to apply external update", exception = ex)
     }
   }
 
+  private fun receiveError(response: ServerResponse.ErrorResponse) {
+    val idx = inFlightXlogs.indexOfFirst { it.trackingCode == response.clientTrackingCode }
+    if (idx < 0) {
+      // Either not our xlog, or one which follows an already rejected xlog.
+      return
+    }
+    LOG.debug("Xlog {} was rejected: {}", response.clientTrackingCode, response.message)
+    // The rejected xlog and all xlogs predicted on top of it will be sent again.
+    unsentLocalTxnId = inFlightXlogs[idx].startLocalTxnId
+    while (inFlightXlogs.size > idx) {
+      inFlightXlogs.removeAt(inFlightXlogs.lastIndex)
+    }
+    rejectionCount++
+    if (rejectionCount > retryPolicy.maxRetries) {
+      LOG.error("Xlogs were rejected {} times in a row. Last error: {}. Requesting resync with the server",
+        rejectionCount, response.message)
+      isResyncRequested = true
+      resyncHead()
+      return
+    }
+    retryJob = eventLoopScope.launch {
+      delay(retryPolicy.backoff(rejectionCount).toMillis())
+      retryJob = null
+      internalChannel.trySend(Unit)
+    }
+  }
+
   fun attach(webSocket: WebSocketClient) {
-    webSocket.onCommitResponseReceived { response  -> this.fireXlogReceived(response) }
+    webSocket.onCommitResponseReceived { response  -> this.onServerResponse(response) }
+    webSocket.onCommitErrorReceived { response -> this.onServerResponse(response) }
   }
 
+  /**
+   * Starts the local log from the given server base txn ID. The transactions which were logged before are dropped,
+   * because the project state is supposed to be the one of the base txn.
+   *
+   * The log is restarted in the event loop, so that it doesn't interleave with sending xlogs, and this call waits
+   * until it is done. It must not be called from the event loop.
+   */
   fun start(projectRefid: String, baseTxnId: BaseTxnId) {
     this.projectRefid = projectRefid
-    onBaseTxnIdReceived(baseTxnId)
-    this.projectDatabase.startLog(baseTxnId)
+    runBlocking(eventLoopDispatcher) {
+      restart(baseTxnId)
+    }
   }
 
-  private fun fireXlogReceived(response: ServerResponse.CommitResponse) {
+  /**
+   * Processes a commit or error response received from the server.
+   */
+  fun onServerResponse(response: ServerResponse) {
     channelScope.launch {
       externalChannel.send(response)
     }
   }
 
-  private fun onBaseTxnIdReceived(baseTxnId: BaseTxnId) {
-    myBaseTxnCommitInfo.update(0, baseTxnId)
+  private fun restart(baseTxnId: BaseTxnId) {
+    inFlightXlogs.clear()
+    rejectionCount = 0
+    retryJob?.cancel()
+    retryJob = null
+    isResyncRequested = false
+    projectDatabase.startLog(baseTxnId)
+    // The log is empty now, and its local txn IDs start from 0 again.
+    unsentLocalTxnId = 0
+    myBaseTxnCommitInfo.reset(baseTxnId)
   }
 
-  private fun sendProjectStateLogs() {
+  /**
+   * Notifies the client that there are new local transactions.
+   */
+  fun sendProjectStateLogs() {
     LOG.debug("Sending project state logs")
-    try {
-      val txns = projectDatabase.outgoingTransactions
-      if (txns.isNotEmpty()) {
-        channelScope.launch {
-          internalChannel.send(txns)
-        }
-      }
-    } catch (e: ProjectDatabaseException) {
-      LOG.error("Failed to send logs", exception = e)
-    }
+    internalChannel.trySend(Unit)
   }
 
 }
@@ -196,13 +343,10 @@ class ColloboqueClient(private val projectDatabase: ProjectDatabase, undoManager
 
 /**
  * Data for transition from one synced state to another. When client is connected, it expects new updates to be applied
- * to the state produced by baseTxnId. Also, to distinguish between updates generated by this client and by other clients,
- * we check update tracking code.
+ * to the state produced by baseTxnId. To distinguish between updates generated by this client and by other clients,
+ * we check the tracking codes of the in-flight xlogs.
  */
 private class TxnCommitInfo(var baseTxnId: BaseTxnId) {
-  var trackingCode: String = ""
-    private set
-
   fun update(oldTxnId: BaseTxnId, newTxnId: BaseTxnId) {
     if (oldTxnId != baseTxnId) {
       LOG.error("Unexpected value of oldTxnId={}, expected {}", oldTxnId, baseTxnId)
@@ -211,14 +355,32 @@ private class TxnCommitInfo(var baseTxnId: BaseTxnId) {
     baseTxnId = newTxnId
   }
 
-  fun generateTrackingCode(): String =
-    UUID.randomUUID().toString().replace("-", "").also {
-      trackingCode = it
-    }
+  fun reset(newTxnId: BaseTxnId) {
+    baseTxnId = newTxnId
+  }
 }
 
+/**
+ * Defines how the client retries the rejected xlogs. The n-th consecutive rejection is followed by a delay of
+ * initialBackoff * 2^(n-1), up to maxBackoff. After maxRetries retries the client requests a resync.
+ */
+data class RetryPolicy(
+  val maxRetries: Int = 5,
+  val initialBackoff: Duration = Duration.ofMillis(100),
+  val maxBackoff: Duration = Duration.ofSeconds(5)
+) {
+  fun backoff(rejectionCount: Int): Duration =
+    initialBackoff.multipliedBy(1L shl (rejectionCount - 1).coerceIn(0, 30)).coerceAtMost(maxBackoff)
+}
+
+private fun generateTrackingCode(): String = UUID.randomUUID().toString().replace("-", "")
+
 private fun isColloboqueOn() = System.getProperty("enable_colloboque", System.getenv("ENABLE_COLLOBOQUE") ?: "false").lowercase().let {
   it.toBooleanStrictOrNull() ?: false
 }
 
+// How many xlogs may be sent before the first of them is committed.
+private const val IN_FLIGHT_WINDOW_SIZE = 4
+// How many local transactions may be sent in a single xlog.
+private const val MAX_XLOG_TRANSACTIONS = 100
 private val LOG = GPLogger.create("Cloud.RealTimeSync")
@@ -0,0 +1,213 @@
+/*
+Copyright 2026 BarD Software s.r.o., GanttProject Team
+
+This file is part of GanttProject, an opensource project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package biz.ganttproject.storage.cloud
+
+import java.io.ByteArrayOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.EOFException
+import java.io.IOException
+import java.util.*
+
+/**
+ * Delta of two versions of a document, which allows for uploading only the changed parts of a document when it is
+ * saved to the cloud.
+ *
+ * Both versions are split into content-defined chunks: a chunk boundary is placed where the rolling hash of the
+ * last few bytes matches a bit mask, so an insertion or removal in the middle of the document changes only
+ * the chunks around it, and the chunks after it are still found in the base version, even though they are shifted.
+ * The delta copies the unchanged chunks from the base version and carries the bytes of the changed ones.
+ *
+ * A server which accepts the deltas advertises [FORMAT] in the [ACCEPT_HEADER] of its responses. The client sends
+ * the delta relative to the version which it got from the server the last time, together with the checksum of
+ * the resulting document. If the server can't restore the document, it replies with [CANNOT_APPLY_STATUS], and
+ * the client falls back to uploading the whole document.
+ */
+object DocumentDelta {
+  const val ACCEPT_HEADER = "Accept-Patch"
+  const val FORMAT = "application/x-ganttproject-chunks"
+  const val CANNOT_APPLY_STATUS = 422
+
+  /**
+   * Builds the delta which transforms the base into the target.
+   */
+  fun diff(base: ByteArray, target: ByteArray): ByteArray {
+    val baseChunks = mutableMapOf<Long, MutableList<Chunk>>()
+    forEachChunk(base) { baseChunks.getOrPut(it.hash) { mutableListOf() }.add(it) }
+
+    val writer = DeltaWriter(target)
+    forEachChunk(target) { chunk ->
+      val baseChunk = baseChunks[chunk.hash]?.firstOrNull { base.chunkEquals(it, target, chunk) }
+      if (baseChunk != null) writer.copy(baseChunk.offset, chunk.length) else writer.literal(chunk.offset, chunk.length)
+    }
+    return writer.finish()
+  }
+
+  /**
+   * Restores the target from the base and the delta.
+   *
+   * @throws IOException if the delta is malformed or doesn't match the base
+   */
+  @Throws(IOException::class)
+  fun apply(base: ByteArray, delta: ByteArray): ByteArray {
+    val input = DataInputStream(delta.inputStream())
+    if (input.readByte().toInt() != VERSION) {
+      throw IOException("Unsupported delta version")
+    }
+    val targetLength = input.readInt()
+    if (targetLength < 0) {
+      throw IOException("Negative target length")
+    }
+    val result = ByteArrayOutputStream(minOf(targetLength, base.size + delta.size))
+    try {
+      while (result.size() < targetLength) {
+        val op = input.readByte().toInt()
+        val length = input.readInt()
+        if (length < 0) {
+          throw IOException("Negative length of the delta operation")
+        }
+        when (op) {
+          OP_COPY -> {
+            val offset = input.readInt()
+            if (offset < 0 || offset > base.size - length) {
+              throw IOException("Copy of [$offset, ${offset + length}) is out of the base bounds")
+            }
+            result.write(base, offset, length)
+          }
+          OP_LITERAL -> result.write(input.readNBytes(length).also {
+            if (it.size != length) throw EOFException()
+          })
+          else -> throw IOException("Unknown delta operation $op")
+        }
+      }
+    } catch (ex: EOFException) {
+      throw IOException("Delta is truncated", ex)
+    }
+    if (result.size() != targetLength) {
+      throw IOException("Delta produced ${result.size()} bytes, expected $targetLength")
+    }
+    return result.toByteArray()
+  }
+}
+
+private class Chunk(val offset: Int, val length: Int, val hash: Long)
+
+private fun ByteArray.chunkEquals(chunk: Chunk, other: ByteArray, otherChunk: Chunk) =
+  chunk.length == otherChunk.length &&
+    this.sliceEquals(chunk.offset, other, otherChunk.offset, chunk.length)
+
+private fun ByteArray.sliceEquals(offset: Int, other: ByteArray, otherOffset: Int, length: Int) =
+  Arrays.equals(this, offset, offset + length, other, otherOffset, otherOffset + length)
+
+/**
+ * Splits the bytes into content-defined chunks using the gear rolling hash, and calls the consumer for each chunk.
+ */
+private fun forEachChunk(bytes: ByteArray, consumer: (Chunk) -> Unit) {
+  var start = 0
+  while (start < bytes.size) {
+    var end = minOf(bytes.size, start + MIN_CHUNK_SIZE)
+    val limit = minOf(bytes.size, start + MAX_CHUNK_SIZE)
+    var gear = 0L
+    while (end < limit) {
+      gear = (gear shl 1) + GEAR[bytes[end].toInt() and 0xff]
+      end++
+      if (gear and CHUNK_MASK == 0L) break
+    }
+    consumer(Chunk(start, end - start, fingerprint(bytes, start, end)))
+    start = end
+  }
+}
+
+private fun fingerprint(bytes: ByteArray, start: Int, end: Int): Long {
+  var hash = FNV_OFFSET_BASIS
+  for (i in start until end) {
+    hash = (hash xor (bytes[i].toLong() and 0xff)) * FNV_PRIME
+  }
+  return hash
+}
+
+/**
+ * Writes the delta operations, merging the adjacent copies and literals.
+ */
+private class DeltaWriter(private val target: ByteArray) {
+  private val out = ByteArrayOutputStream()
+  private val data = DataOutputStream(out)
+  private var pendingOp = -1
+  private var pendingOffset = 0
+  private var pendingLength = 0
+
+  init {
+    data.writeByte(VERSION)
+    data.writeInt(target.size)
+  }
+
+  fun copy(baseOffset: Int, length: Int) = append(OP_COPY, baseOffset, length)
+
+  fun literal(targetOffset: Int, length: Int) = append(OP_LITERAL, targetOffset, length)
+
+  private fun append(op: Int, offset: Int, length: Int) {
+    if (op == pendingOp && pendingOffset + pendingLength == offset) {
+      pendingLength += length
+    } else {
+      flush()
+      pendingOp = op
+      pendingOffset = offset
+      pendingLength = length
+    }
+  }
+
+  private fun flush() {
+    when (pendingOp) {
+      OP_COPY -> {
+        data.writeByte(OP_COPY)
+        data.writeInt(pendingLength)
+        data.writeInt(pendingOffset)
+      }
+      OP_LITERAL -> {
+        data.writeByte(OP_LITERAL)
+        data.writeInt(pendingLength)
+        data.write(target, pendingOffset, pendingLength)
+      }
+    }
+    pendingOp = -1
+  }
+
+  fun finish(): ByteArray {
+    flush()
+    data.flush()
+    return out.toByteArray()
+  }
+}
+
+private const val VERSION = 1
+private const val OP_COPY = 0
+private const val OP_LITERAL = 1
+
+// With this mask the chunk boundary is found every 8KiB on average. The mask takes the high bits of the gear hash,
+// because they depend on the last 64 bytes, while the low bits depend only on the last few ones.
+private const val CHUNK_MASK = ((1L shl 13) - 1) shl 51
+private const val MIN_CHUNK_SIZE = 2 * 1024
+private const val MAX_CHUNK_SIZE = 64 * 1024
+
+private const val FNV_OFFSET_BASIS = -0x340d631b7bdddcdbL
+private const val FNV_PRIME = 0x100000001b3L
+
+// Random values for the gear hash. They are generated with a fixed seed, because the deltas are more compact when
+// the chunk boundaries stay the same from one save to another.
+private val GEAR = Random(0x6761_6e74_7470_726fL).let { random -> LongArray(256) { random.nextLong() } }
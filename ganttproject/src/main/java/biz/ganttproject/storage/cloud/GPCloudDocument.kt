@@ -84,6 +84,8 @@ class GPCloudDocument(val teamRefid: String?,
   } ?: ""
 
   private var lastOfflineContents: ByteArray? = null
+  // Whether the server accepts the deltas of the document contents, as reported in its last response.
+  private var isDeltaAccepted = false
   internal var offlineDocumentFactory: OfflineDocumentFactory = { null }
   internal var proxyDocumentFactory: ProxyDocumentFactory = { doc -> doc }
   internal var httpClientFactory: () -> GPCloudHttpClient = { HttpClientBuilder.buildHttpClient() }
@@ -266,9 +268,7 @@ class GPCloudDocument(val teamRefid: String?,
         document.create()
       }
 
-      document.outputStream.use {
-        it.write(fetch.body)
-      }
+      writeMirror(document, fetch.body)
       this.makeMirrorOptions().let {
         it.name = fileName
         it.teamName = teamName
@@ -289,7 +289,14 @@ class GPCloudDocument(val teamRefid: String?,
       if (document is FileDocument) {
         document.create()
       }
+      writeMirror(document, body)
+    }
+  }
 
+  private fun writeMirror(document: Document, body: ByteArray) {
+    if (document is FileDocument) {
+      document.writeChangedBlocks(body)
+    } else {
       document.outputStream.use {
         it.write(body)
       }
@@ -333,6 +340,7 @@ class GPCloudDocument(val teamRefid: String?,
           val etagValue = resp.header("ETag")
           val digestValue = resp.header("Digest")?.substringAfter("crc32c=")
           val colloboqueBaseTxnId = resp.header("BaseTxnId")?.toLong() ?: 0
+          this.isDeltaAccepted = resp.acceptsDelta()
           if (colloboqueBaseTxnId != null) {
             colloboqueClient?.run {
                start(projectRefid!!, colloboqueBaseTxnId)
@@ -430,17 +438,16 @@ class GPCloudDocument(val teamRefid: String?,
     LOG.debug("Calling /p/write")
     val http = this.httpClientFactory()
     try {
-      val resp = http.sendPost("/p/write", mapOf(
-          "projectRefid" to this.projectRefid.orEmpty(),
-          "teamRefid" to this.teamRefid,
-          "filename" to this.projectName,
-          "fileContents" to Base64.getEncoder().encodeToString(body),
-          "lockToken" to this.lock?.get("lockToken")?.textValue(),
-          "oldVersion" to this.fetchResultProperty.get()?.actualVersion?.toString()
-      ))
+      val delta = buildDelta(body)
+      var resp = http.sendPost("/p/write", buildWriteParts(body, delta))
+      if (delta != null && resp.code == DocumentDelta.CANNOT_APPLY_STATUS) {
+        LOG.debug("Server can't apply the delta, uploading the whole document")
+        resp = http.sendPost("/p/write", buildWriteParts(body, null))
+      }
       LOG.debug("Received HTTP {}", resp.code)
       when (resp.code) {
         200 -> {
+          this.isDeltaAccepted = resp.acceptsDelta()
           val etagValue = resp.header("ETag")
           val digestValue = resp.header("Digest")?.substringAfter("crc32c=")
           val colloboqueBaseTxnId = resp.header("BaseTxnId")?.toLong() ?: 0
@@ -485,6 +492,40 @@ class GPCloudDocument(val teamRefid: String?,
     }
   }
 
+  /**
+   * Builds the delta of the document contents relative to the last version which we received from or sent to
+   * the server. Returns null if the server doesn't accept the deltas, if we don't know the contents of the last
+   * version, or if the delta is not much smaller than the contents.
+   */
+  private fun buildDelta(body: ByteArray): ByteArray? {
+    if (!this.isDeltaAccepted) {
+      return null
+    }
+    val lastFetch = this.fetchResultProperty.get() ?: return null
+    if (lastFetch.useMirror || lastFetch.actualVersion < 0 || lastFetch.body.isEmpty()) {
+      return null
+    }
+    return DocumentDelta.diff(lastFetch.body, body).takeIf { it.size < body.size / 2 }
+  }
+
+  private fun buildWriteParts(body: ByteArray, delta: ByteArray?): Map<String, String?> = mapOf(
+      "projectRefid" to this.projectRefid.orEmpty(),
+      "teamRefid" to this.teamRefid,
+      "filename" to this.projectName,
+      "lockToken" to this.lock?.get("lockToken")?.textValue(),
+      "oldVersion" to this.fetchResultProperty.get()?.actualVersion?.toString()
+  ) + if (delta == null) {
+    mapOf("fileContents" to Base64.getEncoder().encodeToString(body))
+  } else {
+    mapOf(
+        "fileDelta" to Base64.getEncoder().encodeToString(delta),
+        "fileChecksum" to body.checksum()
+    )
+  }
+
+  private fun GPCloudHttpClient.Response.acceptsDelta() =
+    header(DocumentDelta.ACCEPT_HEADER)?.split(",")?.any { it.trim() == DocumentDelta.FORMAT } ?: false
+
   override fun getPath(): String = """cloud://${this.projectRefid}/${this.teamName}/${this.projectName}"""
 
   override fun write() {
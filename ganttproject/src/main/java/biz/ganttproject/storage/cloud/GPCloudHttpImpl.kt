@@ -42,6 +42,7 @@ import net.sourceforge.ganttproject.GPVersion
 import net.sourceforge.ganttproject.ProjectOpenActivityFactory
 import net.sourceforge.ganttproject.storage.*
 import okhttp3.*
+import okio.ByteString
 import org.apache.commons.codec.binary.Base64InputStream
 import org.apache.http.HttpHost
 import org.apache.http.HttpStatus
@@ -220,13 +221,18 @@ private class WebSocketListenerImpl(
     private val onAuthCompleted: () -> Unit,
     private val onPayload: (ObjectNode) -> Unit,
     private val onClose: (CloseReason) -> Unit,
-    private val onBaseTxnReceived: (String) -> Unit
+    private val onBaseTxnReceived: (String) -> Unit,
+    private val onServerResponse: (ServerResponse) -> Unit
 ) : WebSocketListener() {
   private lateinit var webSocket: WebSocket
+  // Codec of the binary frames, if the server agreed to use them.
+  @Volatile var codec: XlogCodec? = null
+    private set
 
   override fun onOpen(webSocket: WebSocket, response: Response) {
     LOG.debug("WebSocket opened")
     this.webSocket = webSocket
+    this.codec = XlogCodec.negotiate(response.header(XlogCodec.ENCODING_HEADER))
     if (isColloboqueLocalTest()) {
       // No authentication for Colloboque testing.
       response.header("baseTxnId")?.also(onBaseTxnReceived)
@@ -245,8 +251,21 @@ private class WebSocketListenerImpl(
     }
   }
 
+  override fun onMessage(webSocket: WebSocket, bytes: ByteString) {
+    val codec = this.codec ?: run {
+      LOG.error("Binary frame received, but the binary encoding was not negotiated")
+      return
+    }
+    try {
+      onServerResponse(codec.decodeServerResponse(bytes.toByteArray()))
+    } catch (e: Exception) {
+      LOG.error("Failed to decode the binary frame", exception = e)
+    }
+  }
+
   override fun onClosed(webSocket: WebSocket?, code: Int, reason: String?) {
     LOG.error("WebSocket closed. Code={}, reason={}", code, reason ?: "")
+    closeCodec()
     val reasonEnum = if (code == 1003) {
       when (reason) {
         "UNKNOWN_HEARTBEAT" -> CloseReason.UNKNOWN_HEARTBEAT
@@ -261,8 +280,14 @@ private class WebSocketListenerImpl(
 
   override fun onFailure(webSocket: WebSocket, t: Throwable, response: Response?) {
     LOG.error("WebSocket network failure: {}", response ?: "", exception = t)
+    closeCodec()
     onClose(CloseReason.NETWORK_FAILURE)
   }
+
+  private fun closeCodec() {
+    codec?.close()
+    codec = null
+  }
 }
 
 class WebSocketClient {
@@ -274,6 +299,7 @@ class WebSocketClient {
   private val lockStatusChangeListeners = mutableListOf<(ObjectNode) -> Unit>()
   private val contentChangeListeners = mutableListOf<(ObjectNode) -> Unit>()
   private val xlogCommitResponseListeners = mutableListOf<(ServerResponse.CommitResponse) -> Unit>()
+  private val xlogErrorResponseListeners = mutableListOf<(ServerResponse.ErrorResponse) -> Unit>()
   private val baseTxnIdListeners = mutableListOf<(String) -> Unit>()
   private var listeningDocument: GPCloudDocument? = null
 
@@ -296,11 +322,13 @@ class WebSocketClient {
 
   fun start() {
     LOG.debug("WebSocket started")
-    val req = Request.Builder().url(getWebSocketUrl()).build()
+    val req = Request.Builder().url(getWebSocketUrl())
+      .header(XlogCodec.ENCODING_HEADER, XlogCodec.ENCODING)
+      .build()
     this.websocket?.close(1000, "Reset Websocket")
     this.heartbeatFuture?.cancel(true)
     val wsListener = WebSocketListenerImpl(GPCloudOptions.websocketAuthToken, this::onAuthDone, this::onMessage,
-      this::onClose, this::fireBaseTxnReceived)
+      this::onClose, this::fireBaseTxnReceived, this::onServerResponse)
     this.wsListener = wsListener
     this.websocket = OkHttpClient.Builder()
       .connectionSpecs(getConnectionSpecs())
@@ -323,8 +351,8 @@ class WebSocketClient {
       when (it) {
         "ProjectLockStatusChange" -> fireLockStatusChange(payload)
         "ProjectChange", "ProjectRevert" -> fireContentsChange(payload)
-        ServerResponse.CommitResponse::class.java.canonicalName -> fireCommitResponseReceived(payload)
-        ServerResponse.ErrorResponse::class.java.canonicalName -> fireCommitErrorReceived(payload)
+        ServerResponse.CommitResponse::class.java.canonicalName,
+        ServerResponse.ErrorResponse::class.java.canonicalName -> fireServerResponseReceived(payload)
         else -> fireStructureChange(payload)
       }
     }
@@ -367,20 +395,31 @@ class WebSocketClient {
     this.contentChangeListeners.forEach { it(payload) }
   }
 
-  private fun fireCommitResponseReceived(payload: ObjectNode) {
-    LOG.debug("Commit response received:\n {}", payload)
-    try {
-      val serverResponse = Json.decodeFromString(ServerResponse.serializer(), payload.toString()) as ServerResponse.CommitResponse
-      xlogCommitResponseListeners.forEach { it(serverResponse) }
+  private fun fireServerResponseReceived(payload: ObjectNode) {
+    val serverResponse = try {
+      Json.decodeFromString(ServerResponse.serializer(), payload.toString())
     } catch (e: Exception) {
-      LOG.error("Failed to process ServerCommitResponse", e)
-      LOG.error("Failed to parse ServerCommitResponse:\n {}", payload)
+      LOG.error("Failed to parse ServerResponse:\n {}", payload, exception = e)
+      return
     }
+    onServerResponse(serverResponse)
   }
 
-  // TODO: Propagate info to the client so that they could resolve conflicts.
-  private fun fireCommitErrorReceived(payload: ObjectNode) {
-    LOG.error("Commit error received:\n {}", payload)
+  private fun onServerResponse(serverResponse: ServerResponse) {
+    try {
+      when (serverResponse) {
+        is ServerResponse.CommitResponse -> {
+          LOG.debug("Commit response received:\n {}", serverResponse)
+          xlogCommitResponseListeners.forEach { it(serverResponse) }
+        }
+        is ServerResponse.ErrorResponse -> {
+          LOG.error("Commit error received:\n {}", serverResponse)
+          xlogErrorResponseListeners.forEach { it(serverResponse) }
+        }
+      }
+    } catch (e: Exception) {
+      LOG.error("Failed to process ServerResponse", exception = e)
+    }
   }
 
   private fun fireBaseTxnReceived(baseTxnId: String) {
@@ -410,6 +449,11 @@ class WebSocketClient {
     return { xlogCommitResponseListeners.remove(listener) }
   }
 
+  fun onCommitErrorReceived(listener: (ServerResponse.ErrorResponse) -> Unit): () -> Unit {
+    xlogErrorResponseListeners.add(listener)
+    return { xlogErrorResponseListeners.remove(listener) }
+  }
+
   fun onBaseTxnIdReceived(listener: (String) -> Unit): () -> Unit {
     baseTxnIdListeners.add(listener)
     return { baseTxnIdListeners.remove(listener) }
@@ -430,7 +474,18 @@ class WebSocketClient {
   }
 
   fun sendLogs(logs: InputXlog) {
-    this.websocket?.send("XLOG ${Base64.getEncoder().encodeToString(Json.encodeToString(logs).toByteArray())}")
+    val websocket = this.websocket ?: return
+    val codec = this.wsListener?.codec
+    if (codec != null) {
+      try {
+        websocket.send(ByteString.of(*codec.encodeInputXlog(logs)))
+      } catch (e: XlogCodecException) {
+        // The connection has been closed while we were encoding
+        LOG.error("Failed to encode the xlog", exception = e)
+      }
+    } else {
+      websocket.send("XLOG ${Base64.getEncoder().encodeToString(Json.encodeToString(logs).toByteArray())}")
+    }
   }
 
   fun sendProjectRefId(projectRefid: String) {
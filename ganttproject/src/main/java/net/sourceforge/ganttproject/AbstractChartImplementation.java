@@ -122,6 +122,9 @@ public abstract class AbstractChartImplementation implements TimelineChart, Zoom
     myProject = project;
 
     myChartComponent = chartComponent;
+    if (Boolean.getBoolean("chart.asyncRendering")) {
+      chartModel.setAsyncRendering(chartComponent::repaint);
+    }
     uiFacade.getTaskSelectionManager().addSelectionListener(new TaskSelectionManager.Listener() {
       @Override
       public void userInputConsumerChanged(Object newConsumer) {
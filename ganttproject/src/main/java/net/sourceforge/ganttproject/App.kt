@@ -24,6 +24,7 @@ import biz.ganttproject.platform.DummyUpdater
 import biz.ganttproject.storage.cloud.GPCloudEnv
 import biz.ganttproject.storage.cloud.getCloudEnv
 import com.beust.jcommander.JCommander
+import com.google.common.util.concurrent.ThreadFactoryBuilder
 import com.sun.javafx.application.LauncherImpl
 import javafx.application.Platform
 import kotlinx.coroutines.GlobalScope
@@ -38,6 +39,7 @@ import org.slf4j.Logger
 import java.io.File
 import java.lang.Thread.UncaughtExceptionHandler
 import java.util.*
+import java.util.concurrent.Executors
 import javax.swing.JOptionPane
 import javax.swing.SwingUtilities
 
@@ -61,12 +63,13 @@ fun startUiApp(configure: (GanttProject) -> Unit = {}) {
   APP_LOGGER.debug("Starting the UI.")
   Platform.setImplicitExit(true)
   applicationBarrier.await { ganttProjectFxApp ->
+      StartupTimings.mark("UI toolkit started")
       Thread.setDefaultUncaughtExceptionHandler { t, e ->
         APP_LOGGER.error("Uncaught exception", exception = e)
         e.printStackTrace()
       }
       try {
-        val ganttProject = GanttProject(ganttProjectFxApp.stage)
+        val ganttProject = StartupTimings.measure("Main frame") { GanttProject(ganttProjectFxApp.stage) }
         configure(ganttProject)
         ganttProjectFxApp.ganttProject = ganttProject
         ganttProject.notificationManagerImpl.setOwner(ganttProjectFxApp.stage)
@@ -185,11 +188,20 @@ class AppBuilder(args: Array<String>) {
         ganttProject.ganttOptions.pluginPreferences
       )
       ganttProject.addProjectEventListener(object : ProjectEventListener.Stub() {
+        private var isStartupDocument = true
+
         override fun projectOpened(
           barrierRegistry: BarrierEntrance,
           barrier: Barrier<IGanttProject>
         ) {
-          barrier.await { runWhenDocumentReady.forEach { cmd -> cmd(ganttProject.project) } }
+          barrier.await {
+            if (isStartupDocument) {
+              isStartupDocument = false
+              StartupTimings.mark("Document ready")
+              APP_LOGGER.info(StartupTimings.report())
+            }
+            runWhenDocumentReady.forEach { cmd -> cmd(ganttProject.project) }
+          }
         }
       })
       strategy.openStartupDocument(path)
@@ -210,18 +222,48 @@ class AppBuilder(args: Array<String>) {
     return this
   }
 
+  /**
+   * Starts the initialization steps which do not depend on each other and on the UI in the background threads.
+   * Their results are picked up by the UI code when it needs them, and if a step has not completed by that moment,
+   * the UI code waits for it.
+   */
+  private fun prefetch() {
+    val executor = Executors.newFixedThreadPool(
+      PREFETCH_THREAD_COUNT, ThreadFactoryBuilder().setDaemon(true).setNameFormat("Startup-%d").build()
+    )
+    fun runPhase(phase: String, code: () -> Unit) {
+      try {
+        StartupTimings.measure(phase, code)
+      } catch (ex: Exception) {
+        APP_LOGGER.error("Startup phase {} failed", phase, exception = ex)
+      }
+    }
+    // The options file contains the recent projects list too.
+    GanttOptions.prefetch { task -> executor.execute { runPhase("Options file", task::run) } }
+    executor.execute { runPhase("Fonts", AwtFonts::prefetch) }
+    executor.execute { runPhase("Plugin registry", PluginManager::preloadAll) }
+    executor.execute { runPhase("Translations") { GanttLanguage.getInstance() } }
+    executor.shutdown()
+  }
+
   fun launch() {
+    StartupTimings.mark("Launch")
+    prefetch()
     runBeforeUiCommands.forEach { cmd -> cmd() }
     startUiApp { ganttProject: GanttProject ->
       ganttProject.updater = org.eclipse.core.runtime.Platform.getUpdater() ?: DummyUpdater
       ganttProject.uiFacade.onWindowOpened {
+        StartupTimings.mark("Window opened")
         APP_LOGGER.debug("Window opened. Running afterWindowOpened commands.")
           runAfterWindowOpenedCommands.forEach { cmd -> cmd() }
       }
       ganttProject.uiInitializationPromise.await {
+        StartupTimings.mark("UI initialized")
         APP_LOGGER.debug("UI initialized. Running afterAppInitialized commands.")
         runAfterAppInitializedCommands.forEach { cmd -> cmd(ganttProject) }
       }
     }
   }
 }
+
+private const val PREFETCH_THREAD_COUNT = 3
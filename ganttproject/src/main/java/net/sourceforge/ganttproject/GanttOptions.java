@@ -62,12 +62,18 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * This class is able to load and save options on the file
@@ -135,6 +141,8 @@ public class GanttOptions extends SaverBase {
   private final ExecutorService mySaveExecutor = Executors.newSingleThreadExecutor();
   private final AtomicBoolean mySaveScheduled = new AtomicBoolean(true);
 
+  private static final AtomicReference<CompletableFuture<byte[]>> ourPrefetchedContents = new AtomicReference<>();
+
   private final ChangeValueListener myOnOptionValueChange = event -> {
     if (!Objects.equal(event.getOldValue(), event.getNewValue())) {
       if (!mySaveScheduled.get()) {
@@ -414,6 +422,35 @@ public class GanttOptions extends SaverBase {
     return res;
   }
 
+  /**
+   * Starts reading the options file in the background. The next call of {@link #load()} parses the prefetched
+   * contents instead of reading the file.
+   */
+  public static void prefetch(Executor executor) {
+    ourPrefetchedContents.set(CompletableFuture.supplyAsync(GanttOptions::readOptionsFile, executor));
+  }
+
+  /**
+   * @return the prefetched contents of the options file, waiting for the read if it is still in flight, or the
+   * contents read right now if there was no prefetch. The prefetched contents are returned only once.
+   */
+  static byte[] takeOptionsFileContents() {
+    var prefetchedContents = ourPrefetchedContents.getAndSet(null);
+    return prefetchedContents == null ? readOptionsFile() : prefetchedContents.join();
+  }
+
+  private static byte[] readOptionsFile() {
+    File file = getOptionsFile();
+    if (!file.exists()) {
+      return null;
+    }
+    try {
+      return Files.readAllBytes(file.toPath());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
   /**
    * Load the options file
    */
@@ -424,15 +461,8 @@ public class GanttOptions extends SaverBase {
     // Use the default (non-validating) parser
     SAXParserFactory factory = SAXParserFactory.newInstance();
     try {
-      String sFileName = ".ganttproject";
-      /*
-       * if(System.getProperty("os.name").startsWith("Windows") ||
-       * System.getProperty("os.name").startsWith("Mac")) sFileName =
-       * "ganttproject.ini";
-       */
-
-      File file = new File(System.getProperty("user.home") + System.getProperty("file.separator") + sFileName);
-      if (!file.exists()) {
+      byte[] contents = takeOptionsFileContents();
+      if (contents == null) {
         return false;
       }
 
@@ -440,9 +470,9 @@ public class GanttOptions extends SaverBase {
 
       // Parse the input
       SAXParser saxParser = factory.newSAXParser();
-      saxParser.parse(file, handler);
+      saxParser.parse(new ByteArrayInputStream(contents), handler);
 
-      loadRoleSets(file);
+      loadRoleSets(contents);
 
     } catch (Exception e) {
       if (!GPLogger.log(e)) {
@@ -456,11 +486,11 @@ public class GanttOptions extends SaverBase {
     return true;
   }
 
-  private void loadRoleSets(File optionsFile) {
+  private void loadRoleSets(byte[] optionsContents) throws IOException {
     GanttXMLOpen loader = new GanttXMLOpen(null);
 
     loader.addTagHandler(new RoleTagHandler(getRoleManager()));
-    loader.load(optionsFile);
+    loader.load(new ByteArrayInputStream(optionsContents));
   }
 
   private void saveRoleSets(TransformerHandler handler) throws TransformerFactoryConfigurationError, SAXException {
@@ -65,8 +65,10 @@ import net.sourceforge.ganttproject.resource.HumanResourceManager;
 import net.sourceforge.ganttproject.resource.HumanResourceMerger;
 import net.sourceforge.ganttproject.resource.ResourceSelectionManager;
 import net.sourceforge.ganttproject.roles.RoleManager;
+import net.sourceforge.ganttproject.storage.DummyTxn;
 import net.sourceforge.ganttproject.storage.LazyProjectDatabaseProxy;
 import net.sourceforge.ganttproject.storage.ProjectDatabase;
+import net.sourceforge.ganttproject.storage.ProjectDatabaseException;
 import net.sourceforge.ganttproject.storage.SqlProjectDatabaseImpl;
 import net.sourceforge.ganttproject.task.*;
 import net.sourceforge.ganttproject.undo.GPUndoManager;
@@ -243,7 +245,14 @@ abstract class GanttProjectBase implements IGanttProject, UIFacade {
     myProjectDatabase = databaseProxy;
     myTaskManagerConfig = new TaskManagerConfigImpl();
     myTaskManager = TaskManager.Access.newInstance(null, myTaskManagerConfig,
-      myProjectDatabase::createTaskUpdateBuilder);
+      myProjectDatabase::createTaskUpdateBuilder, () -> {
+        try {
+          return myProjectDatabase.startBatch();
+        } catch (ProjectDatabaseException e) {
+          GPLogger.log(e);
+          return new DummyTxn();
+        }
+      });
     myProjectImpl = new GanttProjectImpl((TaskManagerImpl) myTaskManager, databaseProxy);
     addProjectEventListener(databaseProxy.createProjectEventListener());
     myTaskManager.addTaskListener(databaseProxy.createTaskEventListener());
@@ -0,0 +1,64 @@
+/*
+Copyright 2026 BarD Software s.r.o., GanttProject Team
+
+This file is part of GanttProject, an opensource project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.sourceforge.ganttproject
+
+import java.lang.management.ManagementFactory
+import java.util.concurrent.ConcurrentLinkedQueue
+
+/**
+ * Records the durations of the application startup phases and the moments when the startup milestones, such as
+ * "window opened", were reached.
+ *
+ * Phases may run concurrently, so each phase records the thread which executed it. Milestones are measured from
+ * the JVM start.
+ */
+object StartupTimings {
+  data class Phase(val name: String, val thread: String, val startMs: Long, val durationMs: Long)
+  data class Milestone(val name: String, val sinceJvmStartMs: Long)
+
+  private val jvmStartMs = ManagementFactory.getRuntimeMXBean().startTime
+  private val phases = ConcurrentLinkedQueue<Phase>()
+  private val milestones = ConcurrentLinkedQueue<Milestone>()
+
+  fun <T> measure(phase: String, code: () -> T): T {
+    val startMs = System.currentTimeMillis()
+    try {
+      return code()
+    } finally {
+      phases.add(Phase(phase, Thread.currentThread().name, startMs - jvmStartMs, System.currentTimeMillis() - startMs))
+    }
+  }
+
+  fun mark(milestone: String) {
+    milestones.add(Milestone(milestone, System.currentTimeMillis() - jvmStartMs))
+  }
+
+  fun getPhases(): List<Phase> = phases.sortedBy { it.startMs }
+  fun getMilestones(): List<Milestone> = milestones.sortedBy { it.sinceJvmStartMs }
+
+  fun report(): String = buildString {
+    append("Startup timings, ms since JVM start:\n")
+    getPhases().forEach {
+      append("  %-40s %6d +%5d [%s]\n".format(it.name, it.startMs, it.durationMs, it.thread))
+    }
+    getMilestones().forEach {
+      append("  %-40s %6d\n".format("** ${it.name}", it.sinceJvmStartMs))
+    }
+  }
+}
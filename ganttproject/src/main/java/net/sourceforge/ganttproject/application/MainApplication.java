@@ -11,6 +11,7 @@ import net.sourceforge.ganttproject.AppBuilder;
 import net.sourceforge.ganttproject.GPLogger;
 import net.sourceforge.ganttproject.GPVersion;
 import net.sourceforge.ganttproject.GanttProject;
+import net.sourceforge.ganttproject.export.BatchExportApplication;
 import net.sourceforge.ganttproject.export.CommandLineExportApplication;
 import org.eclipse.core.runtime.IPlatformRunnable;
 
@@ -81,6 +82,22 @@ public class MainApplication implements IPlatformRunnable {
           return Unit.INSTANCE;
         });
       }
+    } else if (isBatchExport(appBuilder)) {
+      var inputFiles = BatchExportApplication.collectInputFiles(
+          appBuilder.getMainArgs().file, appBuilder.getCliArgs().inputDir);
+      appBuilder.whenAppInitialized(ganttProject -> {
+        var executor = Executors.newSingleThreadExecutor();
+        executor.submit(() -> {
+          var results = new BatchExportApplication(appBuilder.getCliArgs(), inputFiles).run(ganttProject);
+          if (results.isEmpty() || results.stream().anyMatch(result -> !result.isOk())) {
+            // Scripts which run the batch export need to see that some projects were not exported
+            GPLogger.close();
+            System.exit(1);
+          }
+          GanttProject.doQuitApplication(true);
+        });
+        return Unit.INSTANCE;
+      });
     } else {
       appBuilder.whenDocumentReady(project -> {
         var executor = Executors.newSingleThreadExecutor();
@@ -92,11 +109,14 @@ public class MainApplication implements IPlatformRunnable {
         return Unit.INSTANCE;
       });
     }
-    var files = appBuilder.getMainArgs().file;
-    if (files != null && !files.isEmpty()) {
-      appBuilder.withDocument(files.get(0));
-    } else {
-      appBuilder.withDocument(null);
+    // The batch export opens the documents itself.
+    if (!isBatchExport(appBuilder)) {
+      var files = appBuilder.getMainArgs().file;
+      if (files != null && !files.isEmpty()) {
+        appBuilder.withDocument(files.get(0));
+      } else {
+        appBuilder.withDocument(null);
+      }
     }
 
 
@@ -125,4 +145,8 @@ public class MainApplication implements IPlatformRunnable {
     return null;
   }
 
+  private static boolean isBatchExport(AppBuilder appBuilder) {
+    var files = appBuilder.getMainArgs().file;
+    return appBuilder.isCli() && (appBuilder.getCliArgs().inputDir != null || files != null && files.size() > 1);
+  }
 }
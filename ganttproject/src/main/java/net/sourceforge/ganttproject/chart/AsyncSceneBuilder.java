@@ -0,0 +1,199 @@
+/*
+Copyright 2026 BarD Software s.r.o, GanttProject Team
+
+This file is part of GanttProject, an opensource project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sourceforge.ganttproject.chart;
+
+import biz.ganttproject.LoggerApi;
+import net.sourceforge.ganttproject.GPLogger;
+
+import javax.swing.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Builds chart scenes on a worker thread.
+ *
+ * Scenes are built into snapshots of the chart model. A snapshot receives the state of the live model on the event
+ * dispatch thread right before the build starts, and then the worker builds its scene without touching the live
+ * model. There are two snapshots: the front one holds the last completed frame which is painted and hit-tested on
+ * the EDT, and the back one is being built. When a build completes, the snapshots are swapped and the chart is
+ * repainted.
+ *
+ * At most one build runs at a time. A request which arrives while a build is running cancels the build, unless the
+ * frame on the screen is older than {@link #MAX_FRAME_AGE_MS}. In the latter case the running build completes and
+ * is published, so that the chart keeps updating while the requests keep coming, e.g. when the chart is scrolled.
+ * In both cases a single follow-up build starts when the running one finishes.
+ *
+ * All methods are supposed to be called on the EDT.
+ */
+class AsyncSceneBuilder<T> {
+  /**
+   * Snapshots of the chart model which the scenes are built into.
+   */
+  interface Snapshots<T> {
+    /**
+     * Creates a new snapshot. Called on the EDT.
+     */
+    T create();
+
+    /**
+     * Copies the state of the live model into the snapshot. Called on the EDT.
+     */
+    void update(T snapshot);
+
+    /**
+     * Builds the scene of the snapshot. Called on the worker thread.
+     *
+     * @param isCancelled returns true when the build is no longer needed. The build is expected to check it from
+     *                    time to time and throw {@link CancellationException}.
+     */
+    void build(T snapshot, BooleanSupplier isCancelled);
+  }
+
+  static final long MAX_FRAME_AGE_MS = 100;
+
+  private static final LoggerApi<org.slf4j.Logger> ourLogger = GPLogger.create("Chart.AsyncScene");
+  private static final ExecutorService ourExecutor = Executors.newSingleThreadExecutor(r -> {
+    Thread result = new Thread(r, "Chart scene builder");
+    result.setDaemon(true);
+    return result;
+  });
+
+  private enum Outcome { COMPLETED, CANCELLED, FAILED }
+
+  private static class Build {
+    final int generation;
+    volatile boolean isCancelled;
+
+    Build(int generation) {
+      this.generation = generation;
+    }
+  }
+
+  private final Snapshots<T> mySnapshots;
+  private final Runnable myRepaint;
+  private final Executor myWorker;
+  private final Executor myEdt;
+  private final LongSupplier myClock;
+  private T myFront;
+  private T myBack;
+  private Build myBuild;
+  private int myRequestedGeneration;
+  private long myFramePublishedAt;
+  private boolean isFrameCompleted;
+  private boolean isBuildFailed;
+
+  AsyncSceneBuilder(Snapshots<T> snapshots, Runnable repaint) {
+    this(snapshots, repaint, ourExecutor, SwingUtilities::invokeLater, System::currentTimeMillis);
+  }
+
+  AsyncSceneBuilder(Snapshots<T> snapshots, Runnable repaint, Executor worker, Executor edt, LongSupplier clock) {
+    mySnapshots = snapshots;
+    myRepaint = repaint;
+    myWorker = worker;
+    myEdt = edt;
+    myClock = clock;
+    myFramePublishedAt = clock.getAsLong();
+  }
+
+  /**
+   * Called when the chart is about to be painted. Unless this paint was caused by a completed build, requests
+   * a new frame.
+   *
+   * @return the last completed frame, or null if there is no frame yet or the last build failed. In the latter case
+   * the caller is expected to build the scene synchronously.
+   */
+  T requestFrame() {
+    if (isBuildFailed) {
+      isBuildFailed = false;
+      return null;
+    }
+    if (isFrameCompleted) {
+      isFrameCompleted = false;
+      return myFront;
+    }
+    myRequestedGeneration++;
+    if (myBuild == null) {
+      startBuild();
+    } else if (myClock.getAsLong() - myFramePublishedAt < MAX_FRAME_AGE_MS) {
+      myBuild.isCancelled = true;
+    }
+    return myFront;
+  }
+
+  /**
+   * @return the last completed frame or null
+   */
+  T getFrame() {
+    return myFront;
+  }
+
+  private void startBuild() {
+    if (myBack == null) {
+      myBack = mySnapshots.create();
+    }
+    final T snapshot = myBack;
+    mySnapshots.update(snapshot);
+    final Build build = new Build(myRequestedGeneration);
+    myBuild = build;
+    myWorker.execute(() -> {
+      Outcome outcome = Outcome.FAILED;
+      try {
+        mySnapshots.build(snapshot, () -> build.isCancelled);
+        outcome = Outcome.COMPLETED;
+      } catch (CancellationException e) {
+        outcome = Outcome.CANCELLED;
+      } catch (RuntimeException e) {
+        // Some data which is not copied into the snapshot may change while we build a scene. We don't want to lock
+        // the model, so we just drop the frame.
+        ourLogger.delegate().debug("Failed to build a chart scene", e);
+      } catch (Throwable e) {
+        ourLogger.delegate().error("Failed to build a chart scene", e);
+      } finally {
+        final Outcome result = outcome;
+        myEdt.execute(() -> onBuildFinished(build, result));
+      }
+    });
+  }
+
+  private void onBuildFinished(Build build, Outcome outcome) {
+    myBuild = null;
+    if (outcome == Outcome.FAILED) {
+      myFront = null;
+      isBuildFailed = true;
+      myRepaint.run();
+      return;
+    }
+    if (outcome == Outcome.COMPLETED) {
+      T completed = myBack;
+      myBack = myFront;
+      myFront = completed;
+      myFramePublishedAt = myClock.getAsLong();
+      isFrameCompleted = true;
+      myRepaint.run();
+    }
+    if (build.generation != myRequestedGeneration) {
+      // Someone asked for a newer frame while we were building this one
+      startBuild();
+    }
+  }
+}
@@ -18,6 +18,7 @@ Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
 package net.sourceforge.ganttproject.chart;
 
+import biz.ganttproject.LoggerApi;
 import biz.ganttproject.core.calendar.CalendarEvent;
 import biz.ganttproject.core.chart.canvas.Canvas;
 import biz.ganttproject.core.chart.canvas.Painter;
@@ -30,6 +31,7 @@ import biz.ganttproject.core.chart.scene.SceneBuilder;
 import biz.ganttproject.core.chart.scene.TimelineSceneBuilder;
 import biz.ganttproject.core.chart.text.TimeFormatter;
 import biz.ganttproject.core.chart.text.TimeFormatters;
+import biz.ganttproject.core.chart.text.TimeUnitTextCache;
 import biz.ganttproject.core.chart.text.TimeUnitText.Position;
 import biz.ganttproject.core.option.*;
 import biz.ganttproject.core.time.TimeDuration;
@@ -40,6 +42,7 @@ import com.google.common.base.Predicate;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import kotlin.Unit;
+import net.sourceforge.ganttproject.GPLogger;
 import net.sourceforge.ganttproject.chart.item.CalendarChartItem;
 import net.sourceforge.ganttproject.chart.item.ChartItem;
 import net.sourceforge.ganttproject.chart.item.TimelineLabelChartItem;
@@ -54,6 +57,8 @@ import java.awt.image.BufferedImage;
 import java.text.DateFormat;
 import java.util.List;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
 
 /**
  * Controls painting of the common part of Gantt and resource charts (in
@@ -136,6 +141,8 @@ public abstract class ChartModelBase implements /* TimeUnitStack.Listener, */Cha
 
   public static final Object STATIC_MUTEX = new Object();
 
+  private static final LoggerApi<org.slf4j.Logger> ourPaintLogger = GPLogger.create("Chart.Paint");
+
   private static final Predicate<? super Task> MILESTONE_PREDICATE = (Predicate<Task>) Task::isMilestone;
 
   private final OptionEventDispatcher myOptionEventDispatcher = new OptionEventDispatcher();
@@ -185,13 +192,26 @@ public abstract class ChartModelBase implements /* TimeUnitStack.Listener, */Cha
 
   private final WeekNumbering weekNumbering;
 
+  private final OffsetStrip.Cache myOffsetStrips = new OffsetStrip.Cache();
+
+  private AsyncSceneBuilder<ChartModelBase> myAsyncSceneBuilder;
+
+  private static final BooleanSupplier NEVER_CANCELLED = () -> false;
+
+  private BooleanSupplier mySceneBuildCancelled = NEVER_CANCELLED;
+
   public ChartModelBase(TaskManager taskManager, TimeUnitStack timeUnitStack, final UIConfiguration projectConfig) {
     myTaskManager = taskManager;
     myProjectConfig = projectConfig;
     myChartUIConfiguration = new ChartUIConfiguration(projectConfig);
     myChartFontOption = projectConfig.getChartFontOption();
     weekNumbering = new WeekNumbering(taskManager);
-    weekNumbering.getNumberingFunction().addWatcher(event -> {resetOffsets(); return Unit.INSTANCE;});
+    weekNumbering.getNumberingFunction().addWatcher(event -> {
+      // Week frames depend on the numbering, so precomputed week strips are no longer valid
+      myOffsetStrips.clear();
+      resetOffsets();
+      return Unit.INSTANCE;
+    });
 
     myPainter = new StyledPainterImpl(myChartUIConfiguration);
     myTimeUnitStack = timeUnitStack;
@@ -339,6 +359,7 @@ public abstract class ChartModelBase implements /* TimeUnitStack.Listener, */Cha
     TextLengthCalculatorImpl calculator = new TextLengthCalculatorImpl(g);
     int fontSize = calculator.getTextHeight(font, "Agpqf");
     getChartUIConfiguration().setBaseFont(font, fontSize);
+    myPainter.getTextMetricsCache().invalidate();
   }
 
   private final OffsetManager myOffsetManager = new OffsetManager(new OffsetBuilderFactory() {
@@ -396,6 +417,7 @@ public abstract class ChartModelBase implements /* TimeUnitStack.Listener, */Cha
       .withAtomicUnitWidth(getBottomUnitWidth())
       .withBottomUnit(getBottomUnit())
       .withCalendar(myTaskManager.getCalendar())
+      .withOffsetStrips(myOffsetStrips)
       .withRightMargin(myScrollingSession == null ? 0 : 1)
       .withStartDate(getOffsetAnchorDate())
       .withViewportStartDate(getStartDate())
@@ -410,23 +432,63 @@ public abstract class ChartModelBase implements /* TimeUnitStack.Listener, */Cha
 
   @Override
   public void paint(Graphics g) {
-    int height = (int) getBounds().getHeight();
-    for (SceneBuilder renderer : getRenderers()) {
-      renderer.reset(height);
-    }
-    for (SceneBuilder renderer : getRenderers()) {
-      renderer.build();
+    ChartModelBase scene = myAsyncSceneBuilder == null ? null : myAsyncSceneBuilder.requestFrame();
+    if (scene == null) {
+      buildScene();
+      scene = this;
     }
     myPainter.setGraphics(g);
+    scene.paintScene(myPainter);
+    if (ourPaintLogger.delegate().isDebugEnabled()) {
+      ourPaintLogger.debug("Painted {}: {}, {}", new Object[]{
+          getClass().getSimpleName(), myPainter.getTextMetricsCache(), TimeUnitTextCache.getInstance()}, new HashMap<>());
+    }
+  }
+
+  void buildScene() {
+    buildScene(NEVER_CANCELLED);
+  }
+
+  /**
+   * Builds the scene, checking between the renderers if the build is still needed. Asynchronous builds
+   * are cancelled this way when a newer frame is requested.
+   */
+  private void buildScene(BooleanSupplier isCancelled) {
+    mySceneBuildCancelled = isCancelled;
+    try {
+      int height = (int) getBounds().getHeight();
+      for (SceneBuilder renderer : getRenderers()) {
+        renderer.reset(height);
+      }
+      for (SceneBuilder renderer : getRenderers()) {
+        if (isCancelled.getAsBoolean()) {
+          throw new CancellationException();
+        }
+        renderer.build();
+      }
+    } finally {
+      mySceneBuildCancelled = NEVER_CANCELLED;
+    }
+  }
+
+  /**
+   * @return true if this model is a snapshot whose scene is being built on a worker thread, and the build is
+   * no longer needed. Renderers may check it to give up early.
+   */
+  protected boolean isSceneBuildCancelled() {
+    return mySceneBuildCancelled.getAsBoolean();
+  }
+
+  private void paintScene(Painter painter) {
     for (SceneBuilder renderer : getRenderers()) {
-      renderer.getCanvas().paint(myPainter);
+      renderer.getCanvas().paint(painter);
     }
     for (int layer = 0;; layer++) {
       boolean layerPainted = false;
       for (SceneBuilder renderer : getRenderers()) {
         List<Canvas> layers = renderer.getCanvas().getLayers();
         if (layer < layers.size()) {
-          layers.get(layer).paint(myPainter);
+          layers.get(layer).paint(painter);
           layerPainted = true;
         }
       }
@@ -436,6 +498,42 @@ public abstract class ChartModelBase implements /* TimeUnitStack.Listener, */Cha
     }
   }
 
+  /**
+   * Switches asynchronous rendering on or off. In the asynchronous mode scenes are built on a worker thread
+   * from a snapshot of this model, and paint requests are served with the last completed frame until the new one
+   * is ready.
+   *
+   * @param repaint callback which repaints the chart component when a new frame is ready, or null to switch
+   *                the asynchronous mode off
+   */
+  public void setAsyncRendering(Runnable repaint) {
+    myAsyncSceneBuilder = repaint == null ? null : new AsyncSceneBuilder<>(new AsyncSceneBuilder.Snapshots<>() {
+      @Override
+      public ChartModelBase create() {
+        return createSnapshot();
+      }
+
+      @Override
+      public void update(ChartModelBase snapshot) {
+        updateSnapshot(snapshot);
+      }
+
+      @Override
+      public void build(ChartModelBase snapshot, BooleanSupplier isCancelled) {
+        snapshot.buildScene(isCancelled);
+      }
+    }, repaint);
+  }
+
+  /**
+   * @return the model whose scene is currently on the screen. This is the last completed frame in the asynchronous
+   * mode, and this model otherwise.
+   */
+  protected ChartModelBase getSceneModel() {
+    ChartModelBase frame = myAsyncSceneBuilder == null ? null : myAsyncSceneBuilder.getFrame();
+    return frame == null ? this : frame;
+  }
+
   protected List<SceneBuilder> getRenderers() {
     return myRenderers;
   }
@@ -673,6 +771,25 @@ public abstract class ChartModelBase implements /* TimeUnitStack.Listener, */Cha
     copy.calculateRowHeight();
   }
 
+  /**
+   * Creates an empty model which receives the view state of this model in {@link #updateSnapshot(ChartModelBase)}
+   * and builds scenes in the asynchronous rendering mode.
+   */
+  protected ChartModelBase createSnapshot() {
+    return createCopy();
+  }
+
+  /**
+   * Copies the current view state of this model into a snapshot created with {@link #createSnapshot()}, so that
+   * the snapshot renders the same scene.
+   */
+  protected void updateSnapshot(ChartModelBase snapshot) {
+    setupCopy(snapshot);
+    snapshot.setVerticalOffset(getVerticalOffset());
+    snapshot.setHorizontalOffset(getHorizontalOffset());
+    snapshot.resetOffsets();
+  }
+
   protected Task getTask(Canvas.Shape polygon) {
     IdentifiableRow task = (IdentifiableRow) polygon.getModelObject();
     return myTaskManager.getTask(task.getRowId());
@@ -697,6 +814,10 @@ public abstract class ChartModelBase implements /* TimeUnitStack.Listener, */Cha
   }
 
   public ChartItem getChartItemWithCoordinates(int x, int y) {
+    ChartModelBase scene = getSceneModel();
+    if (scene != this) {
+      return scene.getChartItemWithCoordinates(x, y);
+    }
     Canvas.Shape text = myTimelineLabelRenderer.getLabelLayer().getPrimitive(x, y);
     if (text instanceof Canvas.Text) {
       return new TimelineLabelChartItem(getTask(text));
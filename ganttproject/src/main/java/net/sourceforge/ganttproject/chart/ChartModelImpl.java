@@ -6,6 +6,7 @@
 package net.sourceforge.ganttproject.chart;
 
 import biz.ganttproject.core.chart.canvas.Canvas;
+import biz.ganttproject.core.chart.canvas.CompactCanvas;
 import biz.ganttproject.core.chart.scene.IdentifiableRow;
 import biz.ganttproject.core.chart.scene.SceneBuilder;
 import biz.ganttproject.core.option.ColorOption;
@@ -15,6 +16,7 @@ import biz.ganttproject.core.time.TimeUnitStack;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import net.sourceforge.ganttproject.GanttPreviousStateTask;
+import net.sourceforge.ganttproject.chart.gantt.BaselineIndex;
 import net.sourceforge.ganttproject.chart.gantt.ITaskActivity;
 import net.sourceforge.ganttproject.chart.item.ChartItem;
 import net.sourceforge.ganttproject.chart.item.TaskBoundaryChartItem;
@@ -54,10 +56,17 @@ public class ChartModelImpl extends ChartModelBase {
 
   private List<GanttPreviousStateTask> myBaseline;
 
+  private BaselineIndex myBaselineIndex;
+
   public ChartModelImpl(TaskManager taskManager, TimeUnitStack timeUnitStack, final UIConfiguration projectConfig) {
+    this(taskManager, timeUnitStack, projectConfig, new Canvas());
+  }
+
+  private ChartModelImpl(TaskManager taskManager, TimeUnitStack timeUnitStack, final UIConfiguration projectConfig,
+                         Canvas taskCanvas) {
     super(taskManager, timeUnitStack, projectConfig);
     this.taskManager = taskManager;
-    myTaskRendererImpl = new TaskRendererImpl2(this);
+    myTaskRendererImpl = new TaskRendererImpl2(this, taskCanvas);
     getRenderers().add(myTaskRendererImpl);
 
     myTaskDefaultColorOption = taskManager.getTaskDefaultColorOption();
@@ -81,6 +90,10 @@ public class ChartModelImpl extends ChartModelBase {
 
   @Override
   public ChartItem getChartItemWithCoordinates(int x, int y) {
+    ChartModelBase scene = getSceneModel();
+    if (scene != this) {
+      return scene.getChartItemWithCoordinates(x, y);
+    }
     ChartItem result = findTaskProgressItem(x, y);
     if (result == null) {
       result = findTaskBoundaryItem(x, y);
@@ -105,6 +118,10 @@ public class ChartModelImpl extends ChartModelBase {
   }
 
   public Canvas.Shape getGraphicPrimitive(Object modelObject) {
+    ChartModelBase scene = getSceneModel();
+    if (scene != this) {
+      return ((ChartModelImpl) scene).getGraphicPrimitive(modelObject);
+    }
     for (SceneBuilder renderer : getRenderers()) {
       Canvas.Shape result = renderer.getCanvas().getPrimitive(modelObject);
       if (result != null) {
@@ -188,6 +205,13 @@ public class ChartModelImpl extends ChartModelBase {
     return rowHeight;
   }
 
+  /**
+   * @return the row height calculated by the last {@link #calculateRowHeight()} call
+   */
+  int getCalculatedRowHeight() {
+    return rowHeight;
+  }
+
   // @Override
   // protected int getRowCount() {
   // return getTaskManager().getTaskCount();
@@ -218,6 +242,7 @@ public class ChartModelImpl extends ChartModelBase {
 
   public int setBaseline(List<GanttPreviousStateTask> tasks) {
     myBaseline = tasks;
+    myBaselineIndex = tasks == null ? null : createBaselineIndex(tasks);
     return (calculateRowHeight());
   }
 
@@ -225,13 +250,67 @@ public class ChartModelImpl extends ChartModelBase {
     return myBaseline;
   }
 
+  /**
+   * @return baseline tasks indexed by id, or null if no baseline is shown. This getter doesn't change the model, so
+   * it can be called when the scene of a snapshot is built on a worker thread.
+   */
+  public BaselineIndex getBaselineIndex() {
+    return myBaselineIndex;
+  }
+
+  /**
+   * Rebuilds the baseline index if weekends and holidays have changed, and so have the baseline end dates.
+   * Called on the event dispatch thread before a scene is built from this model or from its copy.
+   */
+  private void updateBaselineIndex() {
+    if (myBaselineIndex != null && !myBaselineIndex.isUpToDate(getTaskManager().getCalendar())) {
+      myBaselineIndex = createBaselineIndex(myBaseline);
+    }
+  }
+
+  @Override
+  void buildScene() {
+    updateBaselineIndex();
+    super.buildScene();
+  }
+
+  private BaselineIndex createBaselineIndex(List<GanttPreviousStateTask> tasks) {
+    return new BaselineIndex(tasks, getTaskManager().getCalendar(), duration -> getTaskManager().createLength(duration));
+  }
+
+  private void copyBaselineTo(ChartModelImpl target) {
+    // The copy shares the calendar with this model, so it can share the index too
+    updateBaselineIndex();
+    target.myBaseline = myBaseline;
+    target.myBaselineIndex = myBaselineIndex;
+    // The baseline adds space to the rows, and the copy has calculated its row height without it
+    target.calculateRowHeight();
+  }
+
   @Override
   public ChartModelBase createCopy() {
-    ChartModelImpl result = new ChartModelImpl(getTaskManager(), getTimeUnitStack(), getProjectConfig());
+    // Copies are used for printing and export, where the whole project is rendered at once
+    ChartModelImpl result = new ChartModelImpl(getTaskManager(), getTimeUnitStack(), getProjectConfig(), new CompactCanvas());
     super.setupCopy(result);
     result.setVisibleTasks(getVisibleTasks());
-    result.setBaseline(getBaseline());
+    copyBaselineTo(result);
     return result;
   }
 
+  @Override
+  protected ChartModelBase createSnapshot() {
+    // Hit testing hands the shapes of the front snapshot out to the UI, and they must not change when the snapshot
+    // is rebuilt later, so snapshots use the regular canvas rather than the compact one with transient views
+    return new ChartModelImpl(getTaskManager(), getTimeUnitStack(), getProjectConfig(), new Canvas());
+  }
+
+  @Override
+  protected void updateSnapshot(ChartModelBase snapshot) {
+    super.updateSnapshot(snapshot);
+    ChartModelImpl taskSnapshot = (ChartModelImpl) snapshot;
+    taskSnapshot.setVisibleTasks(getVisibleTasks());
+    copyBaselineTo(taskSnapshot);
+    taskSnapshot.myTaskRendererImpl.captureSceneData();
+  }
+
 }
@@ -18,6 +18,8 @@ Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
 package net.sourceforge.ganttproject.chart;
 
+import biz.ganttproject.core.chart.canvas.Canvas;
+import biz.ganttproject.core.chart.canvas.CompactCanvas;
 import biz.ganttproject.core.option.ColorOption;
 import biz.ganttproject.core.option.DefaultColorOption;
 import biz.ganttproject.core.option.GPOption;
@@ -78,9 +80,14 @@ public class ChartModelResource extends ChartModelBase {
 
   public ChartModelResource(TaskManager taskManager, HumanResourceManager resourceManager, TimeUnitStack timeUnitStack,
       final UIConfiguration projectConfig, ResourceChart resourceChart) {
+    this(taskManager, resourceManager, timeUnitStack, projectConfig, resourceChart, new Canvas());
+  }
+
+  private ChartModelResource(TaskManager taskManager, HumanResourceManager resourceManager, TimeUnitStack timeUnitStack,
+      final UIConfiguration projectConfig, ResourceChart resourceChart, Canvas loadCanvas) {
     super(taskManager, timeUnitStack, projectConfig);
     myResourceChart = resourceChart;
-    ResourceLoadRenderer resourceLoadRenderer = new ResourceLoadRenderer(this, resourceChart);
+    ResourceLoadRenderer resourceLoadRenderer = new ResourceLoadRenderer(this, resourceChart, loadCanvas);
     addRenderer(resourceLoadRenderer);
     myManager = resourceManager;
     {
@@ -160,7 +167,7 @@ public class ChartModelResource extends ChartModelBase {
   @Override
   public ChartModelBase createCopy() {
     ChartModelBase result = new ChartModelResource(myTaskManager, myManager, myTimeUnitStack, getProjectConfig(),
-        myResourceChart);
+        myResourceChart, new CompactCanvas());
     super.setupCopy(result);
     return result;
   }
@@ -19,6 +19,7 @@ Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
 
 package net.sourceforge.ganttproject.chart;
 
+import biz.ganttproject.core.chart.canvas.Canvas;
 import biz.ganttproject.core.chart.grid.Offset;
 import biz.ganttproject.core.chart.scene.CapacityHeatmapSceneBuilder;
 import net.sourceforge.ganttproject.resource.HumanResource;
@@ -37,8 +38,8 @@ class ResourceLoadRenderer extends ChartRendererBase {
   private final ChartModelResource myModel;
 
 
-  public ResourceLoadRenderer(ChartModelResource model, ResourceChart resourceChart) {
-    super(model);
+  public ResourceLoadRenderer(ChartModelResource model, ResourceChart resourceChart, Canvas canvas) {
+    super(model, canvas);
     myResourcechart = resourceChart;
     myModel = model;
   }
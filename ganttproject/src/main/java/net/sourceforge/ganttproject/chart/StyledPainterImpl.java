@@ -258,6 +258,7 @@ public class StyledPainterImpl implements Painter {
       for (Entry<String, String> entry : config.getChartStylesOption().getValues()) {
         myProperties.put(entry.getKey(), entry.getValue());
       }
+      myTextPainter.getTextMetricsCache().invalidate();
     });
     myTextPainter = new TextPainter(myProperties, config::getChartFont);
     myLineRenderer = new LineRenderer(myProperties);
@@ -276,6 +277,10 @@ public class StyledPainterImpl implements Painter {
     myGraphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_GASP);
   }
 
+  public TextMetricsCache getTextMetricsCache() {
+    return myTextPainter.getTextMetricsCache();
+  }
+
   @Override
   public void prePaint() {
     myGraphics.setStroke(defaultStroke);
@@ -25,13 +25,13 @@ import biz.ganttproject.core.chart.grid.OffsetList;
 import biz.ganttproject.core.chart.scene.gantt.TaskActivitySceneBuilder;
 import biz.ganttproject.core.chart.scene.gantt.TaskLabelSceneBuilder;
 import biz.ganttproject.core.chart.scene.gantt.TaskLabelSceneInput;
+import biz.ganttproject.core.option.EnumerationOption;
 import biz.ganttproject.core.option.GPOption;
 import biz.ganttproject.core.option.GPOptionGroup;
 import biz.ganttproject.core.time.TimeDuration;
 import biz.ganttproject.core.time.TimeUnit;
 import biz.ganttproject.customproperty.CustomPropertyManager;
 import com.google.common.collect.ImmutableList;
-import net.sourceforge.ganttproject.GanttPreviousStateTask;
 import net.sourceforge.ganttproject.chart.gantt.*;
 import net.sourceforge.ganttproject.task.*;
 
@@ -52,6 +52,8 @@ public class TaskRendererImpl2 extends ChartRendererBase {
 
   private final GPOptionGroup myLabelOptions;
 
+  private GanttChartSceneData mySceneData;
+
   class GanttChartSceneApi implements GanttChartSceneBuilder.InputApi {
     @Override
     public int getHeaderHeight() {
@@ -85,6 +87,9 @@ public class TaskRendererImpl2 extends ChartRendererBase {
 
     @Override
     public net.sourceforge.ganttproject.chart.gantt.VerticalPartitioning getVerticalPartitioning() {
+      if (mySceneData != null) {
+        return mySceneData.createVerticalPartitioning();
+      }
       TaskContainmentHierarchyFacade containment = myModel.getTaskManager().getTaskHierarchy();
       Map<ITaskSceneTask, Task> tasksMap = mapTaskSceneTask2Task(containment.getTasksInDocumentOrder(), myModel);
       return new net.sourceforge.ganttproject.chart.gantt.VerticalPartitioning(
@@ -95,6 +100,9 @@ public class TaskRendererImpl2 extends ChartRendererBase {
 
     @Override
     public List<ITask> getVisibleTasks() {
+      if (mySceneData != null) {
+        return mySceneData.getVisibleTasks();
+      }
       TaskContainmentHierarchyFacade containment = myModel.getTaskManager().getTaskHierarchy();
       Map<Task, ITask> tasks2itasks = DependencySceneApiAdapterKt.tasks2itasks(containment.getTasksInDocumentOrder());
       return myModel.getVisibleTasks().stream().map(tasks2itasks::get).collect(Collectors.toList());
@@ -102,6 +110,9 @@ public class TaskRendererImpl2 extends ChartRendererBase {
 
     @Override
     public List<ITaskSceneTask> getVisibleTaskSceneTasks() {
+      if (mySceneData != null) {
+        return mySceneData.getVisibleTaskSceneTasks();
+      }
       return ImmutableList.copyOf(
         mapTaskSceneTask2Task(TaskRendererImpl2.this.getVisibleTasks(), myModel).keySet()
       );
@@ -109,6 +120,9 @@ public class TaskRendererImpl2 extends ChartRendererBase {
 
     @Override
     public List<ITaskSceneTask> getTasksInDocumentOrder() {
+      if (mySceneData != null) {
+        return mySceneData.getTasksInDocumentOrder();
+      }
       TaskContainmentHierarchyFacade containment = myModel.getTaskManager().getTaskHierarchy();
       return ImmutableList.copyOf(
         mapTaskSceneTask2Task(containment.getTasksInDocumentOrder(), myModel).keySet()
@@ -116,8 +130,8 @@ public class TaskRendererImpl2 extends ChartRendererBase {
     }
 
     @Override
-    public List<GanttPreviousStateTask> getBaseline() {
-      return myModel.getBaseline();
+    public BaselineIndex getBaseline() {
+      return myModel.getBaselineIndex();
     }
 
     @Override
@@ -158,10 +172,19 @@ public class TaskRendererImpl2 extends ChartRendererBase {
     public CustomPropertyManager getCustomPropertyManager() {
       return getChartModel().getTaskManager().getCustomPropertyManager();
     }
+
+    @Override
+    public boolean isCancelled() {
+      return myModel.isSceneBuildCancelled();
+    }
   }
 
   public TaskRendererImpl2(ChartModelImpl model) {
-    super(model);
+    this(model, new Canvas());
+  }
+
+  TaskRendererImpl2(ChartModelImpl model, Canvas canvas) {
+    super(model, canvas);
     myModel = model;
     chartRenderer = new GanttChartSceneBuilder(new GanttChartSceneApi(), getPrimitiveContainer());
     TaskLabelSceneInput taskLabelSceneApi = chartRenderer.getTaskLabelSceneApi();
@@ -178,6 +201,23 @@ public class TaskRendererImpl2 extends ChartRendererBase {
     return ((ChartModelImpl) getChartModel()).getVisibleTasks();
   }
 
+  /**
+   * Copies the rows of the visible tasks, so that the scene is built from the copy rather than from the live
+   * task model. Called on the event dispatch thread when this renderer belongs to a snapshot which builds
+   * the scene on a worker thread.
+   */
+  void captureSceneData() {
+    TaskLabelSceneInput<?> labels = chartRenderer.getTaskLabelSceneApi();
+    List<String> labelPropertyIds = new ArrayList<>();
+    for (EnumerationOption option : List.of(labels.getTopLabelOption(), labels.getBottomLabelOption(),
+        labels.getLeftLabelOption(), labels.getRightLabelOption())) {
+      if (option.getValue() != null) {
+        labelPropertyIds.add(option.getValue());
+      }
+    }
+    mySceneData = GanttChartSceneDataKt.captureSceneData(myModel, getVisibleTasks(), labelPropertyIds);
+  }
+
   @Override
   public void render() {
     chartRenderer.render();
@@ -27,6 +27,7 @@ import biz.ganttproject.core.chart.canvas.TextMetrics;
 import biz.ganttproject.core.chart.canvas.TextSelector;
 import biz.ganttproject.core.chart.grid.Offset;
 import biz.ganttproject.core.chart.grid.OffsetLookup;
+import biz.ganttproject.core.chart.render.TextMetricsCache;
 import net.sourceforge.ganttproject.task.Task;
 import net.sourceforge.ganttproject.task.TaskActivity;
 
@@ -133,7 +134,9 @@ public class TimelineLabelRendererImpl extends ChartRendererBase {
 
     @Override
     public Label[] getLabels(TextMetrics textLengthCalculator) {
-      return new Label[] {createMaxWidthLabel(textLengthCalculator, myTask.getName(), MAX_TIMELINE_LABEL_WIDTH)};
+      String taskName = myTask.getName();
+      return TextMetricsCache.getCachedLabels(myText, taskName, MAX_TIMELINE_LABEL_WIDTH, textLengthCalculator,
+          metrics -> new Label[] {createMaxWidthLabel(metrics, taskName, MAX_TIMELINE_LABEL_WIDTH)});
     }
   }
 }
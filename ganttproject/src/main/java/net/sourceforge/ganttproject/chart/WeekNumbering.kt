@@ -87,31 +87,56 @@ class WeekNumbering(private val taskManager: TaskManager) {
   val option = WeekOption
   val numberingFunction = ObservableObject<WeekNumberingFunction>(initValue = defaultWeekNumbering)
 
+  // Project start which the relative numbering counts from, or null if the numbering is not relative.
+  private var relativeNumberingStart: Date? = null
+
   init {
     option.addChangeValueListener {
       updateWeekNumbering()
     }
     updateWeekNumbering()
-    taskManager.addTaskListener(TaskListenerAdapter(this::updateWeekNumbering))
+    // Setting a new numbering function clears the cached offsets of the chart, so we replace it only when
+    // the project start moves. Changes of the task properties, progress and dependencies don't move it by themselves.
+    taskManager.addTaskListener(TaskListenerAdapter(this::onProjectStartMaybeChanged).also {
+      it.taskPropertiesChangedHandler = {}
+      it.taskProgressChangedHandler = {}
+      it.dependencyAddedHandler = {}
+      it.dependencyRemovedHandler = {}
+      it.dependencyChangedHandler = {}
+    })
+  }
+
+  private fun onProjectStartMaybeChanged() {
+    if (relativeNumberingStart != null && relativeNumberingStart != taskManager.projectStart) {
+      updateWeekNumbering()
+    }
   }
 
   private fun updateWeekNumbering() {
+    relativeNumberingStart = null
     numberingFunction.set(
       when (val optionValue = option.selectedValue ?: DEFAULT) {
         US -> usWeekNumbering
         EUROPEAN -> europeanWeekNumbering
         DEFAULT -> defaultWeekNumbering
-        RELATIVE_TO_PROJECT -> RelativeWeekNumbering(taskManager.projectStart)
+        RELATIVE_TO_PROJECT -> taskManager.projectStart.let {
+          relativeNumberingStart = it
+          RelativeWeekNumbering(it)
+        }
         else -> error("Unexpected value of week numbering option: $optionValue")
       }
     )
   }
 
+  // The decorator reads the option value on every call, so a single instance serves all option values and
+  // the decorated unit keeps its identity, which is important for the offset caches.
+  private val weekDecorator = WeekTimeUnitDecorator(GPTimeUnitStack.WEEK, option)
+
   fun decorate(timeUnit: TimeUnit) =
     if (timeUnit != GPTimeUnitStack.WEEK) {
       timeUnit
     } else {
-      WeekTimeUnitDecorator(timeUnit, option)
+      weekDecorator
     }
 }
 
@@ -0,0 +1,74 @@
+/*
+Copyright 2026 BarD Software s.r.o., GanttProject Team
+
+This file is part of GanttProject, an opensource project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.sourceforge.ganttproject.chart.gantt
+
+import biz.ganttproject.core.calendar.GPCalendarActivity
+import biz.ganttproject.core.calendar.GPCalendarCalc
+import biz.ganttproject.core.time.TimeDuration
+import net.sourceforge.ganttproject.GanttPreviousStateTask
+import java.util.*
+
+/**
+ * Baseline state of a task, with the end date and the calendar activities computed from the baseline start date
+ * and duration.
+ */
+class BaselineTask internal constructor(
+  val task: GanttPreviousStateTask,
+  val start: Date,
+  val end: Date,
+  /** Working and non-working periods between the start and end dates. */
+  val calendarActivities: List<GPCalendarActivity>
+) {
+  val id: Int get() = task.id
+  val isMilestone: Boolean get() = task.isMilestone
+
+  /**
+   * Compares the baseline end date with the actual one.
+   *
+   * @return zero if the task ends as planned in the baseline, a negative value if it ends later, and a positive value
+   * if it ends earlier
+   */
+  fun compareEnd(actualEnd: Date): Int = end.compareTo(actualEnd)
+}
+
+/**
+ * Baseline tasks indexed by task id.
+ *
+ * Computing the baseline end dates requires shifting the start dates over the calendar, so it is done once when
+ * the index is built rather than when a chart row is painted. The end dates depend on the calendar weekends and
+ * holidays, and the index needs to be rebuilt when [isUpToDate] returns false.
+ */
+class BaselineIndex(val tasks: List<GanttPreviousStateTask>,
+                    private val calendar: GPCalendarCalc,
+                    createLength: (Int) -> TimeDuration) {
+  private val calendarVersion = calendar.version
+  private val byId: Map<Int, BaselineTask> = HashMap<Int, BaselineTask>(tasks.size * 2).also { result ->
+    tasks.forEach { task ->
+      result.computeIfAbsent(task.id) {
+        val start = task.start.time
+        val end = calendar.shiftDate(start, createLength(task.duration))
+        BaselineTask(task, start, end, calendar.getActivities(start, end))
+      }
+    }
+  }
+
+  operator fun get(taskId: Int): BaselineTask? = byId[taskId]
+
+  fun isUpToDate(calendar: GPCalendarCalc) = calendar === this.calendar && calendar.version == calendarVersion
+}
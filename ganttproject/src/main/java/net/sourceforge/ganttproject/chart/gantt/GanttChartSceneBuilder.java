@@ -29,7 +29,6 @@ import biz.ganttproject.core.model.task.TaskDefaultColumn;
 import biz.ganttproject.core.time.TimeDuration;
 import biz.ganttproject.core.time.TimeUnit;
 import biz.ganttproject.customproperty.CustomPropertyManager;
-import net.sourceforge.ganttproject.GanttPreviousStateTask;
 import net.sourceforge.ganttproject.gui.options.OptionsPageBuilder;
 import net.sourceforge.ganttproject.task.*;
 
@@ -37,6 +36,7 @@ import java.awt.*;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.function.Predicate;
 
 /**
@@ -55,13 +55,18 @@ public class GanttChartSceneBuilder {
     List<ITask> getVisibleTasks();
     List<ITaskSceneTask> getVisibleTaskSceneTasks();
     List<ITaskSceneTask> getTasksInDocumentOrder();
-    List<GanttPreviousStateTask> getBaseline();
+    BaselineIndex getBaseline();
     TaskActivitySceneBuilder.ChartApi getChartApi(TaskLabelSceneBuilder<ITaskSceneTask> labelsRenderer);
     GPCalendarCalc getCalendar();
     Date getStartDate();
     TimeDuration createLength(TimeUnit timeUnit, Date startDate, Date endDate);
     TimeDuration createLength(int duration);
     CustomPropertyManager getCustomPropertyManager();
+
+    /**
+     * @return true if the scene is built on a worker thread and is no longer needed
+     */
+    boolean isCancelled();
   }
 
   private final Canvas canvas;
@@ -176,6 +181,7 @@ public class GanttChartSceneBuilder {
   private void renderTasksAboveAndBelowViewport(List<ITaskSceneTask> tasksAboveViewport, List<ITaskSceneTask> tasksBelowViewport,
       OffsetList defaultUnitOffsets) {
     for (ITaskSceneTask nextAbove : tasksAboveViewport) {
+      checkCancelled();
       List<ITaskActivity<ITaskSceneTask>> activities = /*nextAbove.isMilestone() ? Collections.<TaskActivity> singletonList(new MilestoneTaskFakeActivity(
           nextAbove)) : */nextAbove.getActivities();
       for (Canvas.Shape s : renderActivities(-1, nextAbove, activities, defaultUnitOffsets, false)) {
@@ -183,6 +189,7 @@ public class GanttChartSceneBuilder {
       }
     }
     for (ITaskSceneTask nextBelow : tasksBelowViewport) {
+      checkCancelled();
       List<ITaskActivity<ITaskSceneTask>> activities = /*nextBelow.isMilestone() ? Collections.<TaskActivity> singletonList(new MilestoneTaskFakeActivity(
           nextBelow)) : */nextBelow.getActivities();
       List<Polygon> rectangles = renderActivities(input.getVisibleTasks().size() + 1, nextBelow, activities,
@@ -197,6 +204,7 @@ public class GanttChartSceneBuilder {
     List<Polygon> boundPolygons = new ArrayList<>();
     int rowNum = 0;
     for (ITaskSceneTask t : visibleTasks) {
+      checkCancelled();
       boundPolygons.clear();
       List<ITaskActivity<ITaskSceneTask>> activities = t.getActivities();
       activities = mySplitter.split(activities, Integer.MAX_VALUE);
@@ -215,59 +223,65 @@ public class GanttChartSceneBuilder {
     }
   }
 
+  private void checkCancelled() {
+    if (input.isCancelled()) {
+      throw new CancellationException();
+    }
+  }
+
   public int getRowHeight() {
     return myChartApi.getRowHeight();
   }
 
   private void renderBaseline(ITaskSceneTask t, int rowNum, OffsetList defaultUnitOffsets) {
-    TaskActivitiesSceneAlgorithm alg = new TaskActivitiesSceneAlgorithm(
-      input.getCalendar(),
-      (Date s, Date e) -> input.createLength(t.getDuration().getTimeUnit(), s, e)
-    );
-    List<GanttPreviousStateTask> baseline = input.getBaseline();
-    if (baseline != null) {
-      for (GanttPreviousStateTask taskBaseline : baseline) {
-        if (taskBaseline.getId() == t.getRowId()) {
-          Date startDate = taskBaseline.getStart().getTime();
-          TimeDuration duration = input.createLength(taskBaseline.getDuration());
-          Date endDate = input.getCalendar().shiftDate(startDate, duration);
-          if (endDate.equals(t.getEnd().getTime())) {
-            return;
-          }
-          List<String> styles = new ArrayList<String>();
-          if (t.isMilestone()) {
-            styles.add("milestone");
-          }
-          if (endDate.compareTo(t.getEnd().getTime()) < 0) {
-            styles.add("later");
-          } else {
-            styles.add("earlier");
-          }
-          List<ITaskActivity<ITaskSceneTask>> baselineActivities = new ArrayList<ITaskActivity<ITaskSceneTask>>();
-          if (t.isMilestone()) {
-            baselineActivities.add(
-              new TaskSceneMilestoneActivity(t, startDate, endDate, input.createLength(1))
-            );
-          } else {
-            alg.recalculateActivities(t, baselineActivities, startDate, endDate);
-          }
-          List<Polygon> baselineRectangles = myBaselineActivityRenderer.renderActivities(rowNum, baselineActivities,
-              defaultUnitOffsets);
-          for (int i = 0; i < baselineRectangles.size(); i++) {
-            Polygon r = baselineRectangles.get(i);
-            r.setStyle("previousStateTask");
-            for (String s : styles) {
-              r.addStyle(s);
-            }
-            if (i == 0) {
-              r.addStyle("start");
-            }
-            if (i == baselineRectangles.size() - 1) {
-              r.addStyle("end");
-            }
-          }
-          return;
-        }
+    BaselineIndex baseline = input.getBaseline();
+    if (baseline == null) {
+      return;
+    }
+    BaselineTask taskBaseline = baseline.get(t.getRowId());
+    if (taskBaseline == null) {
+      return;
+    }
+    Date startDate = taskBaseline.getStart();
+    Date endDate = taskBaseline.getEnd();
+    int endComparison = taskBaseline.compareEnd(t.getEnd().getTime());
+    if (endComparison == 0) {
+      return;
+    }
+    List<String> styles = new ArrayList<String>();
+    if (t.isMilestone()) {
+      styles.add("milestone");
+    }
+    if (endComparison < 0) {
+      styles.add("later");
+    } else {
+      styles.add("earlier");
+    }
+    List<ITaskActivity<ITaskSceneTask>> baselineActivities = new ArrayList<ITaskActivity<ITaskSceneTask>>();
+    if (t.isMilestone()) {
+      baselineActivities.add(
+        new TaskSceneMilestoneActivity(t, startDate, endDate, input.createLength(1))
+      );
+    } else {
+      TaskActivitiesSceneAlgorithm alg = new TaskActivitiesSceneAlgorithm(
+        input.getCalendar(),
+        (Date s, Date e) -> input.createLength(t.getDuration().getTimeUnit(), s, e)
+      );
+      alg.recalculateActivities(t, baselineActivities, taskBaseline.getCalendarActivities());
+    }
+    List<Polygon> baselineRectangles = myBaselineActivityRenderer.renderActivities(rowNum, baselineActivities,
+        defaultUnitOffsets);
+    for (int i = 0; i < baselineRectangles.size(); i++) {
+      Polygon r = baselineRectangles.get(i);
+      r.setStyle("previousStateTask");
+      for (String s : styles) {
+        r.addStyle(s);
+      }
+      if (i == 0) {
+        r.addStyle("start");
+      }
+      if (i == baselineRectangles.size() - 1) {
+        r.addStyle("end");
       }
     }
   }
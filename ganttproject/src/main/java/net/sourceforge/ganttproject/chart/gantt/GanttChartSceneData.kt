@@ -0,0 +1,159 @@
+/*
+Copyright 2026 BarD Software s.r.o., GanttProject Team
+
+This file is part of GanttProject, an opensource project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.sourceforge.ganttproject.chart.gantt
+
+import biz.ganttproject.core.chart.render.ShapePaint
+import biz.ganttproject.core.model.task.ConstraintType
+import biz.ganttproject.core.time.CalendarFactory
+import biz.ganttproject.core.time.GanttCalendar
+import biz.ganttproject.core.time.TimeDuration
+import net.sourceforge.ganttproject.chart.ChartModel
+import net.sourceforge.ganttproject.task.Task
+import net.sourceforge.ganttproject.task.TaskActivity
+import net.sourceforge.ganttproject.task.TaskContainmentHierarchyFacade
+import net.sourceforge.ganttproject.task.TaskDocumentOrderComparator
+import net.sourceforge.ganttproject.task.dependency.TaskDependency
+import java.awt.Color
+
+/**
+ * Immutable copy of the task rows which the Gantt chart scene is built from.
+ *
+ * The copy is captured on the event dispatch thread, and then the scene can be built from it on a worker thread
+ * while the task model keeps changing. Only the tasks which get into the scene are copied: the visible tasks and
+ * the tasks above and below the viewport which are connected with the visible tasks by dependencies and
+ * are not hidden under collapsed parents.
+ */
+class GanttChartSceneData internal constructor(
+  val visibleTaskSceneTasks: List<ITaskSceneTask>,
+  /** Visible tasks and the dependency ends above and below the viewport, in the document order. */
+  val tasksInDocumentOrder: List<ITaskSceneTask>,
+  val visibleTasks: List<ITask>
+) {
+  // The tasks hidden under collapsed parents are not copied, so the remaining tasks are unrelated
+  // to any collapsed task.
+  fun createVerticalPartitioning() = VerticalPartitioning(visibleTaskSceneTasks) { _, _ -> true }
+}
+
+/**
+ * Copies the rows of the given visible tasks and the rows which are needed to draw the dependencies going
+ * out of the viewport.
+ *
+ * @param labelPropertyIds ids of the task properties shown in the labels around the task bars
+ */
+internal fun captureSceneData(model: ChartModel, visibleTasks: List<Task>, labelPropertyIds: Collection<String>): GanttChartSceneData {
+  // Walking the whole project here would make every frame cost O(project size) on the event dispatch thread,
+  // while the tasks outside the viewport are needed only as the ends of the dependency lines.
+  val hierarchy = model.taskManager.taskHierarchy
+  val visibleSet = visibleTasks.toSet()
+  val offscreenEnds = visibleTasks.asSequence()
+    .flatMap { it.dependencies.toArray().asSequence() }
+    .flatMap { sequenceOf(it.dependant, it.dependee) }
+    .filter { it !in visibleSet && !isHiddenUnderCollapsed(it, hierarchy) }
+    .distinct()
+    .sortedWith(TaskDocumentOrderComparator(hierarchy))
+    .toList()
+  val (aboveViewport, belowViewport) = visibleTasks.firstOrNull()?.let { firstVisible ->
+    offscreenEnds.partition { hierarchy.compareDocumentOrder(it, firstVisible) < 0 }
+  } ?: (emptyList<Task>() to emptyList())
+
+  val copy = { task: Task -> TaskSceneTaskCopy(ITaskSceneTaskImpl(task, model), labelPropertyIds) }
+  val visibleCopies = visibleTasks.map(copy)
+  return GanttChartSceneData(
+    visibleCopies,
+    aboveViewport.map(copy) + visibleCopies + belowViewport.map(copy),
+    copyDependencyRows(visibleTasks)
+  )
+}
+
+private fun isHiddenUnderCollapsed(task: Task, hierarchy: TaskContainmentHierarchyFacade): Boolean {
+  var container = hierarchy.getContainer(task)
+  while (container != null && container != hierarchy.rootTask) {
+    if (!container.expand) {
+      return true
+    }
+    container = hierarchy.getContainer(container)
+  }
+  return false
+}
+
+private fun copyDependencyRows(visibleTasks: List<Task>): List<ITask> {
+  val rows = mutableMapOf<Task, TaskRowCopy>()
+  val rowOf = { task: Task -> rows.getOrPut(task) { TaskRowCopy(task.taskID, task.isMilestone) } }
+  val copyActivity = { activity: TaskActivity ->
+    TaskActivityDataImpl<ITask>(
+      activity.isFirst, activity.isLast, activity.intensity, rowOf(activity.owner),
+      activity.start, activity.end, activity.duration
+    )
+  }
+  return visibleTasks.map { task ->
+    rowOf(task).also { row ->
+      row.dependencies = task.dependencies.toArray().map { dep ->
+        DependencyCopy(
+          copyActivity(dep.start as TaskActivity), copyActivity(dep.end as TaskActivity),
+          dep.constraint.type, dep.hardness
+        )
+      }
+    }
+  }
+}
+
+private class TaskSceneTaskCopy(task: ITaskSceneTask, labelPropertyIds: Collection<String>) : ITaskSceneTask {
+  private val rowId = task.rowId
+  private val hash = task.hashCode()
+  private val isMilestone = task.isMilestone()
+  private val properties = labelPropertyIds.associateWith { task.getProperty(it) }
+
+  override val isCritical = task.isCritical
+  override val isProjectTask = task.isProjectTask
+  override val hasNestedTasks = task.hasNestedTasks
+  override val color: Color = task.color
+  override val shape: ShapePaint? = task.shape
+  override val notes: String? = task.notes
+  override val end: GanttCalendar = CalendarFactory.createGanttCalendar(task.end.time)
+  override val activities: List<TaskSceneTaskActivity> = task.activities.map {
+    TaskActivityDataImpl(it.isFirst, it.isLast, it.intensity, this, it.start, it.end, it.duration)
+  }
+  override val expand = task.expand
+  override val duration: TimeDuration = task.duration
+  override val completionPercentage = task.completionPercentage
+
+  override fun getRowId() = rowId
+  override fun isMilestone() = isMilestone
+  override fun getProperty(propertyID: String?) = propertyID?.let { properties[it] }
+
+  override fun hashCode() = hash
+  override fun equals(other: Any?) = other is ITaskSceneTask && other.rowId == rowId
+}
+
+private class TaskRowCopy(private val rowId: Int, private val isMilestone: Boolean) : ITask {
+  override var dependencies: List<IDependency> = emptyList()
+
+  override fun getRowId() = rowId
+  override fun isMilestone() = isMilestone
+
+  override fun hashCode() = rowId
+  override fun equals(other: Any?) = other is ITask && other.rowId == rowId
+}
+
+private class DependencyCopy(
+  override val start: ITaskActivity<ITask>,
+  override val end: ITaskActivity<ITask>,
+  override val constraintType: ConstraintType,
+  override val hardness: TaskDependency.Hardness
+) : IDependency
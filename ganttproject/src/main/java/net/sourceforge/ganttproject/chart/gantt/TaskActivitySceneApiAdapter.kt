@@ -77,8 +77,8 @@ internal class ITaskSceneTaskImpl(private val task: Task, private val model: Cha
     if (obj === this) {
       return true
     }
-    if (obj is ITaskSceneTaskImpl) {
-      return this.task.taskID == obj.task.taskID
+    if (obj is ITaskSceneTask) {
+      return this.task.taskID == obj.rowId
     }
     return if (obj is Task) {
       task == obj
@@ -23,6 +23,7 @@ import org.eclipse.core.runtime.IStatus
 import org.eclipse.core.runtime.Status
 import java.io.*
 import java.net.URI
+import java.util.*
 
 /**
  * This class implements the interface Document for file access on local file
@@ -88,12 +89,40 @@ class FileDocument(val file: File) : AbstractDocument() {
           }
         }
         file.writeBytes(memBytes)
-        if (file.readBytes().fingerprint() != memBytes.fingerprint()) {
-          throw IOException("Write verification failed: after write the file contents on disk is different from the contents in GanttProject memory. You may want to save a backup copy and find out what went wrong.")
+        verifyWrite(memBytes)
+      }
+    }
+  }
+
+  /**
+   * Writes the contents, rewriting only the blocks which differ from the current file contents. When a large file
+   * changes a little, this is much cheaper than writing the whole file, e.g. when the offline mirror of a cloud document
+   * is updated after save.
+   */
+  @Throws(IOException::class)
+  fun writeChangedBlocks(memBytes: ByteArray) {
+    val fileBytes = file.readBytes()
+    if (lastReadFingerprint.isNotBlank() && lastReadFingerprint != fileBytes.fingerprint()) {
+      throw IOException("This write has been cancelled because of the lost update: file last modification ts=${file.lastModified()}, content sha256=${fileBytes.sha256()}. This most likely means that the file has been modified by someone else. You may want to save the project to some other file.")
+    }
+    RandomAccessFile(file, "rw").use { raf ->
+      for (offset in memBytes.indices step WRITE_BLOCK_SIZE) {
+        val end = minOf(offset + WRITE_BLOCK_SIZE, memBytes.size)
+        if (end > fileBytes.size || !Arrays.equals(memBytes, offset, end, fileBytes, offset, end)) {
+          raf.seek(offset.toLong())
+          raf.write(memBytes, offset, end - offset)
         }
-        lastReadFingerprint = memBytes.fingerprint()
       }
+      raf.setLength(memBytes.size.toLong())
     }
+    verifyWrite(memBytes)
+  }
+
+  private fun verifyWrite(memBytes: ByteArray) {
+    if (file.readBytes().fingerprint() != memBytes.fingerprint()) {
+      throw IOException("Write verification failed: after write the file contents on disk is different from the contents in GanttProject memory. You may want to save a backup copy and find out what went wrong.")
+    }
+    lastReadFingerprint = memBytes.fingerprint()
   }
 
   override fun getPath(): String {
@@ -146,6 +175,8 @@ class FileDocument(val file: File) : AbstractDocument() {
 }
 
 
+private const val WRITE_BLOCK_SIZE = 4096
+
 private fun (ByteArray).fingerprint(): String = Hashing.farmHashFingerprint64().hashBytes(this).toString()
 private fun (ByteArray).sha256(): String = Hashing.sha256().hashBytes(this).toString()
 
@@ -0,0 +1,154 @@
+/*
+Copyright 2026 BarD Software s.r.o., GanttProject Team
+
+This file is part of GanttProject, an opensource project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.sourceforge.ganttproject.export
+
+import biz.ganttproject.FXUtil
+import net.sourceforge.ganttproject.GPLogger
+import net.sourceforge.ganttproject.GanttProject
+import net.sourceforge.ganttproject.StartupTimings
+import net.sourceforge.ganttproject.document.Document
+import net.sourceforge.ganttproject.document.FileDocument
+import java.io.File
+import java.io.IOException
+import java.util.concurrent.*
+
+/**
+ * Result of exporting one project in the batch export.
+ */
+data class BatchExportResult(
+  val inputFile: File,
+  val outputFile: File?,
+  val loadMs: Long,
+  val exportMs: Long,
+  val error: Exception? = null
+) {
+  val isOk get() = error == null
+}
+
+/**
+ * Exports many projects in one process, reusing the plugins, options and fonts which were initialized at startup.
+ *
+ * The exporters render the charts through the application UI, which shows one project at a time, and the project
+ * is parsed into the same UI model, so the projects are opened and exported one after another.
+ */
+class BatchExportApplication(
+  private val args: CommandLineExportApplication.Args,
+  private val inputFiles: List<File>
+) {
+  fun run(ganttProject: GanttProject): List<BatchExportResult> {
+    val exporter = CommandLineExportApplication.findExporter(args.exporter) ?: run {
+      LOG.error("Can't find exporter for the format {}", args.exporter)
+      val error = IOException("Can't find exporter for the format ${args.exporter}")
+      return inputFiles.map { BatchExportResult(it, null, loadMs = 0, exportMs = 0, error = error) }
+    }
+    StartupTimings.mark("Batch export started")
+    LOG.info(StartupTimings.report())
+    args.outputDir?.mkdirs()
+    val outputNames = outputBaseNames(inputFiles)
+    val startedAt = System.currentTimeMillis()
+    val results = inputFiles.mapIndexed { idx, inputFile ->
+      exportFile(ganttProject, exporter, inputFile, outputNames[idx])
+    }
+    println(buildReport(results, System.currentTimeMillis() - startedAt))
+    return results
+  }
+
+  private fun exportFile(ganttProject: GanttProject, exporter: Exporter, inputFile: File,
+                         outputName: String): BatchExportResult {
+    val startedAt = System.currentTimeMillis()
+    var loadedAt: Long? = null
+    return try {
+      openProject(ganttProject, FileDocument(inputFile))
+      loadedAt = System.currentTimeMillis()
+      val outputFile = args.outputDir?.let {
+        File(it, "$outputName.${exporter.proposeFileExtension()}")
+      } ?: proposeOutputFile(ganttProject.project, exporter) ?: throw IOException("Can't choose the output file for $inputFile")
+      CommandLineExportApplication().export(exporter, args, outputFile, ganttProject.project, ganttProject.uiFacade)
+      BatchExportResult(inputFile, outputFile, loadedAt - startedAt, System.currentTimeMillis() - loadedAt)
+    } catch (ex: Exception) {
+      LOG.error("Failed to export {}", inputFile, exception = ex)
+      val failedAt = System.currentTimeMillis()
+      BatchExportResult(inputFile, null,
+        loadMs = (loadedAt ?: failedAt) - startedAt,
+        exportMs = loadedAt?.let { failedAt - it } ?: 0,
+        error = ex
+      )
+    }
+  }
+
+  private fun openProject(ganttProject: GanttProject, document: Document) {
+    val result = CompletableFuture<Unit>()
+    FXUtil.runLater {
+      try {
+        val proxyDocument = ganttProject.documentManager.getProxyDocument(document)
+        ganttProject.projectUIFacade.openProject(proxyDocument, ganttProject.project, null).apply {
+          stateCompleted.await { result.complete(Unit) }
+          stateCancelled.await { result.completeExceptionally(CancellationException("Opening of ${document.path} was cancelled")) }
+          stateFailed.await { result.completeExceptionally(it.throwable ?: IOException(it.errorDescription)) }
+        }
+      } catch (ex: Exception) {
+        result.completeExceptionally(ex)
+      }
+    }
+    result.getOrThrow()
+  }
+
+  companion object {
+    /**
+     * Collects the project files from the command line and from the input directory.
+     */
+    @JvmStatic
+    fun collectInputFiles(files: List<String>?, inputDir: File?): List<File> {
+      val result = files.orEmpty().map(::File).toMutableList()
+      inputDir?.listFiles { file -> file.isFile && file.extension == "gan" }?.sortedBy { it.name }?.let(result::addAll)
+      return result
+    }
+  }
+}
+
+internal fun buildReport(results: List<BatchExportResult>, totalMs: Long) = buildString {
+  append("Exported ${results.count { it.isOk }} of ${results.size} projects in $totalMs ms\n")
+  append("%-40s %8s %8s  %s\n".format("Project", "Load ms", "Export ms", "Result"))
+  results.forEach {
+    val status = if (it.isOk) it.outputFile.toString() else "FAILED: ${it.error?.message}"
+    append("%-40s %8d %8d  %s\n".format(it.inputFile.name, it.loadMs, it.exportMs, status))
+  }
+}
+
+/**
+ * Chooses the names of the output files, without extensions, for the export into one directory. Inputs which share
+ * a name, e.g. because they come from different directories, get a numeric suffix in the order of the inputs.
+ * The names are compared ignoring the case, because the file system may be case-insensitive.
+ */
+internal fun outputBaseNames(inputFiles: List<File>): List<String> {
+  val takenNames = mutableSetOf<String>()
+  return inputFiles.map { file ->
+    val name = file.nameWithoutExtension
+    generateSequence(1) { it + 1 }.map { if (it == 1) name else "$name-$it" }.first { takenNames.add(it.lowercase()) }
+  }
+}
+
+private fun <T> Future<T>.getOrThrow(): T =
+  try {
+    get()
+  } catch (ex: ExecutionException) {
+    throw ex.cause as? Exception ?: ex
+  }
+
+private val LOG = GPLogger.create("Export.Batch")
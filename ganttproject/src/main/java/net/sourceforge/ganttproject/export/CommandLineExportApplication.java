@@ -21,20 +21,18 @@ package net.sourceforge.ganttproject.export;
 import biz.ganttproject.LoggerApi;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.converters.FileConverter;
-import kotlin.coroutines.EmptyCoroutineContext;
-import kotlinx.coroutines.CoroutineScope;
 import net.sourceforge.ganttproject.GPLogger;
 import net.sourceforge.ganttproject.IGanttProject;
 import net.sourceforge.ganttproject.PluginPreferencesImpl;
 import net.sourceforge.ganttproject.gui.UIFacade;
 import net.sourceforge.ganttproject.plugins.PluginManager;
 import org.eclipse.core.runtime.jobs.Job;
+import org.jetbrains.annotations.Nullable;
 import org.osgi.service.prefs.Preferences;
 import org.w3c.util.DateParser;
 
 import java.io.File;
 import java.util.HashMap;
-import java.util.concurrent.CountDownLatch;
 
 public class CommandLineExportApplication {
   public static class Args {
@@ -59,6 +57,12 @@ public class CommandLineExportApplication {
     @Parameter(names = "-expand-tasks", description = "Expand all tasks nodes on the Gantt chart", arity = 1)
     public boolean expandTasks = true;
 
+    @Parameter(names = "-input-dir", description = "Export all projects from this directory", converter = FileConverter.class)
+    public File inputDir;
+
+    @Parameter(names = "-out-dir", description = "Output directory for the batch export", converter = FileConverter.class)
+    public File outputDir;
+
   }
 
   private LoggerApi logger = GPLogger.create("Export");
@@ -67,16 +71,36 @@ public class CommandLineExportApplication {
     if (args.exporter == null) {
       return false;
     }
+    Exporter exporter = findExporter(args.exporter);
+    if (exporter == null) {
+      return false;
+    }
+    File outputFile = args.outputFile == null ? ExportFileChooserPageKt.proposeOutputFile(project, exporter)
+        : args.outputFile;
+    try {
+      export(exporter, args, outputFile, project, uiFacade);
+    } catch (Exception e) {
+      new ConsoleUIFacade(uiFacade).showErrorDialog(e);
+    }
+    return true;
+  }
+
+  static @Nullable Exporter findExporter(String format) {
     for (Exporter exp: PluginManager.getExporters()) {
-      var expWithFormat = exp.withFormat(args.exporter);
+      var expWithFormat = exp.withFormat(format);
       if (expWithFormat != null) {
-        return export(expWithFormat, args, project, uiFacade);
+        return expWithFormat;
       }
     }
-    return false;
+    return null;
   }
 
-  private boolean export(Exporter exporter, Args args, IGanttProject project, UIFacade uiFacade) {
+  /**
+   * Exports the project into the output file and waits until the export completes.
+   *
+   * @throws Exception if the export fails
+   */
+  void export(Exporter exporter, Args args, File outputFile, IGanttProject project, UIFacade uiFacade) throws Exception {
     logger.debug("Using exporter {}", new Object[]{exporter}, new HashMap<>());
     ConsoleUIFacade consoleUI = new ConsoleUIFacade(uiFacade);
     GPLogger.setUIFacade(consoleUI);
@@ -88,8 +112,6 @@ public class CommandLineExportApplication {
 //    }
 
     Job.getJobManager().setProgressProvider(new ConsoleProgressProvider());
-    File outputFile = args.outputFile == null ? ExportFileChooserPageKt.proposeOutputFile(project, exporter)
-        : args.outputFile;
 
     Preferences prefs = new PluginPreferencesImpl(null, "");
     prefs.putInt("zoom", args.zooming);
@@ -112,14 +134,6 @@ public class CommandLineExportApplication {
     prefs.putBoolean("expandResources", args.expandResources);
 
     exporter.setContext(project, consoleUI, prefs);
-    final CountDownLatch latch = new CountDownLatch(1);
-    try {
-      ExportFinalizationJob finalizationJob = exportedFiles -> latch.countDown();
-      exporter.run((CoroutineScope) () -> EmptyCoroutineContext.INSTANCE, outputFile, finalizationJob, null);
-      latch.await();
-    } catch (Exception e) {
-      consoleUI.showErrorDialog(e);
-    }
-    return true;
+    ExporterBackgroundJobsKt.runAndWait(exporter, outputFile);
   }
 }
@@ -37,6 +37,9 @@ import net.sourceforge.ganttproject.GPLogger
 import net.sourceforge.ganttproject.gui.ViewLogDialog
 import org.eclipse.core.runtime.IStatus
 import org.eclipse.core.runtime.Status
+import java.io.File
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
 
 class JobMonitorDialogFx<T>(private val title: String, private val jobCount: Int): JobMonitor<T> {
   private var onCancel: () -> Unit = {}
@@ -150,4 +153,31 @@ fun export(coroutineScope: CoroutineScope, jobs: List<ExporterJob>, jobMonitor:
     }
 }
 
+/**
+ * Runs the exporter without the UI and waits until all its jobs complete.
+ *
+ * @throws Exception if any of the export jobs fails
+ */
+@Throws(Exception::class)
+fun runAndWait(exporter: Exporter, outputFile: File) {
+  val result = CompletableFuture<Unit>()
+  val jobMonitor = JobMonitorModel().also {
+    it.processState.addWatcher { event ->
+      when (val state = event.newValue) {
+        is JobState.ProcessCompleted -> result.complete(Unit)
+        is JobState.ProcessFailed -> result.completeExceptionally(
+          state.result.getError() ?: RuntimeException("Export to $outputFile failed")
+        )
+        else -> {}
+      }
+    }
+  }
+  exporter.run(CoroutineScope(Dispatchers.Default), outputFile, ExportFinalizationJob {}, jobMonitor)
+  try {
+    result.get()
+  } catch (ex: ExecutionException) {
+    throw ex.cause as? Exception ?: ex
+  }
+}
+
 private val LOG = GPLogger.create("Export")
\ No newline at end of file
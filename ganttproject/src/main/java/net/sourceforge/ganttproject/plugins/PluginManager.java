@@ -19,16 +19,18 @@ along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
 package net.sourceforge.ganttproject.plugins;
 
 import net.sourceforge.ganttproject.GPLogger;
-import net.sourceforge.ganttproject.chart.Chart;
 import net.sourceforge.ganttproject.export.Exporter;
 import net.sourceforge.ganttproject.gui.view.ViewProvider;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IExtensionRegistry;
 import org.eclipse.core.runtime.Platform;
+import org.osgi.framework.Bundle;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Very basic Plugin Manager
@@ -41,14 +43,21 @@ public class PluginManager {
 
   private static final String EXTENSION_POINT_ID_EXPORTER = "net.sourceforge.ganttproject.exporter";
 
+  private static final String EXTENSION_POINT_ID_IMPORTER = "net.sourceforge.ganttproject.importer";
+
+  private static final String EXTENSION_POINT_ID_OPTION_PAGE = "net.sourceforge.ganttproject.OptionPageProvider";
+
+  private static final String EXTENSION_POINT_ID_SEARCH = "net.sourceforge.ganttproject.search";
+
   private static List<ViewProvider> myViewProviders;
 
   private static List<Exporter> myExporters;
 
+  private static final Map<String, IConfigurationElement[]> ourConfigElements = new ConcurrentHashMap<>();
+
   public static <T> List<T> getExtensions(String extensionPointID, Class<T> extensionPointInterface) {
-    IExtensionRegistry extensionRegistry = Platform.getExtensionRegistry();
     ArrayList<T> extensions = new ArrayList<T>();
-    for (IConfigurationElement configElement : extensionRegistry.getConfigurationElementsFor(extensionPointID)) {
+    for (IConfigurationElement configElement : getConfigurationElements(extensionPointID)) {
       try {
         Object nextExtension = configElement.createExecutableExtension("class");
         assert nextExtension != null && extensionPointInterface.isAssignableFrom(nextExtension.getClass());
@@ -62,6 +71,44 @@ public class PluginManager {
     return extensions;
   }
 
+  private static IConfigurationElement[] getConfigurationElements(String extensionPointID) {
+    return ourConfigElements.computeIfAbsent(extensionPointID, id -> {
+      IExtensionRegistry extensionRegistry = Platform.getExtensionRegistry();
+      return extensionRegistry.getConfigurationElementsFor(id);
+    });
+  }
+
+  /**
+   * Scans the extension registry for the given extension points and loads the extension classes without
+   * instantiating them. It is called from a background thread at startup, so that creating the extensions later
+   * doesn't need to wait for the class loading.
+   */
+  public static void preload(String... extensionPointIDs) {
+    if (Platform.getExtensionRegistry() == null) {
+      // We are running without the plugin framework.
+      return;
+    }
+    for (String extensionPointID : extensionPointIDs) {
+      for (IConfigurationElement configElement : getConfigurationElements(extensionPointID)) {
+        String className = configElement.getAttribute("class");
+        Bundle bundle = Platform.getBundle(configElement.getNamespaceIdentifier());
+        if (className == null || bundle == null) {
+          continue;
+        }
+        try {
+          bundle.loadClass(className);
+        } catch (ClassNotFoundException e) {
+          // The error will be reported when the extension is created.
+        }
+      }
+    }
+  }
+
+  public static void preloadAll() {
+    preload(EXTENSION_POINT_ID_VIEW_PROVIDER, EXTENSION_POINT_ID_EXPORTER, EXTENSION_POINT_ID_IMPORTER,
+        EXTENSION_POINT_ID_OPTION_PAGE, EXTENSION_POINT_ID_SEARCH);
+  }
+
   public static List<ViewProvider> getViewProviders() {
     if (myViewProviders == null) {
       myViewProviders = getExtensions(EXTENSION_POINT_ID_VIEW_PROVIDER, ViewProvider.class);
@@ -300,7 +300,10 @@ public class HumanResource implements CustomPropertyHolder {
   }
 
   public void setStandardPayRate(BigDecimal rate) {
-    myStandardPayRate = rate;
+    if (!Objects.equals(myStandardPayRate, rate)) {
+      myStandardPayRate = rate;
+      fireResourceChanged();
+    }
   }
 
   public BigDecimal getStandardPayRate() {
@@ -217,6 +217,10 @@ public class HumanResourceManager {
     return Collections.unmodifiableList(new ArrayList<>(resources));
   }
 
+  public int getResourceCount() {
+    return resources.size();
+  }
+
   public void remove(HumanResource resource) {
     fireResourcesRemoved(new HumanResource[] { resource });
     resources.remove(resource);
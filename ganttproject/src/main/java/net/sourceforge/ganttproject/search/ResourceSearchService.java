@@ -22,13 +22,20 @@ import net.sourceforge.ganttproject.IGanttProject;
 import net.sourceforge.ganttproject.gui.UIFacade;
 import net.sourceforge.ganttproject.language.GanttLanguage;
 import net.sourceforge.ganttproject.resource.HumanResource;
+import net.sourceforge.ganttproject.resource.HumanResourceManager;
+import net.sourceforge.ganttproject.resource.ResourceEvent;
+import net.sourceforge.ganttproject.resource.ResourceView;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
 /** Search service for resources */
 public class ResourceSearchService extends SearchServiceBase<ResourceSearchService.MySearchResult, HumanResource> {
+  private static final SearchIndex.Registry<HumanResourceManager, HumanResource> ourIndexes = new SearchIndex.Registry<>();
+  private SearchIndex<HumanResource> myIndex;
+
   static class MySearchResult extends SearchResult<HumanResource> {
     MySearchResult(HumanResource hr, ResourceSearchService searchService, String query, String snippet, String snippetText) {
       super(hr.getId(), GanttLanguage.getInstance().getText("generic.resource"), hr.getName(), query, snippet, snippetText, hr, searchService);
@@ -42,18 +49,82 @@ public class ResourceSearchService extends SearchServiceBase<ResourceSearchServi
   @Override
   public List<MySearchResult> search(String query) {
     query = query.toLowerCase();
+    HumanResourceManager resourceManager = getProject().getHumanResourceManager();
     List<MySearchResult> results = new ArrayList<>();
-    for (HumanResource hr : getProject().getHumanResourceManager().getResources()) {
-      if (isNotEmptyAndContains(hr.getName(), query)) {
-        results.add(new MySearchResult(hr, this, query, "", ""));
-      }
+    for (SearchIndex.Hit<HumanResource> hit : myIndex.search(query, new ResourceSource(resourceManager))) {
+      results.add(new MySearchResult(hit.object, this, query, "", ""));
     }
     return results;
   }
 
+  private static class ResourceSource implements SearchIndex.Source<HumanResource> {
+    private final HumanResourceManager myResourceManager;
+
+    ResourceSource(HumanResourceManager resourceManager) {
+      myResourceManager = resourceManager;
+    }
+
+    @Override
+    public int size() {
+      return myResourceManager.getResourceCount();
+    }
+
+    @Override
+    public Collection<HumanResource> getAll() {
+      return myResourceManager.getResources();
+    }
+
+    @Override
+    public boolean contains(HumanResource hr) {
+      return myResourceManager.getById(hr.getId()) == hr;
+    }
+
+    @Override
+    public List<SearchIndex.Field> index(HumanResource hr) {
+      return List.of(new SearchIndex.Field(null, hr.getName()));
+    }
+  }
+
+  private static void subscribe(HumanResourceManager resourceManager, SearchIndex<HumanResource> index) {
+    resourceManager.addView(new ResourceView() {
+      @Override
+      public void resourceAdded(ResourceEvent event) {
+        index.markDirty(event.getResource());
+      }
+
+      @Override
+      public void resourcesRemoved(ResourceEvent event) {
+        for (HumanResource hr : event.getResources()) {
+          index.remove(hr);
+        }
+      }
+
+      @Override
+      public void resourceChanged(ResourceEvent e) {
+        index.markDirty(e.getResource());
+      }
+
+      @Override
+      public void resourceAssignmentsChanged(ResourceEvent e) {
+      }
+
+      @Override
+      public void resourceStructureChanged() {
+        index.markStale();
+      }
+
+      @Override
+      public void resourceModelReset() {
+        index.markStale();
+      }
+    });
+  }
+
   @Override
   public void init(IGanttProject project, UIFacade uiFacade) {
     super.init(project, null, uiFacade);
+    // Search may run in a worker thread, while the index listeners are better registered in the UI thread
+    myIndex = ourIndexes.get(project.getHumanResourceManager(), ResourceSearchService::subscribe);
   }
 
   public void select(List<ResourceSearchService.MySearchResult> results) {
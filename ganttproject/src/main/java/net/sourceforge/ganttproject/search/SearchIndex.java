@@ -0,0 +1,327 @@
+/*
+Copyright 2026 BarD Software s.r.o, GanttProject Team
+
+This file is part of GanttProject, an opensource project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sourceforge.ganttproject.search;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * In-memory inverted index of searchable objects.
+ *
+ * Each object is indexed as a primary field, which is usually the object name, and a few secondary fields which
+ * are shown as a snippet when matched. Lowercase texts of the fields are split into trigrams, and a query which
+ * is at least 3 characters long is answered by intersecting the posting sets of its trigrams and verifying
+ * the candidates. Shorter queries verify all objects, which is still cheap because the lowercase texts are kept
+ * in the index.
+ *
+ * Objects are re-indexed lazily: model event handlers only mark them dirty, and dirty objects are re-indexed
+ * right before the next search. Removed objects are dropped from the index without re-indexing the others.
+ * All methods are thread-safe.
+ */
+class SearchIndex<T> {
+  private static final int GRAM_LENGTH = 3;
+
+  /**
+   * Registry of indexes shared by the search service instances. The index is strongly referenced only by the model
+   * listeners, which are owned by the model, so that the index does not outlive the model.
+   */
+  static class Registry<M, T> {
+    private final Map<M, WeakReference<SearchIndex<T>>> myIndexes = new WeakHashMap<>();
+
+    /**
+     * @param subscribe registers the listeners which keep the new index up to date on the model changes
+     */
+    synchronized SearchIndex<T> get(M model, BiConsumer<M, SearchIndex<T>> subscribe) {
+      WeakReference<SearchIndex<T>> ref = myIndexes.get(model);
+      SearchIndex<T> index = ref == null ? null : ref.get();
+      if (index == null) {
+        index = new SearchIndex<>();
+        subscribe.accept(model, index);
+        myIndexes.put(model, new WeakReference<>(index));
+      }
+      return index;
+    }
+  }
+
+  /**
+   * Objects of the indexed model.
+   */
+  interface Source<T> {
+    /**
+     * @return the number of objects. It is called on every search, so it is expected to be cheap.
+     */
+    int size();
+
+    /**
+     * @return all objects, in the order of the search results with the same score
+     */
+    Collection<T> getAll();
+
+    /**
+     * @return true if the object is still in the model
+     */
+    boolean contains(T object);
+
+    /**
+     * @return the fields of an object. The first field is the primary one.
+     */
+    List<Field> index(T object);
+  }
+
+  static class Field {
+    final String label;
+    final String text;
+    final String lowercaseText;
+
+    Field(String label, String text) {
+      this.label = label;
+      this.text = text == null ? "" : text;
+      this.lowercaseText = this.text.toLowerCase();
+    }
+  }
+
+  static class Hit<T> {
+    final T object;
+    final int score;
+    // Matched secondary field, or null if only the primary field matched
+    final Field snippet;
+
+    Hit(T object, int score, Field snippet) {
+      this.object = object;
+      this.score = score;
+      this.snippet = snippet;
+    }
+  }
+
+  private static class Document {
+    final int order;
+    final Field primary;
+    final List<Field> secondary;
+
+    Document(int order, Field primary, List<Field> secondary) {
+      this.order = order;
+      this.primary = primary;
+      this.secondary = secondary;
+    }
+  }
+
+  private final Map<T, Document> myDocuments = new LinkedHashMap<>();
+  private final Map<String, Set<T>> myPostings = new HashMap<>();
+  private final Set<T> myDirty = new HashSet<>();
+  private boolean isStale = true;
+  private boolean hasRemovedObjects;
+  private int myNextOrder;
+
+  synchronized void markDirty(T object) {
+    if (!isStale) {
+      myDirty.add(object);
+    }
+  }
+
+  synchronized void markStale() {
+    isStale = true;
+    myDirty.clear();
+  }
+
+  /**
+   * Called when some objects were removed from the model, but the events don't tell which ones, e.g. when
+   * a summary task is removed together with its subtree. The removed objects are found right before the next search.
+   */
+  synchronized void markRemoved() {
+    hasRemovedObjects = true;
+  }
+
+  synchronized void remove(T object) {
+    myDirty.remove(object);
+    Document doc = myDocuments.remove(object);
+    if (doc != null) {
+      removePostings(object, doc);
+    }
+  }
+
+  /**
+   * Brings the index up to date and searches for the query.
+   *
+   * @param query lowercase query
+   * @param source objects of the model
+   * @return hits ordered by score, and then by the order in which objects were indexed
+   */
+  synchronized List<Hit<T>> search(String query, Source<T> source) {
+    flush(source);
+    Collection<T> candidates = query.length() >= GRAM_LENGTH ? lookupCandidates(query) : myDocuments.keySet();
+    List<Hit<T>> result = new ArrayList<>();
+    for (T candidate : candidates) {
+      Hit<T> hit = match(candidate, myDocuments.get(candidate), query);
+      if (hit != null) {
+        result.add(hit);
+      }
+    }
+    result.sort(Comparator.<Hit<T>>comparingInt(hit -> hit.score).thenComparingInt(hit -> myDocuments.get(hit.object).order));
+    return result;
+  }
+
+  private void flush(Source<T> source) {
+    if (hasRemovedObjects && !isStale) {
+      myDirty.removeIf(object -> !source.contains(object));
+      for (Iterator<Map.Entry<T, Document>> it = myDocuments.entrySet().iterator(); it.hasNext(); ) {
+        Map.Entry<T, Document> entry = it.next();
+        if (!source.contains(entry.getKey())) {
+          it.remove();
+          removePostings(entry.getKey(), entry.getValue());
+        }
+      }
+    }
+    hasRemovedObjects = false;
+    // Models may be modified with the events disabled, e.g. when importing another project. We can't see
+    // the changes which were made this way, but at least we can see that the objects were added or removed.
+    if (isStale || source.size() != myDocuments.size() + countNew()) {
+      myDocuments.clear();
+      myPostings.clear();
+      myDirty.clear();
+      myNextOrder = 0;
+      for (T object : source.getAll()) {
+        add(object, source.index(object), myNextOrder++);
+      }
+      isStale = false;
+      return;
+    }
+    for (T object : myDirty) {
+      // Re-indexed object keeps its place in the results
+      Document doc = myDocuments.remove(object);
+      if (doc != null) {
+        removePostings(object, doc);
+      }
+      add(object, source.index(object), doc == null ? myNextOrder++ : doc.order);
+    }
+    myDirty.clear();
+  }
+
+  private int countNew() {
+    int result = 0;
+    for (T object : myDirty) {
+      if (!myDocuments.containsKey(object)) {
+        result++;
+      }
+    }
+    return result;
+  }
+
+  private void add(T object, List<Field> fields, int order) {
+    Document doc = new Document(order, fields.get(0), fields.subList(1, fields.size()));
+    myDocuments.put(object, doc);
+    for (Field field : fields) {
+      forEachGram(field.lowercaseText, gram -> myPostings.computeIfAbsent(gram, key -> new HashSet<>()).add(object));
+    }
+  }
+
+  private void removePostings(T object, Document doc) {
+    List<Field> fields = new ArrayList<>(doc.secondary);
+    fields.add(doc.primary);
+    for (Field field : fields) {
+      forEachGram(field.lowercaseText, gram -> {
+        Set<T> posting = myPostings.get(gram);
+        if (posting != null) {
+          posting.remove(object);
+          if (posting.isEmpty()) {
+            myPostings.remove(gram);
+          }
+        }
+      });
+    }
+  }
+
+  private Collection<T> lookupCandidates(String query) {
+    List<Set<T>> postings = new ArrayList<>();
+    for (int i = 0; i + GRAM_LENGTH <= query.length(); i++) {
+      Set<T> posting = myPostings.get(query.substring(i, i + GRAM_LENGTH));
+      if (posting == null) {
+        return Collections.emptyList();
+      }
+      postings.add(posting);
+    }
+    postings.sort(Comparator.comparingInt(Set::size));
+    List<T> result = new ArrayList<>();
+    for (T candidate : postings.get(0)) {
+      boolean inAll = true;
+      for (int i = 1; i < postings.size() && inAll; i++) {
+        inAll = postings.get(i).contains(candidate);
+      }
+      if (inAll) {
+        result.add(candidate);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Ranks a match: the primary field starting with the query is the best one, then a word in the primary field
+   * starting with the query, then any substring of the primary field, and then the same for the secondary fields.
+   */
+  private Hit<T> match(T object, Document doc, String query) {
+    int primaryScore = score(doc.primary.lowercaseText, query);
+    Field snippet = null;
+    int secondaryScore = Integer.MAX_VALUE;
+    for (Field field : doc.secondary) {
+      int score = score(field.lowercaseText, query);
+      if (score < Integer.MAX_VALUE) {
+        if (snippet == null) {
+          snippet = field;
+        }
+        secondaryScore = Math.min(secondaryScore, score + 3);
+      }
+    }
+    int score = Math.min(primaryScore, secondaryScore);
+    return score == Integer.MAX_VALUE ? null : new Hit<>(object, score, snippet);
+  }
+
+  private static int score(String text, String query) {
+    int idx = text.indexOf(query);
+    if (idx < 0) {
+      return Integer.MAX_VALUE;
+    }
+    if (idx == 0) {
+      return 0;
+    }
+    for (; idx > 0; idx = text.indexOf(query, idx + 1)) {
+      if (!Character.isLetterOrDigit(text.charAt(idx - 1))) {
+        return 1;
+      }
+    }
+    return 2;
+  }
+
+  private static void forEachGram(String text, Consumer<String> consumer) {
+    for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+      consumer.accept(text.substring(i, i + GRAM_LENGTH));
+    }
+  }
+}
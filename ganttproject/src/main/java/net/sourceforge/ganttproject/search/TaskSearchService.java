@@ -19,17 +19,25 @@ along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
 package net.sourceforge.ganttproject.search;
 
 import biz.ganttproject.customproperty.CustomProperty;
+import kotlin.Unit;
 import net.sourceforge.ganttproject.IGanttProject;
 import net.sourceforge.ganttproject.gui.UIFacade;
 import net.sourceforge.ganttproject.language.GanttLanguage;
 import net.sourceforge.ganttproject.task.Task;
+import net.sourceforge.ganttproject.task.TaskManager;
+import net.sourceforge.ganttproject.task.event.TaskListenerAdapter;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
 /** Search service for tasks */
 public class TaskSearchService extends SearchServiceBase<TaskSearchService.MySearchResult, Task> {
+  private static final SearchIndex.Registry<TaskManager, Task> ourIndexes = new SearchIndex.Registry<>();
+  private SearchIndex<Task> myIndex;
+
   static class MySearchResult extends SearchResult<Task> {
     MySearchResult(Task t, TaskSearchService searchService, String query, String snippet, String snippetText) {
       super(t.getTaskID(), GanttLanguage.getInstance().getText("generic.task"), t.getName(), query, snippet, snippetText, t, searchService);
@@ -43,42 +51,79 @@ public class TaskSearchService extends SearchServiceBase<TaskSearchService.MySea
   @Override
   public List<MySearchResult> search(String query) {
     query = query.toLowerCase();
+    TaskManager taskManager = getProject().getTaskManager();
     List<MySearchResult> results = new ArrayList<>();
-    for (Task t : getProject().getTaskManager().getTasks()) {
-      String snippet = "";
-      String snippetText = "";
-      boolean matched = false;
-      if (isNotEmptyAndContains(t.getName(), query)) {
-        matched = true;
-      }
-      for (CustomProperty c : t.getCustomValues().getCustomProperties()) {
-        if (isNotEmptyAndContains(c.getValueAsString(), query)) {
-          matched = true;
-          snippet = c.getDefinition().getName();
-          snippetText = c.getValueAsString();
-          break;
-        }
-      }
-      if (isNotEmptyAndContains(t.getNotes(), query)) {
-        matched = true;
-        snippet = GanttLanguage.getInstance().getText("notes");
-        snippetText = t.getNotes();
-      }
-      if (isNotEmptyAndContains(String.valueOf(t.getTaskID()), query)) {
-        matched = true;
-        snippet = GanttLanguage.getInstance().getText("id");
-        snippetText = String.valueOf(t.getTaskID());
-      }
-      if (matched) {
-        results.add(new MySearchResult(t, this, query, snippet, snippetText));
-      }
+    for (SearchIndex.Hit<Task> hit : myIndex.search(query, new TaskSource(taskManager))) {
+      String snippet = hit.snippet == null ? "" : hit.snippet.label;
+      String snippetText = hit.snippet == null ? "" : hit.snippet.text;
+      results.add(new MySearchResult(hit.object, this, query, snippet, snippetText));
     }
     return results;
   }
 
+  private static class TaskSource implements SearchIndex.Source<Task> {
+    private final TaskManager myTaskManager;
+
+    TaskSource(TaskManager taskManager) {
+      myTaskManager = taskManager;
+    }
+
+    @Override
+    public int size() {
+      return myTaskManager.getTaskCount();
+    }
+
+    @Override
+    public Collection<Task> getAll() {
+      return Arrays.asList(myTaskManager.getTasks());
+    }
+
+    @Override
+    public boolean contains(Task task) {
+      return myTaskManager.getTask(task.getTaskID()) == task;
+    }
+
+    @Override
+    public List<SearchIndex.Field> index(Task task) {
+      return TaskSearchService.index(task);
+    }
+  }
+
+  private static void subscribe(TaskManager taskManager, SearchIndex<Task> index) {
+    TaskListenerAdapter taskListener = new TaskListenerAdapter();
+    taskListener.setTaskAddedHandler(e -> { index.markDirty(e.getTask()); return Unit.INSTANCE; });
+    taskListener.setTaskPropertiesChangedHandler(e -> { index.markDirty(e.getTask()); return Unit.INSTANCE; });
+    // Removing a summary task removes the whole subtree, but the event is fired only for the summary task
+    taskListener.setTaskRemovedHandler(e -> { index.markRemoved(); return Unit.INSTANCE; });
+    taskListener.setTaskModelResetHandler(() -> { index.markStale(); return Unit.INSTANCE; });
+    taskManager.addTaskListener(taskListener);
+    // Custom property definitions may be renamed or removed
+    taskManager.getCustomPropertyManager().addListener(event -> index.markStale());
+  }
+
+  /**
+   * Secondary fields go in the order of the snippet priority: id, notes, custom property values.
+   */
+  private static List<SearchIndex.Field> index(Task t) {
+    List<SearchIndex.Field> fields = new ArrayList<>();
+    fields.add(new SearchIndex.Field(null, t.getName()));
+    fields.add(new SearchIndex.Field(GanttLanguage.getInstance().getText("id"), String.valueOf(t.getTaskID())));
+    if (t.getNotes() != null && !t.getNotes().isEmpty()) {
+      fields.add(new SearchIndex.Field(GanttLanguage.getInstance().getText("notes"), t.getNotes()));
+    }
+    for (CustomProperty c : t.getCustomValues().getCustomProperties()) {
+      if (c.getValueAsString() != null) {
+        fields.add(new SearchIndex.Field(c.getDefinition().getName(), c.getValueAsString()));
+      }
+    }
+    return fields;
+  }
+
   @Override
   public void init(IGanttProject project, UIFacade uiFacade) {
     super.init(project, null, uiFacade);
+    // Search may run in a worker thread, while the index listeners are better registered in the UI thread
+    myIndex = ourIndexes.get(project.getTaskManager(), TaskSearchService::subscribe);
   }
 
   @Override
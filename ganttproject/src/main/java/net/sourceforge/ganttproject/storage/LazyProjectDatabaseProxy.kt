@@ -133,10 +133,16 @@ class LazyProjectDatabaseProxy(
 
   override fun startTransaction(title: String) = getDatabase().startTransaction(title)
 
+  override fun startBatch() = getDatabase().startBatch()
+
   override fun fetchTransactions(startLocalTxnId: Int, limit: Int): List<XlogRecord> {
     return getDatabase().fetchTransactions(startLocalTxnId, limit)
   }
 
+  override fun fetchLocalTransactions(startLocalTxnId: Int, limit: Int): Map<Int, XlogRecord> {
+    return getDatabase().fetchLocalTransactions(startLocalTxnId, limit)
+  }
+
   override fun findTasks(whereExpression: String, lookupById: (Int) -> Task?): List<Task> = getDatabase().findTasks(whereExpression, lookupById)
 
   override fun mapTasks(vararg columnConsumer: ColumnConsumer) {
@@ -128,6 +128,7 @@ interface ProjectDatabase {
   @Throws(ProjectDatabaseException::class)
   fun init()
 
+  /** Starts logging the local transactions on top of the given base txn. The previously logged ones are dropped. */
   @Throws(ProjectDatabaseException::class)
   fun startLog(baseTxnId: BaseTxnId)
 
@@ -152,10 +153,26 @@ interface ProjectDatabase {
   @Throws(ProjectDatabaseException::class)
   fun startTransaction(title: String = ""): ProjectDatabaseTxn
 
+  /**
+   * Collect queries received after the batch start and execute them in a single database transaction on commit.
+   * Unlike [startTransaction], a batch is collected even if the collaboration is off. If some transaction is already
+   * collecting queries, the batch is a no-op and the queries go to that transaction. A transaction which is started
+   * while a batch is open joins the batch.
+   */
+  @Throws(ProjectDatabaseException::class)
+  fun startBatch(): ProjectDatabaseTxn
+
   /** Fetch transactions starting with the specified transaction id. */
   @Throws(ProjectDatabaseException::class)
   fun fetchTransactions(startLocalTxnId: Int = 0, limit: Int): List<XlogRecord>
 
+  /**
+   * Fetch up to `limit` transactions with local ids starting with the specified one. The result maps the local ids
+   * to the transactions, in the order of ids. Unlike [fetchTransactions], the ids are not required to be contiguous.
+   */
+  @Throws(ProjectDatabaseException::class)
+  fun fetchLocalTransactions(startLocalTxnId: Int, limit: Int): Map<Int, XlogRecord>
+
   val outgoingTransactions: List<XlogRecord>
   /** Run a query with the given `whereExpression` against the Task table.
    * The query results are converted to Task instances with `lookupById`
@@ -67,6 +67,8 @@ class SqlProjectDatabaseImpl(
   private val customPropertyStorageManager = SqlCustomPropertyStorageManager(dataSource)
   /** Queries which belong to the current transaction. Null if each statement should be committed separately. */
   private var currentTxn: TransactionImpl? = null
+  /** The current transaction if it was started with [startBatch]. */
+  private var batchTxn: TransactionImpl? = null
   private var localTxnId: Int = -1
   private var baseTxnId: BaseTxnId = 0
   /** For a range R of local txn ids [i_1, i_n) which were completed between a transition from a sync point s1 to s2,
@@ -184,6 +186,8 @@ class SqlProjectDatabaseImpl(
   }
 
   override fun startLog(baseTxnId: BaseTxnId) {
+    // Local txn IDs start from 0 again, and the old transactions must not be sent on top of the new base.
+    withDSL({ "Failed to truncate the log" }) { dsl -> dsl.deleteFrom(LOGRECORD).execute() }
     localTxnId = 0
     this.baseTxnId = baseTxnId
     syncTxnMap[baseTxnId] = 0..0
@@ -262,6 +266,8 @@ class SqlProjectDatabaseImpl(
   @Throws(ProjectDatabaseException::class)
   override fun startTransaction(title: String): ProjectDatabaseTxn {
     return if (isColloboqueOn()) {
+      // A transaction started inside a batch joins it, and its queries are committed with the batch.
+      if (currentTxn != null && currentTxn === batchTxn) return DummyTxn()
       if (currentTxn != null) throw ProjectDatabaseException("Previous transaction not committed: $currentTxn")
       TransactionImpl(this, title).also {
         currentTxn = it
@@ -271,6 +277,17 @@ class SqlProjectDatabaseImpl(
     }
   }
 
+  @Throws(ProjectDatabaseException::class)
+  override fun startBatch(): ProjectDatabaseTxn =
+    if (currentTxn != null) {
+      DummyTxn()
+    } else {
+      TransactionImpl(this, "Batch").also {
+        currentTxn = it
+        batchTxn = it
+      }
+    }
+
   @Throws(ProjectDatabaseException::class)
   internal fun commitTransaction(queries: List<SqlQuery>) {
     try {
@@ -280,6 +297,7 @@ class SqlProjectDatabaseImpl(
       incrementLocalTxnId()
     } finally {
       currentTxn = null
+      batchTxn = null
     }
   }
 
@@ -312,6 +330,23 @@ class SqlProjectDatabaseImpl(
       .map { XlogRecord(it.map { str -> Json.decodeFromString(OperationDto.serializer(), str) }) }
   }
 
+  @Throws(ProjectDatabaseException::class)
+  override fun fetchLocalTransactions(startLocalTxnId: Int, limit: Int): Map<Int, XlogRecord> = withDSL(
+    { "Failed to fetch $limit transactions starting with $startLocalTxnId" }) { dsl ->
+    val localTxnIds = dsl
+      .selectDistinct(LOGRECORD.LOCAL_TXN_ID)
+      .from(LOGRECORD)
+      .where(LOGRECORD.LOCAL_TXN_ID.ge(startLocalTxnId))
+      .orderBy(LOGRECORD.LOCAL_TXN_ID)
+      .limit(limit)
+    dsl
+      .selectFrom(LOGRECORD)
+      .where(LOGRECORD.LOCAL_TXN_ID.`in`(localTxnIds))
+      .orderBy(LOGRECORD.LOCAL_TXN_ID, LOGRECORD.ID)
+      .fetchGroups(LOGRECORD.LOCAL_TXN_ID, LOGRECORD.OPERATION_DTO_JSON)
+      .mapValues { (_, operations) -> XlogRecord(operations.map { str -> Json.decodeFromString(OperationDto.serializer(), str) }) }
+  }
+
   override fun findTasks(whereExpression: String, lookupById: (Int)->Task?): List<Task> {
     return withDSL({"Failed to execute query $whereExpression"}) { dsl ->
       dsl.select(TASK.NUM).from(TASK).where(whereExpression).mapNotNull {
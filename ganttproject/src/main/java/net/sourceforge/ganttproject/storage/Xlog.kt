@@ -92,6 +92,10 @@ data class XlogRecord(
  * reported by the server. It is assumed that the first transaction from the list is applied to the state identified
  * by baseTxnId, and i-th transaction from the list is applied to the state produced by (i-1)th transaction from the
  * list.
+ *
+ * A client may send an xlog before the previous one is committed. In this case the base transaction ID is predicted
+ * with [predictNextBaseTxnId], and previousTrackingCode is the tracking code of the previous xlog. The server
+ * rejects such xlog unless the previous one was the last committed xlog.
  */
 @Serializable
 data class InputXlog(
@@ -99,9 +103,17 @@ data class InputXlog(
   val userId: String,
   val projectRefid: String,
   val transactions: List<XlogRecord>,
-  val clientTrackingCode: String
+  val clientTrackingCode: String,
+  val previousTrackingCode: String? = null
 )
 
+/**
+ * Returns the identifier of the state which the server produces when it commits the transactions on top of
+ * the state identified by baseTxnId. Every transaction with at least one operation advances the identifier by one.
+ */
+fun predictNextBaseTxnId(baseTxnId: BaseTxnId, transactions: List<XlogRecord>): BaseTxnId =
+  baseTxnId + transactions.count { it.colloboqueOperations.isNotEmpty() }
+
 @Serializable
 sealed class ServerResponse {
   /**
@@ -124,11 +136,14 @@ sealed class ServerResponse {
 
   /**
    * Response from the server that signals about transaction commit failure.
+   *
+   * @param clientTrackingCode the tracking code of the rejected xlog
    * */
   @Serializable
   data class ErrorResponse(
     val baseTxnId: BaseTxnId,
     val projectRefid: String,
-    val message: String
+    val message: String,
+    val clientTrackingCode: String = ""
   ) : ServerResponse()
 }
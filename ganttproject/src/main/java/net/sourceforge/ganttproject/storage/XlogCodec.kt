@@ -0,0 +1,149 @@
+/*
+Copyright 2026 BarD Software s.r.o., GanttProject Team
+
+This file is part of GanttProject Cloud.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.sourceforge.ganttproject.storage
+
+import kotlinx.serialization.ExperimentalSerializationApi
+import kotlinx.serialization.KSerializer
+import kotlinx.serialization.cbor.Cbor
+import java.io.ByteArrayOutputStream
+import java.util.zip.Deflater
+import java.util.zip.Inflater
+
+/**
+ * Binary encoding of the Colloboque websocket messages.
+ *
+ * A client which supports it sends [ENCODING] in the [ENCODING_HEADER] of the websocket handshake request, and
+ * the server which agrees echoes the header in the handshake response. After that the xlogs and the server
+ * responses are sent as binary frames, while the other messages and the connections which didn't negotiate
+ * the encoding use JSON text frames.
+ *
+ * A binary frame consists of the format version byte, the message kind byte and a chunk of the raw deflate stream
+ * with CBOR-encoded message. The deflate stream is primed with a dictionary of the table, column and class names,
+ * and it spans over all frames sent through the connection in the same direction, so that the repeating parts of
+ * the messages are compressed to a few bytes. Consequently, each side of the connection needs its own codec
+ * instance, and the frames must be decoded in the order they were encoded.
+ *
+ * The deflater and inflater hold native memory, so the codec must be closed when the connection closes.
+ */
+@OptIn(ExperimentalSerializationApi::class)
+class XlogCodec : AutoCloseable {
+  private val deflater = Deflater(Deflater.BEST_SPEED, true).also { it.setDictionary(DICTIONARY) }
+  private val inflater = Inflater(true).also { it.setDictionary(DICTIONARY) }
+  // Guarded by the deflater and inflater locks, and set under both of them.
+  private var isClosed = false
+
+  fun encodeInputXlog(xlog: InputXlog): ByteArray = encode(KIND_INPUT_XLOG, InputXlog.serializer(), xlog)
+
+  fun decodeInputXlog(frame: ByteArray): InputXlog = decode(KIND_INPUT_XLOG, InputXlog.serializer(), frame)
+
+  fun encodeServerResponse(response: ServerResponse): ByteArray =
+    encode(KIND_SERVER_RESPONSE, ServerResponse.serializer(), response)
+
+  fun decodeServerResponse(frame: ByteArray): ServerResponse =
+    decode(KIND_SERVER_RESPONSE, ServerResponse.serializer(), frame)
+
+  /**
+   * Releases the deflater and inflater. Encoding and decoding after that throw [XlogCodecException].
+   */
+  override fun close() {
+    synchronized(deflater) {
+      synchronized(inflater) {
+        if (!isClosed) {
+          isClosed = true
+          deflater.end()
+          inflater.end()
+        }
+      }
+    }
+  }
+
+  private fun <T> encode(kind: Int, serializer: KSerializer<T>, value: T): ByteArray = synchronized(deflater) {
+    if (isClosed) {
+      throw XlogCodecException("The codec is closed")
+    }
+    val out = ByteArrayOutputStream()
+    out.write(VERSION)
+    out.write(kind)
+    deflater.setInput(Cbor.encodeToByteArray(serializer, value))
+    val buffer = ByteArray(BUFFER_SIZE)
+    // Sync flush writes out everything we have got so far, but keeps the compression state for the next frames.
+    do {
+      val count = deflater.deflate(buffer, 0, buffer.size, Deflater.SYNC_FLUSH)
+      out.write(buffer, 0, count)
+    } while (count == buffer.size)
+    out.toByteArray()
+  }
+
+  private fun <T> decode(kind: Int, serializer: KSerializer<T>, frame: ByteArray): T = synchronized(inflater) {
+    if (isClosed) {
+      throw XlogCodecException("The codec is closed")
+    }
+    if (frame.size < 2 || frame[0].toInt() != VERSION) {
+      throw XlogCodecException("Unsupported frame version ${frame.firstOrNull()}")
+    }
+    if (frame[1].toInt() != kind) {
+      throw XlogCodecException("Unexpected frame kind ${frame[1]}, expected $kind")
+    }
+    inflater.setInput(frame, 2, frame.size - 2)
+    val out = ByteArrayOutputStream()
+    val buffer = ByteArray(BUFFER_SIZE)
+    while (true) {
+      val count = inflater.inflate(buffer)
+      if (count == 0) {
+        if (inflater.needsInput()) break
+        throw XlogCodecException("Malformed frame: the deflate stream is finished or needs another dictionary")
+      }
+      out.write(buffer, 0, count)
+    }
+    Cbor.decodeFromByteArray(serializer, out.toByteArray())
+  }
+
+  companion object {
+    const val ENCODING_HEADER = "X-Colloboque-Encoding"
+    const val ENCODING = "cbor-deflate/1"
+
+    /**
+     * Creates a codec if the handshake encoding header value is [ENCODING], or returns null otherwise.
+     */
+    fun negotiate(encoding: String?): XlogCodec? = if (encoding == ENCODING) XlogCodec() else null
+  }
+}
+
+class XlogCodecException(message: String) : Exception(message)
+
+private const val VERSION = 1
+private const val KIND_INPUT_XLOG = 1
+private const val KIND_SERVER_RESPONSE = 2
+private const val BUFFER_SIZE = 4096
+
+// Strings which are likely to appear in the messages. Deflate prefers the matches close to the end of the dictionary,
+// so the most frequent strings go last.
+private val DICTIONARY = listOf(
+  "MergeOperationDto", "mergeBinaryConditions", "mergeRangeConditions", "whenMatchedThenUpdate", "whenNotMatchedThenInsert",
+  "ErrorResponse", "message", "DeleteOperationDto", "deleteBinaryConditions", "deleteRangeConditions", "NOT_IN", "IN",
+  "InsertOperationDto", "values", "NoOperationDto", "previousTrackingCode", "userId",
+  "TaskDependency", "dep_task_uid", "lag", "hardness", "TaskResource", "resource_id", "task_uid", "load", "is_coordinator",
+  "Resource", "role", "email", "phone", "TaskCustomColumn", "column_id", "value",
+  "earliest_start_date", "is_cost_calculated", "cost_manual_value", "is_milestone", "is_project_task",
+  "priority", "color", "shape", "web_link", "notes", "num", "completion", "end_date",
+  "net.sourceforge.ganttproject.storage.ServerResponse.", "CommitResponse", "newBaseTxnId", "logRecords", "baseTxnId", "projectRefid", "clientTrackingCode", "transactions",
+  "net.sourceforge.ganttproject.storage.OperationDto.",
+  "UpdateOperationDto", "updateBinaryConditions", "updateRangeConditions", "newValues", "EQ",
+  "tableName", "Task", "task", "uid", "name", "start_date", "duration", "colloboqueOperations",
+).joinToString("").toByteArray()
@@ -32,7 +32,8 @@ import java.util.Map;
 import java.util.function.Supplier;
 
 class ResourceAssignmentCollectionImpl implements ResourceAssignmentCollection {
-  private final Map<HumanResource, ResourceAssignment> myAssignments = new LinkedHashMap<HumanResource, ResourceAssignment>();
+  // Most tasks have no assignments, so the map is allocated when the first one is added.
+  private Map<HumanResource, ResourceAssignment> myAssignments = Collections.emptyMap();
 
   private final TaskImpl myTask;
 
@@ -91,6 +92,7 @@ class ResourceAssignmentCollectionImpl implements ResourceAssignmentCollection {
   @Override
   public void deleteAssignment(HumanResource resource) {
     myAssignments.remove(resource);
+    invalidateCost();
   }
 
   private ResourceAssignment auxAddAssignment(HumanResource resource) {
@@ -100,7 +102,17 @@ class ResourceAssignmentCollectionImpl implements ResourceAssignmentCollection {
   }
 
   private void addAssignment(ResourceAssignment assignment) {
+    if (myAssignments.isEmpty()) {
+      myAssignments = new LinkedHashMap<HumanResource, ResourceAssignment>();
+    }
     myAssignments.put(assignment.getResource(), assignment);
+    invalidateCost();
+  }
+
+  private void invalidateCost() {
+    if (myTask.myManager != null) {
+      myTask.myManager.getCostAlgorithm().invalidate(myTask);
+    }
   }
 
   /**
@@ -144,6 +156,7 @@ class ResourceAssignmentCollectionImpl implements ResourceAssignmentCollection {
     @Override
     public void setLoad(float load) {
       myAssignmentToResource.setLoad(load);
+      invalidateCost();
     }
 
     /**
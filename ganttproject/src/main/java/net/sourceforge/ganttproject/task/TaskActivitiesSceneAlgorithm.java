@@ -41,8 +41,14 @@ public class TaskActivitiesSceneAlgorithm {
   }
 
   public void recalculateActivities(ITaskSceneTask task, List<ITaskActivity<ITaskSceneTask>> output, Date startDate, Date endDate) {
+    recalculateActivities(task, output, myCalendar.getActivities(startDate, endDate));
+  }
+
+  /**
+   * Creates task activities from the calendar activities which were computed in advance.
+   */
+  public void recalculateActivities(ITaskSceneTask task, List<ITaskActivity<ITaskSceneTask>> output, List<GPCalendarActivity> activities) {
     output.clear();
-    List<GPCalendarActivity> activities = myCalendar.getActivities(startDate, endDate);
     for (int i = 0; i < activities.size(); i++) {
       GPCalendarActivity activity = activities.get(i);
       ITaskActivity<ITaskSceneTask> nextTaskActivity;
@@ -29,13 +29,14 @@ import biz.ganttproject.customproperty.CustomColumnsException;
 import biz.ganttproject.customproperty.CustomColumnsValues;
 import biz.ganttproject.customproperty.CustomPropertyHolder;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import kotlin.Unit;
 import net.sourceforge.ganttproject.GPLogger;
 import net.sourceforge.ganttproject.chart.MilestoneTaskFakeActivity;
 import net.sourceforge.ganttproject.document.AbstractURLDocument;
 import net.sourceforge.ganttproject.document.Document;
 import net.sourceforge.ganttproject.task.algorithm.AlgorithmCollection;
-import net.sourceforge.ganttproject.task.algorithm.CostAlgorithmImpl;
 import net.sourceforge.ganttproject.task.dependency.*;
 import net.sourceforge.ganttproject.task.hierarchy.TaskHierarchyItem;
 import org.eclipse.core.runtime.IStatus;
@@ -91,12 +92,6 @@ public class TaskImpl implements Task {
   // TaskDependencyCollectionImpl();
   private final ResourceAssignmentCollectionImpl myAssignments;
 
-  private final TaskDependencySlice myDependencySlice;
-
-  private final TaskDependencySlice myDependencySliceAsDependant;
-
-  private final TaskDependencySlice myDependencySliceAsDependee;
-
   private boolean myEventsEnabled;
 
   final TaskHierarchyItem myTaskHierarchyItem;
@@ -115,7 +110,21 @@ public class TaskImpl implements Task {
 
   private List<TaskActivity> myMilestoneActivity;
 
-  private final CostImpl myCost = new CostImpl();
+  // The cost fields are stored in the task itself, and getCost() returns a view over them, because a project
+  // may have many thousands of tasks and most of them use the calculated cost.
+  private BigDecimal myManualCost = BigDecimal.ZERO;
+
+  private boolean isCostCalculated = true;
+
+  // The views are stateless, so they are created when they are requested for the first time and then reused.
+  // Two threads may create two equal views at once, which is harmless.
+  private TaskDependencySlice myDependencySlice;
+
+  private TaskDependencySlice myDependencySliceAsDependant;
+
+  private TaskDependencySlice myDependencySliceAsDependee;
+
+  private Cost myCost;
 
   private boolean isUnplugged = false;
 
@@ -126,6 +135,9 @@ public class TaskImpl implements Task {
   public static final GPCalendarCalc RESTLESS_CALENDAR = new AlwaysWorkingTimeCalendarImpl();
 
   private static final TimeDuration EMPTY_DURATION = new TimeDurationImpl(GPTimeUnitStack.DAY, 0);
+
+  // Tasks usually share a few colors, and there is no need to keep a separate color object in every task.
+  private static final Interner<Color> ourColors = Interners.newWeakInterner();
   private boolean isDeleted;
 
   protected TaskImpl(@NotNull TaskManagerImpl taskManager, int taskID, @NotNull String taskUid) {
@@ -133,10 +145,7 @@ public class TaskImpl implements Task {
     myID = taskID;
     myUid = taskUid;
 
-    myAssignments = new ResourceAssignmentCollectionImpl(this, () -> myManager.getConfig().getResourceManager());
-    myDependencySlice = new TaskDependencySliceImpl(this, myManager.getDependencyCollection(), TaskDependencySlice.COMPLETE_SLICE_FXN);
-    myDependencySliceAsDependant = new TaskDependencySliceAsDependant(this, myManager.getDependencyCollection());
-    myDependencySliceAsDependee = new TaskDependencySliceAsDependee(this, myManager.getDependencyCollection());
+    myAssignments = new ResourceAssignmentCollectionImpl(this, myManager.getResourceManagerSupplier());
     myPriority = DEFAULT_PRIORITY;
     myTaskHierarchyItem = myManager.getHierarchyManager().createItem(this);
     myNotes = "";
@@ -161,7 +170,7 @@ public class TaskImpl implements Task {
     } else {
       myTaskHierarchyItem = copy.myTaskHierarchyItem;
     }
-    myAssignments = new ResourceAssignmentCollectionImpl(this, () -> myManager.getConfig().getResourceManager());
+    myAssignments = new ResourceAssignmentCollectionImpl(this, myManager.getResourceManagerSupplier());
     myAssignments.importData(copy.getAssignmentCollection());
     myName = copy.myName;
     myWebLink = copy.myWebLink;
@@ -178,11 +187,7 @@ public class TaskImpl implements Task {
     myColor = copy.myColor;
     myNotes = copy.myNotes;
     bExpand = copy.bExpand;
-    myCost.setValue(copy.myCost);
-
-    myDependencySlice = new TaskDependencySliceImpl(this, myManager.getDependencyCollection(), TaskDependencySlice.COMPLETE_SLICE_FXN);
-    myDependencySliceAsDependant = new TaskDependencySliceAsDependant(this, myManager.getDependencyCollection());
-    myDependencySliceAsDependee = new TaskDependencySliceAsDependee(this, myManager.getDependencyCollection());
+    setCost(copy.getCost());
 
     customValues = copy.getCustomValues().copyOf();
 
@@ -492,6 +497,7 @@ public class TaskImpl implements Task {
   public void move(Task targetSupertask, int position) {
     TaskImpl supertaskImpl = (TaskImpl) targetSupertask;
     TaskHierarchyItem targetItem = supertaskImpl.myTaskHierarchyItem;
+    myManager.getCostAlgorithm().invalidate(this);
     myTaskHierarchyItem.delete();
     targetItem.addNestedItem(myTaskHierarchyItem, position);
     myManager.onTaskMoved(this);
@@ -509,16 +515,25 @@ public class TaskImpl implements Task {
 
   @Override
   public TaskDependencySlice getDependencies() {
+    if (myDependencySlice == null) {
+      myDependencySlice = new TaskDependencySliceImpl(this, myManager.getDependencyCollection(), TaskDependencySlice.COMPLETE_SLICE_FXN);
+    }
     return myDependencySlice;
   }
 
   @Override
   public TaskDependencySlice getDependenciesAsDependant() {
+    if (myDependencySliceAsDependant == null) {
+      myDependencySliceAsDependant = new TaskDependencySliceAsDependant(this, myManager.getDependencyCollection());
+    }
     return myDependencySliceAsDependant;
   }
 
   @Override
   public TaskDependencySlice getDependenciesAsDependee() {
+    if (myDependencySliceAsDependee == null) {
+      myDependencySliceAsDependee = new TaskDependencySliceAsDependee(this, myManager.getDependencyCollection());
+    }
     return myDependencySliceAsDependee;
   }
 
@@ -621,6 +636,7 @@ public class TaskImpl implements Task {
     if (myLength == null || myManager == null) {
       return;
     }
+    myManager.getCostAlgorithm().invalidate(this);
     if (isMilestone) {
       myMilestoneActivity = ImmutableList.of(new MilestoneTaskFakeActivity(this));
       return;
@@ -665,7 +681,7 @@ public class TaskImpl implements Task {
 
   @Override
   public void setColor(Color color) {
-    myColor = color;
+    myColor = color == null ? null : ourColors.intern(color);
   }
 
   @Override
@@ -740,48 +756,48 @@ public class TaskImpl implements Task {
   }
 
   private class CostImpl implements Cost {
-    private BigDecimal myValue = BigDecimal.ZERO;
-    private boolean isCalculated = true;
-
     @Override
     public BigDecimal getValue() {
-      return (isCalculated) ? getCalculatedValue() : getManualValue();
+      return (isCostCalculated) ? getCalculatedValue() : getManualValue();
     }
 
     @Override
     public BigDecimal getManualValue() {
-      return myValue;
+      return myManualCost;
     }
 
     @Override
     public BigDecimal getCalculatedValue() {
-      return new CostAlgorithmImpl().getCalculatedCost(TaskImpl.this);
+      return myManager.getCostAlgorithm().getCalculatedCost(TaskImpl.this);
     }
 
-//    public void setValue(BigDecimal value) {
-//      myValue = value;
-//    }
-
+    @Override
     public void setValue(Cost copy) {
-      myValue = copy.getValue();
-      isCalculated = copy.isCalculated();
+      setCost(copy);
     }
 
     @Override
     public boolean isCalculated() {
-      return isCalculated;
+      return isCostCalculated;
     }
 
   }
 
   @Override
   public Cost getCost() {
+    if (myCost == null) {
+      myCost = new CostImpl();
+    }
     return myCost;
   }
 
   @Override
   public void setCost(Cost cost) {
-    myCost.setValue(cost);
+    myManualCost = cost.getValue();
+    isCostCalculated = cost.isCalculated();
+    if (myManager != null) {
+      myManager.getCostAlgorithm().invalidate(TaskImpl.this);
+    }
   }
 
   @Override
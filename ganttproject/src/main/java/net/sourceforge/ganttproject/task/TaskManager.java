@@ -33,6 +33,7 @@ import net.sourceforge.ganttproject.ProjectEventListener;
 import net.sourceforge.ganttproject.resource.HumanResource;
 import net.sourceforge.ganttproject.resource.HumanResourceManager;
 import net.sourceforge.ganttproject.storage.ProjectDatabase;
+import net.sourceforge.ganttproject.storage.ProjectDatabaseTxn;
 import net.sourceforge.ganttproject.task.Task.Priority;
 import net.sourceforge.ganttproject.task.algorithm.AlgorithmCollection;
 import net.sourceforge.ganttproject.task.algorithm.DependencyGraph;
@@ -45,6 +46,7 @@ import java.awt.*;
 import java.math.BigDecimal;
 import java.util.Date;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import static net.sourceforge.ganttproject.storage.ProjectDatabase.*;
 
@@ -213,15 +215,58 @@ public interface TaskManager {
 
   void addTaskListener(TaskListener listener);
 
+  /**
+   * A scope of bulk task mutations, to be closed in a finally block or with try-with-resources. The scope is
+   * expected to be committed when its mutations complete successfully.
+   */
+  interface Batch extends AutoCloseable {
+    /**
+     * Marks the mutations made in this scope as successfully completed.
+     */
+    void commit();
+
+    @Override
+    void close();
+  }
+
+  /**
+   * Starts a batch of task mutations. Until the batch is closed, the database updates of the mutated tasks are
+   * collected into one database transaction, the scheduler and completion recalculation are postponed, and the
+   * schedule, properties and progress events are coalesced per task. On close, the scheduler runs once and every
+   * listener receives a single {@link net.sourceforge.ganttproject.task.event.TaskBatchEvent}.
+   *
+   * Batches may be nested, in which case the outermost one does the work on close. A batch which is started inside
+   * an undoable edit joins the database transaction of that edit.
+   *
+   * If some scope is closed without being committed, e.g. because an exception was thrown, the database transaction
+   * of the batch is rolled back. The task changes which were made before the failure stay in memory, so the
+   * algorithms still run and the listeners still receive the event.
+   *
+   * Hierarchy events are not postponed, however, the containers whose children changed are also reported in the
+   * batch event, so that listeners may postpone their own work on hierarchy changes until the batch is closed.
+   */
+  Batch startBatch();
+
+  /**
+   * @return true if some batch of task mutations is open
+   */
+  boolean isBatchOpen();
+
   class Access {
     public static TaskManager newInstance(TaskContainmentHierarchyFacade.Factory containmentFacadeFactory,
         TaskManagerConfig config) {
-      return new TaskManagerImpl(containmentFacadeFactory, config, null);
+      return new TaskManagerImpl(containmentFacadeFactory, config, null, null);
     }
 
     public static TaskManager newInstance(TaskContainmentHierarchyFacade.Factory containmentFacadeFactory,
                                           TaskManagerConfig config, TaskUpdateBuilder.Factory taskUpdateBuilderFactory) {
-      return new TaskManagerImpl(containmentFacadeFactory, config, taskUpdateBuilderFactory);
+      return new TaskManagerImpl(containmentFacadeFactory, config, taskUpdateBuilderFactory, null);
+    }
+
+    public static TaskManager newInstance(TaskContainmentHierarchyFacade.Factory containmentFacadeFactory,
+                                          TaskManagerConfig config, TaskUpdateBuilder.Factory taskUpdateBuilderFactory,
+                                          Supplier<ProjectDatabaseTxn> batchTxnFactory) {
+      return new TaskManagerImpl(containmentFacadeFactory, config, taskUpdateBuilderFactory, batchTxnFactory);
     }
   }
 
@@ -28,7 +28,12 @@ import net.sourceforge.ganttproject.gui.options.model.GP1XOptionConverter;
 import net.sourceforge.ganttproject.language.GanttLanguage;
 import net.sourceforge.ganttproject.resource.HumanResource;
 import net.sourceforge.ganttproject.resource.HumanResourceManager;
+import net.sourceforge.ganttproject.resource.ResourceEvent;
+import net.sourceforge.ganttproject.resource.ResourceView;
+import net.sourceforge.ganttproject.storage.DummyTxn;
 import net.sourceforge.ganttproject.storage.ProjectDatabase.TaskUpdateBuilder;
+import net.sourceforge.ganttproject.storage.ProjectDatabaseException;
+import net.sourceforge.ganttproject.storage.ProjectDatabaseTxn;
 import net.sourceforge.ganttproject.task.algorithm.*;
 import net.sourceforge.ganttproject.task.dependency.*;
 import net.sourceforge.ganttproject.task.dependency.TaskDependency.Hardness;
@@ -66,6 +71,9 @@ public class TaskManagerImpl implements TaskManager {
 
   private final TaskManagerConfig myConfig;
 
+  // Shared by the resource assignment collections of all tasks.
+  private final Supplier<HumanResourceManager> myResourceManagerSupplier = () -> getConfig().getResourceManager();
+
   private final TaskNamePrefixOption myTaskNamePrefixOption = new TaskNamePrefixOption();
 
   private final StringOption myTaskCopyNamePrefixOption = new DefaultStringOption("taskCopyNamePrefix", GanttLanguage.getInstance().getText("task.copy.prefix"));
@@ -155,16 +163,21 @@ public class TaskManagerImpl implements TaskManager {
   private final CustomColumnsManager myCustomColumnsManager;
 
   private final TaskUpdateBuilder.Factory myTaskUpdateBuilderFactory;
+  private final Supplier<ProjectDatabaseTxn> myBatchTxnFactory;
+  private TaskMutationBatch myBatch;
+  private final CostAlgorithmImpl myCostAlgorithm = new CostAlgorithmImpl();
+  private boolean isCostResourceViewRegistered;
   private Boolean isZeroMilestones = true;
 
   public TaskManagerImpl(TaskContainmentHierarchyFacade.Factory containmentFacadeFactory, TaskManagerConfig config) {
-    this(containmentFacadeFactory, config, null);
+    this(containmentFacadeFactory, config, null, null);
   }
 
   public TaskManagerImpl(TaskContainmentHierarchyFacade.Factory containmentFacadeFactory, TaskManagerConfig config,
-                         TaskUpdateBuilder.Factory taskUpdateBuilderFactory) {
+                         TaskUpdateBuilder.Factory taskUpdateBuilderFactory, Supplier<ProjectDatabaseTxn> batchTxnFactory) {
     myFacadeFactory = containmentFacadeFactory == null ? new FacadeFactoryImpl() : containmentFacadeFactory;
     myTaskUpdateBuilderFactory = taskUpdateBuilderFactory;
+    myBatchTxnFactory = batchTxnFactory;
     myCustomPropertyListener = new CustomPropertyListenerImpl(this);
     myCustomColumnsManager = new CustomColumnsManager();
     myCustomColumnsManager.addListener(getCustomPropertyListener());
@@ -176,7 +189,7 @@ public class TaskManagerImpl implements TaskManager {
     );
     myDependencyGraph.addListener(() -> {
       if (areEventsEnabled) {
-        myScheduler.run();
+        runScheduler();
       }
     });
     myHierarchyManager = new TaskHierarchyManagerImpl();
@@ -242,38 +255,38 @@ public class TaskManagerImpl implements TaskManager {
       @Override
       public void dependencyChanged(@NotNull TaskDependencyEvent e) {
         if (areEventsEnabled) {
-          myScheduler.run();
+          runScheduler();
         }
       }
 
       @Override
       public void taskScheduleChanged(@NotNull TaskScheduleEvent e) {
-        processCriticalPath(getRootTask());
+        updateCriticalPath();
       }
 
       @Override
       public void dependencyAdded(@NotNull TaskDependencyEvent e) {
-        processCriticalPath(getRootTask());
+        updateCriticalPath();
       }
 
       @Override
       public void dependencyRemoved(@NotNull TaskDependencyEvent e) {
-        processCriticalPath(getRootTask());
+        updateCriticalPath();
       }
 
       @Override
       public void taskAdded(@NotNull TaskHierarchyEvent e) {
-        processCriticalPath(getRootTask());
+        updateCriticalPath();
       }
 
       @Override
       public void taskRemoved(@NotNull TaskHierarchyEvent e) {
-        processCriticalPath(getRootTask());
+        updateCriticalPath();
       }
 
       @Override
       public void taskMoved(@NotNull TaskHierarchyEvent e) {
-        processCriticalPath(getRootTask());
+        updateCriticalPath();
       }
 
       @Override
@@ -282,6 +295,11 @@ public class TaskManagerImpl implements TaskManager {
       @Override
       public void taskProgressChanged(@NotNull TaskPropertyEvent e) {}
 
+      @Override
+      public void taskBatchChanged(@NotNull TaskBatchEvent e) {
+        // The critical path has been updated when the batch was closed
+      }
+
       @Override
       public void taskModelReset() {}
     });
@@ -330,6 +348,7 @@ public class TaskManagerImpl implements TaskManager {
   }
 
   private void projectOpened() {
+    myCostAlgorithm.clear();
     fireTaskModelReset();
     processCriticalPath(getRootTask());
     myAlgorithmCollection.getRecalculateTaskCompletionPercentageAlgorithm().run();
@@ -338,6 +357,11 @@ public class TaskManagerImpl implements TaskManager {
   @Override
   public void deleteTask(Task tasktoRemove) {
     Task[] nestedTasks = getTaskHierarchy().getDeepNestedTasks(tasktoRemove);
+    myCostAlgorithm.invalidate(tasktoRemove);
+    for (Task t : nestedTasks) {
+      myCostAlgorithm.invalidate(t);
+      myAlgorithmCollection.getRecalculateTaskCompletionPercentageAlgorithm().forget(t);
+    }
     for (Task t : nestedTasks) {
       t.delete();
     }
@@ -616,6 +640,10 @@ public class TaskManagerImpl implements TaskManager {
     return myDependencyCollection;
   }
 
+  Supplier<HumanResourceManager> getResourceManagerSupplier() {
+    return myResourceManagerSupplier;
+  }
+
   @Override
   public AlgorithmCollection getAlgorithmCollection() {
     return myAlgorithmCollection;
@@ -676,10 +704,123 @@ public class TaskManagerImpl implements TaskManager {
       for (Task t : getTasks()) {
         t.setEnd(null);
       }
-      myScheduler.run();
+      runScheduler();
+    };
+  }
+
+  @Override
+  public Batch startBatch() {
+    if (myBatch != null) {
+      myBatch.enter();
+    } else {
+      myBatch = new TaskMutationBatch(startBatchTxn());
+    }
+    return new Batch() {
+      private boolean isCommitted;
+      private boolean isClosed;
+
+      @Override
+      public void commit() {
+        isCommitted = true;
+      }
+
+      @Override
+      public void close() {
+        if (!isClosed) {
+          isClosed = true;
+          closeBatch(isCommitted);
+        }
+      }
     };
   }
 
+  @Override
+  public boolean isBatchOpen() {
+    return myBatch != null;
+  }
+
+  private ProjectDatabaseTxn startBatchTxn() {
+    if (myBatchTxnFactory != null) {
+      try {
+        return myBatchTxnFactory.get();
+      } catch (RuntimeException e) {
+        GPLogger.log(e);
+      }
+    }
+    return new DummyTxn();
+  }
+
+  /**
+   * Runs the postponed algorithms, commits the collected database updates and fires the coalesced events.
+   * The algorithms run while the batch is still open, so that the changes they make are collected too.
+   * The database updates are rolled back if some scope of the batch was not committed or the algorithms failed.
+   */
+  private void closeBatch(boolean isCommitted) {
+    TaskMutationBatch batch = myBatch;
+    if (!isCommitted) {
+      batch.fail();
+    }
+    if (!batch.leave()) {
+      return;
+    }
+    boolean isSuccessful = false;
+    try {
+      if (batch.isSchedulerPending()) {
+        myScheduler.run();
+      }
+      if (batch.isCompletionPending()) {
+        getAlgorithmCollection().getRecalculateTaskCompletionPercentageAlgorithm().run();
+      }
+      if (batch.isCriticalPathPending()) {
+        processCriticalPath(getRootTask());
+      }
+      isSuccessful = !batch.isFailed();
+    } finally {
+      myBatch = null;
+      if (isSuccessful) {
+        try {
+          batch.getTxn().commit();
+        } catch (ProjectDatabaseException e) {
+          GPLogger.log(e);
+        }
+      } else {
+        batch.getTxn().rollback();
+      }
+    }
+    if (areEventsEnabled) {
+      TaskBatchEvent e = batch.createEvent(this);
+      if (!e.isEmpty()) {
+        for (TaskListener next : myListeners) {
+          next.taskBatchChanged(e);
+        }
+      }
+    }
+  }
+
+  private void runScheduler() {
+    if (myBatch != null) {
+      myBatch.requestScheduler();
+    } else {
+      myScheduler.run();
+    }
+  }
+
+  private void runCompletionAlgorithm(Task changedTask) {
+    if (myBatch != null) {
+      myBatch.requestCompletion();
+    } else {
+      getAlgorithmCollection().getRecalculateTaskCompletionPercentageAlgorithm().run(changedTask);
+    }
+  }
+
+  private void updateCriticalPath() {
+    if (myBatch != null) {
+      myBatch.requestCriticalPath();
+    } else {
+      processCriticalPath(getRootTask());
+    }
+  }
+
   @Override
   public TaskUpdateBuilder createTaskUpdateBuilder(Task task) {
     if (task == getRootTask()) {
@@ -693,7 +834,12 @@ public class TaskManagerImpl implements TaskManager {
 
   public void fireTaskProgressChanged(Task changedTask) {
     if (areEventsEnabled) {
-      getAlgorithmCollection().getRecalculateTaskCompletionPercentageAlgorithm().run();
+      if (myBatch != null) {
+        myBatch.requestCompletion();
+        myBatch.progressChanged(changedTask);
+        return;
+      }
+      getAlgorithmCollection().getRecalculateTaskCompletionPercentageAlgorithm().run(changedTask);
       TaskPropertyEvent e = new TaskPropertyEvent(changedTask);
       for (TaskListener next : myListeners) {
         next.taskProgressChanged(e);
@@ -702,9 +848,18 @@ public class TaskManagerImpl implements TaskManager {
   }
 
   void fireTaskScheduleChanged(Task changedTask, GanttCalendar oldStartDate, GanttCalendar oldFinishDate) {
+    if (myBatch != null) {
+      myBatch.requestScheduler();
+      if (areEventsEnabled) {
+        myBatch.requestCompletion();
+        myBatch.requestCriticalPath();
+        myBatch.scheduleChanged(changedTask, oldStartDate, oldFinishDate);
+      }
+      return;
+    }
     myScheduler.run();
     if (areEventsEnabled) {
-      getAlgorithmCollection().getRecalculateTaskCompletionPercentageAlgorithm().run();
+      getAlgorithmCollection().getRecalculateTaskCompletionPercentageAlgorithm().run(changedTask);
       TaskScheduleEvent e = new TaskScheduleEvent(changedTask, oldStartDate, oldFinishDate, changedTask.getStart(),
           changedTask.getEnd());
       // List copy = new ArrayList(myListeners);
@@ -742,8 +897,11 @@ public class TaskManagerImpl implements TaskManager {
 
   private void fireTaskAdded(Task task, EventSource source) {
     if (areEventsEnabled) {
-      getAlgorithmCollection().getRecalculateTaskCompletionPercentageAlgorithm().run();
+      runCompletionAlgorithm(task);
       var newContainer = getTaskHierarchy().getContainer(task);
+      if (myBatch != null) {
+        myBatch.hierarchyChanged(newContainer);
+      }
       TaskHierarchyEvent e = new TaskHierarchyEvent(source, task, null, newContainer, getTaskHierarchy().getTaskIndex(task));
       for (TaskListener next : myListeners) {
         next.taskAdded(e);
@@ -753,8 +911,12 @@ public class TaskManagerImpl implements TaskManager {
 
   private void fireTaskRemoved(Task container, Task task) {
     myDependencyGraph.removeTask(task);
+    getAlgorithmCollection().getRecalculateTaskCompletionPercentageAlgorithm().forget(task);
     if (areEventsEnabled) {
-      getAlgorithmCollection().getRecalculateTaskCompletionPercentageAlgorithm().run();
+      runCompletionAlgorithm(container);
+      if (myBatch != null) {
+        myBatch.hierarchyChanged(container);
+      }
       TaskHierarchyEvent e = new TaskHierarchyEvent(EventSource.UNDEFINED, task, container, null, -1);
       for (TaskListener l : myListeners) {
         l.taskRemoved(e);
@@ -764,6 +926,14 @@ public class TaskManagerImpl implements TaskManager {
 
   void fireTaskMoved(Task task, Task movedFrom, Task movedTo) {
     if (areEventsEnabled) {
+      if (movedFrom != null) {
+        runCompletionAlgorithm(movedFrom);
+      }
+      runCompletionAlgorithm(task);
+      if (myBatch != null) {
+        myBatch.hierarchyChanged(movedFrom);
+        myBatch.hierarchyChanged(movedTo);
+      }
       TaskHierarchyEvent e = new TaskHierarchyEvent(EventSource.UNDEFINED, task, movedFrom, movedTo, getTaskHierarchy().getTaskIndex(task));
       for (TaskListener l : myListeners) {
         l.taskMoved(e);
@@ -772,6 +942,10 @@ public class TaskManagerImpl implements TaskManager {
   }
   void fireTaskPropertiesChanged(Task task) {
     if (areEventsEnabled) {
+      if (myBatch != null) {
+        myBatch.propertiesChanged(task);
+        return;
+      }
       TaskPropertyEvent e = new TaskPropertyEvent(task);
       for (TaskListener next : myListeners) {
         next.taskPropertiesChanged(e);
@@ -813,7 +987,7 @@ public class TaskManagerImpl implements TaskManager {
 
   @Override
   public TaskManager emptyClone() {
-    TaskManagerImpl result = new TaskManagerImpl(null, myConfig, null);
+    TaskManagerImpl result = new TaskManagerImpl(null, myConfig, null, null);
     result.myDependencyHardnessOption.setValue(this.myDependencyHardnessOption.getValue());
     return result;
   }
@@ -955,11 +1129,54 @@ public class TaskManagerImpl implements TaskManager {
     if (!isRegistered(task)) {
       registerTask(task);
     }
+    myCostAlgorithm.invalidate(task);
     myDependencyGraph.move(task, getTaskHierarchy().getContainer(task));
     myTaskMap.setDirty();
   }
 
+  /**
+   * @return cost algorithm with the cache of calculated costs of this manager's tasks
+   */
+  public CostAlgorithmImpl getCostAlgorithm() {
+    if (!isCostResourceViewRegistered && getConfig().getResourceManager() != null) {
+      // Resource manager may be not yet available when this task manager is constructed, so we subscribe lazily
+      isCostResourceViewRegistered = true;
+      getConfig().getResourceManager().addView(new ResourceView() {
+        @Override
+        public void resourceAdded(ResourceEvent event) {}
+
+        @Override
+        public void resourcesRemoved(ResourceEvent event) {
+          myCostAlgorithm.clear();
+        }
+
+        @Override
+        public void resourceChanged(ResourceEvent e) {
+          myCostAlgorithm.invalidate(e.getResource());
+        }
+
+        @Override
+        public void resourceAssignmentsChanged(ResourceEvent e) {
+          myCostAlgorithm.invalidate(e.getResource());
+        }
+
+        @Override
+        public void resourceStructureChanged() {}
+
+        @Override
+        public void resourceModelReset() {
+          myCostAlgorithm.clear();
+        }
+      });
+    }
+    return myCostAlgorithm;
+  }
+
   public void setEventsEnabled(boolean enabled) {
+    if (enabled && !areEventsEnabled) {
+      // The completion sums were not updated while the events were off
+      getAlgorithmCollection().getRecalculateTaskCompletionPercentageAlgorithm().invalidate();
+    }
     areEventsEnabled = enabled;
   }
 
@@ -0,0 +1,130 @@
+/*
+Copyright 2026 BarD Software s.r.o, GanttProject Team
+
+This file is part of GanttProject, an opensource project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sourceforge.ganttproject.task;
+
+import biz.ganttproject.core.time.GanttCalendar;
+import net.sourceforge.ganttproject.storage.ProjectDatabaseTxn;
+import net.sourceforge.ganttproject.task.event.TaskBatchEvent;
+import net.sourceforge.ganttproject.task.event.TaskPropertyEvent;
+import net.sourceforge.ganttproject.task.event.TaskScheduleEvent;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * State of an open batch of task mutations: the database transaction which collects the task updates,
+ * the postponed algorithm runs and the changed tasks.
+ */
+class TaskMutationBatch {
+  private final ProjectDatabaseTxn myTxn;
+  // Task -> its start and end dates before the first schedule change in this batch
+  private final Map<Task, GanttCalendar[]> myScheduleChanges = new LinkedHashMap<>();
+  private final Set<Task> myPropertyChanges = new LinkedHashSet<>();
+  private final Set<Task> myProgressChanges = new LinkedHashSet<>();
+  private final Set<Task> myHierarchyChanges = new LinkedHashSet<>();
+  private int myDepth = 1;
+  private boolean isSchedulerPending;
+  private boolean isCompletionPending;
+  private boolean isCriticalPathPending;
+  private boolean isFailed;
+
+  TaskMutationBatch(ProjectDatabaseTxn txn) {
+    myTxn = txn;
+  }
+
+  ProjectDatabaseTxn getTxn() {
+    return myTxn;
+  }
+
+  void enter() {
+    myDepth++;
+  }
+
+  /**
+   * @return true if the outermost batch scope has been left
+   */
+  boolean leave() {
+    return --myDepth == 0;
+  }
+
+  void fail() {
+    isFailed = true;
+  }
+
+  boolean isFailed() {
+    return isFailed;
+  }
+
+  void requestScheduler() {
+    isSchedulerPending = true;
+  }
+
+  void requestCompletion() {
+    isCompletionPending = true;
+  }
+
+  void requestCriticalPath() {
+    isCriticalPathPending = true;
+  }
+
+  boolean isSchedulerPending() {
+    return isSchedulerPending;
+  }
+
+  boolean isCompletionPending() {
+    return isCompletionPending;
+  }
+
+  boolean isCriticalPathPending() {
+    return isCriticalPathPending;
+  }
+
+  void scheduleChanged(Task task, GanttCalendar oldStart, GanttCalendar oldEnd) {
+    myScheduleChanges.putIfAbsent(task, new GanttCalendar[] {oldStart, oldEnd});
+  }
+
+  void propertiesChanged(Task task) {
+    myPropertyChanges.add(task);
+  }
+
+  void progressChanged(Task task) {
+    myProgressChanges.add(task);
+  }
+
+  void hierarchyChanged(Task container) {
+    if (container != null) {
+      myHierarchyChanges.add(container);
+    }
+  }
+
+  TaskBatchEvent createEvent(Object source) {
+    List<TaskScheduleEvent> scheduleEvents = new ArrayList<>(myScheduleChanges.size());
+    myScheduleChanges.forEach((task, oldDates) ->
+        scheduleEvents.add(new TaskScheduleEvent(task, oldDates[0], oldDates[1], task.getStart(), task.getEnd())));
+    List<TaskPropertyEvent> propertyEvents = new ArrayList<>(myPropertyChanges.size());
+    myPropertyChanges.forEach(task -> propertyEvents.add(new TaskPropertyEvent(task)));
+    List<TaskPropertyEvent> progressEvents = new ArrayList<>(myProgressChanges.size());
+    myProgressChanges.forEach(task -> progressEvents.add(new TaskPropertyEvent(task)));
+    return new TaskBatchEvent(source, scheduleEvents, propertyEvents, progressEvents, new ArrayList<>(myHierarchyChanges));
+  }
+}
@@ -19,6 +19,9 @@ along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
 package net.sourceforge.ganttproject.task.algorithm;
 
 import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.sourceforge.ganttproject.resource.HumanResource;
 import net.sourceforge.ganttproject.task.ResourceAssignment;
@@ -26,12 +29,33 @@ import net.sourceforge.ganttproject.task.Task;
 import net.sourceforge.ganttproject.task.TaskContainmentHierarchyFacade;
 
 /**
- * Algorithm for calculating task cost
+ * Algorithm for calculating task cost.
+ *
+ * Calculated costs are cached per task. When something that affects the cost of a task changes, that is, its
+ * duration, assignments, pay rates of the assigned resources, manual cost or the set of its children, the task and
+ * all its ancestors must be invalidated, and their costs will be recalculated on the next read.
  *
  * @author dbarashev (Dmitry Barashev)
  */
 public class CostAlgorithmImpl {
+  private final Map<Task, BigDecimal> myCache = new ConcurrentHashMap<>();
+  // Incremented on every invalidation, so that a value calculated concurrently with invalidation is not cached
+  private final AtomicInteger myVersion = new AtomicInteger();
+
   public BigDecimal getCalculatedCost(Task t) {
+    BigDecimal cached = myCache.get(t);
+    if (cached != null) {
+      return cached;
+    }
+    int version = myVersion.get();
+    BigDecimal result = calculateCost(t);
+    if (version == myVersion.get()) {
+      myCache.put(t, result);
+    }
+    return result;
+  }
+
+  private BigDecimal calculateCost(Task t) {
     BigDecimal total = BigDecimal.ZERO;
     TaskContainmentHierarchyFacade taskHierarchy = t.getManager().getTaskHierarchy();
     if (taskHierarchy.hasNestedTasks(t)) {
@@ -48,4 +72,32 @@ public class CostAlgorithmImpl {
     }
     return total;
   }
+
+  /**
+   * Invalidates the cached costs of the given task and its ancestors.
+   */
+  public void invalidate(Task t) {
+    myVersion.incrementAndGet();
+    if (myCache.isEmpty()) {
+      return;
+    }
+    TaskContainmentHierarchyFacade taskHierarchy = t.getManager().getTaskHierarchy();
+    for (Task task = t; task != null; task = taskHierarchy.getContainer(task)) {
+      myCache.remove(task);
+    }
+  }
+
+  /**
+   * Invalidates the cached costs of the tasks which the given resource is assigned to, and their ancestors.
+   */
+  public void invalidate(HumanResource resource) {
+    for (ResourceAssignment assignment : resource.getAssignments()) {
+      invalidate(assignment.getTask());
+    }
+  }
+
+  public void clear() {
+    myVersion.incrementAndGet();
+    myCache.clear();
+  }
 }
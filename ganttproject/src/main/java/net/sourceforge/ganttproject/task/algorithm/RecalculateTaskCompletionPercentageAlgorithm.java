@@ -18,17 +18,86 @@ along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
  */
 package net.sourceforge.ganttproject.task.algorithm;
 
+import kotlin.Unit;
 import net.sourceforge.ganttproject.task.Task;
 import net.sourceforge.ganttproject.task.TaskContainmentHierarchyFacade;
 
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Calculates the completion percentage of summary tasks as the duration-weighted completion of their leaf tasks.
+ *
+ * Weighted sums of completed and planned days are kept for every summary task, so that when a single task changes,
+ * only the sums of its ancestors are recalculated, from the sums of their direct children. Completion percentage is
+ * committed only to the tasks where it actually changes. The sums are dropped when the tasks could change without
+ * this algorithm knowing, that is, while it was disabled or while the task events were off.
+ */
 public abstract class RecalculateTaskCompletionPercentageAlgorithm extends AlgorithmBase {
+  private final Map<Task, SubtreeCompletion> mySubtreeCompletions = new HashMap<>();
+  // Committing a new completion fires an event which calls this algorithm again. The outer call
+  // already walks the ancestors of the changed task, so the nested calls are no-ops.
+  private boolean isRunning;
+
+  protected RecalculateTaskCompletionPercentageAlgorithm() {
+    getEnabledOption().addWatcher(event -> {
+      if (event.getNewValue()) {
+        invalidate();
+      }
+      return Unit.INSTANCE;
+    });
+  }
+
+  /**
+   * Recalculates completion of all summary tasks.
+   */
   @Override
   public void run() {
-    if (!isEnabled()) {
+    if (!isEnabled() || isRunning) {
+      return;
+    }
+    isRunning = true;
+    try {
+      mySubtreeCompletions.clear();
+      TaskContainmentHierarchyFacade facade = createContainmentFacade();
+      updateSubtreeCompletion(facade.getRootTask(), facade);
+    } finally {
+      isRunning = false;
+    }
+  }
+
+  /**
+   * Recalculates completion of the given task, if it is a summary task, and of all its ancestors. Should be called
+   * when completion or duration of the task changes, or when a task is added to or removed from its children.
+   */
+  public void run(Task changedTask) {
+    if (!isEnabled() || isRunning) {
       return;
     }
-    TaskContainmentHierarchyFacade facade = createContainmentFacade();
-    recalculateSupertaskCompletionPercentage(facade.getRootTask(), facade);
+    isRunning = true;
+    try {
+      TaskContainmentHierarchyFacade facade = createContainmentFacade();
+      for (Task task = changedTask; task != null; task = facade.getContainer(task)) {
+        updateSubtreeCompletion(task, facade);
+      }
+    } finally {
+      isRunning = false;
+    }
+  }
+
+  /**
+   * Drops the sums kept for the given task, e.g. when it is deleted.
+   */
+  public void forget(Task task) {
+    mySubtreeCompletions.remove(task);
+  }
+
+  /**
+   * Drops all the kept sums, so that they are calculated again from the tasks when they are needed. Should be called
+   * when the tasks may have changed without calling this algorithm.
+   */
+  public void invalidate() {
+    mySubtreeCompletions.clear();
   }
 
   static private class SubtreeCompletion {
@@ -41,32 +110,43 @@ public abstract class RecalculateTaskCompletionPercentageAlgorithm extends Algor
     };
   }
 
-  private SubtreeCompletion recalculateSupertaskCompletionPercentage(Task task, TaskContainmentHierarchyFacade facade) {
+  private SubtreeCompletion getSubtreeCompletion(Task task, TaskContainmentHierarchyFacade facade) {
+    if (facade.hasNestedTasks(task)) {
+      SubtreeCompletion cached = mySubtreeCompletions.get(task);
+      return cached == null ? updateSubtreeCompletion(task, facade) : cached;
+    }
+    long duration = task.getDuration().getLength();
+    return new SubtreeCompletion(duration * task.getCompletionPercentage(), duration);
+  }
 
+  private SubtreeCompletion updateSubtreeCompletion(Task task, TaskContainmentHierarchyFacade facade) {
     Task[] nestedTasks = facade.getNestedTasks(task);
 
     if (nestedTasks.length == 0) {
-      long nextDuration = task.getDuration().getLength();
-      return new SubtreeCompletion(nextDuration * task.getCompletionPercentage(), nextDuration);
+      mySubtreeCompletions.remove(task);
+      long duration = task.getDuration().getLength();
+      return new SubtreeCompletion(duration * task.getCompletionPercentage(), duration);
     }
 
     long completedDays = 0;
     long plannedDays = 0;
 
-    for (int i = 0; i < nestedTasks.length; i++) {
-      Task next = nestedTasks[i];
-      SubtreeCompletion subtreeCompletion = recalculateSupertaskCompletionPercentage(next, facade);
+    for (Task next : nestedTasks) {
+      SubtreeCompletion subtreeCompletion = getSubtreeCompletion(next, facade);
       completedDays += subtreeCompletion.myCompletedDays;
       plannedDays += subtreeCompletion.myPlannedDays;
     }
 
     int completionPercentage = (plannedDays == 0) ? 0 : (int) (completedDays / plannedDays);
-    var mutator = task.createMutator();
-    mutator.setCompletionPercentage(completionPercentage);
-    mutator.commit();
-
-    return new SubtreeCompletion(completedDays, plannedDays);
+    if (completionPercentage != task.getCompletionPercentage()) {
+      var mutator = task.createMutator();
+      mutator.setCompletionPercentage(completionPercentage);
+      mutator.commit();
+    }
 
+    SubtreeCompletion result = new SubtreeCompletion(completedDays, plannedDays);
+    mySubtreeCompletions.put(task, result);
+    return result;
   }
 
   protected abstract TaskContainmentHierarchyFacade createContainmentFacade();
@@ -0,0 +1,83 @@
+/*
+Copyright 2026 BarD Software s.r.o, GanttProject Team
+
+This file is part of GanttProject, an opensource project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sourceforge.ganttproject.task.event;
+
+import net.sourceforge.ganttproject.task.Task;
+
+import java.util.EventObject;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Coalesced task changes made in a batch of task mutations. There is at most one event of each kind per task:
+ * a schedule event carries the dates which the task had before the batch and the dates it has after the batch.
+ */
+public class TaskBatchEvent extends EventObject {
+  private final List<TaskScheduleEvent> myScheduleEvents;
+  private final List<TaskPropertyEvent> myPropertyEvents;
+  private final List<TaskPropertyEvent> myProgressEvents;
+  private final List<Task> myHierarchyContainers;
+
+  public TaskBatchEvent(Object source, List<TaskScheduleEvent> scheduleEvents,
+                        List<TaskPropertyEvent> propertyEvents, List<TaskPropertyEvent> progressEvents,
+                        List<Task> hierarchyContainers) {
+    super(source);
+    myScheduleEvents = scheduleEvents;
+    myPropertyEvents = propertyEvents;
+    myProgressEvents = progressEvents;
+    myHierarchyContainers = hierarchyContainers;
+  }
+
+  public List<TaskScheduleEvent> getScheduleEvents() {
+    return myScheduleEvents;
+  }
+
+  public List<TaskPropertyEvent> getPropertyEvents() {
+    return myPropertyEvents;
+  }
+
+  public List<TaskPropertyEvent> getProgressEvents() {
+    return myProgressEvents;
+  }
+
+  /**
+   * @return containers whose children were added, removed or moved in the batch. The hierarchy events themselves
+   * are fired as usual when the changes happen.
+   */
+  public List<Task> getHierarchyContainers() {
+    return myHierarchyContainers;
+  }
+
+  /**
+   * @return all tasks changed in the batch, in the order of their first change
+   */
+  public Set<Task> getTasks() {
+    Set<Task> result = new LinkedHashSet<>();
+    myScheduleEvents.forEach(e -> result.add(e.getTask()));
+    myPropertyEvents.forEach(e -> result.add(e.getTask()));
+    myProgressEvents.forEach(e -> result.add(e.getTask()));
+    return result;
+  }
+
+  public boolean isEmpty() {
+    return myScheduleEvents.isEmpty() && myPropertyEvents.isEmpty() && myProgressEvents.isEmpty()
+        && myHierarchyContainers.isEmpty();
+  }
+}
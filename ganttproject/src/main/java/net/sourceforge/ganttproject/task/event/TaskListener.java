@@ -45,4 +45,13 @@ public interface TaskListener extends EventListener {
 
   void taskModelReset();
 
+  /**
+   * Called once when a batch of task mutations completes, instead of separate schedule, properties and progress
+   * events. By default, replays the coalesced events one by one.
+   */
+  default void taskBatchChanged(TaskBatchEvent e) {
+    e.getScheduleEvents().forEach(this::taskScheduleChanged);
+    e.getPropertyEvents().forEach(this::taskPropertiesChanged);
+    e.getProgressEvents().forEach(this::taskProgressChanged);
+  }
 }
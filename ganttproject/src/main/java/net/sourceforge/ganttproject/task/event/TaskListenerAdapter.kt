@@ -38,6 +38,7 @@ open class TaskListenerAdapter(private val allEventsHandler: ()->Unit = {}) : Ta
   var taskProgressChangedHandler: ((TaskPropertyEvent) -> Unit)? = null
   var taskScheduleChangedHandler: ((TaskScheduleEvent) -> Unit)? = null
   var taskModelResetHandler: (() -> Unit)? = null
+  var taskBatchChangedHandler: ((TaskBatchEvent) -> Unit)? = null
 
   override fun taskScheduleChanged(e: TaskScheduleEvent) {
     taskScheduleChangedHandler?.also { it(e) } ?: allEventsHandler()
@@ -77,6 +78,35 @@ open class TaskListenerAdapter(private val allEventsHandler: ()->Unit = {}) : Ta
   override fun taskModelReset() {
     taskModelResetHandler?.also { it() } ?: allEventsHandler()
   }
+
+  /**
+   * Events which have specific handlers are passed to them one by one, and the remaining events of the batch
+   * are coalesced into a single call of the all-events handler.
+   */
+  override fun taskBatchChanged(e: TaskBatchEvent) {
+    taskBatchChangedHandler?.let {
+      it(e)
+      return
+    }
+    val hasUnhandledEvents = replay(e.scheduleEvents, taskScheduleChangedHandler) or
+        replay(e.propertyEvents, taskPropertiesChangedHandler) or
+        replay(e.progressEvents, taskProgressChangedHandler)
+    if (hasUnhandledEvents) {
+      allEventsHandler()
+    }
+  }
+
+  /**
+   * @return true if there are events but no handler for them
+   */
+  private fun <E> replay(events: List<E>, handler: ((E) -> Unit)?): Boolean {
+    if (handler == null) {
+      return events.isNotEmpty()
+    }
+    events.forEach(handler)
+    return false
+  }
+
 }
 
 fun createTaskListenerWithTimerBarrier(timerBarrier: TimerBarrier) =
@@ -20,6 +20,7 @@ package biz.ganttproject.calendar
 
 import biz.ganttproject.core.time.CalendarFactory
 import biz.ganttproject.core.time.impl.GPTimeUnitStack
+import net.sourceforge.ganttproject.TestSetupHelper
 import net.sourceforge.ganttproject.chart.*
 import org.junit.jupiter.api.Assertions.assertEquals
 import org.junit.jupiter.api.BeforeEach
@@ -60,6 +61,38 @@ class WeekNumberingTest {
     weekOption.selectedValue = EUROPEAN
     assertEquals("2022-02-21".asDate(), decorator.adjustLeft("2022-02-24".asDate()))
   }
+
+  @Test
+  fun `relative numbering is replaced only when the project start changes`() {
+    val taskManager = TestSetupHelper.newTaskManagerBuilder().build()
+    val task = taskManager.newTaskBuilder().withStartDate(TestSetupHelper.newMonday().time).build()
+    WeekOption.selectedValue = RELATIVE_TO_PROJECT
+    try {
+      val weekNumbering = WeekNumbering(taskManager)
+      var replacements = 0
+      weekNumbering.numberingFunction.addWatcher { replacements++ }
+
+      task.createMutator().also {
+        it.setName("Renamed")
+        it.setCompletionPercentage(50)
+        it.commit()
+      }
+      task.createMutator().also {
+        it.setEnd(TestSetupHelper.newWendesday())
+        it.commit()
+      }
+      assertEquals(0, replacements)
+
+      task.createMutator().also {
+        it.setStart(TestSetupHelper.newFriday())
+        it.commit()
+      }
+      assertEquals(1, replacements)
+      assertEquals(1, weekNumbering.numberingFunction.value!!.apply(TestSetupHelper.newFriday().time))
+    } finally {
+      WeekOption.selectedValue = DEFAULT
+    }
+  }
 }
 
 private fun String.asDate() = SimpleDateFormat("yyyy-MM-dd").parse(this)
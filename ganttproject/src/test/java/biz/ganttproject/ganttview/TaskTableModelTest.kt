@@ -0,0 +1,63 @@
+/*
+Copyright 2026 BarD Software s.r.o, GanttProject Team
+
+This file is part of GanttProject, an open-source project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package biz.ganttproject.ganttview
+
+import biz.ganttproject.core.model.task.TaskDefaultColumn
+import net.sourceforge.ganttproject.TestSetupHelper
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+
+class TaskTableModelTest {
+  private val taskManagerBuilder = TestSetupHelper.newTaskManagerBuilder()
+  private val taskManager = taskManagerBuilder.build()
+  private val tableModel = TaskTableModel(taskManager.customPropertyManager).also {
+    initDerivedValueInvalidation(it.derivedValues, taskManager, taskManagerBuilder.resourceManager)
+  }
+
+  @Test
+  fun `derived values are cached until the model events invalidate them`() {
+    val task0 = taskManager.newTaskBuilder().withName("Task0").withParent(taskManager.rootTask).build()
+    val task1 = taskManager.newTaskBuilder().withName("Task1").withParent(taskManager.rootTask).build()
+    val task2 = taskManager.newTaskBuilder().withName("Task2").withParent(taskManager.rootTask).build()
+
+    assertEquals("2", tableModel.getValueAt(task1, TaskDefaultColumn.OUTLINE_NUMBER))
+    assertEquals("", tableModel.getValueAt(task1, TaskDefaultColumn.PREDECESSORS))
+
+    taskManager.taskHierarchy.move(task1, task0)
+    assertEquals("1.1", tableModel.getValueAt(task1, TaskDefaultColumn.OUTLINE_NUMBER))
+
+    taskManager.dependencyCollection.createDependency(task1, task2)
+    assertEquals(task2.taskID.toString(), tableModel.getValueAt(task1, TaskDefaultColumn.PREDECESSORS))
+  }
+
+  @Test
+  fun `values of the whole removed subtree are dropped`() {
+    val summary = taskManager.newTaskBuilder().withName("Summary").withParent(taskManager.rootTask).build()
+    val child = taskManager.newTaskBuilder().withName("Child").withParent(summary).build()
+    val grandChild = taskManager.newTaskBuilder().withName("GrandChild").withParent(child).build()
+    listOf(summary, child, grandChild).forEach {
+      assertEquals("", tableModel.getValueAt(it, TaskDefaultColumn.PREDECESSORS))
+    }
+
+    taskManager.deleteTask(summary)
+    listOf(summary, child, grandChild).forEach {
+      assertEquals("dropped", tableModel.derivedValues.get(it, TaskDefaultColumn.PREDECESSORS) { "dropped" })
+    }
+  }
+}
@@ -21,7 +21,13 @@ package biz.ganttproject.ganttview
 import javafx.scene.control.TreeItem
 import net.sourceforge.ganttproject.TestSetupHelper
 import net.sourceforge.ganttproject.task.Task
+import net.sourceforge.ganttproject.task.event.TaskBatchEvent
+import net.sourceforge.ganttproject.task.event.TaskListenerAdapter
 import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.Assertions.assertTrue
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.assertNotNull
 
@@ -33,11 +39,11 @@ class TaskTableTest {
     val filter: TaskFilterFxn = {_, _ -> false }
     val rootItem = TreeItem(taskModel.rootTask)
 
-    val sync = SyncAlgorithm(taskModel.taskHierarchy, task2treeItem, rootItem, filter, {}, taskModel.taskCount)
+    val sync = SyncAlgorithm(taskModel.taskHierarchy, task2treeItem, rootItem, filter, {})
     sync.sync()
     assertEquals(1, task2treeItem.size)
     assertEquals(taskModel.rootTask, task2treeItem.keys.first())
-    assertEquals(0, sync.filteredCount)
+    assertEquals(0, filteredCount(taskModel, task2treeItem))
   }
 
   @Test
@@ -50,10 +56,10 @@ class TaskTableTest {
     task2treeItem.clear()
     taskModel.newTaskBuilder().withName("Task0").withParent(taskModel.rootTask).build()
 
-    val sync = SyncAlgorithm(taskModel.taskHierarchy, task2treeItem, rootItem, filter, {}, taskModel.taskCount)
+    val sync = SyncAlgorithm(taskModel.taskHierarchy, task2treeItem, rootItem, filter, {})
     sync.sync()
     assertEquals(2, task2treeItem.size)
-    assertEquals(0, sync.filteredCount)
+    assertEquals(0, filteredCount(taskModel, task2treeItem))
   }
 
   @Test
@@ -65,7 +71,7 @@ class TaskTableTest {
     val task0 = taskModel.newTaskBuilder().withName("Task0").withParent(taskModel.rootTask).build()
     val task1 = taskModel.newTaskBuilder().withName("Task1").withParent(taskModel.rootTask).build()
 
-    val sync = SyncAlgorithm(taskModel.taskHierarchy, task2treeItem, rootItem, filter, {}, taskModel.taskCount)
+    val sync = SyncAlgorithm(taskModel.taskHierarchy, task2treeItem, rootItem, filter, {})
     sync.sync()
 
     task1.move(task0)
@@ -73,7 +79,7 @@ class TaskTableTest {
     assertEquals(3, task2treeItem.size)
     assertEquals(task2treeItem[task0]!!, task2treeItem[task1]!!.parent)
     assertEquals(1, rootItem.children.size)
-    assertEquals(0, sync.filteredCount)
+    assertEquals(0, filteredCount(taskModel, task2treeItem))
   }
 
   @Test
@@ -86,18 +92,145 @@ class TaskTableTest {
     val task1 = taskModel.newTaskBuilder().withName("Task1").withParent(taskModel.rootTask).build()
     val task2 = taskModel.newTaskBuilder().withName("Task2").withParent(taskModel.rootTask).build()
 
-    val sync = SyncAlgorithm(taskModel.taskHierarchy, task2treeItem, rootItem, voidFilter, {}, taskModel.taskCount)
+    val sync = SyncAlgorithm(taskModel.taskHierarchy, task2treeItem, rootItem, voidFilter, {})
     sync.sync()
 
     val filter: TaskFilterFxn = {_, child -> child == null || child.name == "Task0" }
 
     task2treeItem.clear()
-    val sync2 = SyncAlgorithm(taskModel.taskHierarchy, task2treeItem, rootItem, filter, {}, taskModel.taskCount)
+    val sync2 = SyncAlgorithm(taskModel.taskHierarchy, task2treeItem, rootItem, filter, {})
     sync2.sync()
 
     assertEquals(2, task2treeItem.size)
     assertNotNull(task2treeItem[task0])
     assertEquals(1, rootItem.children.size)
-    assertEquals(2, sync2.filteredCount)
+    assertEquals(2, filteredCount(taskModel, task2treeItem))
   }
-}
\ No newline at end of file
+
+  @Test
+  fun `incremental sync of inserted and removed tasks`() {
+    val taskModel = TestSetupHelper.newTaskManagerBuilder().build()
+    val task2treeItem = mutableMapOf<Task, TreeItem<Task>>()
+    val filter: TaskFilterFxn = {_, _ -> true }
+    val rootItem = TreeItem(taskModel.rootTask)
+    val task0 = taskModel.newTaskBuilder().withName("Task0").withParent(taskModel.rootTask).build()
+    val task2 = taskModel.newTaskBuilder().withName("Task2").withParent(taskModel.rootTask).build()
+    SyncAlgorithm(taskModel.taskHierarchy, task2treeItem, rootItem, filter, {}).sync()
+    val item0 = task2treeItem[task0]!!
+
+    val task1 = taskModel.newTaskBuilder().withName("Task1").withParent(taskModel.rootTask).withPrevSibling(task0).build()
+    val incremental = IncrementalSyncAlgorithm(taskModel.taskHierarchy, task2treeItem, filter, {})
+    incremental.sync(listOf(taskModel.rootTask))
+    assertEquals(listOf(task0, task1, task2), rootItem.children.map { it.value })
+    assertSame(item0, task2treeItem[task0])
+
+    taskModel.deleteTask(task1)
+    incremental.sync(listOf(taskModel.rootTask))
+    assertEquals(listOf(task0, task2), rootItem.children.map { it.value })
+    assertNull(task2treeItem[task1])
+    assertEquals(3, task2treeItem.size)
+  }
+
+  @Test
+  fun `incremental sync keeps the subtree of a moved task`() {
+    val taskModel = TestSetupHelper.newTaskManagerBuilder().build()
+    val task2treeItem = mutableMapOf<Task, TreeItem<Task>>()
+    val filter: TaskFilterFxn = {_, _ -> true }
+    val rootItem = TreeItem(taskModel.rootTask)
+    val task0 = taskModel.newTaskBuilder().withName("Task0").withParent(taskModel.rootTask).build()
+    val task1 = taskModel.newTaskBuilder().withName("Task1").withParent(taskModel.rootTask).build()
+    val task2 = taskModel.newTaskBuilder().withName("Task2").withParent(task1).build()
+    SyncAlgorithm(taskModel.taskHierarchy, task2treeItem, rootItem, filter, {}).sync()
+    val item1 = task2treeItem[task1]!!
+    val item2 = task2treeItem[task2]!!
+
+    task1.move(task0)
+    IncrementalSyncAlgorithm(taskModel.taskHierarchy, task2treeItem, filter, {})
+      .sync(listOf(taskModel.rootTask, task0))
+    assertEquals(1, rootItem.children.size)
+    assertSame(item1, task2treeItem[task1])
+    assertSame(task2treeItem[task0], item1.parent)
+    assertSame(item2, item1.children.single())
+    assertEquals(4, task2treeItem.size)
+  }
+
+  @Test
+  fun `visible rows of the changed subtrees are spliced`() {
+    val taskModel = TestSetupHelper.newTaskManagerBuilder().build()
+    val task2treeItem = mutableMapOf<Task, TreeItem<Task>>()
+    val filter: TaskFilterFxn = {_, _ -> true }
+    val rootItem = TreeItem(taskModel.rootTask)
+    val summary0 = taskModel.newTaskBuilder().withName("Summary0").withParent(taskModel.rootTask).build()
+    val task00 = taskModel.newTaskBuilder().withName("Task00").withParent(summary0).build()
+    val summary1 = taskModel.newTaskBuilder().withName("Summary1").withParent(taskModel.rootTask).build()
+    val task10 = taskModel.newTaskBuilder().withName("Task10").withParent(summary1).build()
+    val collapsed = taskModel.newTaskBuilder().withName("Collapsed").withParent(taskModel.rootTask).build()
+    val hidden = taskModel.newTaskBuilder().withName("Hidden").withParent(collapsed).build()
+    val isExpanded = { task: Task -> task != collapsed }
+    SyncAlgorithm(taskModel.taskHierarchy, task2treeItem, rootItem, filter, {}).sync()
+    val visibleTasks = rootItem.visibleRows(isExpanded).toMutableList()
+    assertEquals(listOf(summary0, task00, summary1, task10, collapsed), visibleTasks)
+
+    fun sync(vararg containers: Task): Int {
+      val update = VisibleRowsUpdate(rootItem, isExpanded, { visibleTasks.indexOf(it.value) }, visibleTasks)
+      IncrementalSyncAlgorithm(taskModel.taskHierarchy, task2treeItem, filter, {}, update::onChildrenReplaced)
+        .sync(containers.toList())
+      assertEquals(rootItem.visibleRows(isExpanded), visibleTasks)
+      return update.touchedRowCount
+    }
+
+    val task01 = taskModel.newTaskBuilder().withName("Task01").withParent(summary0).withPrevSibling(task00).build()
+    sync(summary0)
+    assertEquals(listOf(summary0, task00, task01, summary1, task10, collapsed), visibleTasks)
+
+    // Unrelated containers
+    task00.move(summary1)
+    sync(summary0, summary1)
+    assertEquals(listOf(summary0, task01, summary1, task10, task00, collapsed), visibleTasks)
+
+    // Nested containers are covered by the top-most one
+    task10.move(task00)
+    sync(summary1, task00)
+    assertEquals(listOf(summary0, task01, summary1, task00, task10, collapsed), visibleTasks)
+
+    // Children of a collapsed task are not visible
+    taskModel.newTaskBuilder().withName("Hidden2").withParent(collapsed).withPrevSibling(hidden).build()
+    assertEquals(0, sync(collapsed))
+    assertEquals(listOf(summary0, task01, summary1, task00, task10, collapsed), visibleTasks)
+
+    // Only the inserted row is touched at the root level
+    val task2 = taskModel.newTaskBuilder().withName("Task2").withParent(taskModel.rootTask).withPrevSibling(summary1).build()
+    assertEquals(1, sync(taskModel.rootTask))
+    assertEquals(listOf(summary0, task01, summary1, task00, task10, task2, collapsed), visibleTasks)
+
+    // Appending to the root
+    val task3 = taskModel.newTaskBuilder().withName("Task3").withParent(taskModel.rootTask).build()
+    assertEquals(1, sync(taskModel.rootTask))
+    assertEquals(listOf(summary0, task01, summary1, task00, task10, task2, collapsed, task3), visibleTasks)
+
+    // Moving a summary task under a collapsed one only removes its rows
+    summary1.move(collapsed)
+    assertEquals(3, sync(taskModel.rootTask, collapsed))
+    assertEquals(listOf(summary0, task01, task2, collapsed, task3), visibleTasks)
+  }
+
+  @Test
+  fun `batch reports the containers of hierarchy changes`() {
+    val taskModel = TestSetupHelper.newTaskManagerBuilder().build()
+    val summary = taskModel.newTaskBuilder().withName("Summary").withParent(taskModel.rootTask).build()
+    val task = taskModel.newTaskBuilder().withName("Task").withParent(taskModel.rootTask).build()
+    val batchEvents = mutableListOf<TaskBatchEvent>()
+    var isBatchOpenOnMove = false
+    taskModel.addTaskListener(TaskListenerAdapter().also {
+      it.taskMovedHandler = { isBatchOpenOnMove = taskModel.isBatchOpen }
+      it.taskBatchChangedHandler = { e -> batchEvents.add(e) }
+    })
+    taskModel.startBatch().use { batch ->
+      task.move(summary)
+      batch.commit()
+    }
+    assertTrue(isBatchOpenOnMove)
+    assertFalse(taskModel.isBatchOpen)
+    assertEquals(setOf(taskModel.rootTask, summary), batchEvents.single().hierarchyContainers.toSet())
+  }
+}
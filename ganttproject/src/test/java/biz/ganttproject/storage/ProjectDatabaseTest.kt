@@ -31,6 +31,9 @@ import net.sourceforge.ganttproject.storage.*
 import net.sourceforge.ganttproject.task.CostStub
 import net.sourceforge.ganttproject.task.TaskManager
 import net.sourceforge.ganttproject.task.dependency.TaskDependency
+import net.sourceforge.ganttproject.task.event.TaskBatchEvent
+import net.sourceforge.ganttproject.task.event.TaskListenerAdapter
+import net.sourceforge.ganttproject.task.event.TaskPropertyEvent
 import net.sourceforge.ganttproject.task.dependency.constraint.FinishStartConstraintImpl
 import net.sourceforge.ganttproject.util.ColorConvertion
 import org.h2.jdbcx.JdbcDataSource
@@ -62,6 +65,7 @@ class ProjectDatabaseTest {
     }
     val taskManagerBuilder = TestSetupHelper.newTaskManagerBuilder()
     taskManagerBuilder.setTaskUpdateBuilderFactory { task -> projectDatabase.createTaskUpdateBuilder(task) }
+    taskManagerBuilder.setBatchTxnFactory { projectDatabase.startBatch() }
     taskManager = taskManagerBuilder.build()
     dsl = DSL.using(dataSource, SQLDialect.H2)
   }
@@ -773,6 +777,80 @@ class ProjectDatabaseTest {
     }
   }
 
+  @Test
+  fun `batch collects task updates into one transaction`() {
+    projectDatabase.init()
+    val task1 = taskManager.newTaskBuilder().withUid("someuid1").withId(1).withName("Name1").build()
+    val task2 = taskManager.newTaskBuilder().withUid("someuid2").withId(2).withName("Name2").build()
+    projectDatabase.insertTask(task1)
+    projectDatabase.insertTask(task2)
+
+    val batchEvents = mutableListOf<TaskBatchEvent>()
+    val propertyEvents = mutableListOf<TaskPropertyEvent>()
+    taskManager.addTaskListener(TaskListenerAdapter().also {
+      it.taskBatchChangedHandler = { e -> batchEvents.add(e) }
+      it.taskPropertiesChangedHandler = { e -> propertyEvents.add(e) }
+    })
+    var allEventsCount = 0
+    taskManager.addTaskListener(TaskListenerAdapter { allEventsCount++ })
+    taskManager.startBatch().use { batch ->
+      task1.createMutator().also { it.setName("Name3") }.commit()
+      task2.createMutator().also { it.setName("Name4") }.commit()
+      task1.createMutator().also { it.setNotes("Notes") }.commit()
+      batch.commit()
+    }
+
+    val txns = projectDatabase.fetchTransactions(limit = 10)
+    assertEquals(3, txns.size)
+    assertEquals(3, txns[2].colloboqueOperations.size)
+    assertTrue(propertyEvents.isEmpty())
+    assertEquals(1, batchEvents.size)
+    assertEquals(listOf(task1, task2), batchEvents[0].tasks.toList())
+    assertEquals(1, allEventsCount)
+  }
+
+  @Test
+  fun `batch which was not committed is rolled back`() {
+    projectDatabase.init()
+    val task1 = taskManager.newTaskBuilder().withUid("someuid1").withId(1).withName("Name1").build()
+    projectDatabase.insertTask(task1)
+
+    val batchEvents = mutableListOf<TaskBatchEvent>()
+    taskManager.addTaskListener(TaskListenerAdapter().also {
+      it.taskBatchChangedHandler = { e -> batchEvents.add(e) }
+    })
+    assertThrows<IllegalStateException> {
+      taskManager.startBatch().use {
+        task1.createMutator().also { it.setName("Name3") }.commit()
+        throw IllegalStateException()
+      }
+    }
+
+    assertEquals(1, projectDatabase.fetchTransactions(limit = 10).size)
+    // The task has changed in memory, so the listeners are notified anyway
+    assertEquals(1, batchEvents.size)
+    projectDatabase.startTransaction()
+  }
+
+  @Test
+  fun `transaction started inside a batch joins it`() {
+    projectDatabase.init()
+    val task1 = taskManager.newTaskBuilder().withUid("someuid1").withId(1).withName("Name1").build()
+    projectDatabase.insertTask(task1)
+
+    taskManager.startBatch().use { batch ->
+      val txn = projectDatabase.startTransaction()
+      task1.createMutator().also { it.setName("Name3") }.commit()
+      txn.commit()
+      task1.createMutator().also { it.setNotes("Notes") }.commit()
+      batch.commit()
+    }
+
+    val txns = projectDatabase.fetchTransactions(limit = 10)
+    assertEquals(2, txns.size)
+    assertEquals(2, txns[1].colloboqueOperations.size)
+  }
+
   @Test
   fun `rollback clears current transaction`() {
     projectDatabase.init()
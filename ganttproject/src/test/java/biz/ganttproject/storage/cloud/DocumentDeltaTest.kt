@@ -0,0 +1,70 @@
+/*
+Copyright 2026 BarD Software s.r.o., GanttProject Team
+
+This file is part of GanttProject, an opensource project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package biz.ganttproject.storage.cloud
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import java.io.IOException
+
+class DocumentDeltaTest {
+  private fun buildProject(taskCount: Int, nameOf: (Int) -> String = { "Task $it" }) = buildString {
+    append("<project>\n")
+    for (i in 0 until taskCount) {
+      append("""  <task id="$i" name="${nameOf(i)}" start="2026-01-${i % 28 + 1}" duration="${i % 7 + 1}" complete="${i % 100}"/>""")
+      append("\n")
+    }
+    append("</project>\n")
+  }.toByteArray()
+
+  @Test
+  fun `delta of a small change is small`() {
+    val base = buildProject(5000)
+    val target = buildProject(5000) { if (it == 2500) "Renamed task" else "Task $it" }
+    val delta = DocumentDelta.diff(base, target)
+    assertArrayEquals(target, DocumentDelta.apply(base, delta))
+    assertTrue(delta.size < base.size / 8, "Delta size=${delta.size}, document size=${base.size}")
+  }
+
+  @Test
+  fun `shifted chunks are copied from the base`() {
+    val base = buildProject(5000)
+    val target = "<!-- Inserted comment -->\n".toByteArray() + base.copyOfRange(0, base.size / 2) +
+      base.copyOfRange(base.size / 2 + 1000, base.size)
+    val delta = DocumentDelta.diff(base, target)
+    assertArrayEquals(target, DocumentDelta.apply(base, delta))
+    assertTrue(delta.size < base.size / 8, "Delta size=${delta.size}, document size=${base.size}")
+  }
+
+  @Test
+  fun `delta of the unrelated documents carries the whole target`() {
+    val target = buildProject(10)
+    val delta = DocumentDelta.diff(ByteArray(0), target)
+    assertArrayEquals(target, DocumentDelta.apply(ByteArray(0), delta))
+    assertArrayEquals(ByteArray(0), DocumentDelta.apply(target, DocumentDelta.diff(target, ByteArray(0))))
+  }
+
+  @Test
+  fun `delta which doesn't match the base is rejected`() {
+    val base = buildProject(5000)
+    val delta = DocumentDelta.diff(base, buildProject(5000) { if (it == 100) "Renamed task" else "Task $it" })
+    assertThrows<IOException> { DocumentDelta.apply(base.copyOfRange(0, 100), delta) }
+    assertThrows<IOException> { DocumentDelta.apply(base, delta.copyOfRange(0, delta.size - 1)) }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+Copyright 2026 BarD Software s.r.o., GanttProject Team
+
+This file is part of GanttProject, an opensource project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.sourceforge.ganttproject
+
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.io.File
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.Executor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+
+class StartupTest {
+  @TempDir
+  lateinit var homeDir: File
+  private lateinit var savedUserHome: String
+
+  @BeforeEach
+  fun setUp() {
+    savedUserHome = System.getProperty("user.home")
+    System.setProperty("user.home", homeDir.absolutePath)
+  }
+
+  @AfterEach
+  fun tearDown() {
+    System.setProperty("user.home", savedUserHome)
+  }
+
+  @Test
+  fun `options are loaded from the prefetched contents once`() {
+    val optionsFile = GanttOptions.getOptionsFile()
+    optionsFile.writeText("<ganttproject-options/>")
+    GanttOptions.prefetch(Runnable::run)
+    optionsFile.writeText("<ganttproject-options version=\"2\"/>")
+
+    assertEquals("<ganttproject-options/>", String(GanttOptions.takeOptionsFileContents()))
+    // The next load reads the file again
+    assertEquals("<ganttproject-options version=\"2\"/>", String(GanttOptions.takeOptionsFileContents()))
+  }
+
+  @Test
+  fun `options load waits for the prefetch in flight`() {
+    GanttOptions.getOptionsFile().writeText("<ganttproject-options/>")
+    val prefetchTasks = mutableListOf<Runnable>()
+    GanttOptions.prefetch(Executor { prefetchTasks.add(it) })
+
+    val contents = CompletableFuture.supplyAsync { GanttOptions.takeOptionsFileContents() }
+    assertThrows(TimeoutException::class.java) { contents.get(100, TimeUnit.MILLISECONDS) }
+    prefetchTasks.forEach(Runnable::run)
+    assertEquals("<ganttproject-options/>", String(contents.get(5, TimeUnit.SECONDS)))
+  }
+
+  @Test
+  fun `missing options file is prefetched as no contents`() {
+    GanttOptions.prefetch(Runnable::run)
+    assertNull(GanttOptions.takeOptionsFileContents())
+  }
+
+  @Test
+  fun `report lists the phases and milestones`() {
+    assertEquals(42, StartupTimings.measure("Test phase") { 42 })
+    assertThrows(IllegalStateException::class.java) {
+      StartupTimings.measure("Failed test phase") { error("Failed") }
+    }
+    StartupTimings.mark("Test milestone")
+
+    val thread = Thread.currentThread().name
+    assertTrue(StartupTimings.getPhases().any { it.name == "Test phase" && it.thread == thread })
+    // Failed phases are recorded too
+    assertTrue(StartupTimings.getPhases().any { it.name == "Failed test phase" })
+    val report = StartupTimings.report()
+    assertTrue(report.contains(Regex("""Test phase\s+\d+ \+\s*\d+ \[\Q$thread\E]""")), report)
+    assertTrue(report.contains(Regex("""\*\* Test milestone\s+\d+"""), report)
+  }
+}
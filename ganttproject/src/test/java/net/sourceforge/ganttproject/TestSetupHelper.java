@@ -16,10 +16,12 @@ import net.sourceforge.ganttproject.resource.HumanResourceManager;
 import net.sourceforge.ganttproject.roles.RoleManager;
 import net.sourceforge.ganttproject.roles.RoleManagerImpl;
 import net.sourceforge.ganttproject.storage.ProjectDatabase.TaskUpdateBuilder;
+import net.sourceforge.ganttproject.storage.ProjectDatabaseTxn;
 import net.sourceforge.ganttproject.task.*;
 
 import java.awt.*;
 import java.net.URL;
+import java.util.function.Supplier;
 
 public class TestSetupHelper {
     public static class TaskManagerBuilder implements TaskManagerConfig {
@@ -36,6 +38,7 @@ public class TestSetupHelper {
         private DefaultBooleanOption mySchedulerDisabledOption = new DefaultBooleanOption("scheduler.disabled", false);
 
         private TaskUpdateBuilder.Factory taskUpdateBuilderFactory = null;
+        private Supplier<ProjectDatabaseTxn> batchTxnFactory = null;
 
         public TaskManagerBuilder() {
             myTimeUnitStack = new GPTimeUnitStack();
@@ -79,7 +82,7 @@ public class TestSetupHelper {
         }
 
         public TaskManager build() {
-            return TaskManager.Access.newInstance(null, this, taskUpdateBuilderFactory);
+            return TaskManager.Access.newInstance(null, this, taskUpdateBuilderFactory, batchTxnFactory);
         }
 
         @Override
@@ -95,6 +98,10 @@ public class TestSetupHelper {
       public void setTaskUpdateBuilderFactory(TaskUpdateBuilder.Factory factory) {
           taskUpdateBuilderFactory = factory;
       }
+
+      public void setBatchTxnFactory(Supplier<ProjectDatabaseTxn> factory) {
+          batchTxnFactory = factory;
+      }
     }
 
     public static TaskManagerBuilder newTaskManagerBuilder() {
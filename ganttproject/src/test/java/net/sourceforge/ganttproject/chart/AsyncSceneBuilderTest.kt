@@ -0,0 +1,137 @@
+/*
+Copyright 2026 BarD Software s.r.o., GanttProject Team
+
+This file is part of GanttProject, an opensource project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.sourceforge.ganttproject.chart
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.util.concurrent.CancellationException
+import java.util.concurrent.Executor
+import java.util.function.BooleanSupplier
+
+class AsyncSceneBuilderTest {
+  private class Scene {
+    var state = -1
+    var builtState = -1
+  }
+
+  private class ManualExecutor : Executor {
+    val tasks = ArrayDeque<Runnable>()
+    override fun execute(command: Runnable) {
+      tasks.add(command)
+    }
+    fun runAll() {
+      while (tasks.isNotEmpty()) tasks.removeFirst().run()
+    }
+  }
+
+  private val worker = ManualExecutor()
+  private val edt = ManualExecutor()
+  private var now = 0L
+  private var liveState = 0
+  private var failure: Throwable? = null
+  private var builds = 0
+  private var repaints = 0
+
+  private val builder = AsyncSceneBuilder(object : AsyncSceneBuilder.Snapshots<Scene> {
+    override fun create() = Scene()
+    override fun update(snapshot: Scene) {
+      snapshot.state = liveState
+    }
+    override fun build(snapshot: Scene, isCancelled: BooleanSupplier) {
+      builds++
+      failure?.let { throw it }
+      if (isCancelled.asBoolean) {
+        throw CancellationException()
+      }
+      snapshot.builtState = snapshot.state
+    }
+  }, { repaints++ }, worker, edt, { now })
+
+  private fun finishBuild() {
+    worker.runAll()
+    edt.runAll()
+  }
+
+  @Test
+  fun `frames are published while paints keep coming`() {
+    assertNull(builder.requestFrame())
+    now += 2 * AsyncSceneBuilder.MAX_FRAME_AGE_MS
+    liveState = 1
+    // The screen has no fresh frame, so this paint lets the running build complete
+    assertNull(builder.requestFrame())
+    finishBuild()
+    assertEquals(1, repaints)
+    assertEquals(0, builder.frame!!.builtState)
+    // The follow-up build for the second paint has started already
+    assertEquals(1, worker.tasks.size)
+
+    // The repaint caused by the completed frame doesn't request a new one
+    assertEquals(0, builder.requestFrame()!!.builtState)
+    finishBuild()
+    assertEquals(2, repaints)
+    assertEquals(1, builder.frame!!.builtState)
+    assertTrue(worker.tasks.isEmpty())
+    assertEquals(1, builder.requestFrame()!!.builtState)
+  }
+
+  @Test
+  fun `superseded build is cancelled when the frame on the screen is fresh`() {
+    builder.requestFrame()
+    finishBuild()
+    builder.requestFrame()
+
+    liveState = 1
+    builder.requestFrame()
+    liveState = 2
+    builder.requestFrame()
+    worker.runAll()
+    assertEquals(2, builds)
+    edt.runAll()
+    // The cancelled build published nothing, and the follow-up build starts from the fresh state
+    assertEquals(1, repaints)
+    assertEquals(0, builder.frame!!.builtState)
+    assertEquals(1, worker.tasks.size)
+    finishBuild()
+    assertEquals(3, builds)
+    assertEquals(2, repaints)
+    assertEquals(2, builder.frame!!.builtState)
+  }
+
+  @Test
+  fun `failed build falls back to the synchronous painting`() {
+    builder.requestFrame()
+    finishBuild()
+    builder.requestFrame()
+
+    failure = StackOverflowError()
+    builder.requestFrame()
+    finishBuild()
+    assertEquals(2, repaints)
+    assertNull(builder.frame)
+    assertNull(builder.requestFrame())
+    assertTrue(worker.tasks.isEmpty())
+
+    // The builder is not stuck and the next paint starts a new build
+    failure = null
+    liveState = 1
+    assertNull(builder.requestFrame())
+    finishBuild()
+    assertEquals(1, builder.frame!!.builtState)
+  }
+}
@@ -0,0 +1,55 @@
+/*
+Copyright 2026 BarD Software s.r.o., GanttProject Team
+
+This file is part of GanttProject, an opensource project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.sourceforge.ganttproject.chart
+
+import biz.ganttproject.core.option.DefaultFontOption
+import biz.ganttproject.core.option.DefaultIntegerOption
+import biz.ganttproject.core.option.FontSpec
+import net.sourceforge.ganttproject.GanttPreviousStateTask
+import net.sourceforge.ganttproject.TestSetupHelper
+import net.sourceforge.ganttproject.gui.UIConfiguration
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.awt.Color
+
+class ChartModelImplTest {
+  private val taskManagerConfig = TestSetupHelper.newTaskManagerBuilder()
+  private val taskManager = taskManagerConfig.build()
+  private val projectConfig = UIConfiguration(Color.BLUE, false).also {
+    it.chartFontOption = DefaultFontOption("chartFontSpec", FontSpec("Dialog", FontSpec.Size.NORMAL), listOf("Dialog"))
+    it.dpiOption = DefaultIntegerOption("screenDpi", 96)
+  }
+  private val model = ChartModelImpl(taskManager, taskManagerConfig.timeUnitStack, projectConfig)
+
+  @Test
+  fun `copies and snapshots account for the baseline in the row height`() {
+    val heightWithoutBaseline = model.calculateRowHeight()
+    val heightWithBaseline = model.setBaseline(listOf(
+      GanttPreviousStateTask(1, TestSetupHelper.newMonday(), 2, false, false)
+    ))
+    assertTrue(heightWithBaseline > heightWithoutBaseline)
+
+    val copy = model.createCopy() as ChartModelImpl
+    assertEquals(heightWithBaseline, copy.calculatedRowHeight)
+
+    val snapshot = model.createSnapshot() as ChartModelImpl
+    model.updateSnapshot(snapshot)
+    assertEquals(heightWithBaseline, snapshot.calculatedRowHeight)
+  }
+}
@@ -0,0 +1,61 @@
+/*
+Copyright 2026 BarD Software s.r.o., GanttProject Team
+
+This file is part of GanttProject, an opensource project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.sourceforge.ganttproject.chart.gantt
+
+import biz.ganttproject.core.calendar.GPCalendar
+import biz.ganttproject.core.calendar.WeekendCalendarImpl
+import net.sourceforge.ganttproject.GanttPreviousStateTask
+import net.sourceforge.ganttproject.TestSetupHelper
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.util.*
+
+class BaselineIndexTest {
+  private val calendar = WeekendCalendarImpl()
+  private val taskManager = TestSetupHelper.newTaskManagerBuilder().withCalendar(calendar).build()
+
+  private fun buildIndex(vararg tasks: GanttPreviousStateTask) =
+    BaselineIndex(tasks.toList(), calendar) { taskManager.createLength(it.toLong()) }
+
+  @Test
+  fun `end dates skip the weekends`() {
+    val index = buildIndex(
+      GanttPreviousStateTask(1, TestSetupHelper.newFriday(), 2, false, false),
+      GanttPreviousStateTask(2, TestSetupHelper.newMonday(), 1, false, false)
+    )
+    assertEquals(TestSetupHelper.newTuesday().time, index[1]!!.end)
+    assertEquals(TestSetupHelper.newTuesday().time, index[2]!!.end)
+    assertNull(index[3])
+
+    assertEquals(0, index[1]!!.compareEnd(TestSetupHelper.newTuesday().time))
+    assertTrue(index[1]!!.compareEnd(TestSetupHelper.newWendesday().time) < 0)
+    assertTrue(index[1]!!.compareEnd(TestSetupHelper.newMonday().time) > 0)
+  }
+
+  @Test
+  fun `index is outdated when the calendar changes`() {
+    val index = buildIndex(GanttPreviousStateTask(1, TestSetupHelper.newFriday(), 2, false, false))
+    assertTrue(index.isUpToDate(calendar))
+
+    calendar.setWeekDayType(GregorianCalendar.SATURDAY, GPCalendar.DayType.WORKING)
+    assertFalse(index.isUpToDate(calendar))
+    val rebuilt = buildIndex(*index.tasks.toTypedArray())
+    assertTrue(rebuilt[1]!!.end.before(index[1]!!.end))
+  }
+}
@@ -0,0 +1,63 @@
+/*
+Copyright 2026 BarD Software s.r.o., GanttProject Team
+
+This file is part of GanttProject, an opensource project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.sourceforge.ganttproject.chart.gantt
+
+import biz.ganttproject.core.option.DefaultFontOption
+import biz.ganttproject.core.option.DefaultIntegerOption
+import biz.ganttproject.core.option.FontSpec
+import net.sourceforge.ganttproject.TestSetupHelper
+import net.sourceforge.ganttproject.chart.ChartModelImpl
+import net.sourceforge.ganttproject.gui.UIConfiguration
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.awt.Color
+
+class GanttChartSceneDataTest {
+  private val taskManagerConfig = TestSetupHelper.newTaskManagerBuilder()
+  private val taskManager = taskManagerConfig.build()
+  private val projectConfig = UIConfiguration(Color.BLUE, false).also {
+    it.chartFontOption = DefaultFontOption("chartFontSpec", FontSpec("Dialog", FontSpec.Size.NORMAL), listOf("Dialog"))
+    it.dpiOption = DefaultIntegerOption("screenDpi", 96)
+  }
+  private val model = ChartModelImpl(taskManager, taskManagerConfig.timeUnitStack, projectConfig)
+
+  @Test
+  fun `only the dependency ends are copied outside the viewport`() {
+    val above = taskManager.newTaskBuilder().withId(1).withName("above").build()
+    val unrelatedAbove = taskManager.newTaskBuilder().withId(2).withName("unrelated above").build()
+    val visible = taskManager.newTaskBuilder().withId(3).withName("visible").build()
+    val collapsed = taskManager.newTaskBuilder().withId(4).withName("collapsed").withExpansionState(false).build()
+    val hidden = taskManager.newTaskBuilder().withId(5).withName("hidden").withParent(collapsed).build()
+    val below = taskManager.newTaskBuilder().withId(6).withName("below").build()
+    val unrelatedBelow = taskManager.newTaskBuilder().withId(7).withName("unrelated below").build()
+    taskManager.dependencyCollection.createDependency(visible, above)
+    taskManager.dependencyCollection.createDependency(hidden, visible)
+    taskManager.dependencyCollection.createDependency(below, visible)
+    taskManager.dependencyCollection.createDependency(unrelatedBelow, unrelatedAbove)
+
+    val sceneData = captureSceneData(model, listOf(visible), emptyList())
+
+    assertEquals(listOf(3), sceneData.visibleTaskSceneTasks.map { it.rowId })
+    assertEquals(listOf(1, 3, 6), sceneData.tasksInDocumentOrder.map { it.rowId })
+    val partitioning = sceneData.createVerticalPartitioning()
+    partitioning.build(sceneData.tasksInDocumentOrder)
+    assertEquals(listOf(1), partitioning.aboveViewport.map { it.rowId })
+    assertEquals(listOf(6), partitioning.belowViewport.map { it.rowId })
+  }
+}
@@ -0,0 +1,57 @@
+/*
+Copyright 2026 BarD Software s.r.o., GanttProject Team
+
+This file is part of GanttProject, an opensource project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.sourceforge.ganttproject.export
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.io.File
+import java.io.IOException
+
+class BatchExportApplicationTest {
+  @Test
+  fun `input files are collected from the command line and the directory`(@TempDir dir: File) {
+    File(dir, "b.gan").writeText("<project/>")
+    File(dir, "a.gan").writeText("<project/>")
+    File(dir, "notes.txt").writeText("")
+    File(dir, "nested.gan").mkdir()
+
+    val files = BatchExportApplication.collectInputFiles(listOf("first.gan"), dir)
+    assertEquals(listOf("first.gan", "a.gan", "b.gan"), files.map { it.name })
+    assertEquals(listOf("first.gan"), BatchExportApplication.collectInputFiles(listOf("first.gan"), null).map { it.name })
+  }
+
+  @Test
+  fun `report lists the failures`() {
+    val report = buildReport(listOf(
+      BatchExportResult(File("a.gan"), File("a.pdf"), loadMs = 10, exportMs = 20),
+      BatchExportResult(File("b.gan"), null, loadMs = 5, exportMs = 0, error = IOException("Broken file"))
+    ), totalMs = 40)
+    assertTrue(report.startsWith("Exported 1 of 2 projects in 40 ms"), report)
+    assertTrue(report.contains("FAILED: Broken file"), report)
+  }
+
+  @Test
+  fun `inputs with the same name get distinct output names`() {
+    val names = outputBaseNames(listOf(
+      File("q1/plan.gan"), File("q2/plan.gan"), File("q3/Plan.gan"), File("plan-2.gan"), File("other.gan")
+    ))
+    assertEquals(listOf("plan", "plan-2", "Plan-3", "plan-2-2", "other"), names)
+  }
+}
@@ -0,0 +1,98 @@
+/*
+Copyright 2026 BarD Software s.r.o, GanttProject Team
+
+This file is part of GanttProject, an open-source project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.sourceforge.ganttproject.search
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Test
+
+class SearchIndexTest {
+  private val names = mutableMapOf<Int, String>()
+  private val notes = mutableMapOf<Int, String>()
+  private val index = SearchIndex<Int>()
+  private var fullIndexCount = 0
+  private val indexedObjects = mutableListOf<Int>()
+
+  private val source = object : SearchIndex.Source<Int> {
+    override fun size() = names.size
+    override fun getAll() = names.keys.toList().also { fullIndexCount++ }
+    override fun contains(obj: Int) = names.containsKey(obj)
+    override fun index(obj: Int): List<SearchIndex.Field> {
+      indexedObjects.add(obj)
+      return listOf(SearchIndex.Field(null, names[obj]), SearchIndex.Field("notes", notes[obj]))
+    }
+  }
+
+  private fun search(query: String) = index.search(query, source)
+
+  @Test
+  fun `hits are ranked by the match position`() {
+    names[1] = "Prepare the specification"
+    names[2] = "Specification review"
+    names[3] = "Respecify"
+    names[4] = "Testing"
+    notes[4] = "See the spec"
+
+    val hits = search("spec")
+    assertEquals(listOf(2, 1, 3, 4), hits.map { it.`object` })
+    assertNull(hits[0].snippet)
+    assertEquals("notes", hits[3].snippet.label)
+    assertEquals(listOf(4), search("te").filter { it.score == 0 }.map { it.`object` })
+  }
+
+  @Test
+  fun `dirty objects are re-indexed before search`() {
+    names[1] = "Design"
+    names[2] = "Coding"
+    assertEquals(listOf(1), search("des").map { it.`object` })
+
+    names[1] = "Architecture"
+    assertEquals(listOf(1), search("des").map { it.`object` })
+    index.markDirty(1)
+    assertEquals(listOf<Int>(), search("des").map { it.`object` })
+    assertEquals(listOf(1), search("arch").map { it.`object` })
+
+    names[3] = "Deployment"
+    index.markDirty(3)
+    assertEquals(listOf(3), search("deploy").map { it.`object` })
+  }
+
+  @Test
+  fun `removed objects are dropped without rebuilding the index`() {
+    names[1] = "Design"
+    names[2] = "Design review"
+    names[3] = "Coding"
+    assertEquals(listOf(1, 2), search("des").map { it.`object` })
+    assertEquals(1, fullIndexCount)
+
+    names.remove(2)
+    names.remove(3)
+    index.markRemoved()
+    indexedObjects.clear()
+    assertEquals(listOf(1), search("des").map { it.`object` })
+    assertEquals(listOf<Int>(), search("cod").map { it.`object` })
+    assertEquals(1, fullIndexCount)
+    assertEquals(listOf<Int>(), indexedObjects)
+
+    // A change which came without events is still noticed
+    names[4] = "Deployment"
+    assertEquals(listOf(4), search("deploy").map { it.`object` })
+    assertEquals(2, fullIndexCount)
+  }
+}
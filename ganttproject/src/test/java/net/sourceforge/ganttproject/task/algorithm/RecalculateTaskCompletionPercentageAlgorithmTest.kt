@@ -0,0 +1,66 @@
+/*
+Copyright 2026 BarD Software s.r.o., GanttProject Team
+
+This file is part of GanttProject, an opensource project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.sourceforge.ganttproject.task.algorithm
+
+import net.sourceforge.ganttproject.TestSetupHelper
+import net.sourceforge.ganttproject.task.Task
+import net.sourceforge.ganttproject.task.TaskManagerImpl
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+
+class RecalculateTaskCompletionPercentageAlgorithmTest {
+  private val taskManager = TestSetupHelper.newTaskManagerBuilder().build() as TaskManagerImpl
+  private val project = taskManager.newTaskBuilder().withName("Project").build()
+  private val summaryA = taskManager.newTaskBuilder().withName("A").withParent(project).build()
+  private val taskA = taskManager.newTaskBuilder().withName("A1").withParent(summaryA).build()
+  private val summaryB = taskManager.newTaskBuilder().withName("B").withParent(project).build()
+  private val taskB = taskManager.newTaskBuilder().withName("B1").withParent(summaryB).build()
+
+  private fun Task.setCompletion(percentage: Int) = createMutator().let {
+    it.setCompletionPercentage(percentage)
+    it.commit()
+  }
+
+  @Test
+  fun `changes made while the events are off are not lost`() {
+    taskA.setCompletion(50)
+    assertEquals(25, project.completionPercentage)
+
+    taskManager.setEventsEnabled(false)
+    taskA.setCompletion(100)
+    taskManager.setEventsEnabled(true)
+    taskB.setCompletion(100)
+    assertEquals(100, summaryA.completionPercentage)
+    assertEquals(100, project.completionPercentage)
+  }
+
+  @Test
+  fun `changes made while the algorithm is disabled are not lost`() {
+    val algorithm = taskManager.algorithmCollection.recalculateTaskCompletionPercentageAlgorithm
+    taskA.setCompletion(50)
+    assertEquals(25, project.completionPercentage)
+
+    algorithm.isEnabled = false
+    taskA.setCompletion(100)
+    algorithm.isEnabled = true
+    taskB.setCompletion(100)
+    assertEquals(100, summaryA.completionPercentage)
+    assertEquals(100, project.completionPercentage)
+  }
+}
@@ -41,7 +41,9 @@ import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * PERT chart implementation where nodes are tasks and links succession
@@ -62,10 +64,10 @@ public class ActivityOnNodePertChart extends PertChart {
   /** List of graphical nodes (in relation with abstract nodes) */
   private List<GraphicalNode> myGraphicalNodes;
 
-  // private Map myMapPositionListOfNodes;
+  /** Graphical nodes by the abstract node ID. */
+  private Map<Integer, GraphicalNode> myNodesById;
 
-  /** Number of columns */
-  private int nbCols;
+  // private Map myMapPositionListOfNodes;
 
   /** PERT chart abstraction used to build graph. */
   private PertChartAbstraction myPertAbstraction;
@@ -292,17 +294,20 @@ public class ActivityOnNodePertChart extends PertChart {
       myPertAbstraction = new PertChartAbstraction(myTaskManager);
       myTaskGraphNodes = myPertAbstraction.getTaskGraphNodes();
       myGraphicalNodes = new ArrayList<>();
+      myNodesById = new HashMap<>();
       myGraphicalArrows = new ArrayList<>();
       // myMapPositionListOfNodes = new HashMap();
       // rowsList = new HashMap();
-      nbCols = 0;
       setBackground(Color.WHITE);
-      this.process();
-      // System.out.println("Position correction");
-      // correctPositionBecauseOfSuperTasks();
-      avoidCrossingNode();
-      avoidCrossingLine();
-      removeEmptyColumn();
+      PertLayout<TaskGraphNode> layout = new PertLayout<>(myTaskGraphNodes, TaskGraphNode::getSuccessors);
+      layout.layout();
+      for (TaskGraphNode tgn : myTaskGraphNodes) {
+        GraphicalNode gnode = new GraphicalNode(tgn);
+        gnode.row = layout.getRow(tgn);
+        gnode.col = layout.getColumn(tgn);
+        myGraphicalNodes.add(gnode);
+        myNodesById.put(tgn.getID(), gnode);
+      }
       calculateGraphicalNodesCoordinates();
       calculateArrowsCoordinates();
       setPreferredSize(new Dimension(getMaxX(), getMaxY()));
@@ -325,15 +330,6 @@ public class ActivityOnNodePertChart extends PertChart {
     }
   }
 
-  private boolean isZeroPosition(TaskGraphNode taskGraphNode) {
-    for (TaskGraphNode t : myTaskGraphNodes) {
-      if (t.getSuccessors().contains(taskGraphNode)) {
-        return false;
-      }
-    }
-    return true;
-  }
-
   private int getGridX(int x) {
     int res = getxOffset();
     int tmp = 0;
@@ -354,297 +350,8 @@ public class ActivityOnNodePertChart extends PertChart {
     return tmp;
   }
 
-  private void process() {
-    for (TaskGraphNode tgn : myTaskGraphNodes) {
-      if (isZeroPosition(tgn)) {
-        add(0, new GraphicalNode(tgn));
-      }
-    }
-
-    // TODO Translate:
-    // ici tous les 0 position sont faits.
-    int col = 0;
-    List<TaskGraphNode> l = getNodesThatAreInASpecificSuccessorPosition(col);
-    while (l != null) {
-      for (TaskGraphNode tnode : l) {
-        GraphicalNode gnode = getGraphicalNodeByID(tnode.getID());
-        if (gnode == null) {
-          gnode = createGraphicalNode(tnode);
-        } else {
-          remove(gnode);
-        }
-        add(col + 1, gnode);
-      }
-      col++;
-      l = getNodesThatAreInASpecificSuccessorPosition(col);
-    }
-  }
-
-  /**
-   * Creates or gets the graphical node corresponding to the taskGrahNode
-   *
-   * @param taskGraphNode
-   */
-  private GraphicalNode createGraphicalNode(TaskGraphNode taskGraphNode) {
-    GraphicalNode res = getGraphicalNodeByID(taskGraphNode.getID());
-    if (res != null) {
-      return res;
-    }
-    return new GraphicalNode(taskGraphNode);
-  }
-
-  private void moveDown(GraphicalNode graphicalNode) {
-    int row = graphicalNode.row;
-    while (this.isOccupied(++row, graphicalNode.col)) {
-      // yup, the body is empty. But there is ++row above.
-    }
-    graphicalNode.row = row;
-  }
-
-  private GraphicalNode getNode(int row, int col) {
-    for (GraphicalNode node : getNodeInColumn(col)) {
-      if (node.row == row) {
-        return node;
-      }
-    }
-    return null;
-  }
-
-  private void moveRight(GraphicalNode graphicalNode) {
-    for (TaskGraphNode successor : graphicalNode.node.getSuccessors()) {
-      moveRight(getGraphicalNodeByID(successor.getID()));
-    }
-    int newCol = graphicalNode.col + 1;
-    if (isOccupied(graphicalNode.row, newCol)) {
-      moveRight(getNode(graphicalNode.row, newCol));
-    }
-    graphicalNode.col = newCol;
-    if (newCol == nbCols) {
-      this.nbCols++;
-    }
-  }
-
-  private void remove(GraphicalNode graphicalNode) {
-    myGraphicalNodes.remove(graphicalNode);
-
-    if (graphicalNode.col == -1) {
-      return;
-    }
-
-    for (GraphicalNode gnode : getNodeInColumn(graphicalNode.col)) {
-      if (gnode.row > graphicalNode.row) {
-        gnode.row--;
-      }
-    }
-
-    // int iNbRow = ((Integer)this.rowsList.get(new
-    // Integer(graphicalNode.col))).intValue();
-    // rowsList.put(new Integer(graphicalNode.col), new Integer(iNbRow-1));
-
-    if (graphicalNode.col == nbCols - 1) {
-      List<GraphicalNode> list = getNodeInColumn(this.nbCols - 1);
-      while (list.size() == 0) {
-        nbCols--;
-        list = getNodeInColumn(nbCols - 1);
-      }
-    }
-
-    graphicalNode.row = -1;
-    graphicalNode.col = -1;
-  }
-
   private GraphicalNode getGraphicalNodeByID(int id) {
-    for (GraphicalNode gn : myGraphicalNodes) {
-      if (gn.node.getID() == id) {
-        return gn;
-      }
-    }
-    return null;
-  }
-
-  // TODO Translate:
-  /** ajoute la graphical node dans la map position/liste des successeurs */
-  private void add(int col, GraphicalNode graphicalNode) {
-    myGraphicalNodes.remove(graphicalNode);
-
-    if (nbCols - 1 < col) {
-      nbCols = col + 1;
-    }
-
-    int row = 0;
-    while (isOccupied(row, col)) {
-      row++;
-    }
-
-    graphicalNode.row = row;
-    graphicalNode.col = col;
-
-    myGraphicalNodes.add(graphicalNode);
-
-    // rowsList.put(new Integer(col), new Integer(iNbRow+1));
-  }
-
-  private List<TaskGraphNode> getNodesThatAreInASpecificSuccessorPosition(int col) {
-    List<GraphicalNode> graphicaleNodes = getNodeInColumn(col);
-    if (graphicaleNodes.size() == 0) {
-      return null;
-    }
-
-    List<TaskGraphNode> res = new ArrayList<>();
-    for (GraphicalNode gn : graphicaleNodes) {
-      res.addAll(gn.node.getSuccessors());
-    }
-
-    return res;
-  }
-
-  /**
-   * Get the list of GraphicalNode that are in a column.
-   *
-   * @param col
-   *          the column number to look in
-   * @return the list of GraphicalNode in the col
-   */
-  private List<GraphicalNode> getNodeInColumn(int col) {
-    List<GraphicalNode> list = new ArrayList<>();
-    for (GraphicalNode gnode : myGraphicalNodes) {
-      if (gnode.col == col) {
-        list.add(gnode);
-      }
-    }
-    return list;
-  }
-
-  private boolean isOccupied(int row, int col) {
-    for (GraphicalNode gnode : getNodeInColumn(col)) {
-      if (gnode.row == row) {
-        return true;
-      }
-    }
-    return false;
-  }
-
-  private List<TaskGraphNode> getAncestor(TaskGraphNode tgn) {
-    List<TaskGraphNode> ancestors = new ArrayList<>();
-    for (TaskGraphNode tnode : myTaskGraphNodes) {
-      List<TaskGraphNode> successor = tnode.getSuccessors();
-      if (successor.contains(tgn)) {
-        ancestors.add(tnode);
-      }
-    }
-    return ancestors;
-  }
-
-  private boolean isCrossingNode(GraphicalNode gnode) {
-    for (TaskGraphNode ancestor : getAncestor(gnode.node)) {
-      GraphicalNode gancestor = getGraphicalNodeByID(ancestor.getID());
-      if (gancestor.col < gnode.col - 1) {
-        for (int col = gnode.col - 1; col > gancestor.col; col--) {
-          if (this.isOccupied(gnode.row, col)) {
-            return true;
-          }
-        }
-      }
-    }
-    return false;
-  }
-
-  private void avoidCrossingNode() {
-    if (nbCols == 0) {
-      return;
-    }
-
-    int col = nbCols - 1;
-    while (col > 0) {
-      boolean hasmoved = false;
-      for (GraphicalNode gnode : getNodeInColumn(col)) {
-        while (isCrossingNode(gnode)) {
-          moveDown(gnode);
-          hasmoved = true;
-        }
-      }
-      if (hasmoved && col < nbCols - 1) {
-        col++;
-      } else {
-        col--;
-      }
-    }
-  }
-
-  private boolean isCrossingArrow(GraphicalNode gnode) {
-    // search for the successors with the highest and lowest position
-    int maxUp = Integer.MAX_VALUE, maxDown = -1;
-    for (TaskGraphNode successorNode : gnode.node.getSuccessors()) {
-      GraphicalNode successor = getGraphicalNodeByID(successorNode.getID());
-      if (successor.row < maxUp) {
-        maxUp = successor.row;
-      }
-      if (successor.row > maxDown) {
-        maxDown = successor.row;
-      }
-    }
-
-    // Find all other nodes on the same column
-    List<GraphicalNode> otherNodes = this.getNodeInColumn(gnode.col);
-    otherNodes.remove(gnode);
-
-    // TODO Translate
-    // parcours des nodes sur la même colonne
-    List<TaskGraphNode> gnodeSuccessors = gnode.node.getSuccessors();
-    for (GraphicalNode otherNode : otherNodes) {
-      for (TaskGraphNode otherSuccessor : otherNode.node.getSuccessors()) {
-        GraphicalNode otherSuccessorNode = getGraphicalNodeByID(otherSuccessor.getID());
-        if (maxUp < gnode.row) {
-          // some arrows are going up
-          if (otherSuccessorNode.row <= gnode.row && !gnodeSuccessors.contains(otherSuccessor)) {
-            return true;
-          }
-        }
-        if (maxDown > gnode.row) {
-          // some arrow are going down
-          if (otherSuccessorNode.row >= gnode.row && !gnodeSuccessors.contains(otherSuccessor)) {
-            return true;
-          }
-        }
-      }
-    }
-    return false;
-  }
-
-  private void avoidCrossingLine() {
-    boolean restart;
-    do {
-      restart = false;
-      for (int col = 0; col < nbCols && restart == false; col++) {
-        List<GraphicalNode> list = getNodeInColumn(col);
-        if (list.size() > 1) {
-          for (GraphicalNode gnode : list) {
-            if (isCrossingArrow(gnode)) {
-              moveRight(gnode);
-              avoidCrossingNode();
-              // Stop processing and start over
-              restart = true;
-              break;
-            }
-          }
-        }
-      }
-    } while (restart);
-  }
-
-  private void removeEmptyColumn() {
-    for (int col = nbCols - 1; col >= 0; col--) {
-      if (this.getNodeInColumn(col).size() == 0) {
-        if (col != nbCols - 1) {
-          for (int c = col + 1; c < nbCols; c++) {
-            for (GraphicalNode gnode : getNodeInColumn(c)) {
-              gnode.col--;
-            }
-          }
-        }
-        nbCols--;
-      }
-    }
+    return myNodesById.get(id);
   }
 
   @Override
@@ -672,11 +379,18 @@ public class ActivityOnNodePertChart extends PertChart {
   public void paint(Graphics g) {
     this.buildPertChart();
     super.paint(g);
+    // Only the nodes and arrows which intersect the clip are painted, which is the visible part of the chart
+    // when it is scrolled.
+    Rectangle clip = g.getClipBounds();
     for (GraphicalNode myGraphicalNode : myGraphicalNodes) {
-      myGraphicalNode.paint(g);
+      if (clip == null || clip.intersects(myGraphicalNode.x, myGraphicalNode.y, getNodeWidth(), getNodeHeight())) {
+        myGraphicalNode.paint(g);
+      }
     }
     for (GraphicalArrow myGraphicalArrow : myGraphicalArrows) {
-      myGraphicalArrow.paintMe(g);
+      if (clip == null || clip.intersects(myGraphicalArrow.getBounds())) {
+        myGraphicalArrow.paintMe(g);
+      }
     }
   }
 
@@ -930,6 +644,14 @@ public class ActivityOnNodePertChart extends PertChart {
       this.to = to;
     }
 
+    /** @return rectangle which contains both nodes, and hence the arrow between them */
+    private Rectangle getBounds() {
+      Rectangle result = new Rectangle(from.x, from.y, getNodeWidth(), getNodeHeight());
+      result.add(new Rectangle(to.x, to.y, getNodeWidth(), getNodeHeight()));
+      result.grow(getxGap(), getArrowHeight());
+      return result;
+    }
+
     private void paintMe(Graphics g) {
       g.setColor(ARROW_COLOR);
 
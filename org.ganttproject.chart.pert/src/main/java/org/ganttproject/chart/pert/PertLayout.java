@@ -0,0 +1,370 @@
+/*
+Copyright 2026 BarD Software s.r.o., GanttProject Team
+
+This file is part of GanttProject, an opensource project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package org.ganttproject.chart.pert;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Places the nodes of the activity-on-node PERT chart into the cells of a grid. Successors are placed to the right
+ * of their predecessors, and then the nodes are moved so that the arrows don't go through the nodes and don't cross
+ * each other.
+ *
+ * @param <N> type of the nodes
+ */
+class PertLayout<N> {
+  private static class Position {
+    // Order in which the node was added to the grid
+    final int seq;
+    int row = -1;
+    int col = -1;
+
+    Position(int seq) {
+      this.seq = seq;
+    }
+  }
+
+  private final List<N> myNodes;
+  private final Function<N, List<N>> mySuccessors;
+
+  private final Map<N, Position> myPositions = new HashMap<>();
+
+  /** Nodes by the (row, column) cell. */
+  private final Map<Long, N> myCells = new HashMap<>();
+
+  /** Nodes of each column, in the order they were added. */
+  private final List<Set<N>> myColumns = new ArrayList<>();
+
+  /** Nodes which have the key node as a successor. */
+  private final Map<N, List<N>> myPredecessors = new HashMap<>();
+
+  private int myColumnCount;
+
+  PertLayout(List<N> nodes, Function<N, List<N>> successors) {
+    myNodes = nodes;
+    mySuccessors = successors;
+  }
+
+  void layout() {
+    process();
+    avoidCrossings();
+    removeEmptyColumns();
+  }
+
+  int getRow(N node) {
+    return myPositions.get(node).row;
+  }
+
+  int getColumn(N node) {
+    return myPositions.get(node).col;
+  }
+
+  int getColumnCount() {
+    return myColumnCount;
+  }
+
+  private static long cellKey(int row, int col) {
+    return ((long) row << 32) | (col & 0xffffffffL);
+  }
+
+  /**
+   * Places the nodes into the columns. The column of a node is the length of the longest path from a node without
+   * predecessors, which is calculated in a topological order. Nodes without predecessors are placed into
+   * the first column in the order of the nodes, and the nodes in the next columns are ordered by
+   * the position of their last predecessor in the previous column.
+   */
+  private void process() {
+    Map<N, Integer> inDegrees = new HashMap<>();
+    for (N node : myNodes) {
+      myPredecessors.put(node, new ArrayList<>());
+    }
+    for (N node : myNodes) {
+      for (N successor : mySuccessors.apply(node)) {
+        inDegrees.merge(successor, 1, Integer::sum);
+        List<N> predecessors = myPredecessors.computeIfAbsent(successor, key -> new ArrayList<>());
+        if (predecessors.isEmpty() || predecessors.get(predecessors.size() - 1) != node) {
+          predecessors.add(node);
+        }
+      }
+    }
+
+    Map<N, Integer> layers = new HashMap<>();
+    Deque<N> queue = new ArrayDeque<>();
+    for (N node : myNodes) {
+      if (!inDegrees.containsKey(node)) {
+        layers.put(node, 0);
+        queue.add(node);
+      }
+    }
+    int maxLayer = 0;
+    while (!queue.isEmpty()) {
+      N node = queue.poll();
+      int successorLayer = layers.get(node) + 1;
+      for (N successor : mySuccessors.apply(node)) {
+        layers.merge(successor, successorLayer, Math::max);
+        maxLayer = Math.max(maxLayer, successorLayer);
+        if (inDegrees.merge(successor, -1, Integer::sum) == 0) {
+          queue.add(successor);
+        }
+      }
+    }
+
+    for (N node : myNodes) {
+      Integer layer = layers.get(node);
+      if (layer != null && layer == 0) {
+        add(0, node);
+      }
+    }
+    for (int col = 0; col < maxLayer; col++) {
+      int nextCol = col + 1;
+      Map<N, Integer> lastPredecessorIdx = new LinkedHashMap<>();
+      int idx = 0;
+      for (N node : getNodesInColumn(col)) {
+        for (N successor : mySuccessors.apply(node)) {
+          Integer layer = layers.get(successor);
+          if (layer != null && layer == nextCol) {
+            lastPredecessorIdx.put(successor, idx);
+          }
+          idx++;
+        }
+      }
+      List<N> nextColNodes = new ArrayList<>(lastPredecessorIdx.keySet());
+      nextColNodes.sort(Comparator.comparingInt(lastPredecessorIdx::get));
+      for (N node : nextColNodes) {
+        add(nextCol, node);
+      }
+    }
+    // Nodes which are in a dependency cycle don't get a layer. There should be no cycles, but we don't want
+    // to lose the nodes anyway.
+    for (N node : myNodes) {
+      if (!myPositions.containsKey(node)) {
+        add(myColumnCount, node);
+      }
+    }
+  }
+
+  private void add(int col, N node) {
+    if (myColumnCount <= col) {
+      myColumnCount = col + 1;
+    }
+    // Nodes are added before any of them is moved, so the rows of a column are filled without gaps
+    int row = getColumnSet(col).size();
+    myPositions.put(node, new Position(myPositions.size()));
+    setPosition(node, row, col);
+  }
+
+  private void moveDown(N node) {
+    Position position = myPositions.get(node);
+    int row = position.row;
+    while (isOccupied(++row, position.col)) {
+      // yup, the body is empty. But there is ++row above.
+    }
+    setPosition(node, row, position.col);
+  }
+
+  /**
+   * Moves the node one column to the right together with all nodes reachable from it through the successors and
+   * through the nodes occupying the cells to the right of the moved nodes. Each of them is moved exactly once,
+   * even if it is reachable through many paths or through a dependency cycle.
+   */
+  private void moveRight(N node) {
+    Set<N> reachable = new HashSet<>();
+    Deque<N> queue = new ArrayDeque<>();
+    reachable.add(node);
+    queue.add(node);
+    while (!queue.isEmpty()) {
+      N next = queue.poll();
+      Position position = myPositions.get(next);
+      N occupant = myCells.get(cellKey(position.row, position.col + 1));
+      if (occupant != null && reachable.add(occupant)) {
+        queue.add(occupant);
+      }
+      for (N successor : mySuccessors.apply(next)) {
+        if (reachable.add(successor)) {
+          queue.add(successor);
+        }
+      }
+    }
+    // We move the nodes from right to left, so that every node moves into a cell which has already been vacated
+    List<N> movedNodes = new ArrayList<>(reachable);
+    movedNodes.sort(Comparator.comparingInt((N movedNode) -> myPositions.get(movedNode).col).reversed());
+    for (N movedNode : movedNodes) {
+      Position position = myPositions.get(movedNode);
+      int newCol = position.col + 1;
+      setPosition(movedNode, position.row, newCol);
+      if (newCol == myColumnCount) {
+        myColumnCount++;
+      }
+    }
+  }
+
+  /**
+   * Moves the node to the given cell and updates the cell and column indexes.
+   */
+  private void setPosition(N node, int row, int col) {
+    Position position = myPositions.get(node);
+    if (position.col != -1) {
+      myCells.remove(cellKey(position.row, position.col), node);
+      getColumnSet(position.col).remove(node);
+    }
+    position.row = row;
+    position.col = col;
+    myCells.put(cellKey(row, col), node);
+    getColumnSet(col).add(node);
+  }
+
+  private Set<N> getColumnSet(int col) {
+    while (myColumns.size() <= col) {
+      myColumns.add(new TreeSet<>(Comparator.comparingInt(node -> myPositions.get(node).seq)));
+    }
+    return myColumns.get(col);
+  }
+
+  private List<N> getNodesInColumn(int col) {
+    return col < myColumns.size() ? new ArrayList<>(myColumns.get(col)) : new ArrayList<>();
+  }
+
+  private boolean isOccupied(int row, int col) {
+    return myCells.containsKey(cellKey(row, col));
+  }
+
+  /**
+   * @return true if an arrow from a predecessor in one of the previous columns goes through another node
+   */
+  private boolean isCrossingNode(N node) {
+    Position position = myPositions.get(node);
+    for (N predecessor : myPredecessors.getOrDefault(node, Collections.emptyList())) {
+      int predecessorCol = myPositions.get(predecessor).col;
+      for (int col = position.col - 1; col > predecessorCol; col--) {
+        if (isOccupied(position.row, col)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return true if the arrows going up or down from the node cross the arrows of the other nodes in the same column
+   */
+  private boolean isCrossingArrow(N node) {
+    Position position = myPositions.get(node);
+    // search for the successors with the highest and lowest position
+    int maxUp = Integer.MAX_VALUE, maxDown = -1;
+    List<N> successors = mySuccessors.apply(node);
+    for (N successor : successors) {
+      int successorRow = myPositions.get(successor).row;
+      maxUp = Math.min(maxUp, successorRow);
+      maxDown = Math.max(maxDown, successorRow);
+    }
+    if (maxUp >= position.row && maxDown <= position.row) {
+      // all arrows are horizontal
+      return false;
+    }
+
+    for (N otherNode : getColumnSet(position.col)) {
+      if (otherNode == node) {
+        continue;
+      }
+      for (N otherSuccessor : mySuccessors.apply(otherNode)) {
+        int otherSuccessorRow = myPositions.get(otherSuccessor).row;
+        if (maxUp < position.row) {
+          // some arrows are going up
+          if (otherSuccessorRow <= position.row && !successors.contains(otherSuccessor)) {
+            return true;
+          }
+        }
+        if (maxDown > position.row) {
+          // some arrows are going down
+          if (otherSuccessorRow >= position.row && !successors.contains(otherSuccessor)) {
+            return true;
+          }
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Sweeps the columns from left to right. In each column, the nodes which the arrows from their predecessors
+   * would reach through other nodes are moved down first. This depends only on the columns to the left, which
+   * don't change until the end of the sweep. Then the nodes whose arrows cross the arrows of the other nodes in
+   * the column are moved right together with their successors, which changes only the columns to the right.
+   *
+   * Moving a node down may make the arrows from the previous columns cross, so the sweep is repeated until nothing
+   * moves, which usually takes one or two sweeps.
+   */
+  private void avoidCrossings() {
+    boolean hasMoved;
+    do {
+      hasMoved = false;
+      for (int col = 0; col < myColumnCount; col++) {
+        List<N> column = getNodesInColumn(col);
+        for (N node : column) {
+          while (isCrossingNode(node)) {
+            moveDown(node);
+            hasMoved = true;
+          }
+        }
+        if (column.size() > 1) {
+          for (N node : column) {
+            if (myPositions.get(node).col == col && isCrossingArrow(node)) {
+              moveRight(node);
+              hasMoved = true;
+            }
+          }
+        }
+      }
+    } while (hasMoved);
+  }
+
+  private void removeEmptyColumns() {
+    int[] newCols = new int[myColumnCount];
+    int emptyCount = 0;
+    for (int col = 0; col < myColumnCount; col++) {
+      if (col >= myColumns.size() || myColumns.get(col).isEmpty()) {
+        emptyCount++;
+      }
+      newCols[col] = col - emptyCount;
+    }
+    if (emptyCount == 0) {
+      return;
+    }
+    myCells.clear();
+    myColumns.clear();
+    for (Map.Entry<N, Position> entry : myPositions.entrySet()) {
+      Position position = entry.getValue();
+      position.col = newCols[position.col];
+      myCells.put(cellKey(position.row, position.col), entry.getKey());
+      getColumnSet(position.col).add(entry.getKey());
+    }
+    myColumnCount -= emptyCount;
+  }
+}
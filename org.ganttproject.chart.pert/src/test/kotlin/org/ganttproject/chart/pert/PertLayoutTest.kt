@@ -0,0 +1,117 @@
+/*
+Copyright 2026 BarD Software s.r.o., GanttProject Team
+
+This file is part of GanttProject, an opensource project management tool.
+
+GanttProject is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+GanttProject is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package org.ganttproject.chart.pert
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+
+class PertLayoutTest {
+  /**
+   * Lays out the graph of the given edges and checks that the nodes don't overlap and the arrows don't go
+   * through the nodes.
+   */
+  private fun layout(vararg edges: Pair<String, String>): Map<String, Pair<Int, Int>> {
+    val successors = edges.groupBy({ it.first }, { it.second })
+    val allNodes = edges.flatMap { listOf(it.first, it.second) }.distinct()
+    val layout = PertLayout(allNodes) { successors[it].orEmpty() }
+    layout.layout()
+    val cells = allNodes.associateWith { layout.getRow(it) to layout.getColumn(it) }
+    assertEquals(allNodes.size, cells.values.toSet().size, "Nodes share a cell: $cells")
+    edges.forEach { (from, to) ->
+      val fromCol = cells[from]!!.second
+      val (toRow, toCol) = cells[to]!!
+      assertTrue(fromCol < toCol, "$from is not to the left of $to: $cells")
+      // The arrow goes horizontally along the row of the successor, and it must not go through other nodes
+      (fromCol + 1 until toCol).forEach { col ->
+        assertTrue(cells.values.none { it == toRow to col }, "Arrow $from -> $to goes through ($toRow, $col): $cells")
+      }
+    }
+    assertEquals(cells.values.map { it.second }.distinct().size, layout.columnCount, "Empty columns: $cells")
+    return cells
+  }
+
+  @Test
+  fun `successors are placed in the next columns`() {
+    val cells = layout("A" to "B", "A" to "C", "B" to "D", "C" to "D")
+    assertEquals(mapOf("A" to (0 to 0), "B" to (0 to 1), "C" to (1 to 1), "D" to (0 to 2)), cells)
+  }
+
+  @Test
+  fun `node is moved down when an arrow would go through another node`() {
+    val cells = layout("A" to "B", "B" to "C", "A" to "C")
+    assertEquals(mapOf("A" to (0 to 0), "B" to (0 to 1), "C" to (1 to 2)), cells)
+  }
+
+  @Test
+  fun `node is moved right when its arrows cross the arrows of another node`() {
+    val cells = layout("A" to "P", "A" to "Q", "B" to "P", "B" to "R")
+    assertEquals(mapOf(
+      "A" to (0 to 1), "B" to (1 to 0), "P" to (1 to 2), "Q" to (0 to 2), "R" to (2 to 1)
+    ), cells)
+  }
+
+  @Test
+  fun `nodes reachable through many paths are moved right once`() {
+    // A is moved right together with its successors, and Q starts a chain of diamonds
+    val edges = mutableListOf("A" to "P", "A" to "Q", "B" to "P", "B" to "R")
+    val joins = (0 until 40).fold("Q") { prev, idx ->
+      edges.addAll(listOf(prev to "T$idx", prev to "U$idx", "T$idx" to "J$idx", "U$idx" to "J$idx"))
+      "J$idx"
+    }
+    val cells = layout(*edges.toTypedArray())
+    assertEquals(0 to 2, cells["Q"])
+    (0 until 40).forEach { idx ->
+      assertEquals(3 + 2 * idx, cells["T$idx"]!!.second)
+      assertEquals(3 + 2 * idx, cells["U$idx"]!!.second)
+      assertEquals(4 + 2 * idx, cells["J$idx"]!!.second)
+    }
+    assertEquals(0 to 82, cells[joins])
+  }
+
+  @Test
+  fun `nodes in a cycle are moved right with their predecessor`() {
+    val successors = mapOf(
+      "A" to listOf("P", "Q"), "B" to listOf("P", "R"), "Q" to listOf("X"), "X" to listOf("Y"), "Y" to listOf("X")
+    )
+    val nodes = listOf("A", "P", "Q", "B", "R", "X", "Y")
+    val layout = PertLayout(nodes) { successors[it].orEmpty() }
+    layout.layout()
+    assertEquals(
+      listOf(0 to 1, 1 to 2, 0 to 2, 1 to 0, 2 to 1, 0 to 3, 0 to 4),
+      nodes.map { layout.getRow(it) to layout.getColumn(it) }
+    )
+  }
+
+  @Test
+  fun `nodes without dependencies and nodes in cycles are placed`() {
+    val successors = mapOf("X" to listOf("Y"), "Y" to listOf("X"))
+    val layout = PertLayout(listOf("A", "B", "X", "Y")) { successors[it].orEmpty() }
+    layout.layout()
+    assertEquals(listOf(0 to 0, 1 to 0, 0 to 1, 0 to 2), listOf("A", "B", "X", "Y").map { layout.getRow(it) to layout.getColumn(it) })
+    assertEquals(3, layout.columnCount)
+  }
+
+  @Test
+  fun `long chains are laid out in one row`() {
+    val nodes = (0 until 2000).map { "T$it" }
+    val cells = layout(*nodes.zipWithNext().toTypedArray())
+    nodes.forEachIndexed { idx, node -> assertEquals(0 to idx, cells[node]) }
+  }
+}
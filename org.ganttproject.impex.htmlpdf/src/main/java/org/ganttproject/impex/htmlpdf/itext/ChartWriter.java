@@ -18,8 +18,10 @@ Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
 package org.ganttproject.impex.htmlpdf.itext;
 
+import biz.ganttproject.core.chart.grid.Offset;
 import com.itextpdf.text.Document;
 import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.PdfContentByte;
 import com.itextpdf.text.pdf.PdfTemplate;
 import com.itextpdf.text.pdf.PdfWriter;
 import net.sourceforge.ganttproject.GanttExportSettings;
@@ -29,29 +31,39 @@ import net.sourceforge.ganttproject.chart.TimelineChart;
 import net.sourceforge.ganttproject.chart.export.ChartDimensions;
 import net.sourceforge.ganttproject.chart.export.ChartImageVisitor;
 import net.sourceforge.ganttproject.chart.export.TreeTableApi;
+import net.sourceforge.ganttproject.task.Task;
 import org.ganttproject.impex.htmlpdf.fonts.TTFontCache;
 
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
 
 /**
- * Provides functions for writing charts to PDF writer.
+ * Provides functions for writing charts to PDF writer. Charts which fit a single page with a reasonable scale
+ * are written to a single page, and larger charts are split into multiple pages.
  *
  * @author dbarashev (Dmitry Barashev)
  */
 class ChartWriter implements ChartImageVisitor {
+  // Charts which would be scaled down more than this to fit a single page are split into multiple pages
+  private static final float MIN_SCALE = 0.6f;
+
   private final Document myDoc;
   private final TimelineChart myChart;
   private final GanttExportSettings myExportSettings;
   private final PdfWriter myWriter;
   private final TTFontCache myFontCache;
 
-  private float myScale;
-  private float myYShift;
+  private ChartDimensions myDimensions;
   private PdfTemplate myTemplate;
   private Graphics2D myGraphics;
   private final String myCharset;
   private final FontSubstitutionModel mySubstitutions;
   private int myOffsetY;
+  private int myVerticalOffset;
+  private ChartModel myChartModel;
 
   ChartWriter(TimelineChart chart, PdfWriter writer, Document doc, GanttExportSettings exportSettings,
       TTFontCache fontCache, FontSubstitutionModel substitutionModel, String charset) {
@@ -72,21 +84,187 @@ class ChartWriter implements ChartImageVisitor {
     setupChart(myExportSettings);
     var printChartApi = (PrintChartApiImpl)myChart.asPrintChartApi();
     printChartApi.buildImage(myExportSettings, this);
-    myGraphics.dispose();
-    myWriter.getDirectContent().addTemplate(myTemplate, myScale, 0, 0, myScale, myDoc.leftMargin(), myYShift);
+
+    Rectangle page = myDoc.getPageSize();
+    final float width = page.getWidth() - myDoc.leftMargin() - myDoc.rightMargin();
+    final float height = page.getHeight() - myDoc.bottomMargin() - myDoc.topMargin();
+    final float fitScale = Math.min(width / myDimensions.getFullWidth(), height / myDimensions.getChartHeight());
+    if (fitScale >= MIN_SCALE) {
+      paintFullChart();
+      myGraphics.dispose();
+      float yShift = height - myDimensions.getChartHeight() * fitScale + myDoc.bottomMargin();
+      myWriter.getDirectContent().addTemplate(myTemplate, fitScale, 0, 0, fitScale, myDoc.leftMargin(), yShift);
+    } else {
+      myGraphics.dispose();
+      writeTiles(width / MIN_SCALE, height / MIN_SCALE);
+    }
+  }
+
+  /**
+   * Splits the chart into page-sized tiles. The table columns on the left and the logo and header band on the top
+   * are repeated on every page, unless they take too much of the page, and the rest of the chart is split
+   * into rows and columns of tiles.
+   *
+   * The logo and the table are painted once, and all pages place the same template clipped to the tile bounds.
+   * The chart is painted into a separate template per tile, which covers only the dates and rows of the tile,
+   * so that a PDF viewer doesn't render the whole chart on every page. The tile templates are built one after
+   * another, because the chart model is reconfigured for each tile.
+   *
+   * @param pageWidth printable page width in chart coordinates
+   * @param pageHeight printable page height in chart coordinates
+   */
+  private void writeTiles(float pageWidth, float pageHeight) {
+    final int fullWidth = myDimensions.getFullWidth();
+    final int fullHeight = myDimensions.getChartHeight();
+    final int frozenWidth = myDimensions.getTreeWidth() < pageWidth / 2 ? myDimensions.getTreeWidth() : 0;
+    final int headerHeight = myDimensions.getLogoHeight() + myDimensions.getTableHeaderHeight();
+    final int frozenHeight = headerHeight < pageHeight / 2 ? headerHeight : 0;
+    final float bodyWidth = pageWidth - frozenWidth;
+    final float bodyHeight = pageHeight - frozenHeight;
+    final int columnCount = (int) Math.ceil((fullWidth - frozenWidth) / bodyWidth);
+    final int rowCount = (int) Math.ceil((fullHeight - frozenHeight) / bodyHeight);
+
+    final ChartState initialState = new ChartState();
+    try {
+      for (int row = 0; row < rowCount; row++) {
+        for (int column = 0; column < columnCount; column++) {
+          if (row > 0 || column > 0) {
+            myDoc.newPage();
+          }
+          float bodyX = frozenWidth + column * bodyWidth;
+          float bodyY = frozenHeight + row * bodyHeight;
+          writeTilePiece(0, 0, frozenWidth, frozenHeight, 0, 0, initialState);
+          writeTilePiece(bodyX, 0, bodyWidth, frozenHeight, frozenWidth, 0, initialState);
+          writeTilePiece(0, bodyY, frozenWidth, bodyHeight, 0, frozenHeight, initialState);
+          writeTilePiece(bodyX, bodyY, bodyWidth, bodyHeight, frozenWidth, frozenHeight, initialState);
+        }
+      }
+    } finally {
+      initialState.restore();
+    }
+  }
+
+  /**
+   * Places the rectangle of the chart with the top left corner at (srcX, srcY) on the current page
+   * at (dstX, dstY) relative to the top left corner of the printable page area. All values are in chart coordinates,
+   * with Y axis going down. The part of the rectangle over the table comes from the table template, and the part
+   * over the chart is painted into its own template.
+   */
+  private void writeTilePiece(float srcX, float srcY, float srcWidth, float srcHeight, float dstX, float dstY,
+      ChartState initialState) {
+    srcWidth = Math.min(srcWidth, myDimensions.getFullWidth() - srcX);
+    srcHeight = Math.min(srcHeight, myDimensions.getChartHeight() - srcY);
+    if (srcWidth <= 0 || srcHeight <= 0) {
+      return;
+    }
+    final int treeWidth = myDimensions.getTreeWidth();
+    final float tableWidth = Math.min(srcWidth, treeWidth - srcX);
+    if (tableWidth > 0) {
+      writeTablePiece(srcX, srcY, tableWidth, srcHeight, dstX, dstY);
+    }
+    final float chartX = Math.max(srcX, treeWidth);
+    final float chartWidth = srcX + srcWidth - chartX;
+    if (chartWidth > 0) {
+      final int x = Math.round(chartX) - treeWidth;
+      final int y = Math.round(srcY);
+      final int width = Math.round(chartX + chartWidth) - treeWidth - x;
+      final int height = Math.round(srcY + srcHeight) - y;
+      if (width > 0 && height > 0) {
+        PdfTemplate template = paintChartTile(x, y, width, height, initialState);
+        myWriter.getDirectContent().addTemplate(template, MIN_SCALE, 0, 0, MIN_SCALE,
+            myDoc.leftMargin() + (dstX + chartX - srcX) * MIN_SCALE,
+            myDoc.getPageSize().getHeight() - myDoc.topMargin() - (dstY + height) * MIN_SCALE);
+      }
+    }
+  }
+
+  private void writeTablePiece(float srcX, float srcY, float srcWidth, float srcHeight, float dstX, float dstY) {
+    final float pageLeft = myDoc.leftMargin();
+    final float pageTop = myDoc.getPageSize().getHeight() - myDoc.topMargin();
+    PdfContentByte content = myWriter.getDirectContent();
+    content.saveState();
+    content.rectangle(pageLeft + dstX * MIN_SCALE, pageTop - (dstY + srcHeight) * MIN_SCALE,
+        srcWidth * MIN_SCALE, srcHeight * MIN_SCALE);
+    content.clip();
+    content.newPath();
+    content.addTemplate(myTemplate, MIN_SCALE, 0, 0, MIN_SCALE,
+        pageLeft + (dstX - srcX) * MIN_SCALE,
+        pageTop - dstY * MIN_SCALE - (myDimensions.getChartHeight() - srcY) * MIN_SCALE);
+    content.restoreState();
+  }
+
+  /**
+   * Paints the rectangle of the chart area with the top left corner at (x, y) into a new template. The chart model
+   * is reconfigured to start at the bottom unit which contains x and to paint the rows from the one which
+   * contains y, so only the dates and rows of the tile are painted. The timeline header is painted when
+   * the rectangle overlaps it.
+   */
+  private PdfTemplate paintChartTile(int x, int y, int width, int height, ChartState initialState) {
+    final int headerHeight = myDimensions.getLogoHeight() + myDimensions.getTableHeaderHeight();
+    // The top of the tile in the model coordinates. Rows below the header are shifted up to it.
+    final int modelTop = Math.min(y, headerHeight);
+    final int rowShift = Math.max(y - headerHeight, 0);
+
+    Date startDate = initialState.startDate;
+    int startX = 0;
+    for (Offset offset : initialState.bottomOffsets) {
+      if (offset.getOffsetPixels() > x) {
+        break;
+      }
+      startDate = offset.getOffsetEnd();
+      startX = offset.getOffsetPixels();
+    }
+    myChartModel.setStartDate(startDate);
+    myChartModel.setBounds(new Dimension(x + width - startX, modelTop + height));
+
+    int verticalOffset = myVerticalOffset + rowShift;
+    if (initialState.visibleTasks != null) {
+      final List<Task> tasks = initialState.visibleTasks;
+      final int rowHeight = Math.max(myChartModel.calculateRowHeight(), 1);
+      final int lastRow = Math.min((rowShift + height) / rowHeight + 1, tasks.size());
+      final int firstRow = Math.min(rowShift / rowHeight, lastRow);
+      myChartModel.setVisibleTasks(tasks.subList(firstRow, lastRow));
+      verticalOffset -= firstRow * rowHeight;
+    }
+    myChartModel.setVerticalOffset(verticalOffset);
+
+    PdfTemplate template = myWriter.getDirectContent().createTemplate(width, height);
+    Graphics2D g = template.createGraphics(width, height, myFontCache.getFontMapper(mySubstitutions, myCharset));
+    try {
+      g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+      g.translate(startX - x, -modelTop);
+      g.clip(new java.awt.Rectangle(x - startX, modelTop, width, height));
+      myChartModel.paint(g);
+    } finally {
+      g.dispose();
+    }
+    return template;
+  }
+
+  /**
+   * The chart model state which is changed when the tiles are painted.
+   */
+  private class ChartState {
+    final Date startDate = myChartModel.getStartDate();
+    final Dimension bounds = myChartModel.getBounds();
+    final List<Offset> bottomOffsets = new ArrayList<>(myChartModel.getBottomUnitOffsets());
+    final List<Task> visibleTasks = myExportSettings.getVisibleTasks() == null
+        ? null : Collections.unmodifiableList(new ArrayList<>(myExportSettings.getVisibleTasks()));
+
+    void restore() {
+      myChartModel.setStartDate(startDate);
+      myChartModel.setBounds(bounds);
+      myChartModel.setVerticalOffset(myVerticalOffset);
+      if (visibleTasks != null) {
+        myChartModel.setVisibleTasks(visibleTasks);
+      }
+    }
   }
 
   private Graphics2D getGraphics(ChartDimensions d) {
     if (myGraphics == null) {
+      myDimensions = d;
       myTemplate = myWriter.getDirectContent().createTemplate(d.getFullWidth(), d.getChartHeight());
-      Rectangle page = myDoc.getPageSize();
-      final float width = page.getWidth() - myDoc.leftMargin() - myDoc.rightMargin();
-      final float height = page.getHeight() - myDoc.bottomMargin() - myDoc.topMargin();
-
-      final float xscale = width / d.getFullWidth();
-      final float yscale = height / d.getChartHeight();
-      myScale = Math.min(xscale, yscale);
-      myYShift = height - d.getChartHeight() * myScale + myDoc.bottomMargin();
       myGraphics = myTemplate.createGraphics(d.getFullWidth(), d.getChartHeight(),
           myFontCache.getFontMapper(mySubstitutions, myCharset));
       myGraphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
@@ -117,6 +295,7 @@ class ChartWriter implements ChartImageVisitor {
       g.translate(0, d.getTableHeaderHeight());
       myOffsetY += d.getTableHeaderHeight();
     }
+    myVerticalOffset = treeTableApi.getVerticalOffset().invoke();
     var table = treeTableApi.getTableComponent().invoke();
     if (table != null) {
       table.print(g);
@@ -127,9 +306,14 @@ class ChartWriter implements ChartImageVisitor {
 
   @Override
   public void acceptChart(ChartDimensions d, ChartModel model) {
-    Graphics2D g = getGraphics(d);
-    g.translate(d.getTreeWidth(), -myOffsetY);
-    g.clip(new java.awt.Rectangle(d.getChartWidth(), d.getChartHeight()));
-    model.paint(g);
+    getGraphics(d);
+    // The chart is painted when we know if it fits a single page
+    myChartModel = model;
+  }
+
+  private void paintFullChart() {
+    myGraphics.translate(myDimensions.getTreeWidth(), -myOffsetY);
+    myGraphics.clip(new java.awt.Rectangle(myDimensions.getChartWidth(), myDimensions.getChartHeight()));
+    myChartModel.paint(myGraphics);
   }
 }
@@ -409,20 +409,17 @@ class ThemeImpl extends StylesheetImpl implements PdfPageEvent, ITextStylesheet
   }
 
   private void writeGanttChart() {
-    isColontitleEnabled = false;
-    writeColontitle(getProject().getProjectName(),
-        GanttLanguage.getInstance().getMediumDateFormat().format(new Date()),
-        GanttLanguage.getInstance().getText("ganttChart"), String.valueOf(myWriter.getPageNumber()));
+    // Chart may take a few pages, so the colontitle is written when each page ends
+    isColontitleEnabled = true;
+    myLeftSubcolontitle = GanttLanguage.getInstance().getText("ganttChart");
     ChartWriter ganttChartWriter = new ChartWriter(myUIFacade.getGanttChart(), myWriter, myDoc,
         myExporter.createExportSettings(), myFontCache, mySubstitutionModel, getCharset());
     ganttChartWriter.write();
   }
 
   private void writeResourceChart() {
-    isColontitleEnabled = false;
-    writeColontitle(getProject().getProjectName(),
-        GanttLanguage.getInstance().getMediumDateFormat().format(new Date()),
-        GanttLanguage.getInstance().getText("resourcesChart"), String.valueOf(myWriter.getPageNumber()));
+    isColontitleEnabled = true;
+    myLeftSubcolontitle = GanttLanguage.getInstance().getText("resourcesChart");
     ChartWriter resourceChartWriter = new ChartWriter(myUIFacade.getResourceChart(), myWriter, myDoc,
         myExporter.createExportSettings(), myFontCache, mySubstitutionModel, getCharset());
     resourceChartWriter.write();